@@ -0,0 +1,243 @@
+package org.solrmarc.driver;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ *  Adjusts the number of documents sent to Solr in each chunk, and the number of chunks that are sent
+ *  concurrently, based on how long Solr is taking to process each chunk.  This allows the indexer to back
+ *  off while Solr is busy (merging segments or replicating) and to speed back up when it isn't.
+ *  <p>
+ *  The number of chunks in flight is enforced by the thread that assembles the chunks, which must call
+ *  acquireSlot before handing each chunk to the solrj executor.
+ *  </p>
+ *  <p>
+ *  The policy used is AIMD (additive increase, multiplicative decrease):  Each chunk that Solr accepts within
+ *  the target latency increases the chunk size by a fixed increment, and every so many such chunks increases the
+ *  number of chunks in flight by one.  A chunk that takes longer than the target latency, or that fails with
+ *  a transient error, halves both the chunk size and the number of chunks in flight.  After a decrease, further
+ *  decreases are ignored until one target latency period has passed, so that the chunks that were already in flight
+ *  when Solr slowed down don't drive the values all the way to their minimums.
+ *  </p>
+ *  <p>
+ *  The controller is configured through the following properties:
+ *  <ul>
+ *  <li>solrmarc.solrj.adaptive - true to enable the controller (default false)</li>
+ *  <li>solrmarc.solrj.adaptive.latency - the target time in milliseconds for Solr to process a chunk (default 2000)</li>
+ *  <li>solrmarc.indexer.chunksize.min and solrmarc.indexer.chunksize.max - bounds for the chunk size
+ *      (default 1/8 and 4 times solrmarc.indexer.chunksize)</li>
+ *  <li>solrmarc.solrj.threadcount.min and solrmarc.solrj.threadcount.max - bounds for the number of chunks in flight
+ *      (default 1 and 3 times solrmarc.solrj.threadcount)</li>
+ *  </ul>
+ *  </p>
+ */
+public class AdaptiveChunkController
+{
+    private final static Logger logger = Logger.getLogger(AdaptiveChunkController.class);
+    private final static double SMOOTHING = 0.2;
+
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final int chunkSizeIncrement;
+    private final int minInFlight;
+    private final int maxInFlight;
+    private final long targetLatencyNanos;
+
+    private volatile int chunkSize;
+    private int inFlight;
+    private int running = 0;
+    private int successesSinceChange = 0;
+    private long lastDecreaseTime = 0L;
+    private double smoothedLatencyNanos = 0.0;
+    private double smoothedDocsPerSecond = 0.0;
+
+    AdaptiveChunkController(int chunkSize, int minChunkSize, int maxChunkSize, int inFlight, int minInFlight, int maxInFlight,
+                            long targetLatencyMillis, ThreadPoolExecutor solrExecutor)
+    {
+        this.minChunkSize = Math.max(1, minChunkSize);
+        this.maxChunkSize = Math.max(this.minChunkSize, maxChunkSize);
+        this.minInFlight = Math.max(1, minInFlight);
+        this.maxInFlight = Math.max(this.minInFlight, maxInFlight);
+        this.chunkSize = clamp(chunkSize, this.minChunkSize, this.maxChunkSize);
+        this.inFlight = clamp(inFlight, this.minInFlight, this.maxInFlight);
+        this.chunkSizeIncrement = Math.max(1, this.minChunkSize / 2);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, targetLatencyMillis));
+        // the number of chunks in flight is limited by acquireSlot, so the executor must be able to run the maximum number at once
+        if (solrExecutor.getMaximumPoolSize() < this.maxInFlight)
+        {
+            solrExecutor.setMaximumPoolSize(this.maxInFlight);
+        }
+        if (solrExecutor.getCorePoolSize() < this.maxInFlight)
+        {
+            solrExecutor.setCorePoolSize(this.maxInFlight);
+        }
+        logger.info("Adaptive chunking enabled: chunk size " + this.chunkSize + " [" + this.minChunkSize + ".." + this.maxChunkSize +
+                    "], chunks in flight " + this.inFlight + " [" + this.minInFlight + ".." + this.maxInFlight +
+                    "], target latency " + targetLatencyMillis + " ms");
+    }
+
+    /**
+     * Creates a controller from the system properties described above, or returns null if adaptive chunking is not enabled.
+     *
+     * @param chunkSize     the initial chunk size
+     * @param inFlight      the initial number of chunks in flight
+     * @param maxChunkSize  an upper limit on the chunk size imposed by the size of the document queue
+     * @param solrExecutor  the executor that sends the chunks, its pool is enlarged if needed to run the maximum number of chunks in flight
+     * @return              the controller, or null
+     */
+    static AdaptiveChunkController fromProperties(int chunkSize, int inFlight, int maxChunkSize, ThreadPoolExecutor solrExecutor)
+    {
+        if (!Boolean.parseBoolean(System.getProperty("solrmarc.solrj.adaptive", "false")))
+        {
+            return(null);
+        }
+        return new AdaptiveChunkController(chunkSize,
+                getIntProperty("solrmarc.indexer.chunksize.min", Math.max(1, chunkSize / 8)),
+                Math.min(maxChunkSize, getIntProperty("solrmarc.indexer.chunksize.max", chunkSize * 4)),
+                inFlight,
+                getIntProperty("solrmarc.solrj.threadcount.min", 1),
+                getIntProperty("solrmarc.solrj.threadcount.max", inFlight * 3),
+                getIntProperty("solrmarc.solrj.adaptive.latency", 2000),
+                solrExecutor);
+    }
+
+    private static int getIntProperty(String name, int defaultValue)
+    {
+        try {
+            return Integer.parseInt(System.getProperty(name, "" + defaultValue));
+        }
+        catch (NumberFormatException nfe)
+        {
+            return defaultValue;
+        }
+    }
+
+    private static int clamp(int value, int min, int max)
+    {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * @return  the number of documents that should be placed in the next chunk
+     */
+    int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    synchronized int getInFlight()
+    {
+        return inFlight;
+    }
+
+    /**
+     * Blocks until fewer than the current number of allowed chunks are in flight, and then claims a slot for
+     * another chunk.  Each call must be matched by a call to releaseSlot once the chunk has been sent.
+     *
+     * @throws InterruptedException  if interrupted while waiting for a slot
+     */
+    synchronized void acquireSlot() throws InterruptedException
+    {
+        while (running >= inFlight)
+        {
+            wait();
+        }
+        running++;
+    }
+
+    synchronized void releaseSlot()
+    {
+        running--;
+        notifyAll();
+    }
+
+    /**
+     * Called after Solr has accepted a chunk of documents.
+     *
+     * @param numDocs       the number of documents in the chunk
+     * @param elapsedNanos  how long the addDocs call took
+     */
+    synchronized void chunkSucceeded(int numDocs, long elapsedNanos)
+    {
+        updateAverages(numDocs, elapsedNanos);
+        if (elapsedNanos > targetLatencyNanos)
+        {
+            decrease("latency " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms for " + numDocs + " docs");
+            return;
+        }
+        int oldChunkSize = chunkSize;
+        int oldInFlight = inFlight;
+        // only grow the chunk size if the chunks are actually being filled
+        if (numDocs >= chunkSize)
+        {
+            chunkSize = clamp(chunkSize + chunkSizeIncrement, minChunkSize, maxChunkSize);
+        }
+        if (++successesSinceChange >= inFlight)
+        {
+            successesSinceChange = 0;
+            inFlight = clamp(inFlight + 1, minInFlight, maxInFlight);
+        }
+        if (oldChunkSize != chunkSize || oldInFlight != inFlight)
+        {
+            applyAndLog(oldChunkSize, oldInFlight, "latency " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms for " + numDocs + " docs");
+        }
+    }
+
+    /**
+     * Called when sending a chunk of documents to Solr failed with an error that indicates that Solr is overloaded
+     * or unavailable, rather than an error caused by the content of the documents.
+     *
+     * @param numDocs  the number of documents in the chunk
+     */
+    synchronized void chunkFailed(int numDocs)
+    {
+        decrease("transient failure sending " + numDocs + " docs");
+    }
+
+    private void decrease(String reason)
+    {
+        long now = System.nanoTime();
+        successesSinceChange = 0;
+        if (lastDecreaseTime != 0L && now - lastDecreaseTime < targetLatencyNanos)
+        {
+            return;
+        }
+        lastDecreaseTime = now;
+        int oldChunkSize = chunkSize;
+        int oldInFlight = inFlight;
+        chunkSize = clamp(chunkSize / 2, minChunkSize, maxChunkSize);
+        inFlight = clamp(inFlight / 2, minInFlight, maxInFlight);
+        if (oldChunkSize != chunkSize || oldInFlight != inFlight)
+        {
+            applyAndLog(oldChunkSize, oldInFlight, reason);
+        }
+    }
+
+    private void updateAverages(int numDocs, long elapsedNanos)
+    {
+        double docsPerSecond = (elapsedNanos > 0) ? numDocs * 1.0e9 / elapsedNanos : 0.0;
+        if (smoothedLatencyNanos == 0.0)
+        {
+            smoothedLatencyNanos = elapsedNanos;
+            smoothedDocsPerSecond = docsPerSecond;
+        }
+        else
+        {
+            smoothedLatencyNanos += SMOOTHING * (elapsedNanos - smoothedLatencyNanos);
+            smoothedDocsPerSecond += SMOOTHING * (docsPerSecond - smoothedDocsPerSecond);
+        }
+    }
+
+    private void applyAndLog(int oldChunkSize, int oldInFlight, String reason)
+    {
+        if (inFlight > oldInFlight)
+        {
+            notifyAll();
+        }
+        logger.info("Adaptive chunking: chunk size " + oldChunkSize + " -> " + chunkSize + ", chunks in flight " + oldInFlight + " -> " + inFlight +
+                    " (" + reason + "; average latency " + TimeUnit.NANOSECONDS.toMillis((long)smoothedLatencyNanos) + " ms, average throughput " +
+                    Math.round(smoothedDocsPerSecond) + " docs/sec per chunk)");
+    }
+}
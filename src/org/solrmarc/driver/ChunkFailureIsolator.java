@@ -0,0 +1,312 @@
+package org.solrmarc.driver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+import org.apache.solr.common.SolrInputDocument;
+import org.solrmarc.solr.SolrProxy;
+import org.solrmarc.solr.SolrRuntimeException;
+
+/**
+ *  Finds the documents responsible for the failure of a chunk sent to Solr, so that all of the other
+ *  documents in the chunk can still be added to the index.
+ *  <p>
+ *  If the failure was transient (a timeout, a connection failure or an HTTP 503 response), the chunk is
+ *  simply resent after a delay, doubling the delay after each attempt, up to <code>solrmarc.solrj.retry.count</code>
+ *  times.  The initial delay is <code>solrmarc.solrj.retry.backoff</code> milliseconds.
+ *  </p>
+ *  <p>
+ *  Otherwise the chunk is bisected: both halves are sent to Solr concurrently, and any half that fails is
+ *  itself bisected, until each failing sub-chunk consists of a single document which is then reported as an error.
+ *  The sub-chunks are sent on a separate executor from the one running the original chunks, since the original
+ *  chunk waits for its sub-chunks to finish.  The documents found to be bad are remembered, by a hash of their
+ *  content, and removed from any subsequent failing chunk before it is resent, so those documents don't need to be
+ *  found again.  Since it is the content that is remembered rather than the id, a corrected version of a bad record
+ *  is sent as usual.  The Indexer keeps a single isolator, so that this memory covers the whole run.
+ *  </p>
+ */
+public class ChunkFailureIsolator
+{
+    private final static Logger logger = Logger.getLogger(ChunkFailureIsolator.class);
+    private final Indexer indexer;
+    private final ExecutorService executor;
+    private final Set<Long> knownBadDocs = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+
+    /**
+     * @param indexer   the indexer whose solrProxy the sub-chunks are sent to, and whose counts are updated
+     * @param executor  the executor to send the sub-chunks on, if null the sub-chunks are sent one after another
+     *                  on the calling thread
+     */
+    public ChunkFailureIsolator(Indexer indexer, ExecutorService executor)
+    {
+        this.indexer = indexer;
+        this.executor = executor;
+        int retries = 3;
+        try {
+            retries = Integer.parseInt(System.getProperty("solrmarc.solrj.retry.count", "3"));
+        }
+        catch (NumberFormatException nfe)
+        {
+            retries = 3;
+        }
+        this.maxRetries = Math.max(0, retries);
+        long backoff = 500L;
+        try {
+            backoff = Long.parseLong(System.getProperty("solrmarc.solrj.retry.backoff", "500"));
+        }
+        catch (NumberFormatException nfe)
+        {
+            backoff = 500L;
+        }
+        this.retryBackoffMillis = Math.max(1L, backoff);
+    }
+
+    /**
+     * Called after sending the chunk to Solr failed.  Sends all of the documents in the chunk that Solr will accept,
+     * and reports the ones that it won't accept as errors.
+     *
+     * @param chunk  the documents in the chunk that failed
+     * @param e      the exception thrown when the chunk was sent
+     * @param errQ   if not null, the queue to which records that caused an error are added
+     */
+    public void isolate(Collection<RecordAndDoc> chunk, Exception e, BlockingQueue<RecordAndDoc> errQ)
+    {
+        List<RecordAndDoc> remaining = removeKnownBad(chunk, e, errQ);
+        if (remaining.isEmpty()) return;
+        Exception failure = e;
+        if (remaining.size() < chunk.size() || SolrProxy.isTransientError(e))
+        {
+            // either the known bad documents were the problem, or Solr was temporarily unavailable:
+            // in both cases the rest of the chunk is worth resending as a unit before starting to bisect
+            failure = send(remaining, SolrProxy.isTransientError(e), errQ);
+            if (failure == null) return;
+        }
+        if (SolrProxy.isTransientError(failure))
+        {
+            logger.error("Giving up on chunk of " + remaining.size() + " documents after " + maxRetries + " retries");
+            reportAll(remaining, failure, errQ);
+            return;
+        }
+        logger.warn("Failed on chunk of " + remaining.size() + " documents -- starting with id : " + remaining.get(0).getRec().getControlNumber());
+        logger.info("   exception reported is: ", failure);
+        bisect(remaining, failure, errQ);
+    }
+
+    private void bisect(List<RecordAndDoc> chunk, Exception e, BlockingQueue<RecordAndDoc> errQ)
+    {
+        List<List<RecordAndDoc>> pending = new ArrayList<List<RecordAndDoc>>();
+        split(chunk, e, errQ, pending);
+        while (!pending.isEmpty())
+        {
+            List<Exception> failures = sendAll(pending, errQ);
+            List<List<RecordAndDoc>> next = new ArrayList<List<RecordAndDoc>>();
+            for (int i = 0; i < pending.size(); i++)
+            {
+                Exception failure = failures.get(i);
+                if (failure == null) continue;
+                if (SolrProxy.isTransientError(failure))
+                {
+                    logger.error("Giving up on sub-chunk of " + pending.get(i).size() + " documents after " + maxRetries + " retries");
+                    reportAll(pending.get(i), failure, errQ);
+                }
+                else
+                {
+                    split(pending.get(i), failure, errQ, next);
+                }
+            }
+            pending = next;
+        }
+    }
+
+    /**
+     * Divides the chunk into two halves which are added to pending, or if the chunk only contains one document
+     * that document is reported as an error.
+     */
+    private void split(List<RecordAndDoc> chunk, Exception e, BlockingQueue<RecordAndDoc> errQ, List<List<RecordAndDoc>> pending)
+    {
+        if (chunk.size() == 1)
+        {
+            RecordAndDoc recDoc = chunk.get(0);
+            knownBadDocs.add(IndexOutputCache.docHash(recDoc.getDoc()));
+            indexer.singleRecordSolrError(recDoc, e, errQ);
+            return;
+        }
+        int half = chunk.size() / 2;
+        pending.add(chunk.subList(0, half));
+        pending.add(chunk.subList(half, chunk.size()));
+    }
+
+    private List<Exception> sendAll(List<List<RecordAndDoc>> chunks, final BlockingQueue<RecordAndDoc> errQ)
+    {
+        List<Exception> failures = new ArrayList<Exception>(chunks.size());
+        if (executor == null)
+        {
+            for (List<RecordAndDoc> chunk : chunks)
+            {
+                failures.add(send(chunk, false, errQ));
+            }
+            return(failures);
+        }
+        List<Future<Exception>> futures = new ArrayList<Future<Exception>>(chunks.size());
+        for (final List<RecordAndDoc> chunk : chunks)
+        {
+            futures.add(executor.submit(new Callable<Exception>()
+            {
+                @Override
+                public Exception call()
+                {
+                    return send(chunk, false, errQ);
+                }
+            }));
+        }
+        for (Future<Exception> future : futures)
+        {
+            failures.add(waitFor(future));
+        }
+        return(failures);
+    }
+
+    private Exception waitFor(Future<Exception> future)
+    {
+        boolean interrupted = false;
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    return future.get();
+                }
+                catch (InterruptedException e)
+                {
+                    // the sub-chunks must still be sent while shutting down, so keep waiting
+                    interrupted = true;
+                }
+                catch (ExecutionException e)
+                {
+                    return (e.getCause() instanceof Exception) ? (Exception)e.getCause() : new RuntimeException(e.getCause());
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends the documents to Solr, resending them after a delay if the failure was transient.
+     *
+     * @param backoffFirst  true if the previous attempt failed with a transient error, and so the first attempt must be delayed
+     * @return  null if Solr accepted the documents, otherwise the exception from the final attempt
+     */
+    private Exception send(List<RecordAndDoc> chunk, boolean backoffFirst, BlockingQueue<RecordAndDoc> errQ)
+    {
+        List<SolrInputDocument> docs = new ArrayList<SolrInputDocument>(chunk.size());
+        for (RecordAndDoc recDoc : chunk)
+        {
+            docs.add(recDoc.getDoc());
+        }
+        long backoff = retryBackoffMillis;
+        int attempt = backoffFirst ? 1 : 0;
+        while (true)
+        {
+            if (attempt > 0 && !sleep(backoff * (1L << Math.min(attempt - 1, 16))))
+            {
+                return new SolrRuntimeException("Interrupted while waiting to resend documents");
+            }
+            try
+            {
+                int cnt = indexer.solrProxy.addDocs(docs);
+                indexer.addToCnt(2, cnt);
+                for (RecordAndDoc recDoc : chunk)
+                {
+                    indexer.documentSent(recDoc);
+                }
+                addErrorRecords(chunk, errQ);
+                return(null);
+            }
+            catch (Exception e)
+            {
+                if (!SolrProxy.isTransientError(e) || attempt >= maxRetries)
+                {
+                    return(e);
+                }
+                attempt++;
+                logger.warn("Transient error sending " + chunk.size() + " documents, retry " + attempt + " of " + maxRetries + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+            return(true);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return(false);
+        }
+    }
+
+    private List<RecordAndDoc> removeKnownBad(Collection<RecordAndDoc> chunk, Exception e, BlockingQueue<RecordAndDoc> errQ)
+    {
+        List<RecordAndDoc> remaining = new ArrayList<RecordAndDoc>(chunk.size());
+        for (RecordAndDoc recDoc : chunk)
+        {
+            if (!knownBadDocs.isEmpty() && knownBadDocs.contains(IndexOutputCache.docHash(recDoc.getDoc())))
+            {
+                logger.debug("Skipping document already known to be bad : " + recDoc.getRec().getControlNumber());
+                indexer.singleRecordSolrError(recDoc, e, errQ);
+            }
+            else
+            {
+                remaining.add(recDoc);
+            }
+        }
+        return(remaining);
+    }
+
+    private void reportAll(List<RecordAndDoc> chunk, Exception e, BlockingQueue<RecordAndDoc> errQ)
+    {
+        for (RecordAndDoc recDoc : chunk)
+        {
+            indexer.singleRecordSolrError(recDoc, e, errQ);
+        }
+    }
+
+    private void addErrorRecords(List<RecordAndDoc> chunk, BlockingQueue<RecordAndDoc> errQ)
+    {
+        if (errQ == null) return;
+        for (RecordAndDoc recDoc : chunk)
+        {
+            if (!recDoc.errLocs.isEmpty())
+            {
+                errQ.add(recDoc);
+            }
+        }
+    }
+
+    /**
+     * @return  the number of distinct documents that have been found to be rejected by Solr
+     */
+    public int getKnownBadCount()
+    {
+        return knownBadDocs.size();
+    }
+}
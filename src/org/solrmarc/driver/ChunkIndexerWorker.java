@@ -2,13 +2,12 @@ package org.solrmarc.driver;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 import org.apache.log4j.Logger;
 import org.apache.solr.common.SolrInputDocument;
 import org.marc4j.marc.Record;
+import org.solrmarc.solr.SolrProxy;
 
 /**
  *  <h1>ChunkIndexerThread</h1>
@@ -17,10 +16,9 @@ import org.marc4j.marc.Record;
  *  the issue where one bad document in a batch will cause all subsequent solr input documents in
  *  the batch to be skipped.
  *  <p>
- *  To accomplish this the class will divide the batch into several smaller segments, and re-try sending
- *  those smaller batches.   Eventually a sub-batch containing the problem record will be sent one-by-one
- *  to insure that all valid documents are correctly sent to Solr, while only the documents containing
- *  errors are skipped.
+ *  To accomplish this the class hands a failed batch to a ChunkFailureIsolator, which will re-try transient
+ *  failures, and otherwise repeatedly divide the batch in half and re-send those smaller batches, to insure
+ *  that all valid documents are correctly sent to Solr, while only the documents containing errors are skipped.
  *  </p>
  *  <p>
  *  If the parameter errQ is not null the records that cause an error will be appended to that list and
@@ -39,6 +37,8 @@ public class ChunkIndexerWorker implements Runnable
     final Collection<RecordAndDoc> recordAndDocs;
     final Indexer indexer;
     final BlockingQueue<RecordAndDoc> errQ;
+    final AdaptiveChunkController chunkController;
+    final ChunkFailureIsolator failureIsolator;
     String firstDocId = null;
     String lastDocId = null;
     boolean trackProgress = false;
@@ -46,6 +46,19 @@ public class ChunkIndexerWorker implements Runnable
     public ChunkIndexerWorker(String threadName, Collection<RecordAndDoc> recordAndDocs,
             BlockingQueue<RecordAndDoc> errQ, Indexer indexer)
     {
+        this(threadName, recordAndDocs, errQ, indexer, null, indexer.getFailureIsolator());
+    }
+
+    /**
+     * @param chunkController  if not null, is informed how long Solr took to handle this chunk
+     * @param failureIsolator  used to find and skip the documents that caused the chunk to fail
+     */
+    public ChunkIndexerWorker(String threadName, Collection<RecordAndDoc> recordAndDocs,
+            BlockingQueue<RecordAndDoc> errQ, Indexer indexer, AdaptiveChunkController chunkController,
+            ChunkFailureIsolator failureIsolator)
+    {
+        this.chunkController = chunkController;
+        this.failureIsolator = failureIsolator;
         this.threadName = threadName;
         this.recordAndDocs = recordAndDocs;
         this.docs = buildDocList(recordAndDocs);
@@ -88,9 +101,18 @@ public class ChunkIndexerWorker implements Runnable
 //            }
 //        }
         logger.debug("Adding chunk of "+inChunk+ " documents -- starting with id : "+firstDocId);
+        sendChunk(inChunk);
+    }
+
+    private void sendChunk(int inChunk)
+    {
         try {
             // If all goes well, this is all we need. Add the docs, count the docs, and, if desired, return the docs that contain errors
+            long start = System.nanoTime();
             int cnt = indexer.solrProxy.addDocs(docs);
+            long elapsedNanos = System.nanoTime() - start;
+            if (chunkController != null) chunkController.chunkSucceeded(inChunk, elapsedNanos);
+            if (indexer.metrics != null) indexer.metrics.recordChunkLatency(elapsedNanos);
             indexer.addToCnt(2, cnt);
             logger.debug("Added chunk of "+cnt+ " documents -- starting with id : "+firstDocId);
             if (trackProgress || logger.isDebugEnabled())
@@ -98,66 +120,19 @@ public class ChunkIndexerWorker implements Runnable
                 logger.info("Total sent so far: " + indexer.getCounts()[2]);
             }
 
-            if (errQ != null)
+            for (RecordAndDoc recDoc : recordAndDocs)
             {
-                for (RecordAndDoc recDoc : recordAndDocs)
+                indexer.documentSent(recDoc);
+                if (errQ != null && !recDoc.errLocs.isEmpty())
                 {
-                    if (!recDoc.errLocs.isEmpty())
-                    {
-                        errQ.add(recDoc);
-                    }
+                    errQ.add(recDoc);
                 }
             }
         }
         catch (Exception e)
         {
-            Iterator<RecordAndDoc> recDocI = recordAndDocs.iterator();
-
-            if (inChunk == 1)
-            {
-                RecordAndDoc recDoc = recDocI.next();
-                indexer.singleRecordSolrError(recDoc, e, errQ);
-            }
-            else if (inChunk > 20)
-            {
-                logger.warn("Failed on chunk of "+inChunk+ " documents -- starting with id : "+firstDocId);
-                logger.info("   exception reported is: ", e);
-                int newChunkSize = inChunk / 4;
-                Runnable subChunk[] = new Runnable[4];
-
-                for (int i = 0; i < 4; i++)
-                {
-                    List<RecordAndDoc> newRecDoc = new ArrayList<>(newChunkSize);
-                    String id1 = null, id2 = null;
-                    for (int j = 0; j < newChunkSize; j++)
-                    {
-                        if (recDocI.hasNext())
-                        {
-                            RecordAndDoc recDoc = recDocI.next();
-                            newRecDoc.add(recDoc);
-                            String docID = controlNumOrDefault(recDoc.getRec(), "RecCnt_" + (newChunkSize * 4 + j));
-                            if (id1 == null) id1 = docID;
-                            id2 = docID;
-                        }
-                    }
-                    // Split the chunk into 4 sub-chunks, and start a ChunkIndexerThread for each of them.
-                    subChunk[i] = new ChunkIndexerWorker("SolrUpdateOnError_"+id1+"_"+id2, newRecDoc, errQ, indexer);
-                    subChunk[i].run();
-                }
-            }
-            // less than 20 in the chunk resubmit records one-by-one
-            else
-            {
-                logger.warn("Failed on chunk of "+inChunk+ " documents -- starting with id : "+firstDocId);
-                logger.warn("   exception reported is: ", e);
-                // error on bulk update, resubmit one-by-one
-                while (recDocI.hasNext())
-                {
-                    RecordAndDoc recDoc = recDocI.next();
-
-                    indexer.indexSingleDocument(recDoc);
-                }
-            }
+            if (chunkController != null && SolrProxy.isTransientError(e)) chunkController.chunkFailed(inChunk);
+            failureIsolator.isolate(recordAndDocs, e, errQ);
         }
     }
 }
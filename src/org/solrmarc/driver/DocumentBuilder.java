@@ -0,0 +1,234 @@
+package org.solrmarc.driver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+
+/**
+ *  Assembles the SolrInputDocument for each record from the values produced by the index specifications.
+ *  <p>
+ *  Each Indexer (and so each indexing thread) has its own builder, which is reused for every record it processes.
+ *  The document itself can't be reused, since it is handed on to be sent to Solr, but the builder sizes its
+ *  field map from the largest document built so far, gives a field that receives several values a list sized
+ *  for all of them rather than growing one a value at a time, and checks the values of a field that must be
+ *  unique with an open addressing hash set, which is kept and reused for the next record without allocating
+ *  anything per value, rather than scanning the field's values for each new one.
+ *  </p>
+ *  <p>
+ *  Errors are added as values of the field <code>marc_error</code> of the same document, in the order they occur.
+ *  </p>
+ *  <p>
+ *  Values are only ever added through <code>SolrInputDocument.addField(name, value)</code>, which every supported
+ *  version of SolrJ has, unlike the setters of SolrInputField (which take an index-time boost up to SolrJ 6 and
+ *  don't from SolrJ 7 on).  The list is sized by growing the one SolrJ creates for a field's second value.
+ *  </p>
+ */
+final class DocumentBuilder
+{
+    // a set grown larger than this for an unusual record isn't kept for reuse
+    private final static int MAX_POOLED_SET = 8192;
+
+    private SolrInputDocument doc = null;
+    private int expectedFields = 16;
+    private final Map<String, ValueSet> uniqueValues = new HashMap<String, ValueSet>();
+    private final List<ValueSet> spareSets = new ArrayList<ValueSet>();
+
+    /**
+     * Starts a new document, discarding anything left from the previous one.
+     */
+    void start()
+    {
+        doc = new SolrInputDocument(new LinkedHashMap<String, SolrInputField>(expectedFields * 4 / 3 + 1));
+        releaseUniqueSets();
+    }
+
+    /**
+     * @return  the document, which the builder no longer refers to
+     */
+    SolrInputDocument finish()
+    {
+        if (doc.size() > expectedFields) expectedFields = doc.size();
+        SolrInputDocument result = doc;
+        doc = null;
+        releaseUniqueSets();
+        return(result);
+    }
+
+    boolean containsField(String fieldName)
+    {
+        return(doc.containsKey(fieldName));
+    }
+
+    /**
+     * Adds the values produced by an index specification to each of the fields it names, honoring the
+     * specification's "only if empty" and "only if unique" settings.
+     */
+    void addFieldData(AbstractValueIndexer<?> indexer, Collection<String> data)
+    {
+        if (data.size() == 0) return;
+        for (String fieldName : indexer.getSolrFieldNames())
+        {
+            if (indexer.getOnlyIfEmpty() && doc.containsKey(fieldName))
+            {
+                continue;
+            }
+            addValues(fieldName, data, indexer.getOnlyIfUnique());
+        }
+    }
+
+    /**
+     * Adds values to a field.
+     *
+     * @param onlyIfUnique  if true, values already present in the field aren't added again
+     */
+    void addValues(String fieldName, Collection<String> data, boolean onlyIfUnique)
+    {
+        SolrInputField field = doc.getField(fieldName);
+        ValueSet seen = onlyIfUnique ? uniqueSetFor(fieldName, field) : uniqueValues.get(fieldName);
+        int remaining = data.size();
+        for (String dataVal : data)
+        {
+            remaining--;
+            if (seen != null && !seen.add(dataVal) && onlyIfUnique)
+            {
+                continue;
+            }
+            field = append(fieldName, field, dataVal, remaining);
+        }
+    }
+
+    /**
+     * Adds a single value to a field.
+     */
+    void addValue(String fieldName, String value)
+    {
+        ValueSet seen = uniqueValues.get(fieldName);
+        if (seen != null) seen.add(value);
+        append(fieldName, doc.getField(fieldName), value, 0);
+    }
+
+    /**
+     * Adds a value to a field, which holds a single value as itself and several values as a list, the same way
+     * SolrInputDocument.addField does.
+     *
+     * @param remaining  the number of values still to be added to the field after this one, used to size the list
+     */
+    @SuppressWarnings("unchecked")
+    private SolrInputField append(String fieldName, SolrInputField field, String value, int remaining)
+    {
+        Object current = (field != null) ? field.getValue() : null;
+        if (current instanceof List)
+        {
+            ((List<Object>) current).add(value);
+            return(field);
+        }
+        doc.addField(fieldName, value);
+        if (field == null)
+        {
+            return(doc.getField(fieldName));
+        }
+        // the field now holds the list SolrJ made for its first two values, sized for the rest of them
+        Object values = field.getValue();
+        if (remaining > 1 && values instanceof ArrayList)
+        {
+            ((ArrayList<Object>) values).ensureCapacity(2 + remaining);
+        }
+        return(field);
+    }
+
+    /**
+     * @return  the set of the values of the field, created from the values it already has the first time it is needed
+     */
+    private ValueSet uniqueSetFor(String fieldName, SolrInputField field)
+    {
+        ValueSet seen = uniqueValues.get(fieldName);
+        if (seen == null)
+        {
+            seen = spareSets.isEmpty() ? new ValueSet() : spareSets.remove(spareSets.size() - 1);
+            if (field != null)
+            {
+                for (Object value : field.getValues())
+                {
+                    seen.add(value);
+                }
+            }
+            uniqueValues.put(fieldName, seen);
+        }
+        return(seen);
+    }
+
+    private void releaseUniqueSets()
+    {
+        for (ValueSet seen : uniqueValues.values())
+        {
+            if (seen.capacity() > MAX_POOLED_SET) continue;
+            seen.clear();
+            spareSets.add(seen);
+        }
+        uniqueValues.clear();
+    }
+
+    /**
+     * A set of the values of one field, as an open addressing table that is cleared rather than discarded
+     * when the next record is started.
+     */
+    private final static class ValueSet
+    {
+        private final static Object NULL_VALUE = new Object();
+        private Object table[] = new Object[32];
+        private int size = 0;
+
+        boolean add(Object value)
+        {
+            if (value == null) value = NULL_VALUE;
+            if ((size + 1) * 2 > table.length) grow();
+            int mask = table.length - 1;
+            int hash = value.hashCode();
+            for (int slot = (hash ^ (hash >>> 16)) & mask; ; slot = (slot + 1) & mask)
+            {
+                if (table[slot] == null)
+                {
+                    table[slot] = value;
+                    size++;
+                    return(true);
+                }
+                if (table[slot].equals(value)) return(false);
+            }
+        }
+
+        private void grow()
+        {
+            Object old[] = table;
+            table = new Object[old.length * 2];
+            size = 0;
+            for (Object value : old)
+            {
+                if (value != null) add(value);
+            }
+        }
+
+        int size()
+        {
+            return(size);
+        }
+
+        int capacity()
+        {
+            return(table.length);
+        }
+
+        void clear()
+        {
+            if (size > 0) Arrays.fill(table, null);
+            size = 0;
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package org.solrmarc.driver;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import joptsimple.OptionSet;
 
 import org.apache.log4j.Level;
@@ -26,6 +31,9 @@ import org.solrmarc.index.indexer.AbstractValueIndexer;
 import org.solrmarc.index.indexer.IndexerSpecException;
 import org.solrmarc.index.indexer.IndexerSpecException.eErrorSeverity;
 import org.solrmarc.index.indexer.ValueIndexerFactory;
+import org.solrmarc.marc.MarcFileSplitter;
+import org.solrmarc.marc.MarcMappedLazyReader;
+import org.solrmarc.marc.MarcMultiplexReader;
 import org.solrmarc.marc.SolrMarcMarcReaderFactory;
 import org.solrmarc.solr.DevNullProxy;
 import org.solrmarc.solr.SolrCoreLoader;
@@ -54,8 +62,11 @@ public class IndexDriver extends BootableMain
     protected ValueIndexerFactory indexerFactory = null;
 
     protected List<AbstractValueIndexer<?>> indexers;
+    protected File fingerprintFile = null;
+    protected boolean fullReindex = false;
     protected Indexer indexer;
     protected MarcReader reader;
+    protected List<String> inputFiles;
     protected SolrProxy solrProxy;
     protected int[] numIndexed;
     protected String[] args;
@@ -97,9 +108,12 @@ public class IndexDriver extends BootableMain
         indexerFactory = ValueIndexerFactory.initialize(homeDirStrs);
         initializeFromOptions();
 
-        List<String> inputFiles = options.valuesOf(files);
+        inputFiles = options.valuesOf(files);
         logger.info("Opening input files: " + Arrays.toString(inputFiles.toArray()));
-        this.configureReader(inputFiles);
+        if (!useParallelFileReaders())
+        {
+            this.configureReader(inputFiles);
+        }
         if (deleteRecordByIdFile.value(options) != null)
         {
             this.processDeletes();
@@ -113,24 +127,12 @@ public class IndexDriver extends BootableMain
         File deleteFile = deleteRecordByIdFile.value(options);
         if (deleteFile.exists() && deleteFile.canRead())
         {
-            try
-            {
-                BufferedReader delReader = new BufferedReader(new FileReader(deleteFile));
-                String line;
-                while ((line = delReader.readLine()) != null)
-                {
-                    indexer.delQ.add(line.trim());
-                }
-                delReader.close();
-            }
-            catch (FileNotFoundException e)
-            {
-                e.printStackTrace();
-            }
-            catch (IOException e)
-            {
-                e.printStackTrace();
-            }
+            // the file is read a batch at a time while the deletes are sent, at the end of processing
+            indexer.setDeleteIdsFile(deleteFile);
+        }
+        else
+        {
+            logger.error("Unable to read delete-by-id file: " + deleteFile.getPath());
         }
     }
 
@@ -173,6 +175,12 @@ public class IndexDriver extends BootableMain
             logger.error("Exiting...");
             System.exit(2);
         }
+        catch (IllegalArgumentException iae)
+        {
+            logger.error(iae.getMessage());
+            logger.error("Exiting...");
+            System.exit(2);
+        }
         List<IndexerSpecException> exceptions = this.indexerFactory.getValidationExceptions();
         if (!exceptions.isEmpty())
         {
@@ -185,9 +193,34 @@ public class IndexDriver extends BootableMain
 
     final static String [] solrmarcPropertyStrings = {
             "solrmarc.indexer.chunksize",
+            "solrmarc.indexer.chunksize.min",
+            "solrmarc.indexer.chunksize.max",
             "solrmarc.indexer.buffersize",
+            "solrmarc.indexer.chunk.linger",
             "solrmarc.indexer.threadcount",
             "solrmarc.solrj.threadcount",
+            "solrmarc.solrj.threadcount.min",
+            "solrmarc.solrj.threadcount.max",
+            "solrmarc.solrj.adaptive",
+            "solrmarc.solrj.adaptive.latency",
+            "solrmarc.solrj.inflight",
+            "solrmarc.solrj.retry.count",
+            "solrmarc.solrj.retry.backoff",
+            "solrmarc.delete.chunksize",
+            "solrmarc.metrics.interval",
+            "solrmarc.output.cache",
+            "solrmarc.output.cache.salt",
+            "solrmarc.indexer.fingerprints",
+            "solrmarc.indexer.partial",
+            "solrmarc.indexer.full.reindex",
+            "solrmarc.indexer.idfield",
+            "solrmarc.indexer.share.extractions",
+            "solrmarc.indexer.compiled.specs",
+            "solrmarc.indexer.compiled.scripts",
+            "solrmarc.indexer.compiled.scripts.dir",
+            "solrmarc.reader.threadcount",
+            "solrmarc.reader.preserve.order",
+            "solrmarc.reader.split.size",
             "solrmarc.track.solr.progress",
             "solrmarc.terminate.on.marc.exception",
             "solrmarc.output.redirect",
@@ -226,10 +259,36 @@ public class IndexDriver extends BootableMain
     }
 
     private void configureReader(List<String> inputFilenames)
+    {
+        reader = makeReader(inputFilenames);
+    }
+
+    private MarcReader makeReader(List<String> inputFilenames)
+    {
+        if (useLazyDecoding())
+        {
+            return makeLazyReader(inputFilenames);
+        }
+        try
+        {
+            return MarcReaderFactory.makeReader((MarcReaderConfig)readerConfig, ValueIndexerFactory.instance().getHomeDirs(), inputFilenames);
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        catch (NoClassDefFoundError ncdfe)
+        {
+            logger.warn("Using SolrMarc with a marc4j version < 2.8 uses deprecated code in SolrMarc");
+            return SolrMarcMarcReaderFactory.instance().makeReader(readerProps, ValueIndexerFactory.instance().getHomeDirs(), inputFilenames);
+        }
+    }
+
+    private MarcReader makeReader(InputStream input)
     {
         try
         {
-            reader = MarcReaderFactory.makeReader((MarcReaderConfig)readerConfig, ValueIndexerFactory.instance().getHomeDirs(), inputFilenames);
+            return MarcReaderFactory.makeReader((MarcReaderConfig)readerConfig, ValueIndexerFactory.instance().getHomeDirs(), input);
         }
         catch (IOException e)
         {
@@ -238,10 +297,164 @@ public class IndexDriver extends BootableMain
         catch (NoClassDefFoundError ncdfe)
         {
             logger.warn("Using SolrMarc with a marc4j version < 2.8 uses deprecated code in SolrMarc");
-            reader = SolrMarcMarcReaderFactory.instance().makeReader(readerProps, ValueIndexerFactory.instance().getHomeDirs(), inputFilenames);
+            return SolrMarcMarcReaderFactory.instance().makeReader(readerProps, ValueIndexerFactory.instance().getHomeDirs(), input);
         }
     }
 
+    /**
+     * Determines whether binary MARC files should be read via a MarcMappedLazyReader, which memory-maps the file
+     * and only decodes the subfields of a data field when they are first accessed.  This is enabled by setting
+     * marc.lazy_decode to true, and requires a version of marc4j that supports MarcReaderConfig.
+     *
+     * @return true if binary MARC files should be read lazily
+     */
+    private boolean useLazyDecoding()
+    {
+        return (readerConfig != null && Boolean.parseBoolean(PropertyUtils.getProperty(readerProps, "marc.lazy_decode", "false")));
+    }
+
+    private MarcReader makeLazyReader(List<String> inputFilenames)
+    {
+        List<MarcReader> readers = new ArrayList<MarcReader>(inputFilenames.size());
+        try
+        {
+            for (String inputFilename : inputFilenames)
+            {
+                File inputFile = new File(inputFilename);
+                if (MarcFileSplitter.isBinaryMarc(inputFile))
+                {
+                    MarcReader lazyReader = new MarcMappedLazyReader(inputFile, readerConfig.isPermissiveReader(), readerConfig.toUtf8(), readerConfig.getDefaultEncoding());
+                    readers.add(MarcReaderFactory.decorateMarcReader(lazyReader, readerConfig, ValueIndexerFactory.instance().getHomeDirs()));
+                }
+                else
+                {
+                    readers.add(MarcReaderFactory.makeReader(readerConfig, ValueIndexerFactory.instance().getHomeDirs(), inputFilename));
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        if (readers.size() == 1) return(readers.get(0));
+        return new MarcMultiplexReader(readers, inputFilenames);
+    }
+
+    private MarcReader makeLazyReader(MarcFileSplitter.Segment segment) throws IOException
+    {
+        MarcReader lazyReader = new MarcMappedLazyReader(segment.map(), readerConfig.isPermissiveReader(), readerConfig.toUtf8(), readerConfig.getDefaultEncoding());
+        return MarcReaderFactory.decorateMarcReader(lazyReader, readerConfig, ValueIndexerFactory.instance().getHomeDirs());
+    }
+
+    private int getNumReaderThreads()
+    {
+        try {
+            return Integer.parseInt(System.getProperty("solrmarc.reader.threadcount", "1"));
+        }
+        catch (NumberFormatException nfe)
+        {
+            return 1;
+        }
+    }
+
+    /**
+     * Determines whether each of the input files should be read on its own thread, rather than sequentially
+     * via a single multiplexed reader.  This requires the multi-threaded indexer, more than one input file,
+     * and solrmarc.reader.threadcount to be greater than 1.
+     *
+     * @return true if the input files should be read in parallel
+     */
+    private boolean useParallelFileReaders()
+    {
+        if (!(indexer instanceof ThreadedIndexer) || getNumReaderThreads() <= 1) return(false);
+        return (inputFiles.size() > 1 || canSplitInputFile());
+    }
+
+    private long getSplitSegmentSize()
+    {
+        try {
+            return Long.parseLong(System.getProperty("solrmarc.reader.split.size", "128")) * 1024L * 1024L;
+        }
+        catch (NumberFormatException nfe)
+        {
+            return 128L * 1024L * 1024L;
+        }
+    }
+
+    /**
+     * Determines whether a single input file can be split into several byte ranges that are parsed in parallel.
+     * This is only possible for a binary MARC file that is larger than solrmarc.reader.split.size megabytes,
+     * and only if consecutive records aren't being combined, since the records to be combined could
+     * straddle a split point.
+     *
+     * @return true if the single input file should be split
+     */
+    private boolean canSplitInputFile()
+    {
+        if (inputFiles.size() != 1) return(false);
+        String combineRecords = PropertyUtils.getProperty(readerProps, "marc.combine_records");
+        if (combineRecords != null && combineRecords.length() > 0) return(false);
+        File inputFile = new File(inputFiles.get(0));
+        return (inputFile.length() > getSplitSegmentSize() && MarcFileSplitter.isBinaryMarc(inputFile));
+    }
+
+    private int[] indexWithParallelFileReaders()
+    {
+        if (inputFiles.size() == 1)
+        {
+            return indexWithSplitInputFile();
+        }
+        boolean preserveOrder = Boolean.parseBoolean(System.getProperty("solrmarc.reader.preserve.order", "false"));
+        logger.info("Reading " + inputFiles.size() + " input files using " + getNumReaderThreads() + " reader threads" +
+                    (preserveOrder ? ", preserving file order" : ""));
+        MultiFileMarcReaderThread.MarcReaderOpener opener = new MultiFileMarcReaderThread.MarcReaderOpener()
+        {
+            @Override
+            public MarcReader openReader(String inputFilename) throws IOException
+            {
+                return makeReader(Collections.singletonList(inputFilename));
+            }
+        };
+        return ((ThreadedIndexer)indexer).indexToSolr(inputFiles, opener, getNumReaderThreads(), preserveOrder);
+    }
+
+    /**
+     * Splits the single input file into byte ranges aligned on record boundaries, and parses those ranges in parallel.
+     * The records are always forwarded to the indexer in file order, so that the record counts used in error reports
+     * are the same as they would be if the file were read sequentially.
+     *
+     * @return  array containing number of records read, number of records indexed, and number of records sent to solr
+     */
+    private int[] indexWithSplitInputFile()
+    {
+        File inputFile = new File(inputFiles.get(0));
+        final Map<String, MarcFileSplitter.Segment> segments = new LinkedHashMap<String, MarcFileSplitter.Segment>();
+        try
+        {
+            for (MarcFileSplitter.Segment segment : new MarcFileSplitter(inputFile).split(getSplitSegmentSize()))
+            {
+                segments.put(segment.toString(), segment);
+            }
+        }
+        catch (IOException e)
+        {
+            logger.warn("Unable to split input file " + inputFile + ", reading it sequentially", e);
+            configureReader(inputFiles);
+            return indexer.indexToSolr(reader);
+        }
+        logger.info("Reading " + inputFile + " as " + segments.size() + " segments using " + getNumReaderThreads() + " reader threads");
+        MultiFileMarcReaderThread.MarcReaderOpener opener = new MultiFileMarcReaderThread.MarcReaderOpener()
+        {
+            @Override
+            public MarcReader openReader(String segmentName) throws IOException
+            {
+                MarcFileSplitter.Segment segment = segments.get(segmentName);
+                return useLazyDecoding() ? makeLazyReader(segment) : makeReader(segment.openStream());
+            }
+        };
+        return ((ThreadedIndexer)indexer).indexToSolr(new ArrayList<String>(segments.keySet()), opener, getNumReaderThreads(), true);
+    }
+
     protected  void configureIndexer(String indexSpecifications, boolean multiThreaded)
             throws IllegalAccessException, InstantiationException, IOException
     {
@@ -259,13 +472,59 @@ public class IndexDriver extends BootableMain
             specFiles[i++] = specFile;
         }
         indexers = indexerFactory.createValueIndexers(specFiles);
+        String fingerprintFileName = System.getProperty("solrmarc.indexer.fingerprints");
+        // partial updates must be asked for on each run, they never follow from the fingerprint file alone
+        boolean partialUpdate = Boolean.parseBoolean(System.getProperty("solrmarc.indexer.partial", "false"));
+        fullReindex = Boolean.parseBoolean(System.getProperty("solrmarc.indexer.full.reindex", "false"));
+        List<AbstractValueIndexer<?>> changedIndexers = null;
+        String idFieldName = System.getProperty("solrmarc.indexer.idfield", "id");
+        Set<String> changedFields = new LinkedHashSet<String>();
+        if (fingerprintFileName != null)
+        {
+            fingerprintFile = new File(fingerprintFileName);
+        }
+        if (partialUpdate)
+        {
+            if (fingerprintFile == null)
+            {
+                throw new IllegalArgumentException("solrmarc.indexer.partial requires solrmarc.indexer.fingerprints to name the file of "
+                        + "index specification fingerprints saved by a full reindex");
+            }
+            changedIndexers = indexerFactory.getChangedValueIndexers(indexers, fingerprintFile, idFieldName, changedFields);
+            if (changedIndexers == null)
+            {
+                throw new IllegalArgumentException("No index specification fingerprints in " + fingerprintFile.getPath()
+                        + ", a partial update needs those saved by a full reindex (solrmarc.indexer.full.reindex=true)");
+            }
+            if (changedFields.isEmpty())
+            {
+                throw new IllegalArgumentException("No index specifications changed since the fingerprints in " + fingerprintFile.getPath()
+                        + " were saved, so a partial update would change nothing; run without solrmarc.indexer.partial to index the records");
+            }
+            logger.info("Sending atomic updates for the " + changedFields.size() + " field(s) whose index specifications changed: " + changedFields);
+            if (!fullReindex)
+            {
+                logger.warn("The changed fields will only be updated for the records in this input, and the fingerprints will not be saved; "
+                        + "set solrmarc.indexer.full.reindex=true when the input is the whole catalog");
+            }
+        }
+        else if (fingerprintFile != null && !fullReindex)
+        {
+            logger.info("Index specification fingerprints are only saved to " + fingerprintFile.getPath()
+                    + " by a run with solrmarc.indexer.full.reindex=true");
+        }
+        List<AbstractValueIndexer<?>> indexersToRun = (changedIndexers != null) ? changedIndexers : indexers;
         boolean includeErrors = Boolean.parseBoolean(PropertyUtils.getProperty(readerProps, "marc.include_errors", "false"));
         boolean returnErrors = Boolean.parseBoolean(PropertyUtils.getProperty(readerProps, "marc.return_errors", "false"));
         int chunkSize = Integer.parseInt(System.getProperty("solrmarc.indexer.chunksize", "640"));
         int bufferSize = Integer.parseInt(System.getProperty("solrmarc.indexer.buffersize", "640"));
         indexer = null;
-        if (multiThreaded) indexer = new ThreadedIndexer(indexers, solrProxy, bufferSize, chunkSize);
-        else               indexer = new Indexer(indexers, solrProxy);
+        if (multiThreaded) indexer = new ThreadedIndexer(indexersToRun, solrProxy, bufferSize, chunkSize);
+        else               indexer = new Indexer(indexersToRun, solrProxy);
+        if (changedIndexers != null)
+        {
+            indexer.setAtomicUpdate(idFieldName, changedFields);
+        }
 
         if (returnErrors)
         {
@@ -354,9 +613,18 @@ public class IndexDriver extends BootableMain
         startTime = System.currentTimeMillis();
         long endTime = startTime;
 
+        boolean completed = false;
         try
         {
-            numIndexed = indexer.indexToSolr(reader);
+            if (reader == null && useParallelFileReaders())
+            {
+                numIndexed = indexWithParallelFileReaders();
+            }
+            else
+            {
+                numIndexed = indexer.indexToSolr(reader);
+            }
+            completed = true;
         }
         catch (Exception e)
         {
@@ -374,6 +642,11 @@ public class IndexDriver extends BootableMain
             Runtime.getRuntime().removeShutdownHook(shutdownHook);
         }
         indexer.endProcessing();
+        if (fingerprintFile != null && fullReindex && completed && !indexer.shuttingDown)
+        {
+            saveFingerprints();
+        }
+
 
         boolean perMethodReport = Boolean.parseBoolean(PropertyUtils.getProperty(readerProps, "solrmarc.method.report", "false"));
         reportResultsAndTime(numIndexed, startTime, endTime, indexer, (indexer.shuttingDown) ? false : perMethodReport);
@@ -400,6 +673,30 @@ public class IndexDriver extends BootableMain
         }
     }
 
+    /**
+     * Saves the fingerprints of the index specifications at the end of a run declared to be a full reindex, which
+     * records that every record in the index was built with the current specifications.  After a partial update
+     * in which some documents could not be sent (such as those for records not yet in Solr, which an atomic update
+     * can't create) they are not saved, since those documents don't have the changed fields yet.
+     */
+    protected void saveFingerprints()
+    {
+        if (indexer.atomicUpdateFields != null && indexer.getSendFailedCount() > 0)
+        {
+            logger.warn(indexer.getSendFailedCount() + " record(s) could not be updated, so the index specification fingerprints are not saved; "
+                    + "index those records without solrmarc.indexer.partial");
+            return;
+        }
+        try
+        {
+            indexerFactory.saveFingerprints(indexers, fingerprintFile);
+        }
+        catch (IOException e)
+        {
+            logger.error("Unable to save index specification fingerprints to " + fingerprintFile.getPath(), e);
+        }
+    }
+
     protected void reportResultsAndTime(int[] numIndexed, long startTime, long endTime, Indexer indexer, boolean perMethodReport)
     {
         logger.info("" + numIndexed[0] + " records read");
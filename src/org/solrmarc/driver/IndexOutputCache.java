@@ -0,0 +1,345 @@
+package org.solrmarc.driver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.marc4j.marc.ControlField;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+
+/**
+ *  An optional on-disk record of what was sent to Solr by previous runs, so that re-indexing a whole catalog
+ *  after a small change only does the work for the records that are actually affected.
+ *  <p>
+ *  For each record (identified by its 001) the cache stores two 64 bit hashes: a hash of the content of the record
+ *  combined with a fingerprint of the index specifications, and a hash of the SolrInputDocument that was produced
+ *  from it.  A record whose content hash matches the one stored, because neither it nor the index specifications
+ *  have changed, is skipped altogether.  Otherwise the record is indexed, and if the resulting document is the same
+ *  as the one previously sent it isn't sent again.  Entries are only stored once Solr has accepted the document.
+ *  </p>
+ *  <p>
+ *  The cache is enabled by setting <code>solrmarc.output.cache</code> to the name of the file to keep it in.  It is
+ *  read at startup and written back at the end of the run.  The fingerprint covers the text of the index
+ *  specifications only, so after changing a translation map or custom indexing code either delete the file, or
+ *  change the value of <code>solrmarc.output.cache.salt</code>, which is included in the fingerprint.  The cache
+ *  assumes that the Solr index it describes is the one being updated.
+ *  </p>
+ */
+public class IndexOutputCache
+{
+    private final static Logger logger = Logger.getLogger(IndexOutputCache.class);
+    private final static int MAGIC = 0x534d4f43;  // "SMOC"
+    private final static int VERSION = 1;
+    private final static int NUM_SEGMENTS = 16;
+    private final static long FNV_OFFSET = 0xcbf29ce484222325L;
+    private final static long FNV_PRIME = 0x100000001b3L;
+
+    private final File file;
+    private final long specFingerprint;
+    private final Segment[] segments = new Segment[NUM_SEGMENTS];
+    private final AtomicInteger unchangedRecords = new AtomicInteger(0);
+    private final AtomicInteger unchangedDocs = new AtomicInteger(0);
+
+    /**
+     * An open addressing table from the hash of a record id to the two hashes stored for it.  A stored
+     * record key of 0 means that nothing is known about the record.
+     */
+    private final static class Segment
+    {
+        long ids[] = new long[64];
+        long recordKeys[] = new long[64];
+        long docHashes[] = new long[64];
+        int size = 0;
+
+        private int slotFor(long id)
+        {
+            int mask = ids.length - 1;
+            int slot = (int)(id ^ (id >>> 32)) & mask;
+            while (ids[slot] != 0 && ids[slot] != id)
+            {
+                slot = (slot + 1) & mask;
+            }
+            return(slot);
+        }
+
+        synchronized long[] get(long id)
+        {
+            int slot = slotFor(id);
+            if (ids[slot] == 0) return(null);
+            return(new long[] { recordKeys[slot], docHashes[slot] });
+        }
+
+        synchronized void put(long id, long recordKey, long docHash)
+        {
+            if ((size + 1) * 3 > ids.length * 2) grow();
+            int slot = slotFor(id);
+            if (ids[slot] == 0) size++;
+            ids[slot] = id;
+            recordKeys[slot] = recordKey;
+            docHashes[slot] = docHash;
+        }
+
+        private void grow()
+        {
+            long oldIds[] = ids;
+            long oldRecordKeys[] = recordKeys;
+            long oldDocHashes[] = docHashes;
+            ids = new long[oldIds.length * 2];
+            recordKeys = new long[oldIds.length * 2];
+            docHashes = new long[oldIds.length * 2];
+            for (int i = 0; i < oldIds.length; i++)
+            {
+                if (oldIds[i] == 0) continue;
+                int slot = slotFor(oldIds[i]);
+                ids[slot] = oldIds[i];
+                recordKeys[slot] = oldRecordKeys[i];
+                docHashes[slot] = oldDocHashes[i];
+            }
+        }
+
+        synchronized void write(DataOutputStream out) throws IOException
+        {
+            for (int i = 0; i < ids.length; i++)
+            {
+                if (ids[i] == 0 || recordKeys[i] == 0) continue;
+                out.writeLong(ids[i]);
+                out.writeLong(recordKeys[i]);
+                out.writeLong(docHashes[i]);
+            }
+        }
+
+        synchronized int liveEntries()
+        {
+            int cnt = 0;
+            for (int i = 0; i < ids.length; i++)
+            {
+                if (ids[i] != 0 && recordKeys[i] != 0) cnt++;
+            }
+            return(cnt);
+        }
+    }
+
+    IndexOutputCache(File file, List<AbstractValueIndexer<?>> indexers, String salt)
+    {
+        this.file = file;
+        for (int i = 0; i < NUM_SEGMENTS; i++)
+        {
+            segments[i] = new Segment();
+        }
+        long fingerprint = hash(FNV_OFFSET, salt);
+        for (AbstractValueIndexer<?> indexer : indexers)
+        {
+            fingerprint = hash(fingerprint, indexer.getSolrFieldNamesStr());
+            fingerprint = hash(fingerprint, indexer.getSpecLabel());
+        }
+        this.specFingerprint = fingerprint;
+        load();
+    }
+
+    /**
+     * @param indexers  the index specifications that will be used for this run
+     * @return          the cache named by <code>solrmarc.output.cache</code>, or null if that isn't set
+     */
+    static IndexOutputCache fromProperties(List<AbstractValueIndexer<?>> indexers)
+    {
+        String filename = System.getProperty("solrmarc.output.cache");
+        if (filename == null || filename.length() == 0) return(null);
+        return new IndexOutputCache(new File(filename), indexers, System.getProperty("solrmarc.output.cache.salt", ""));
+    }
+
+    private void load()
+    {
+        if (!file.exists())
+        {
+            logger.info("Output cache " + file.getPath() + " doesn't exist yet, all records will be indexed");
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                logger.warn("File " + file.getPath() + " isn't a SolrMarc output cache, all records will be indexed");
+                return;
+            }
+            long num = in.readLong();
+            for (long i = 0; i < num; i++)
+            {
+                long id = in.readLong();
+                segmentFor(id).put(id, in.readLong(), in.readLong());
+            }
+            logger.info("Read " + num + " entries from output cache " + file.getPath());
+        }
+        catch (IOException e)
+        {
+            logger.warn("Unable to read output cache " + file.getPath() + ", all records will be indexed", e);
+            for (int i = 0; i < NUM_SEGMENTS; i++)
+            {
+                segments[i] = new Segment();
+            }
+        }
+    }
+
+    /**
+     * Writes the cache back to its file, replacing the previous version only once the new one is complete.
+     */
+    void save()
+    {
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try
+        {
+            long num = 0;
+            for (Segment segment : segments)
+            {
+                num += segment.liveEntries();
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(num);
+                for (Segment segment : segments)
+                {
+                    segment.write(out);
+                }
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Wrote " + num + " entries to output cache " + file.getPath() + " (" + unchangedRecords.get() +
+                        " records unchanged and not re-indexed, " + unchangedDocs.get() + " documents unchanged and not re-sent)");
+        }
+        catch (IOException e)
+        {
+            logger.error("Unable to write output cache " + file.getPath(), e);
+        }
+    }
+
+    private Segment segmentFor(long id)
+    {
+        return segments[(int)(id >>> 60) & (NUM_SEGMENTS - 1)];
+    }
+
+    private static long idHash(String id)
+    {
+        long hash = hash(FNV_OFFSET, id);
+        return (hash == 0) ? 1 : hash;
+    }
+
+    private static long hash(long hash, String str)
+    {
+        if (str == null) return(hash * FNV_PRIME);
+        for (int i = 0; i < str.length(); i++)
+        {
+            hash = (hash ^ str.charAt(i)) * FNV_PRIME;
+        }
+        // separates consecutive strings, so that "ab","c" and "a","bc" hash differently
+        return((hash ^ 0xffff) * FNV_PRIME);
+    }
+
+    /**
+     * @return  the hash of the content of the record combined with the fingerprint of the index specifications
+     */
+    long recordKey(Record record)
+    {
+        long hash = specFingerprint;
+        hash = hash(hash, record.getLeader() != null ? record.getLeader().toString() : null);
+        for (ControlField cf : record.getControlFields())
+        {
+            hash = hash(hash, cf.getTag());
+            hash = hash(hash, cf.getData());
+        }
+        for (DataField df : record.getDataFields())
+        {
+            hash = hash(hash, df.getTag());
+            hash = (hash ^ df.getIndicator1()) * FNV_PRIME;
+            hash = (hash ^ df.getIndicator2()) * FNV_PRIME;
+            for (Subfield sf : df.getSubfields())
+            {
+                hash = (hash ^ sf.getCode()) * FNV_PRIME;
+                hash = hash(hash, sf.getData());
+            }
+        }
+        return (hash == 0) ? 1 : hash;
+    }
+
+    /**
+     * @return  a hash of the names and values of all of the fields of the document, in order
+     */
+    static long docHash(SolrInputDocument doc)
+    {
+        long hash = FNV_OFFSET;
+        for (SolrInputField field : doc)
+        {
+            hash = hash(hash, field.getName());
+            for (Object value : field.getValues())
+            {
+                hash = hash(hash, value != null ? value.toString() : null);
+            }
+        }
+        return(hash);
+    }
+
+    /**
+     * @return  true if the record was sent by a previous run, and neither it nor the index specifications have changed since
+     */
+    boolean isRecordUnchanged(String id, long recordKey)
+    {
+        if (id == null) return(false);
+        long idHash = idHash(id);
+        long stored[] = segmentFor(idHash).get(idHash);
+        if (stored == null || stored[0] != recordKey) return(false);
+        unchangedRecords.incrementAndGet();
+        return(true);
+    }
+
+    /**
+     * Checks whether a document is the same as the one previously sent for the record, and if it is notes that the
+     * record itself is now up to date.
+     *
+     * @return  true if the document doesn't need to be sent
+     */
+    boolean isDocUnchanged(String id, long recordKey, long docHash)
+    {
+        if (id == null) return(false);
+        long idHash = idHash(id);
+        Segment segment = segmentFor(idHash);
+        long stored[] = segment.get(idHash);
+        if (stored == null || stored[0] == 0 || stored[1] != docHash) return(false);
+        segment.put(idHash, recordKey, docHash);
+        unchangedDocs.incrementAndGet();
+        return(true);
+    }
+
+    /**
+     * Records that Solr has accepted the document produced for the record.
+     */
+    void documentSent(String id, long recordKey, long docHash)
+    {
+        if (id == null || recordKey == 0) return;
+        long idHash = idHash(id);
+        segmentFor(idHash).put(idHash, recordKey, docHash);
+    }
+
+    /**
+     * Forgets the record, which is being deleted from Solr.
+     */
+    void remove(String id)
+    {
+        if (id == null) return;
+        long idHash = idHash(id);
+        segmentFor(idHash).put(idHash, 0L, 0L);
+    }
+}
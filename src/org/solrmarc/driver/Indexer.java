@@ -10,26 +10,34 @@ import org.marc4j.MarcException;
 import org.marc4j.MarcReader;
 import org.marc4j.marc.Record;
 import org.solrmarc.driver.RecordAndDoc.eErrorLocationVal;
+import org.solrmarc.index.extractor.methodcall.RecordContext;
 import org.solrmarc.index.indexer.AbstractValueIndexer;
 import org.solrmarc.index.indexer.IndexerSpecException;
 import org.solrmarc.index.indexer.IndexerSpecException.eErrorSeverity;
 import org.solrmarc.index.indexer.ValueIndexerFactory;
+import org.solrmarc.marc.RecordFieldIndex;
 import org.solrmarc.solr.SolrProxy;
 import org.solrmarc.solr.SolrRuntimeException;
 import org.solrmarc.tools.SolrMarcDataException;
 import org.solrmarc.tools.SolrMarcDataException.eDataErrorLevel;
 import org.solrmarc.tools.SolrMarcIndexerException;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The single-threaded reference implementation of the indexing process.
@@ -49,13 +57,25 @@ public class Indexer
     protected SolrProxy solrProxy;
     protected final BlockingQueue<RecordAndDoc> errQ;
     protected final BlockingQueue<String> delQ;
+    protected File deleteIdsFile = null;
+    protected final AtomicInteger deletedCnt = new AtomicInteger(0);
+    protected final AtomicInteger deleteFailedCnt = new AtomicInteger(0);
+    // shared by every copy of the indexer, since any of them may fail to send a document
+    protected final AtomicInteger sendFailedCnt;
     protected boolean shuttingDown = false;
     protected boolean viaInterrupt = false;
     protected boolean isShutDown = false;
     protected Thread theReaderThread = null;
     protected int trackOverallProgress = -1;
     protected int lastProgress = 0;
+    protected PipelineMetrics metrics = null;
+    protected IndexOutputCache outputCache = null;
+    protected ChunkFailureIsolator failureIsolator = null;
+    protected String atomicUpdateIdField = null;
+    protected Set<String> atomicUpdateFields = null;
     private int cnts[] = new int[] { 0, 0, 0 };
+    // each copy of the indexer, and so each indexing thread, assembles its documents with its own builder
+    private final DocumentBuilder docBuilder = new DocumentBuilder();
 
     EnumSet<eErrorHandleVal> errHandle = EnumSet.noneOf(eErrorHandleVal.class);
     public enum eErrorHandleVal
@@ -69,6 +89,7 @@ public class Indexer
         this.solrProxy = solrProxy;
         errQ = new LinkedBlockingQueue<RecordAndDoc>();
         delQ = new LinkedBlockingQueue<String>();
+        sendFailedCnt = new AtomicInteger(0);
         try {
             trackOverallProgress = Integer.parseInt(System.getProperty("solrmarc.track.progress", "-1"));
         }
@@ -76,6 +97,7 @@ public class Indexer
         {
             trackOverallProgress = (Boolean.parseBoolean(System.getProperty("solrmarc.track.progress", "false"))) ? 10000 : -1;
         }
+        outputCache = IndexOutputCache.fromProperties(indexers);
 }
 
     protected Indexer(Indexer toClone)
@@ -88,6 +110,12 @@ public class Indexer
         this.solrProxy = toClone.solrProxy;
         this.errQ = toClone.errQ;
         this.delQ = toClone.delQ;
+        this.sendFailedCnt = toClone.sendFailedCnt;
+        this.deleteIdsFile = toClone.deleteIdsFile;
+        this.metrics = toClone.metrics;
+        this.outputCache = toClone.outputCache;
+        this.atomicUpdateIdField = toClone.atomicUpdateIdField;
+        this.atomicUpdateFields = toClone.atomicUpdateFields;
         this.errHandle = toClone.errHandle;
     }
 
@@ -96,6 +124,47 @@ public class Indexer
         return (new Indexer(this));
     }
 
+    /**
+     * @return the isolator used to find the documents that cause a chunk sent to Solr to fail, which is created the
+     *         first time it is needed, and then kept so that the documents it has found stay known
+     */
+    synchronized ChunkFailureIsolator getFailureIsolator()
+    {
+        if (failureIsolator == null)
+        {
+            failureIsolator = new ChunkFailureIsolator(this, null);
+        }
+        return(failureIsolator);
+    }
+
+    /**
+     * Switches the indexer to producing Solr atomic updates that replace only the given fields of each existing
+     * document, rather than complete documents.  Each field that the indexers produce no values for is removed.
+     * See makeAtomicUpdate for what this requires of the Solr schema.
+     *
+     * @param idFieldName  the unique key field, which identifies the document to update
+     * @param fieldNames   the fields to replace, which must not be empty, since an update containing nothing but
+     *                     the id would replace the whole document
+     */
+    public void setAtomicUpdate(String idFieldName, Set<String> fieldNames)
+    {
+        if (fieldNames.isEmpty())
+        {
+            throw new IllegalArgumentException("An atomic update needs at least one field to update");
+        }
+        this.atomicUpdateIdField = idFieldName;
+        this.atomicUpdateFields = fieldNames;
+    }
+
+    /**
+     * @return the number of documents that could not be sent to Solr, by this indexer or any of its copies, whether
+     *         or not the records that produced them are being returned as errors
+     */
+    public int getSendFailedCount()
+    {
+        return (sendFailedCnt.get());
+    }
+
     boolean isSet(eErrorHandleVal val)
     {
         return (errHandle.contains(val));
@@ -159,6 +228,7 @@ public class Indexer
             {
                 solrProxy.addDoc(recDoc.getDoc());
                 incrementCnt(2);
+                documentSent(recDoc);
                 if (recDoc.getErrLvl() != eErrorSeverity.NONE && isSet(eErrorHandleVal.RETURN_ERROR_RECORDS))
                 {
                     if (isSet(eErrorHandleVal.RETURN_ERROR_RECORDS))
@@ -200,6 +270,21 @@ public class Indexer
     }
 
     RecordAndCnt getRecord(MarcReader reader)
+    {
+        Record record = readRecord(reader);
+        if (record == null) return(null);
+        int cnt = incrementCnt(0);
+        return (new RecordAndCnt(record, cnt));
+    }
+
+    /**
+     * Reads the next record from the provided reader, without counting it.
+     *
+     * @param reader  MARC record reader object
+     * @return        the next record, or null if the reader is exhausted or
+     *                if an unrecoverable error occurs and solrmarc.terminate.on.marc.exception is true
+     */
+    Record readRecord(MarcReader reader)
     {
         Record record = null;
         while (record == null)
@@ -222,13 +307,22 @@ public class Indexer
                 }
             }
         }
-        int cnt = incrementCnt(0);
-        return (new RecordAndCnt(record, cnt));
+        return (record);
     }
 
     RecordAndDoc getIndexDoc(Record record, int count)
     {
         RecordAndDoc recDoc = null;
+        long recordKey = 0L;
+        if (outputCache != null)
+        {
+            recordKey = outputCache.recordKey(record);
+            if (outputCache.isRecordUnchanged(record.getControlNumber(), recordKey))
+            {
+                logger.debug("Record unchanged since it was last sent, skipping: " + record.getControlNumber());
+                return(null);
+            }
+        }
         recDoc = indexToSolrDoc(record);
         if (recDoc.getSolrMarcIndexerException() != null)
         {
@@ -276,21 +370,68 @@ public class Indexer
             }
         }
         incrementCnt(1);
+        if (outputCache != null && recDoc.getErrLvl() == eErrorSeverity.NONE && recDoc.getDoc() != null)
+        {
+            long docHash = IndexOutputCache.docHash(recDoc.getDoc());
+            if (outputCache.isDocUnchanged(record.getControlNumber(), recordKey, docHash))
+            {
+                logger.debug("Document unchanged since it was last sent, not re-sending: " + record.getControlNumber());
+                return(null);
+            }
+            recDoc.cacheRecordKey = recordKey;
+            recDoc.cacheDocHash = docHash;
+        }
         return(recDoc);
     }
 
-    protected SolrInputDocument combineDocWithErrors(SolrInputDocument[] documentParts, boolean includeErrors)
+    /**
+     * Notes in the output cache, if there is one, that Solr has accepted the document. 
+     *
+     * @param recDoc  the record and the document produced for it
+     */
+    void documentSent(RecordAndDoc recDoc)
     {
-        SolrInputDocument result = documentParts[0];
-        if (includeErrors)
+        if (outputCache != null && recDoc.cacheRecordKey != 0L)
+        {
+            outputCache.documentSent(recDoc.rec.getControlNumber(), recDoc.cacheRecordKey, recDoc.cacheDocHash);
+        }
+    }
+
+    /**
+     * Converts a document into an atomic update that sets each of the fields being updated to the values in the
+     * document, or removes the field if the document has no values for it.
+     * <p>
+     * Solr applies an atomic update by rebuilding the whole document from its stored fields, so any field of the
+     * existing document that the schema doesn't store (or keep as docValues) is lost, not only the fields being
+     * updated; partial updates are only safe with a schema in which every field is stored.  Atomic updates also
+     * need the update log, and so the <code>_version_</code> field.  The update is sent with a
+     * <code>_version_</code> of 1, which tells Solr to apply it only if the document already exists: the update
+     * for a record that isn't in Solr yet is rejected, and reported like any other document Solr rejects, rather
+     * than creating a document containing only the updated fields.
+     * </p>
+     */
+    protected SolrInputDocument makeAtomicUpdate(SolrInputDocument doc)
+    {
+        SolrInputDocument update = new SolrInputDocument(new LinkedHashMap<String, SolrInputField>());
+        SolrInputField idField = doc.getField(atomicUpdateIdField);
+        if (idField != null)
+        {
+            update.put(atomicUpdateIdField, idField);
+        }
+        update.addField("_version_", Long.valueOf(1L));
+        for (String fieldName : atomicUpdateFields)
+        {
+            update.addField(fieldName, Collections.singletonMap("set", doc.getFieldValues(fieldName)));
+        }
+        for (SolrInputField field : doc)
         {
-            if (!documentParts[1].isEmpty()) result.putAll(documentParts[1]);
-            if (!documentParts[2].isEmpty()) result.putAll(documentParts[2]);
+            if (field.getName().equals(atomicUpdateIdField) || atomicUpdateFields.contains(field.getName())) continue;
+            update.addField(field.getName(), Collections.singletonMap("set", field.getValues()));
         }
-        return result;
+        return(update);
     }
 
-    private eErrorSeverity addExceptionsToMap(SolrInputDocument document, Collection<IndexerSpecException> perRecordExceptions, eErrorSeverity errLvl)
+    private eErrorSeverity addExceptionsToMap(Collection<IndexerSpecException> perRecordExceptions, eErrorSeverity errLvl)
     {
         if (perRecordExceptions != null)
         {
@@ -298,65 +439,46 @@ public class Indexer
             {
                 @SuppressWarnings("unused")
                 String specMessage = e.getSpecMessage();
-                document.addField("marc_error", e.getMessage());
+                docBuilder.addValue("marc_error", e.getMessage());
                 errLvl = eErrorSeverity.max(errLvl, e.getErrLvl());
                 for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause())
                 {
-                    document.addField("marc_error", e.getSolrField() + " : " + cause.getMessage());
+                    docBuilder.addValue("marc_error", e.getSolrField() + " : " + cause.getMessage());
                 }
             }
         }
         return (errLvl);
     }
 
-    private void addMarcErrorsToMap(SolrInputDocument document, List<MarcError> errors)
+    private void addMarcErrorsToMap(List<MarcError> errors)
     {
         for (Object err : errors)
         {
-            document.addField("marc_error", err.toString());
+            docBuilder.addValue("marc_error", err.toString());
         }
     }
 
     protected RecordAndDoc indexToSolrDoc(final Record record)
     {
-        Map<String, SolrInputField> emptyMap = new LinkedHashMap<>();
-        SolrInputDocument[] inputDocs = new SolrInputDocument[] { new SolrInputDocument(emptyMap), new SolrInputDocument(emptyMap), new SolrInputDocument(emptyMap) };
+        docBuilder.start();
         RecordAndDoc recDoc = new RecordAndDoc(record);
         eErrorSeverity errLvl = eErrorSeverity.NONE;
         ValueIndexerFactory.instance().clearPerRecordErrors();
+        // index the record's fields by tag once, rather than having each specification scan all of them
+        RecordFieldIndex.index(record);
+        // start this thread's record context, which tracks which mixins have been initialized for the record
+        RecordContext.start(record);
         for (final AbstractValueIndexer<?> indexer : indexers)
         {
             try {
                 if (indexer.getOnlyIfEmpty())
                 {
                     String fieldname = indexer.getSolrFieldNames().iterator().next();
-                    if (indexer.getSolrFieldNames().size() == 1 && inputDocs[0].containsKey(fieldname)) 
+                    if (indexer.getSolrFieldNames().size() == 1 && docBuilder.containsField(fieldname)) 
                         continue;
                 }
                 final Collection<String> data = indexer.getFieldData(record);
-                for (String fieldName : indexer.getSolrFieldNames())
-                {
-                    if (data.size() == 0)
-                    {
-                        /* do_nothing() */
-                    }
-                    else
-                    {
-                        if (indexer.getOnlyIfEmpty() && inputDocs[0].containsKey(fieldName))
-                        {
-                            continue;
-                        }
-                        for (String dataVal : data)
-                        {
-                            if (indexer.getOnlyIfUnique())
-                            {
-                                Collection<Object> values = inputDocs[0].getFieldValues(fieldName);
-                                if (values != null && values.contains(dataVal)) continue;
-                            }
-                            inputDocs[0].addField(fieldName, dataVal);
-                        }
-                    }
-                }
+                docBuilder.addFieldData(indexer, data);
             }
             catch (OutOfMemoryError oome)
             {
@@ -365,7 +487,7 @@ public class Indexer
                 logger.error("number of per record exceptions: "
                         + ((ValueIndexerFactory.instance().getPerRecordErrors() != null)
                                 ? ValueIndexerFactory.instance().getPerRecordErrors().size() : 0));
-                inputDocs[2].addField("marc_error", indexer.getSolrFieldNames().toString() + oome.getMessage());
+                docBuilder.addValue("marc_error", indexer.getSolrFieldNames().toString() + oome.getMessage());
                 errLvl = eErrorSeverity.FATAL;
                 recDoc.addErrLoc(eErrorLocationVal.INDEXING_ERROR);
             }
@@ -386,7 +508,7 @@ public class Indexer
                 {
                     logger.error("OOMError in record: " + recDoc.rec.getControlNumber());
                     logger.error("while processing index specification: " + indexer.getSpecLabel());
-                    inputDocs[2].addField("marc_error", indexer.getSolrFieldNames().toString() + wrapped.getMessage());
+                    docBuilder.addValue("marc_error", indexer.getSolrFieldNames().toString() + wrapped.getMessage());
                     errLvl = eErrorSeverity.FATAL;
                     recDoc.addErrLoc(eErrorLocationVal.INDEXING_ERROR);
                 }
@@ -422,7 +544,7 @@ public class Indexer
                     }
                     errLvl = eErrorSeverity.ERROR;
                 }
-                inputDocs[2].addField("marc_error", indexer.getSolrFieldNames().toString() + wrapped.getMessage());
+                docBuilder.addValue("marc_error", indexer.getSolrFieldNames().toString() + wrapped.getMessage());
                 recDoc.addErrLoc(eErrorLocationVal.INDEXING_ERROR);
             }
             catch (SolrMarcIndexerException e)
@@ -433,7 +555,7 @@ public class Indexer
             {
                 logger.warn("Exception in record: " + recDoc.rec.getControlNumber());
                 logger.warn("while processing index specification: " + indexer.getSpecLabel());
-                inputDocs[2].addField("marc_error", indexer.getSolrFieldNames().toString() + e.getMessage());
+                docBuilder.addValue("marc_error", indexer.getSolrFieldNames().toString() + e.getMessage());
                 errLvl = eErrorSeverity.max(errLvl, e.getErrLvl());
                 recDoc.addErrLoc(eErrorLocationVal.INDEXING_ERROR);
             }
@@ -449,7 +571,7 @@ public class Indexer
                     if (targetErrorClazz.isInstance(e))
                     {
                         targetError = true;
-                        inputDocs[2].addField("marc_error", indexer.getSolrFieldNames().toString() + e.toString());
+                        docBuilder.addValue("marc_error", indexer.getSolrFieldNames().toString() + e.toString());
                         errLvl = eErrorSeverity.ERROR;
                         recDoc.addErrLoc(eErrorLocationVal.INDEXING_ERROR);
                     }
@@ -460,24 +582,26 @@ public class Indexer
 
                 if (!targetError)
                 {
-                    inputDocs[2].addField("marc_error", indexer.getSolrFieldNames().toString() + e.getMessage());
+                    docBuilder.addValue("marc_error", indexer.getSolrFieldNames().toString() + e.getMessage());
                     errLvl = eErrorSeverity.ERROR;
                     recDoc.addErrLoc(eErrorLocationVal.INDEXING_ERROR);
                 }
             }
         }
+        RecordFieldIndex.clear();
         if (record.hasErrors())
         {
-            addMarcErrorsToMap(inputDocs[1], record.getErrors());
+            addMarcErrorsToMap(record.getErrors());
             recDoc.addErrLoc(eErrorLocationVal.MARC_ERROR);
         }
         Collection<IndexerSpecException> perRecordExceptions = ValueIndexerFactory.instance().getPerRecordErrors();
         if (perRecordExceptions != null)
         {
-            errLvl = addExceptionsToMap(inputDocs[2], perRecordExceptions, errLvl);
+            errLvl = addExceptionsToMap(perRecordExceptions, errLvl);
             recDoc.addErrLoc(eErrorLocationVal.INDEXING_ERROR);
         }
-        recDoc.setDoc(combineDocWithErrors(inputDocs, isSet(eErrorHandleVal.INDEX_ERROR_RECORDS)));
+        SolrInputDocument doc = docBuilder.finish();
+        recDoc.setDoc(atomicUpdateFields != null ? makeAtomicUpdate(doc) : doc);
         recDoc.setMaxErrLvl(errLvl);
         ValueIndexerFactory.instance().doneWithRecord(record);
         return recDoc;
@@ -511,6 +635,7 @@ public class Indexer
 
     protected void singleRecordSolrError(RecordAndDoc recDoc, Exception e1, BlockingQueue<RecordAndDoc> errQ)
     {
+        sendFailedCnt.incrementAndGet();
         logger.error("Failed on single doc with id : " + recDoc.getRec().getControlNumber());
         if (e1 instanceof SolrRuntimeException && e1.getCause() instanceof SolrException)
         {
@@ -558,35 +683,154 @@ public class Indexer
     void endProcessing()
     {
         boolean  commitAtEnd = Boolean.parseBoolean(System.getProperty("solrmarc.commit.at.end", "true"));
-        if (delQ.size() > 0)
+        processDeletes();
+        try
+        {
+            if ( commitAtEnd) {
+                logger.info("Commmiting updates to Solr");
+                solrProxy.commit(false);
+            } else {   // mlevy
+                logger.info("Not commmiting updates to Solr");
+            }
+        }
+        catch (SolrRuntimeException e)
         {
-            logger.info("Deleting "+delQ.size()+ " records ");
         }
+        if (outputCache != null)
+        {
+            outputCache.save();
+        }
+    }
+
+    /**
+     * Sets a file containing the ids of records to delete, one per line.  The file is read when the deletes are
+     * processed at the end of indexing, rather than being loaded into the delQ.
+     *
+     * @param deleteIdsFile  file of ids to delete
+     */
+    void setDeleteIdsFile(File deleteIdsFile)
+    {
+        this.deleteIdsFile = deleteIdsFile;
+    }
+
+    /**
+     * Deletes the records whose ids are in the delQ, followed by those in the delete-by-id file, if one was given.
+     * The ids are gathered into batches of <code>solrmarc.delete.chunksize</code> ids (default 1000), and the file is
+     * read a line at a time as the batches are sent, so it never has to be held in memory.
+     */
+    void processDeletes()
+    {
+        int batchSize = 1000;
+        try {
+            batchSize = Math.max(1, Integer.parseInt(System.getProperty("solrmarc.delete.chunksize", "1000")));
+        }
+        catch (NumberFormatException nfe)
+        {
+            batchSize = 1000;
+        }
+        List<String> batch = new ArrayList<String>(batchSize);
         for (String recCtrlNum : delQ)
         {
-          //  String recCtrlNum = recDoc.rec.getControlNumber();
-            logger.debug("Deleting record " + (recCtrlNum != null ? recCtrlNum : ""));
-            try
+            batch.add(recCtrlNum);
+            if (batch.size() >= batchSize)
             {
-                solrProxy.delete(recCtrlNum);
+                dispatchDeletes(batch);
+                batch = new ArrayList<String>(batchSize);
             }
-            catch (SolrRuntimeException e)
+        }
+        if (deleteIdsFile != null)
+        {
+            logger.info("Deleting records listed in: " + deleteIdsFile.getName());
+            try (BufferedReader delReader = new BufferedReader(new FileReader(deleteIdsFile)))
             {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
+                String line;
+                while ((line = delReader.readLine()) != null)
+                {
+                    String id = line.trim();
+                    if (id.length() == 0) continue;
+                    batch.add(id);
+                    if (batch.size() >= batchSize)
+                    {
+                        dispatchDeletes(batch);
+                        batch = new ArrayList<String>(batchSize);
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                logger.error("Error reading delete-by-id file: " + deleteIdsFile.getName(), e);
             }
         }
-        try
+        if (!batch.isEmpty())
         {
-            if ( commitAtEnd) {
-                logger.info("Commmiting updates to Solr");
-                solrProxy.commit(false);
-            } else {   // mlevy
-                logger.info("Not commmiting updates to Solr");
+            dispatchDeletes(batch);
+        }
+        awaitDeletes();
+        if (deletedCnt.get() > 0 || deleteFailedCnt.get() > 0)
+        {
+            logger.info("Deleted " + deletedCnt.get() + " records" + (deleteFailedCnt.get() > 0 ? ", failed to delete " + deleteFailedCnt.get() : ""));
+        }
+    }
+
+    /**
+     * Sends a batch of deletes.  The base Indexer sends the batch on the current thread, subclasses may send it
+     * asynchronously, in which case awaitDeletes must wait for them to complete.
+     *
+     * @param batch  ids of the records to delete
+     */
+    void dispatchDeletes(List<String> batch)
+    {
+        sendDeletes(batch);
+    }
+
+    void awaitDeletes()
+    {
+    }
+
+    /**
+     * Deletes a batch of records with a single request, and if that fails, re-tries deleting them one-by-one
+     * so that one bad id doesn't prevent the others from being deleted.
+     * <p>
+     * The records are also removed from the output cache, if there is one, whichever way their deletion was
+     * requested, since a record that is re-added unchanged after being deleted must be sent to Solr again.  They
+     * are removed even if the deletion fails, which at worst means sending the record again.
+     * </p>
+     *
+     * @param batch  ids of the records to delete
+     */
+    protected void sendDeletes(List<String> batch)
+    {
+        if (outputCache != null)
+        {
+            for (String recCtrlNum : batch)
+            {
+                outputCache.remove(recCtrlNum);
             }
         }
+        try
+        {
+            int cnt = solrProxy.deleteBatch(batch);
+            deletedCnt.addAndGet(cnt);
+            logger.debug("Deleted batch of " + cnt + " records -- starting with id : " + batch.get(0));
+            return;
+        }
         catch (SolrRuntimeException e)
         {
+            logger.warn("Failed deleting batch of " + batch.size() + " records -- starting with id : " + batch.get(0) + ", re-trying one-by-one");
+            logger.info("   exception reported is: ", e);
+        }
+        for (String recCtrlNum : batch)
+        {
+            try
+            {
+                solrProxy.delete(recCtrlNum);
+                deletedCnt.incrementAndGet();
+            }
+            catch (SolrRuntimeException e)
+            {
+                logger.error("Failed deleting record with id : " + recCtrlNum, e);
+                deleteFailedCnt.incrementAndGet();
+            }
         }
     }
 
@@ -73,10 +73,17 @@ public class IndexerWorker implements Runnable
                     break;
                 }
                 if (recDoc == null) continue;
+                recDoc.setReadTime(recordAndCnt.getReadTime());
 
                 if (isInterrupted())  break;
                 try {
-                    docQ.put(recDoc);
+                    if (!docQ.offer(recDoc))
+                    {
+                        // the docQ is full, record how long this thread is held up waiting for the chunks to be sent
+                        long start = System.nanoTime();
+                        docQ.put(recDoc);
+                        if (indexer.metrics != null) indexer.metrics.recordDocQueueBlocked(System.nanoTime() - start);
+                    }
                 }
                 catch (InterruptedException ie)
                 {
@@ -12,9 +12,9 @@ public class MarcReaderThread extends Thread
 {
     private final static Logger logger = Logger.getLogger(MarcReaderThread.class);
     private final MarcReader reader;
-    private final Indexer indexer;
-    private final BlockingQueue<RecordAndCnt> readQ;
-    private boolean doneReading = false;
+    protected final Indexer indexer;
+    protected final BlockingQueue<RecordAndCnt> readQ;
+    protected volatile boolean doneReading = false;
 
     public MarcReaderThread(final MarcReader reader, final Indexer indexer, final BlockingQueue<RecordAndCnt> readQ, AtomicInteger cnts[])
     {
@@ -47,7 +47,7 @@ public class MarcReaderThread extends Thread
         doneReading = true;
     }
 
-    private void flushReadQueue(RecordAndCnt recordAndCnt)
+    protected void flushReadQueue(RecordAndCnt recordAndCnt)
     {
         Collection<RecordAndCnt> discardedRecords = new ArrayList<>();
         readQ.drainTo(discardedRecords);
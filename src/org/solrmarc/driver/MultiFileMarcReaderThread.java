@@ -0,0 +1,211 @@
+package org.solrmarc.driver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.Record;
+
+/**
+ *  A replacement for the single MarcReaderThread that is used when several input files are specified.
+ *  Rather than reading the files one after another through a MarcMultiplexReader, each input file is
+ *  opened and parsed on its own thread, with at most <code>numReaderThreads</code> files being parsed
+ *  at any one time.
+ *  <p>
+ *  If <code>preserveOrder</code> is false, each file's thread places its records directly on the shared
+ *  read queue, so records from different files will be interleaved.  If <code>preserveOrder</code> is true,
+ *  each file's thread instead reads ahead into its own bounded buffer, and this thread forwards the records
+ *  to the read queue one file at a time, in the order the files were specified.  This produces the same
+ *  sequence of records (and record counts) as sequential reading, while still parsing the files in parallel.
+ *  </p>
+ */
+public class MultiFileMarcReaderThread extends MarcReaderThread
+{
+    private final static Logger logger = Logger.getLogger(MultiFileMarcReaderThread.class);
+    private final List<String> inputFilenames;
+    private final MarcReaderOpener opener;
+    private final int numReaderThreads;
+    private final boolean preserveOrder;
+    private final int perFileBufferSize;
+    private ExecutorService fileReaderExecutor = null;
+
+    /**
+     *  Creates the MarcReader for a single input file.  This allows the opening of each file to be deferred
+     *  until a reader thread is available to read it.
+     */
+    public interface MarcReaderOpener
+    {
+        MarcReader openReader(String inputFilename) throws IOException;
+    }
+
+    public MultiFileMarcReaderThread(final List<String> inputFilenames, final MarcReaderOpener opener, final Indexer indexer,
+                                     final BlockingQueue<RecordAndCnt> readQ, AtomicInteger cnts[], int numReaderThreads, boolean preserveOrder)
+    {
+        super(null, indexer, readQ, cnts);
+        this.inputFilenames = inputFilenames;
+        this.opener = opener;
+        this.numReaderThreads = Math.max(1, Math.min(numReaderThreads, inputFilenames.size()));
+        this.preserveOrder = preserveOrder;
+        this.perFileBufferSize = Math.max(1, readQ.remainingCapacity() + readQ.size());
+    }
+
+    @Override
+    public void run()
+    {
+        final AtomicInteger fileThreadNum = new AtomicInteger(0);
+        fileReaderExecutor = Executors.newFixedThreadPool(numReaderThreads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                return new Thread(r, "MarcReader-Thread-" + fileThreadNum.getAndIncrement());
+            }
+        });
+        List<BlockingQueue<Record>> fileQueues = new ArrayList<BlockingQueue<Record>>(inputFilenames.size());
+        List<Future<?>> fileReaders = new ArrayList<Future<?>>(inputFilenames.size());
+        for (String inputFilename : inputFilenames)
+        {
+            BlockingQueue<Record> fileQ = preserveOrder ? new ArrayBlockingQueue<Record>(perFileBufferSize) : null;
+            fileQueues.add(fileQ);
+            fileReaders.add(fileReaderExecutor.submit(new FileReaderTask(inputFilename, fileQ)));
+        }
+        fileReaderExecutor.shutdown();
+        try
+        {
+            if (preserveOrder)
+            {
+                forwardInFileOrder(fileQueues, fileReaders);
+            }
+            else
+            {
+                for (Future<?> fileReader : fileReaders)
+                {
+                    waitFor(fileReader);
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.currentThread().isInterrupted())
+        {
+            fileReaderExecutor.shutdownNow();
+            try
+            {
+                fileReaderExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                logger.warn("Interrupted while waiting for file reader threads to stop");
+            }
+            flushReadQueue(null);
+        }
+        doneReading = true;
+    }
+
+    /**
+     * Moves the records from each of the per-file queues to the shared read queue, one file at a time, and assigns
+     * each record its count as it is forwarded.  Files later in the list are being read ahead while this is happening.
+     */
+    private void forwardInFileOrder(List<BlockingQueue<Record>> fileQueues, List<Future<?>> fileReaders) throws InterruptedException
+    {
+        for (int i = 0; i < fileQueues.size(); i++)
+        {
+            BlockingQueue<Record> fileQ = fileQueues.get(i);
+            Future<?> fileReader = fileReaders.get(i);
+            while (true)
+            {
+                Record record = fileQ.poll(100, TimeUnit.MILLISECONDS);
+                if (record != null)
+                {
+                    readQ.put(new RecordAndCnt(record, indexer.incrementCnt(0)));
+                }
+                else if (fileReader.isDone() && fileQ.isEmpty())
+                {
+                    waitFor(fileReader);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void waitFor(Future<?> fileReader) throws InterruptedException
+    {
+        try
+        {
+            fileReader.get();
+        }
+        catch (ExecutionException e)
+        {
+            logger.error("Error while reading input file", e.getCause());
+        }
+    }
+
+    /**
+     *  Reads all of the records from a single input file, either directly onto the shared read queue,
+     *  or onto a per-file queue if the file order must be preserved.
+     */
+    private class FileReaderTask implements Runnable
+    {
+        private final String inputFilename;
+        private final BlockingQueue<Record> fileQ;
+
+        FileReaderTask(String inputFilename, BlockingQueue<Record> fileQ)
+        {
+            this.inputFilename = inputFilename;
+            this.fileQ = fileQ;
+        }
+
+        @Override
+        public void run()
+        {
+            MarcReader reader;
+            try
+            {
+                logger.info("Starting reader for: " + inputFilename);
+                reader = opener.openReader(inputFilename);
+            }
+            catch (IOException e)
+            {
+                logger.error("Error opening input file: " + inputFilename, e);
+                return;
+            }
+            int fileCnt = 0;
+            try
+            {
+                while (!Thread.currentThread().isInterrupted())
+                {
+                    Record record = indexer.readRecord(reader);
+                    if (record == null) break;
+                    fileCnt++;
+                    if (fileQ != null)
+                    {
+                        fileQ.put(record);
+                    }
+                    else
+                    {
+                        logger.debug("record read : " + record.getControlNumber());
+                        readQ.put(new RecordAndCnt(record, indexer.incrementCnt(0)));
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            logger.info("Finished reading " + fileCnt + " records from: " + inputFilename);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package org.solrmarc.driver;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ *  Collects measurements of each stage of the ThreadedIndexer pipeline, so that it is possible to tell whether
+ *  a run is limited by reading and parsing the MARC records, by running the index specifications, or by Solr.
+ *  <p>
+ *  The metrics are the number of records read, indexed and sent (and the rates of each), the current depths of the
+ *  read queue, the document queue and the solrj executor's queue, the total time the IndexerWorkers have spent
+ *  blocked waiting for room in the document queue, and the 50th, 95th and 99th percentile times taken by Solr to
+ *  accept a chunk of documents.
+ *  </p>
+ *  <p>
+ *  While indexing is running the metrics are available through JMX as <code>org.solrmarc:type=PipelineMetrics</code>.
+ *  If the property <code>solrmarc.metrics.interval</code> is set to a number of seconds, a summary of them is also
+ *  logged at that interval.
+ *  </p>
+ */
+public class PipelineMetrics implements PipelineMetricsMBean
+{
+    private final static Logger logger = Logger.getLogger(PipelineMetrics.class);
+    private final static String OBJECT_NAME = "org.solrmarc:type=PipelineMetrics";
+    // latencies are recorded in microseconds, in buckets that divide each power of two into four
+    private final static int NUM_BUCKETS = 248;
+
+    private final AtomicInteger cnts[];
+    private final BlockingQueue<?> readQ;
+    private final BlockingQueue<?> docQ;
+    private final ThreadPoolExecutor solrExecutor;
+    private final AtomicLong docQBlockedNanos = new AtomicLong(0);
+    private final AtomicLong chunksSent = new AtomicLong(0);
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(NUM_BUCKETS);
+    private final long logIntervalSeconds;
+    private long startTime = 0L;
+    private ScheduledExecutorService logExecutor = null;
+    private ObjectName registeredName = null;
+    private int lastCnts[] = new int[3];
+    private long lastLogTime = 0L;
+
+    PipelineMetrics(AtomicInteger cnts[], BlockingQueue<?> readQ, BlockingQueue<?> docQ, ThreadPoolExecutor solrExecutor)
+    {
+        this.cnts = cnts;
+        this.readQ = readQ;
+        this.docQ = docQ;
+        this.solrExecutor = solrExecutor;
+        long interval = 0L;
+        try {
+            interval = Long.parseLong(System.getProperty("solrmarc.metrics.interval", "0"));
+        }
+        catch (NumberFormatException nfe)
+        {
+            interval = 0L;
+        }
+        this.logIntervalSeconds = interval;
+    }
+
+    /**
+     * Registers the metrics with JMX, and starts logging them periodically if requested.
+     */
+    synchronized void start()
+    {
+        startTime = lastLogTime = System.nanoTime();
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name))
+            {
+                server.registerMBean(this, name);
+                registeredName = name;
+            }
+        }
+        catch (JMException e)
+        {
+            logger.warn("Unable to register pipeline metrics with JMX", e);
+        }
+        if (logIntervalSeconds > 0)
+        {
+            logExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "PipelineMetrics-Thread");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            logExecutor.scheduleAtFixedRate(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    logMetrics();
+                }
+            }, logIntervalSeconds, logIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the periodic logging, logs the metrics for the run as a whole, and unregisters them from JMX.
+     */
+    synchronized void stop()
+    {
+        if (logExecutor != null)
+        {
+            logExecutor.shutdownNow();
+            logExecutor = null;
+            lastCnts = new int[3];
+            lastLogTime = startTime;
+            logMetrics();
+        }
+        if (registeredName != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            }
+            catch (JMException e)
+            {
+                logger.debug("Unable to unregister pipeline metrics from JMX", e);
+            }
+            registeredName = null;
+        }
+    }
+
+    void recordDocQueueBlocked(long nanos)
+    {
+        docQBlockedNanos.addAndGet(nanos);
+    }
+
+    void recordChunkLatency(long nanos)
+    {
+        chunksSent.incrementAndGet();
+        latencyBuckets.incrementAndGet(bucketFor(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    private static int bucketFor(long micros)
+    {
+        if (micros < 4) return (int)Math.max(0, micros);
+        int power = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int)(micros >> (power - 2)) & 3;
+        return Math.min(NUM_BUCKETS - 1, (power - 1) * 4 + sub);
+    }
+
+    private static long bucketUpperBound(int bucket)
+    {
+        if (bucket < 4) return(bucket);
+        int power = bucket / 4 + 1;
+        int sub = bucket % 4;
+        return ((5L + sub) << (power - 2)) - 1;
+    }
+
+    private long latencyPercentileMillis(double percentile)
+    {
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            total += latencyBuckets.get(i);
+        }
+        if (total == 0) return(0L);
+        long target = (long)Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++)
+        {
+            seen += latencyBuckets.get(i);
+            if (seen >= target) return TimeUnit.MICROSECONDS.toMillis(bucketUpperBound(i));
+        }
+        return TimeUnit.MICROSECONDS.toMillis(bucketUpperBound(NUM_BUCKETS - 1));
+    }
+
+    private double rate(int cnt)
+    {
+        long elapsed = System.nanoTime() - startTime;
+        return (elapsed <= 0) ? 0.0 : cnt * 1.0e9 / elapsed;
+    }
+
+    private synchronized void logMetrics()
+    {
+        long now = System.nanoTime();
+        double seconds = Math.max(1L, now - lastLogTime) / 1.0e9;
+        int current[] = new int[] { cnts[0].get(), cnts[1].get(), cnts[2].get() };
+        logger.info(String.format("Pipeline: read %.0f/s, indexed %.0f/s, sent %.0f/s | readQ %d, docQ %d, solrQ %d | docQ blocked %d ms | " +
+                                  "chunk latency p50 %d ms, p95 %d ms, p99 %d ms",
+                (current[0] - lastCnts[0]) / seconds, (current[1] - lastCnts[1]) / seconds, (current[2] - lastCnts[2]) / seconds,
+                getReadQueueDepth(), getDocQueueDepth(), getSolrQueueDepth(), getDocQueueBlockedMillis(),
+                getChunkLatencyP50Millis(), getChunkLatencyP95Millis(), getChunkLatencyP99Millis()));
+        lastCnts = current;
+        lastLogTime = now;
+    }
+
+    @Override
+    public int getRecordsRead()
+    {
+        return cnts[0].get();
+    }
+
+    @Override
+    public int getRecordsIndexed()
+    {
+        return cnts[1].get();
+    }
+
+    @Override
+    public int getRecordsSent()
+    {
+        return cnts[2].get();
+    }
+
+    @Override
+    public double getReadRate()
+    {
+        return rate(cnts[0].get());
+    }
+
+    @Override
+    public double getIndexRate()
+    {
+        return rate(cnts[1].get());
+    }
+
+    @Override
+    public double getSendRate()
+    {
+        return rate(cnts[2].get());
+    }
+
+    @Override
+    public int getReadQueueDepth()
+    {
+        return readQ.size();
+    }
+
+    @Override
+    public int getDocQueueDepth()
+    {
+        return docQ.size();
+    }
+
+    @Override
+    public int getSolrQueueDepth()
+    {
+        return solrExecutor.getQueue().size();
+    }
+
+    @Override
+    public long getDocQueueBlockedMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(docQBlockedNanos.get());
+    }
+
+    @Override
+    public long getChunksSent()
+    {
+        return chunksSent.get();
+    }
+
+    @Override
+    public long getChunkLatencyP50Millis()
+    {
+        return latencyPercentileMillis(50);
+    }
+
+    @Override
+    public long getChunkLatencyP95Millis()
+    {
+        return latencyPercentileMillis(95);
+    }
+
+    @Override
+    public long getChunkLatencyP99Millis()
+    {
+        return latencyPercentileMillis(99);
+    }
+}
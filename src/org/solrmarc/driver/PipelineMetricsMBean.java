@@ -0,0 +1,35 @@
+package org.solrmarc.driver;
+
+/**
+ *  JMX management interface for the PipelineMetrics of a running ThreadedIndexer.
+ */
+public interface PipelineMetricsMBean
+{
+    int getRecordsRead();
+
+    int getRecordsIndexed();
+
+    int getRecordsSent();
+
+    double getReadRate();
+
+    double getIndexRate();
+
+    double getSendRate();
+
+    int getReadQueueDepth();
+
+    int getDocQueueDepth();
+
+    int getSolrQueueDepth();
+
+    long getDocQueueBlockedMillis();
+
+    long getChunksSent();
+
+    long getChunkLatencyP50Millis();
+
+    long getChunkLatencyP95Millis();
+
+    long getChunkLatencyP99Millis();
+}
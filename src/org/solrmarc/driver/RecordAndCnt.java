@@ -15,6 +15,7 @@ public class RecordAndCnt
 {
     final private Record record;
     final private int    cnt;    
+    final private long   readTime;
    
     /**
      * Constructor for a RecordAndInt object for which contains a MARC record and an int
@@ -26,6 +27,7 @@ public class RecordAndCnt
     {
         this.record = record;
         this.cnt = cnt;
+        this.readTime = System.nanoTime();
     }
 
     Record getRecord()
@@ -38,4 +40,12 @@ public class RecordAndCnt
         return cnt;
     }
 
+    /**
+     * @return the value of System.nanoTime() at the point the record was read
+     */
+    long getReadTime()
+    {
+        return readTime;
+    }
+
 }
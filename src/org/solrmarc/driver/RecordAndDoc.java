@@ -21,6 +21,9 @@ public class RecordAndDoc
     eErrorSeverity errLvl;
     SolrMarcIndexerException smie;
     IndexerSpecException ise;
+    long readTime = 0L;
+    long cacheRecordKey = 0L;
+    long cacheDocHash = 0L;
     EnumSet<eErrorLocationVal> errLocs = EnumSet.noneOf(eErrorLocationVal.class);
 
     public enum eErrorLocationVal
@@ -51,6 +54,21 @@ public class RecordAndDoc
         this.doc = doc;
     }
 
+    /**
+     * Records when the MARC record was read, so that the latency through the indexing pipeline can be measured.
+     *
+     * @param readTime - The value of System.nanoTime() when the record was read
+     */
+    void setReadTime(long readTime)
+    {
+        this.readTime = readTime;
+    }
+
+    long getReadTime()
+    {
+        return readTime;
+    }
+
     SolrMarcIndexerException getSolrMarcIndexerException()
     {
         return smie;
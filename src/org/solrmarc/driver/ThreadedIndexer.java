@@ -4,12 +4,18 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.log4j.Logger;
 import org.marc4j.MarcReader;
@@ -20,8 +26,9 @@ import org.solrmarc.solr.SolrProxy;
  *  The multi-threaded, producer-consumer implementation of the Indexer class, AKA where the magic happens.
  *  It creates a MarcReaderThread that reads records and places them in a queue
  *  It creates (one or more) ThreadedIndexer objects that each take records from the read queue, creates the
- *  SolrInputDocument for that record, and places the result in a document queue.  Then when enough SolrInputDocument
- *  are in the document queue, this class will gather them up and hand them off to a ChunkIndexWorker that
+ *  SolrInputDocument for that record, and places the result in a document queue.  This class blocks on that
+ *  document queue, gathering documents into a chunk, and as soon as a full chunk is available (or a partial chunk
+ *  has waited longer than solrmarc.indexer.chunk.linger milliseconds) it hands them off to a ChunkIndexWorker that
  *  will manage the sending of that chunk of records to Solr.
  *
  * @author rh9ec
@@ -38,12 +45,19 @@ public class ThreadedIndexer extends Indexer
     Thread thisThread = null;
     ExecutorService indexerExecutor;
     ThreadPoolExecutor solrExecutor;
+    ExecutorService isolationExecutor;
+    ThreadPoolExecutor deleteExecutor = null;
 
     IndexerWorker[] workers = null;
 
     boolean doneReading = false;
     final int chunksize;
+    final long chunkLingerMillis;
+    final AdaptiveChunkController chunkController;
+    final Semaphore chunkSlots;
     final AtomicInteger cnts[];
+    final AtomicLong dispatchLatencyTotal = new AtomicLong(0);
+    final AtomicLong dispatchedChunks = new AtomicLong(0);
 
     public ThreadedIndexer(List<AbstractValueIndexer<?>> indexers, SolrProxy solrProxy, int buffersize, int chunkSize)
     {
@@ -80,6 +94,31 @@ public class ThreadedIndexer extends Indexer
         solrExecutor = new ThreadPoolExecutor(numSolrjWorkers, numSolrjWorkers * 3, 10000L, TimeUnit.MILLISECONDS,
                                               new ArrayBlockingQueue<Runnable>(numSolrjWorkers * 4));
         this.chunksize = chunkSize;
+        long linger = 100L;
+        try {
+            linger = Long.parseLong(System.getProperty("solrmarc.indexer.chunk.linger", "100"));
+        }
+        catch (NumberFormatException nfe)
+        {
+            linger = 100L;
+        }
+        this.chunkLingerMillis = Math.max(1L, linger);
+        this.chunkController = AdaptiveChunkController.fromProperties(chunkSize, numSolrjWorkers, buffersize * 3, solrExecutor);
+        // without the adaptive controller, a fixed number of chunks may be in flight, by default as many as the
+        // solrj executor can hold before it starts rejecting them
+        int inFlight = numSolrjWorkers * 7;
+        try {
+            inFlight = Integer.parseInt(System.getProperty("solrmarc.solrj.inflight", "" + inFlight));
+        }
+        catch (NumberFormatException nfe)
+        {
+            inFlight = numSolrjWorkers * 7;
+        }
+        this.chunkSlots = (chunkController == null) ? new Semaphore(Math.max(1, inFlight)) : null;
+        // sub-chunks of a failed chunk are sent on their own executor, since the failed chunk's thread waits for them
+        isolationExecutor = Executors.newFixedThreadPool(numSolrjWorkers);
+        failureIsolator = new ChunkFailureIsolator(this, isolationExecutor);
+        metrics = new PipelineMetrics(cnts, readQ, docQ, solrExecutor);
     }
 
     private ThreadedIndexer(ThreadedIndexer toClone)
@@ -89,6 +128,10 @@ public class ThreadedIndexer extends Indexer
         docQ = toClone.docQ;
         cnts = toClone.cnts;
         chunksize = toClone.chunksize;
+        chunkLingerMillis = toClone.chunkLingerMillis;
+        chunkController = toClone.chunkController;
+        chunkSlots = toClone.chunkSlots;
+        failureIsolator = toClone.failureIsolator;
         numThreadIndexers = toClone.numThreadIndexers;
         numSolrjWorkers = toClone.numSolrjWorkers;
     }
@@ -138,9 +181,34 @@ public class ThreadedIndexer extends Indexer
     @Override
     public int[] indexToSolr(final MarcReader reader)
     {
-        thisThread = Thread.currentThread();
         resetCnts();
-        readerThread = new MarcReaderThread(reader, this, readQ, cnts);
+        return indexToSolr(new MarcReaderThread(reader, this, readQ, cnts));
+    }
+
+    /**
+     * indexToSolr - Reads the MARC records from several input files, with each file parsed on its own
+     * reader thread, and at most numReaderThreads files being parsed at the same time.
+     *
+     * @param inputFilenames    the names of the input files to read
+     * @param opener            used to create the MarcReader for each of the input files
+     * @param numReaderThreads  the maximum number of files to read concurrently
+     * @param preserveOrder     if true, the records are indexed in the order they would have been
+     *                          indexed had the files been read sequentially
+     * @return        array containing number of records read, number of records
+     *                indexed, and number of records sent to solr
+     */
+    public int[] indexToSolr(final List<String> inputFilenames, final MultiFileMarcReaderThread.MarcReaderOpener opener,
+                             int numReaderThreads, boolean preserveOrder)
+    {
+        resetCnts();
+        return indexToSolr(new MultiFileMarcReaderThread(inputFilenames, opener, this, readQ, cnts, numReaderThreads, preserveOrder));
+    }
+
+    private int[] indexToSolr(final MarcReaderThread marcReaderThread)
+    {
+        thisThread = Thread.currentThread();
+        metrics.start();
+        readerThread = marcReaderThread;
         readerThread.start();
         super.theReaderThread = readerThread;
 
@@ -154,17 +222,26 @@ public class ThreadedIndexer extends Indexer
             indexerExecutor.execute(workers[i]);
         }
         // while the (one or more) IndexerWorker threads are chugging along taking records from
-        // the readQ and building the solr index document, this thread will await the docQ being filled
-        // and when it is full, it will lock the queue, copy all the documents to a separate buffer
-        // and create a ChunkIndexerWorker to manage sending those records to Solr.
+        // the readQ and building the solr index document, this thread blocks on the docQ assembling
+        // chunks of documents.  As soon as a full chunk is available (or a partial chunk has lingered
+        // for chunkLingerMillis) it creates a ChunkIndexerWorker to manage sending those records to Solr.
         while (!done(workers))
         {
             if (shuttingDown)
             {
                 logger.warn("ThreadedIndexer at top of loop, shutting down");
             }
-            if (docQ.size() > chunksize || indexerThreadsAreDone(workers) ||
-                (shuttingDown && docQ.size() > 0)  || (readerThread.isPaused() && docQ.size() > 0))
+            final ArrayList<RecordAndDoc> chunk;
+            try
+            {
+                chunk = assembleChunk();
+            }
+            catch (InterruptedException e)
+            {
+                logger.warn("ThreadedIndexer Interrupted!");
+                continue;
+            }
+            if (chunk.size() > 0)
             {
                 int curProgress = cnts[2].get();
                 if (trackOverallProgress > 0 && curProgress > lastProgress + trackOverallProgress)
@@ -172,67 +249,16 @@ public class ThreadedIndexer extends Indexer
                     lastProgress = curProgress;
                     logger.info("ThreadedIndexer current progress: "+ curProgress + " records");
                 }
-                int curChunkSize = Math.min(chunksize, docQ.size());
-                final ArrayList<RecordAndDoc> chunk = new ArrayList<RecordAndDoc>(curChunkSize);
                 if (shuttingDown)
                 {
-                    logger.warn("ThreadedIndexer flushing "+ curChunkSize + " docs from docQ, which contains "+docQ.size() + " documents");
-                }
-                if (docQ.drainTo(chunk, curChunkSize) > 0)
-                {
-                    RecordAndDoc firstDoc = chunk.get(0);
-                    String threadName = null;
-                    try {
-                        String firstID = firstDoc.getRec().getControlNumber();
-                        String lastID = chunk.get(chunk.size()-1).getRec().getControlNumber();
-                        threadName = "SolrUpdate-"+firstID+"-"+lastID;
-                    }
-                    catch (Exception e)
-                    {
-                        threadName = "Anonymous";
-                    }
-                    final BlockingQueue<RecordAndDoc> errQVal = (this.isSet(eErrorHandleVal.RETURN_ERROR_RECORDS)) ? this.errQ : null;
-                    Runnable runnableChunk = new ChunkIndexerWorker(threadName, chunk, errQVal, this);
-                    logger.debug("Starting IndexerThread: "+ threadName);
-                    logger.debug("   approx number in solrj executor service: "+ solrExecutor.getQueue().size());
-                    while (runnableChunk != null) 
-                    {
-                        try {
-                            solrExecutor.execute(runnableChunk);
-                            runnableChunk = null;
-                        }
-                        catch (RejectedExecutionException  rje)
-                        {
-                            try
-                            {
-                                logger.debug("Solrj thread pool full, blocking");
-                                solrExecutor.getQueue().put(runnableChunk);
-                                logger.debug("Solrj thread pool no longer full, un-blocking");
-                                runnableChunk = null;
-                            }
-                            catch (InterruptedException e)
-                            {
-                                logger.debug("Solrj thread pool interrupted, re-trying");
-                            }
-                        }
-                    }
+                    logger.warn("ThreadedIndexer flushing "+ chunk.size() + " docs from docQ, which contains "+docQ.size() + " documents");
                 }
+                submitChunk(chunk);
             }
             else if (shuttingDown && docQ.size() == 0)
             {
                 break;
             }
-            else
-            {
-                try
-                {
-                    Thread.sleep(10);
-                }
-                catch (InterruptedException e)
-                {
-                    logger.warn("ThreadedIndexer Interrupted!");
-                }
-            }
         }
         if (shuttingDown)
         {
@@ -269,11 +295,210 @@ public class ThreadedIndexer extends Indexer
             {
             }
         }
+        isolationExecutor.shutdown();
+        metrics.stop();
         logger.info("Done writing records to solr");
 
         return(getCounts());
     }
 
+    /**
+     * Blocks on the docQ until at least one document is available, then gathers documents into a chunk
+     * until either the chunk is full, or the chunk has been waiting for chunkLingerMillis, or there
+     * is no reason to expect more documents to arrive soon (shutting down, indexers finished, or reader paused).
+     * If no document arrives within chunkLingerMillis an empty chunk is returned so that the caller can
+     * re-check whether all of the work is done.
+     *
+     * @return  the chunk of documents to send, possibly empty
+     * @throws InterruptedException if interrupted while waiting on the docQ
+     */
+    private ArrayList<RecordAndDoc> assembleChunk() throws InterruptedException
+    {
+        final int curChunkSize = (chunkController != null) ? chunkController.getChunkSize() : chunksize;
+        final ArrayList<RecordAndDoc> chunk = new ArrayList<RecordAndDoc>(curChunkSize);
+        RecordAndDoc first = docQ.poll(chunkLingerMillis, TimeUnit.MILLISECONDS);
+        if (first == null) return(chunk);
+        chunk.add(first);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(chunkLingerMillis);
+        while (chunk.size() < curChunkSize)
+        {
+            docQ.drainTo(chunk, curChunkSize - chunk.size());
+            if (chunk.size() >= curChunkSize || shuttingDown || indexerThreadsAreDone(workers) || readerThread.isPaused())
+            {
+                break;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            RecordAndDoc next = docQ.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            chunk.add(next);
+        }
+        return(chunk);
+    }
+
+    /**
+     * Wraps the chunk of documents in a ChunkIndexerWorker and hands it to the solrj executor, first blocking
+     * until fewer than the permitted number of chunks are in flight.  That number is set by the adaptive
+     * chunk controller if solrmarc.solrj.adaptive is true, and otherwise by solrmarc.solrj.inflight.
+     * The worker updates the counts and the output cache as the documents in the chunk are sent.
+     *
+     * @param chunk  the documents to send to Solr
+     * @return  a Future that is done once every document in the chunk has either been sent or reported as an error
+     */
+    public Future<?> submitChunk(final List<RecordAndDoc> chunk)
+    {
+        RecordAndDoc firstDoc = chunk.get(0);
+        String threadName = null;
+        try {
+            String firstID = firstDoc.getRec().getControlNumber();
+            String lastID = chunk.get(chunk.size()-1).getRec().getControlNumber();
+            threadName = "SolrUpdate-"+firstID+"-"+lastID;
+        }
+        catch (Exception e)
+        {
+            threadName = "Anonymous";
+        }
+        final BlockingQueue<RecordAndDoc> errQVal = (this.isSet(eErrorHandleVal.RETURN_ERROR_RECORDS)) ? this.errQ : null;
+        final String chunkName = threadName;
+        FutureTask<Void> task = new FutureTask<Void>(new ChunkIndexerWorker(threadName, chunk, errQVal, this, chunkController, failureIsolator), null)
+        {
+            @Override
+            protected void done()
+            {
+                releaseChunkSlot();
+                try
+                {
+                    get();
+                }
+                catch (ExecutionException e)
+                {
+                    sendFailedCnt.addAndGet(chunk.size());
+                    logger.error("Error sending chunk " + chunkName, e.getCause());
+                }
+                catch (CancellationException e)
+                {
+                    logger.debug("Chunk " + chunkName + " was cancelled");
+                }
+                catch (InterruptedException e)
+                {
+                }
+            }
+        };
+        logger.debug("Starting IndexerThread: "+ threadName);
+        logger.debug("   approx number in solrj executor service: "+ solrExecutor.getQueue().size());
+        acquireChunkSlot();
+        recordDispatchLatency(firstDoc);
+        Runnable runnableChunk = task;
+        while (runnableChunk != null)
+        {
+            try {
+                solrExecutor.execute(runnableChunk);
+                runnableChunk = null;
+            }
+            catch (RejectedExecutionException  rje)
+            {
+                // a chunk that has just released its slot may still be holding its thread
+                try
+                {
+                    logger.debug("Solrj thread pool full, blocking");
+                    solrExecutor.getQueue().put(runnableChunk);
+                    logger.debug("Solrj thread pool no longer full, un-blocking");
+                    runnableChunk = null;
+                }
+                catch (InterruptedException e)
+                {
+                    logger.debug("Solrj thread pool interrupted, re-trying");
+                }
+            }
+        }
+        return(task);
+    }
+
+    private void acquireChunkSlot()
+    {
+        boolean haveSlot = false;
+        while (!haveSlot)
+        {
+            try
+            {
+                if (chunkController != null) chunkController.acquireSlot();
+                else                         chunkSlots.acquire();
+                haveSlot = true;
+            }
+            catch (InterruptedException e)
+            {
+                logger.debug("Interrupted waiting for a chunk to finish, re-trying");
+            }
+        }
+    }
+
+    private void releaseChunkSlot()
+    {
+        if (chunkController != null) chunkController.releaseSlot();
+        else                         chunkSlots.release();
+    }
+
+    private void recordDispatchLatency(RecordAndDoc oldestDoc)
+    {
+        if (oldestDoc.getReadTime() == 0L) return;
+        long latency = System.nanoTime() - oldestDoc.getReadTime();
+        dispatchLatencyTotal.addAndGet(latency);
+        dispatchedChunks.incrementAndGet();
+        logger.debug("   read to dispatch latency of oldest doc in chunk: " + TimeUnit.NANOSECONDS.toMicros(latency) + " us");
+    }
+
+    /**
+     * @return  the average time in nanoseconds between reading the first record of a chunk
+     *          and handing that chunk to the solrj executor, or 0 if no chunks have been dispatched.
+     */
+    long getAverageDispatchLatency()
+    {
+        long chunks = dispatchedChunks.get();
+        return (chunks == 0) ? 0L : dispatchLatencyTotal.get() / chunks;
+    }
+
+    /**
+     * Sends the batch of deletes on one of numSolrjWorkers threads.  The solrj executor has already been shut down
+     * by the time the deletes are processed, so a pool of the same size is created for them.  When all of the threads
+     * are busy and the queue is full, the batch is sent on the current thread, which keeps the delete-by-id file from
+     * being read any further ahead than the deletes can be sent.
+     */
+    @Override
+    void dispatchDeletes(final List<String> batch)
+    {
+        if (deleteExecutor == null)
+        {
+            deleteExecutor = new ThreadPoolExecutor(numSolrjWorkers, numSolrjWorkers, 10000L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(numSolrjWorkers * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        deleteExecutor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                sendDeletes(batch);
+            }
+        });
+    }
+
+    @Override
+    void awaitDeletes()
+    {
+        if (deleteExecutor == null) return;
+        deleteExecutor.shutdown();
+        boolean done = false;
+        while (done == false)
+        {
+            try {
+                done = deleteExecutor.awaitTermination(Integer.MAX_VALUE, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+            }
+        }
+        deleteExecutor = null;
+    }
+
     @Override
     int[] getCounts()
     {
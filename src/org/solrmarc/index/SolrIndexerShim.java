@@ -10,8 +10,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.marc4j.marc.DataField;
 import org.marc4j.marc.Record;
@@ -20,6 +18,8 @@ import org.marc4j.marc.VariableField;
 import org.solrmarc.index.indexer.AbstractValueIndexer;
 import org.solrmarc.index.indexer.ValueIndexerFactory;
 import org.solrmarc.index.mapping.AbstractMultiValueMapping;
+import org.solrmarc.index.specification.SubfieldCodeSet;
+import org.solrmarc.marc.RecordFieldIndex;
 import org.solrmarc.tools.DataUtil;
 import org.solrmarc.tools.Utils;
 
@@ -646,7 +646,7 @@ public class SolrIndexerShim
             if (tag == "LNK") tag = tags[i].substring(0, 6);
             tags[i] = tag;
         }
-        return(record.getVariableFields(tags));
+        return(RecordFieldIndex.getVariableFields(record, tags));
     }
 
     /**
@@ -710,14 +710,13 @@ public class SolrIndexerShim
     {
         if (subfldTags.length() > 1 && !subfldTags.startsWith("["))
             subfldTags = '[' + subfldTags + ']';
-        Pattern subfieldPattern = Pattern.compile(subfldTags.length() == 0 ? "." : subfldTags);
+        SubfieldCodeSet subfieldCodes = SubfieldCodeSet.forRegex(subfldTags.length() == 0 ? "." : subfldTags);
         DataField marcField = (DataField) vf;
         StringBuffer buffer = new StringBuffer("");
         List<Subfield> subfields = marcField.getSubfields();
         for (Subfield subfield : subfields)
         {
-            Matcher matcher = subfieldPattern.matcher("" + subfield.getCode());
-            if (matcher.matches())
+            if (subfieldCodes.matches(subfield.getCode()))
             {
                 if (buffer.length() > 0)
                     buffer.append(separator != null ? separator : " ");
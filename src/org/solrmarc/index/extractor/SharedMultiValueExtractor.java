@@ -0,0 +1,143 @@
+package org.solrmarc.index.extractor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.marc4j.marc.Record;
+
+/**
+ * An extraction that is used by several index specifications, such as the <code>245abnp, clean</code> that
+ * title, title_full and title_display might all start with.  The ValueIndexerFactory gives each of those
+ * indexers the same SharedMultiValueExtractor wrapping the underlying extractor, so that the extraction is only
+ * performed by the first of them applied to a record, and the others work from its result.
+ * <p>
+ * The result is kept per thread, for the record currently being processed by that thread, until each of the
+ * indexers sharing it has had it, and is discarded when a different record is seen or
+ * <code>SharedMultiValueExtractor.clear()</code> is called.  Each indexer but the last gets its own copy of the
+ * values, so that a mapping or collector that modifies the collection it is given can't affect the other
+ * indexers.  If the underlying extractor isn't thread safe each thread uses its own copy of it, so the shared
+ * extractor itself can be used by all threads.
+ * </p>
+ */
+public class SharedMultiValueExtractor extends AbstractMultiValueExtractor implements ExternalMethod
+{
+    // changed by clear(), so that a result kept for a record is never used once the thread is done with the record,
+    // even if the same Record object is indexed again after being modified
+    private final static ThreadLocal<int[]> generation = new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue()
+        {
+            return new int[1];
+        }
+    };
+
+    private final AbstractMultiValueExtractor extractor;
+    private final String extractionKey;
+    private final int numSharing;
+    private final ThreadLocal<Memo> current = new ThreadLocal<Memo>()
+    {
+        @Override
+        protected Memo initialValue()
+        {
+            return new Memo(extractorForThread());
+        }
+    };
+
+    /**
+     * The result of this shared extraction for the record one thread is processing.
+     */
+    private final static class Memo
+    {
+        final AbstractMultiValueExtractor extractor;
+        Record record = null;
+        int generation;
+        Collection<String> values = null;
+        int remaining;
+
+        Memo(AbstractMultiValueExtractor extractor)
+        {
+            this.extractor = extractor;
+        }
+    }
+
+    /**
+     * @param extractor      the extraction to share
+     * @param extractionKey  the text of the extraction, for reporting
+     * @param numSharing     the number of indexers the extraction is shared by
+     */
+    public SharedMultiValueExtractor(AbstractMultiValueExtractor extractor, String extractionKey, int numSharing)
+    {
+        this.extractor = extractor;
+        this.extractionKey = extractionKey;
+        this.numSharing = numSharing;
+    }
+
+    /**
+     * @return  the text of the extraction that is shared, for reporting
+     */
+    public String getExtractionKey()
+    {
+        return extractionKey;
+    }
+
+    @Override
+    public Collection<String> extract(final Record record) throws Exception
+    {
+        Memo memo = current.get();
+        int gen = generation.get()[0];
+        if (memo.values != null && memo.record == record && memo.generation == gen)
+        {
+            if (--memo.remaining > 0)
+            {
+                return new ArrayList<String>(memo.values);
+            }
+            // the last of the indexers sharing the extraction can have the values themselves
+            Collection<String> values = memo.values;
+            memo.values = null;
+            memo.record = null;
+            return(values);
+        }
+        Collection<String> values = memo.extractor.extract(record);
+        if (values == null || numSharing < 2) return(values);
+        memo.record = record;
+        memo.generation = gen;
+        memo.values = values;
+        memo.remaining = numSharing - 1;
+        return new ArrayList<String>(values);
+    }
+
+    private AbstractMultiValueExtractor extractorForThread()
+    {
+        if (!(extractor instanceof ExternalMethod) || ((ExternalMethod) extractor).isThreadSafe())
+        {
+            return(extractor);
+        }
+        Object copy = ((ExternalMethod) extractor).makeThreadSafeCopy();
+        if (copy instanceof AbstractSingleValueExtractor)
+        {
+            copy = new MultiValueWrapperSingleValueExtractor((AbstractSingleValueExtractor) copy);
+        }
+        return((AbstractMultiValueExtractor) copy);
+    }
+
+    /**
+     * Marks the results kept by the current thread as out of date, called when the thread is done with a record.
+     */
+    public static void clear()
+    {
+        generation.get()[0]++;
+    }
+
+    @Override
+    public boolean isThreadSafe()
+    {
+        return true;
+    }
+
+    @Override
+    public Object makeThreadSafeCopy()
+    {
+        return this;
+    }
+}
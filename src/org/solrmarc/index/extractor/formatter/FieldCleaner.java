@@ -0,0 +1,382 @@
+package org.solrmarc.index.extractor.formatter;
+
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.EnumSet;
+import java.util.Locale;
+
+import org.solrmarc.index.extractor.formatter.FieldFormatter.eCleanVal;
+import org.solrmarc.tools.DataUtil;
+import org.solrmarc.tools.Utils;
+
+/**
+ * Applies a set of cleaning options to a value in a single pass, producing exactly what
+ * <code>DataUtil.cleanByVal</code> produces for the same options.
+ * <p>
+ * The options are decided once, when the cleaner is created, rather than for every value.  The steps of
+ * <code>DataUtil.cleanData</code> (trimming, removing trailing punctuation and periods, removing outer brackets)
+ * only ever remove characters from the ends of the value, so they are done by moving the bounds of the part of the
+ * value that is kept, without making any copies.  Stripping accents and punctuation, trimming again and changing
+ * the case are then done in one loop over that part, into a StringBuilder that each thread reuses, so a value is
+ * copied at most once.  Only a value that isn't entirely ASCII needs more:  it is normalized first when accents are
+ * stripped, and its case is changed by String.toLowerCase or toUpperCase.
+ * </p>
+ * <p>
+ * The regular expressions DataUtil uses for the clean and stripPunct options treat line terminators and surrogate
+ * pairs specially, so with those options a value containing either of them is simply passed to
+ * <code>DataUtil.cleanByVal</code>.
+ * </p>
+ */
+public final class FieldCleaner
+{
+    private final static ThreadLocal<StringBuilder> buffers = new ThreadLocal<StringBuilder>()
+    {
+        @Override
+        protected StringBuilder initialValue()
+        {
+            return new StringBuilder(256);
+        }
+    };
+    private final static int PUNCTUATION_TYPES = (1 << Character.CONNECTOR_PUNCTUATION) | (1 << Character.DASH_PUNCTUATION)
+            | (1 << Character.START_PUNCTUATION) | (1 << Character.END_PUNCTUATION) | (1 << Character.INITIAL_QUOTE_PUNCTUATION)
+            | (1 << Character.FINAL_QUOTE_PUNCTUATION) | (1 << Character.OTHER_PUNCTUATION);
+    private final static String ASCII_PUNCT = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+
+    private final static int NO_CASE = 0;
+    private final static int LOWER_CASE = 1;
+    private final static int UPPER_CASE = 2;
+    private final static int TITLE_CASE = 3;
+
+    private final EnumSet<eCleanVal> cleanVal;
+    private final boolean cleanEach;
+    private final boolean furtherCleaning;
+    private final boolean stripAccents;
+    private final boolean stripPunct;
+    private final boolean trim;
+    private final int caseChange;
+
+    public FieldCleaner(final EnumSet<eCleanVal> cleanVal)
+    {
+        this.cleanVal = EnumSet.copyOf(cleanVal);
+        cleanEach = cleanVal.contains(eCleanVal.CLEAN_EACH);
+        stripAccents = cleanVal.contains(eCleanVal.STRIP_ACCCENTS);
+        stripPunct = cleanVal.contains(eCleanVal.STRIP_ALL_PUNCT);
+        trim = !cleanVal.contains(eCleanVal.UNTRIMMED);
+        caseChange = cleanVal.contains(eCleanVal.TO_LOWER) ? LOWER_CASE : cleanVal.contains(eCleanVal.TO_UPPER) ? UPPER_CASE
+                   : cleanVal.contains(eCleanVal.TO_TITLECASE) ? TITLE_CASE : NO_CASE;
+        furtherCleaning = stripAccents || stripPunct || caseChange != NO_CASE || cleanVal.contains(eCleanVal.STRIP_INDICATOR_1)
+                || cleanVal.contains(eCleanVal.STRIP_INDICATOR_2) || cleanVal.contains(eCleanVal.STRIP_INDICATOR);
+    }
+
+    /**
+     * @param cleanVal  a set of cleaning options
+     * @return true if the cleaner was created for the same set of options
+     */
+    public boolean isFor(final EnumSet<eCleanVal> cleanVal)
+    {
+        return(this.cleanVal.equals(cleanVal));
+    }
+
+    /**
+     * Cleans a value, as <code>DataUtil.cleanByVal(value, cleanVal)</code> does.
+     *
+     * @param value  the value to clean
+     * @return the cleaned value
+     */
+    public String clean(final String value)
+    {
+        return(cleanRange(value, 0, value.length()));
+    }
+
+    /**
+     * Cleans a value, as <code>FieldFormatterBase.cleanData</code> does once it has decided how many characters
+     * to strip for a non-filing indicator:  the characters are removed from the start of the value, then the
+     * substring is taken (an empty string if it is out of range), the result is trimmed unless the options include
+     * untrimmed, and then cleaned.
+     *
+     * @param value           the value to clean
+     * @param numToDel        the number of characters to remove from the start of the value
+     * @param substringStart  the start of the substring to take, or -1
+     * @param substringEnd    the end of the substring to take, or -1 for the rest of the value
+     * @return the cleaned value
+     */
+    public String clean(final String value, final int numToDel, final int substringStart, final int substringEnd)
+    {
+        int start = Math.min(numToDel, value.length());
+        int end = value.length();
+        if (substringStart != -1)
+        {
+            int length = end - start;
+            int subEnd = (substringEnd != -1) ? substringEnd : length;
+            if (substringStart < 0 || subEnd > length || substringStart > subEnd)
+            {
+                start = end = 0;
+            }
+            else
+            {
+                end = start + subEnd;
+                start = start + substringStart;
+            }
+        }
+        if (trim)
+        {
+            while (start < end && value.charAt(start) <= ' ') start++;
+            while (end > start && value.charAt(end - 1) <= ' ') end--;
+        }
+        return(cleanRange(value, start, end));
+    }
+
+    /**
+     * Cleans a value, as <code>DataUtil.cleanData(value)</code> does, which is what the clean option does to each
+     * value and the cleanEnd option does to each joined field.
+     *
+     * @param value  the value to clean
+     * @return the cleaned value
+     */
+    public static String cleanData(final String value)
+    {
+        if (needsRegex(value, 0, value.length()))
+        {
+            return(DataUtil.cleanData(value));
+        }
+        long range = cleanEachRange(value, 0, value.length());
+        return(value.substring((int) (range >>> 32), (int) range));
+    }
+
+    private String cleanRange(final String value, int start, int end)
+    {
+        if ((cleanEach || stripPunct) && needsRegex(value, start, end))
+        {
+            return(DataUtil.cleanByVal(value.substring(start, end), cleanVal));
+        }
+        if (cleanEach)
+        {
+            long range = cleanEachRange(value, start, end);
+            start = (int) (range >>> 32);
+            end = (int) range;
+        }
+        if (!furtherCleaning)
+        {
+            return(value.substring(start, end));
+        }
+        if (!stripAccents && !stripPunct)
+        {
+            // only trimming and changing the case, which String already does in a single pass
+            if (trim)
+            {
+                while (start < end && value.charAt(start) <= ' ') start++;
+                while (end > start && value.charAt(end - 1) <= ' ') end--;
+            }
+            String str = value.substring(start, end);
+            return(caseChange == LOWER_CASE ? str.toLowerCase() : caseChange == UPPER_CASE ? str.toUpperCase()
+                   : caseChange == TITLE_CASE ? DataUtil.toTitleCase(str) : str);
+        }
+        CharSequence source = value;
+        if (stripAccents && !isAscii(value, start, end))
+        {
+            source = Normalizer.normalize(value.subSequence(start, end), Form.NFD);
+            start = 0;
+            end = source.length();
+        }
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        boolean ascii = true;
+        boolean inPunct = false;
+        for (int i = start; i < end; i++)
+        {
+            char c = source.charAt(i);
+            if (stripAccents)
+            {
+                if (isCombiningMark(c)) continue;
+                char folded = Utils.foldDiacriticLatinChar(c);
+                if (folded != 0) c = folded;
+            }
+            if (stripPunct)
+            {
+                if (c == ' ' || (c < 0x80 ? ASCII_PUNCT.indexOf(c) >= 0 : ((PUNCTUATION_TYPES >> Character.getType(c)) & 1) != 0))
+                {
+                    if (!inPunct) buffer.append(' ');
+                    inPunct = true;
+                    continue;
+                }
+                inPunct = false;
+            }
+            if (c >= 0x80) ascii = false;
+            buffer.append(c);
+        }
+        int from = 0;
+        int to = buffer.length();
+        if (trim)
+        {
+            while (from < to && buffer.charAt(from) <= ' ') from++;
+            while (to > from && buffer.charAt(to - 1) <= ' ') to--;
+        }
+        if (caseChange == LOWER_CASE || caseChange == UPPER_CASE)
+        {
+            if (!ascii || hasSpecialCasing(Locale.getDefault()))
+            {
+                String str = buffer.substring(from, to);
+                return(caseChange == LOWER_CASE ? str.toLowerCase() : str.toUpperCase());
+            }
+            char first = (caseChange == LOWER_CASE) ? 'A' : 'a';
+            char last = (caseChange == LOWER_CASE) ? 'Z' : 'z';
+            int offset = (caseChange == LOWER_CASE) ? 'a' - 'A' : 'A' - 'a';
+            for (int i = from; i < to; i++)
+            {
+                char c = buffer.charAt(i);
+                if (c >= first && c <= last) buffer.setCharAt(i, (char) (c + offset));
+            }
+        }
+        String str = buffer.substring(from, to);
+        return(caseChange == TITLE_CASE ? DataUtil.toTitleCase(str) : str);
+    }
+
+    /**
+     * The equivalent of DataUtil.cleanData, which only removes characters from either end of the value, so
+     * returns the start and end of what remains, packed into a long.
+     */
+    private static long cleanEachRange(final String value, int start, int end)
+    {
+        int prevStart, prevEnd;
+        do
+        {
+            prevStart = start;
+            prevEnd = end;
+            // trim
+            while (start < end && value.charAt(start) <= ' ') start++;
+            while (end > start && value.charAt(end - 1) <= ' ') end--;
+
+            // " *([,/;:])$"
+            if (end > start && ",/;:".indexOf(value.charAt(end - 1)) >= 0)
+            {
+                end--;
+                while (end > start && value.charAt(end - 1) == ' ') end--;
+            }
+
+            // trailing period removed in certain circumstances
+            if (end > start && value.charAt(end - 1) == '.')
+            {
+                int length = end - start;
+                if (length >= 3 && value.charAt(end - 2) == 'r' && (value.charAt(end - 3) == 'J' || value.charAt(end - 3) == 'S'))
+                {
+                    // dont strip period off of Jr. or Sr.
+                }
+                else if (length >= 3 && isWordChar(value.charAt(end - 2)) && isWordChar(value.charAt(end - 3)))
+                {
+                    end--;
+                }
+                else if (length >= 3 && Character.isLetter(value.charAt(end - 2)) && Character.isLetter(value.charAt(end - 3)))
+                {
+                    end--;
+                }
+                else if (endsWithMarkedWordChars(value, start, end - 1))
+                {
+                    end--;
+                }
+                else if (length >= 2 && ASCII_PUNCT.indexOf(value.charAt(end - 2)) >= 0)
+                {
+                    end--;
+                }
+            }
+
+            // removeOuterBrackets
+            if (end > start)
+            {
+                while (start < end && value.charAt(start) <= ' ') start++;
+                while (end > start && value.charAt(end - 1) <= ' ') end--;
+                if (end > start)
+                {
+                    boolean openBracketFirst = value.charAt(start) == '[';
+                    boolean closeBracketLast = value.charAt(end - 1) == ']';
+                    if (openBracketFirst && closeBracketLast && indexOf(value, '[', start + 1, end) == -1
+                            && indexOf(value, ']', start, end - 1) == -1)
+                    {
+                        start++;
+                        end--;
+                    }
+                    else if (openBracketFirst && indexOf(value, ']', start, end) == -1)
+                    {
+                        start++;
+                    }
+                    else if (closeBracketLast && indexOf(value, '[', start, end) == -1)
+                    {
+                        end--;
+                    }
+                }
+                while (start < end && value.charAt(start) <= ' ') start++;
+                while (end > start && value.charAt(end - 1) <= ' ') end--;
+            }
+            if (end == start) break;
+        } while (start != prevStart || end != prevEnd);
+
+        return(((long) start << 32) | end);
+    }
+
+    /**
+     * @return whether the value, up to end, ends with "\w\p{InCombiningDiacriticalMarks}?\w\p{InCombiningDiacriticalMarks}?"
+     */
+    private static boolean endsWithMarkedWordChars(final String value, final int start, int end)
+    {
+        for (int i = 0; i < 2; i++)
+        {
+            if (end > start && isCombiningMark(value.charAt(end - 1))) end--;
+            if (end <= start || !isWordChar(value.charAt(end - 1))) return(false);
+            end--;
+        }
+        return(true);
+    }
+
+    /**
+     * @return whether the value contains a line terminator or a surrogate, which DataUtil's regular expressions
+     *         don't treat as single characters
+     */
+    private static boolean needsRegex(final String value, final int start, final int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029' || Character.isSurrogate(c))
+            {
+                return(true);
+            }
+        }
+        return(false);
+    }
+
+    private static boolean isWordChar(final char c)
+    {
+        return((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_');
+    }
+
+    private static boolean isCombiningMark(final char c)
+    {
+        return(c >= '\u0300' && c <= '\u036F');
+    }
+
+    private static boolean isAscii(final String value, final int start, final int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            if (value.charAt(i) >= 0x80) return(false);
+        }
+        return(true);
+    }
+
+    private static int indexOf(final String value, final char c, final int start, final int end)
+    {
+        for (int i = start; i < end; i++)
+        {
+            if (value.charAt(i) == c) return(i);
+        }
+        return(-1);
+    }
+
+    /**
+     * @return whether String.toLowerCase and toUpperCase treat some ASCII letters specially in the locale
+     */
+    private static boolean hasSpecialCasing(final Locale locale)
+    {
+        String language = locale.getLanguage();
+        return(language.equals("tr") || language.equals("az") || language.equals("lt"));
+    }
+}
@@ -12,7 +12,6 @@ import org.marc4j.marc.DataField;
 import org.marc4j.marc.VariableField;
 import org.solrmarc.index.extractor.ExternalMethod;
 import org.solrmarc.index.mapping.AbstractMultiValueMapping;
-import org.solrmarc.tools.DataUtil;
 
 public class FieldFormatterBase implements FieldFormatter
 {
@@ -26,6 +25,8 @@ public class FieldFormatterBase implements FieldFormatter
     int substringStart = -1;
     int substringEnd = -1;
     EnumSet<eCleanVal> cleanVal = EnumSet.noneOf(eCleanVal.class);
+    // the cleaning options compiled for cleanData, replaced whenever cleanVal no longer matches them
+    private FieldCleaner cleaner = null;
 
     String fieldTagFmt = null;
 
@@ -280,6 +281,26 @@ public class FieldFormatterBase implements FieldFormatter
         return(this);
     }
 
+    public int getSubstringStart()
+    {
+        return substringStart;
+    }
+
+    public int getSubstringEnd()
+    {
+        return substringEnd;
+    }
+
+    public Map<String, String> getSfCodeMap()
+    {
+        return sfCodeMap;
+    }
+
+    public List<AbstractMultiValueMapping> getMaps()
+    {
+        return maps;
+    }
+
     @Override
     public FieldFormatter setSubstring(int offset, int endOffset)
     {
@@ -425,46 +446,27 @@ public class FieldFormatterBase implements FieldFormatter
         return(pattern);
     }
 
-    private final String getSubstring(final String data)
-    {
-        try
-        {
-            if (substringStart != -1)
-            {
-                if (substringEnd != -1) return data.substring(substringStart, substringEnd);
-                else                    return data.substring(substringStart);
-            }
-            else
-            {
-                return(data);
-            }
-        }
-        catch (IndexOutOfBoundsException ioobe)
-        {
-            return("");
-        }
-    }
-
     public String cleanData(VariableField vf, boolean isSubfieldA, String data)
     {
         final EnumSet<eCleanVal> cleanVal = getCleanVal();
         int numToDel = 0;
 
-        String trimmed = data;
         if ((cleanVal.contains(eCleanVal.STRIP_INDICATOR_1) || cleanVal.contains(eCleanVal.STRIP_INDICATOR_2) || cleanVal.contains(eCleanVal.STRIP_INDICATOR)) 
                 && isSubfieldA && vf instanceof DataField)
         {
             DataField df = (DataField) vf;
             char indVal = getIndicatorValueToStrip(df, cleanVal);
             numToDel = (indVal >= '0' && indVal <= '9') ? indVal - '0' : 0;
-            if (numToDel > trimmed.length()) 
-                numToDel = trimmed.length();
-            if (numToDel > 0) trimmed = trimmed.substring(numToDel);
+            if (numToDel > data.length()) 
+                numToDel = data.length();
         }
-        trimmed = cleanVal.contains(eCleanVal.UNTRIMMED) ? getSubstring(trimmed) : getSubstring(trimmed).trim();
-
-        String str = DataUtil.cleanByVal(trimmed, cleanVal);
-        return(str);
+        FieldCleaner cleaner = this.cleaner;
+        if (cleaner == null || !cleaner.isFor(cleanVal))
+        {
+            cleaner = this.cleaner = new FieldCleaner(cleanVal);
+        }
+        // the same as taking the substring, trimming and calling DataUtil.cleanByVal, in a single pass
+        return(cleaner.clean(data, numToDel, substringStart, substringEnd));
 //        
 //        String str = (cleanVal.contains(eCleanVal.CLEAN_EACH)) ? DataUtil.cleanData(trimmed) : trimmed;
 //        if (!cleanVal.contains(eCleanVal.STRIP_ACCCENTS) && !cleanVal.contains(eCleanVal.STRIP_ALL_PUNCT)
@@ -581,7 +583,7 @@ public class FieldFormatterBase implements FieldFormatter
         else if (joinVal == eJoinVal.SEPARATE)
         {
             if (sb.length() == 0) return;
-            final String field = (this.getCleanVal().contains(eCleanVal.CLEAN_END)) ? DataUtil.cleanData(sb.toString()) : sb.toString();
+            final String field = (this.getCleanVal().contains(eCleanVal.CLEAN_END)) ? FieldCleaner.cleanData(sb.toString()) : sb.toString();
             if (field.length() > 0) result.add(field);
             sb.setLength(0);
         }
@@ -601,14 +603,14 @@ public class FieldFormatterBase implements FieldFormatter
         {
             String fieldVal = sb.toString().replaceAll("\\$[a-z0-9]", "");
             if (fieldVal.length() == 0) return;
-            final String field = (this.getCleanVal().contains(eCleanVal.CLEAN_END)) ? DataUtil.cleanData(fieldVal) : fieldVal;
+            final String field = (this.getCleanVal().contains(eCleanVal.CLEAN_END)) ? FieldCleaner.cleanData(fieldVal) : fieldVal;
             if (field.length() > 0) result.add(field);
             sb.setLength(0);
         }
         else if (joinVal == eJoinVal.JOIN)
         {
             if (sb.length() == 0) return;
-            final String field = (this.getCleanVal().contains(eCleanVal.CLEAN_END)) ? DataUtil.cleanData(sb.toString()) : sb.toString();
+            final String field = (this.getCleanVal().contains(eCleanVal.CLEAN_END)) ? FieldCleaner.cleanData(sb.toString()) : sb.toString();
             if (field.length() > 0) result.add(field);
             sb.setLength(0);
         }
@@ -91,19 +91,10 @@ public class JavaValueExtractorUtils
                 }
             }
             try {
-                final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, Charset.forName("UTF-8"));
-                fileManager.setLocation(StandardLocation.SOURCE_PATH, Collections.singleton(new File(srcDirectory)));
-                fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(new File(binDirectory)));
-                fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
-
                 final DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
-                final Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sourceFiles);
-                final Iterable<String> options = Collections.singletonList("-g");
-                final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnosticCollector, options, null, units);
-
                 logger.trace("Compile java files:\n" + sourceFiles.toString().replaceAll(",", ",\n"));
 
-                if (!task.call())
+                if (!compileFiles(compiler, sourceFiles, new File(srcDirectory), new File(binDirectory), classpath, diagnosticCollector))
                 {
                     StringBuilder buffer = new StringBuilder();
                     for (Diagnostic<? extends JavaFileObject> diagnostic : diagnosticCollector.getDiagnostics())
@@ -113,7 +104,6 @@ public class JavaValueExtractorUtils
                     throw new RuntimeException('\n' + buffer.toString() + "\nCompiling java sources failed!");
                 }
                 logger.trace("... done");
-                fileManager.close();
             }
             catch (IOException ioe)
             {
@@ -123,6 +113,42 @@ public class JavaValueExtractorUtils
         return true;
     }
 
+    /**
+     * Compiles a set of java source files, writing the classes to a directory.
+     *
+     * @param compiler      the java compiler to use
+     * @param sourceFiles   the source files to compile
+     * @param srcDirectory  the directory searched for other sources the files refer to, or null
+     * @param binDirectory  the directory the compiled classes are written to
+     * @param classpath     the classpath to compile against
+     * @param diagnostics   receives the errors and warnings reported by the compiler
+     * @return              true if the sources compiled, else false
+     * @throws IOException  if the source files or directories can't be accessed
+     */
+    public static boolean compileFiles(JavaCompiler compiler, List<File> sourceFiles, File srcDirectory, File binDirectory,
+                                       List<File> classpath, DiagnosticCollector<JavaFileObject> diagnostics) throws IOException
+    {
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, Charset.forName("UTF-8"));
+        try
+        {
+            if (srcDirectory != null)
+            {
+                fileManager.setLocation(StandardLocation.SOURCE_PATH, Collections.singleton(srcDirectory));
+            }
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(binDirectory));
+            fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+
+            final Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(sourceFiles);
+            final Iterable<String> options = Collections.singletonList("-g");
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, units);
+            return task.call();
+        }
+        finally
+        {
+            fileManager.close();
+        }
+    }
+
     private void createBinDirectory(String binDirectoryStr)
     {
         final File binDirectory = new File(binDirectoryStr);
@@ -1,5 +1,6 @@
 package org.solrmarc.index.extractor.impl.patternMapping;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -20,6 +21,16 @@ public class PatternMapping
 //    private final String inputString;
     private final String outputPattern;
     private final int orderIndex;
+    /**
+     * A literal string that every match of the input pattern must contain, or the empty string if none could
+     * be determined.  Any value that doesn't contain it is rejected without running the regex. 
+     */
+    private final String requiredLiteral;
+    /**
+     * The output pattern split into literal strings and group numbers (as Integers), so that the mapped value
+     * can be built directly from the groups of the match. 
+     */
+    private final Object[] outputParts;
     
     public PatternMapping(final String inputPatternStr, final String outputPattern, final int orderIndex)
     {
@@ -44,12 +55,233 @@ public class PatternMapping
             throw new IndexerSpecException(
                     "Unknown group $" + groupMax + " in pattern map replacement string : " + outputPattern + "\n");
         }
+        this.requiredLiteral = findRequiredLiteral(inputPatternStr);
+        this.outputParts = compileOutputPattern(outputPattern, groupCnt);
+    }
+
+    /**
+     * Splits the output pattern into literal text and group references.  At each <code>$</code> the reference
+     * is the longest run of following digits that names a group of the input pattern, which is the same group
+     * that replacing <code>$groupCount</code> down to <code>$1</code> in turn would have substituted there.
+     */
+    static Object[] compileOutputPattern(String outputPattern, int groupCnt)
+    {
+        List<Object> parts = new ArrayList<Object>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < outputPattern.length())
+        {
+            char c = outputPattern.charAt(i);
+            int group = 0;
+            int end = i + 1;
+            if (c == '$' && i + 1 < outputPattern.length() && outputPattern.charAt(i + 1) != '0')
+            {
+                int num = 0;
+                for (int j = i + 1; j < outputPattern.length() && Character.isDigit(outputPattern.charAt(j)); j++)
+                {
+                    num = num * 10 + (outputPattern.charAt(j) - '0');
+                    if (num > groupCnt) break;
+                    group = num;
+                    end = j + 1;
+                }
+            }
+            if (group > 0)
+            {
+                if (literal.length() > 0) parts.add(literal.toString());
+                literal.setLength(0);
+                parts.add(Integer.valueOf(group));
+                i = end;
+            }
+            else
+            {
+                literal.append(c);
+                i++;
+            }
+        }
+        if (literal.length() > 0) parts.add(literal.toString());
+        return parts.toArray();
+    }
+
+    /**
+     * Finds the longest run of literal characters that must appear in any match of the regex.  Only the top level
+     * of the regex is examined; groups, character classes and anything else that isn't plainly a literal character
+     * end a run, as does a character that is quantified.  A regex that contains a top level alternation or that
+     * sets flags has no required literal.  An escape such as <code>\x41</code>, <code>&#92;u0041</code>,
+     * <code>\0101</code> or a backreference ends a run as a whole, so the digits that belong to it are never taken
+     * as literal text.
+     */
+    static String findRequiredLiteral(String regex)
+    {
+        try
+        {
+            String best = "";
+            StringBuilder run = new StringBuilder();
+            int i = 0;
+            while (i < regex.length())
+            {
+                char c = regex.charAt(i);
+                int tokenEnd;
+                char literal = 0;
+                if (c == '|') return("");
+                if (c == '\\')
+                {
+                    char next = regex.charAt(i + 1);
+                    if (Character.isLetterOrDigit(next)) 
+                    {
+                        if (next == 'Q') return("");
+                        literal = 0;
+                        tokenEnd = skipEscape(regex, i);
+                    }
+                    else
+                    {
+                        literal = next;
+                        tokenEnd = i + 2;
+                    }
+                }
+                else if (c == '[')
+                {
+                    tokenEnd = skipClass(regex, i);
+                }
+                else if (c == '(')
+                {
+                    if (regex.startsWith("(?", i) && ":=!<>".indexOf(regex.charAt(i + 2)) < 0) return("");
+                    tokenEnd = skipGroup(regex, i);
+                }
+                else if (Character.isLetterOrDigit(c) || " -_,;:/'\"!@#%&=<>~`".indexOf(c) >= 0)
+                {
+                    literal = c;
+                    tokenEnd = i + 1;
+                }
+                else
+                {
+                    tokenEnd = i + 1;
+                }
+                char quantifier = tokenEnd < regex.length() ? regex.charAt(tokenEnd) : 0;
+                boolean optional = (quantifier == '?' || quantifier == '*' || quantifier == '{');
+                if (literal != 0 && !optional) run.append(literal);
+                if (literal == 0 || optional || quantifier == '+')
+                {
+                    if (run.length() > best.length()) best = run.toString();
+                    run.setLength(0);
+                }
+                i = skipQuantifier(regex, tokenEnd);
+            }
+            if (run.length() > best.length()) best = run.toString();
+            return(best);
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            return("");
+        }
+    }
+
+    /**
+     * @return the end of the escape sequence starting with the backslash at start, which is followed by a letter or
+     *         a digit; the end may be past the end of the regex, if the escape is incomplete
+     */
+    private static int skipEscape(String regex, int start)
+    {
+        char next = regex.charAt(start + 1);
+        int i = start + 2;
+        switch (next)
+        {
+            case 'x':
+                return(i < regex.length() && regex.charAt(i) == '{' ? skipTo(regex, i, '}') : i + 2);
+            case 'u':
+                return(i + 4);
+            case 'c':
+                return(i + 1);
+            case 'p':
+            case 'P':
+            case 'N':
+                return(i < regex.length() && regex.charAt(i) == '{' ? skipTo(regex, i, '}') : i + 1);
+            case 'k':
+                return(skipTo(regex, i, '>'));
+            case '0':
+                for (int n = 0; n < 3 && i < regex.length() && regex.charAt(i) >= '0' && regex.charAt(i) <= '7'; n++) i++;
+                return(i);
+            default:
+                // a backreference takes as many of the digits that follow as name a group
+                if (next >= '1' && next <= '9')
+                {
+                    while (i < regex.length() && Character.isDigit(regex.charAt(i))) i++;
+                }
+                return(i);
+        }
+    }
+
+    private static int skipTo(String regex, int start, char close)
+    {
+        int end = regex.indexOf(close, start);
+        if (end < 0) throw new IndexOutOfBoundsException();
+        return(end + 1);
+    }
+
+    private static int skipClass(String regex, int start)
+    {
+        int i = start + 1;
+        if (regex.charAt(i) == '^') i++;
+        if (regex.charAt(i) == ']') i++;
+        int depth = 1;
+        while (depth > 0)
+        {
+            char c = regex.charAt(i++);
+            if (c == '\\') i++;
+            else if (c == '[') depth++;
+            else if (c == ']') depth--;
+        }
+        return(i);
+    }
+
+    private static int skipGroup(String regex, int start)
+    {
+        int i = start + 1;
+        int depth = 1;
+        while (depth > 0)
+        {
+            char c = regex.charAt(i);
+            if (c == '\\') i += 2;
+            else if (c == '[') i = skipClass(regex, i);
+            else 
+            {
+                if (c == '(') depth++;
+                else if (c == ')') depth--;
+                i++;
+            }
+        }
+        return(i);
+    }
+
+    private static int skipQuantifier(String regex, int i)
+    {
+        if (i >= regex.length()) return(i);
+        char c = regex.charAt(i);
+        if (c == '{')
+        {
+            i = regex.indexOf('}', i) + 1;
+            if (i == 0) throw new IndexOutOfBoundsException();
+        }
+        else if (c == '?' || c == '*' || c == '+') i++;
+        else return(i);
+        // lazy or possessive forms of the quantifier
+        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) i++;
+        return(i);
+    }
+
+    /**
+     * @param value  a value to be mapped
+     * @return       false if the input pattern certainly cannot match the value
+     */
+    private boolean canMatch(String value)
+    {
+        return(requiredLiteral.length() == 0 || value.contains(requiredLiteral));
     }
 
     public static String mapSingleValue(final List<PatternMapping> patternMappings, String value)
     {
         for (PatternMapping patternMapping : patternMappings)
         {
+            if (!patternMapping.canMatch(value)) continue;
             Matcher matcher = patternMapping.inputPattern.matcher(value);
             if (matcher.find())
             {
@@ -63,6 +295,7 @@ public class PatternMapping
     {
         for (PatternMapping patternMapping : patternMappings)
         {
+            if (!patternMapping.canMatch(value)) continue;
             Matcher matcher = patternMapping.inputPattern.matcher(value);
             if (matcher.find())
             {
@@ -76,6 +309,7 @@ public class PatternMapping
     {
         for (PatternMapping patternMapping : patternMappings)
         {
+            if (!patternMapping.canMatch(value)) continue;
             Matcher matcher = patternMapping.inputPattern.matcher(value);
             if (matcher.find())
             {
@@ -89,6 +323,7 @@ public class PatternMapping
     {
         for (PatternMapping patternMapping : patternMappings)
         {
+            if (!patternMapping.canMatch(value)) continue;
             Matcher matcher = patternMapping.inputPattern.matcher(value);
             if (matcher.find())
             {
@@ -118,18 +353,22 @@ public class PatternMapping
      */
     public String map(final Matcher inputMatcher)
     {
-        String result = outputPattern;
-        if (outputPattern.contains("$"))
+        if (outputParts.length == 1 && outputParts[0] instanceof String) return(outputPattern);
+        StringBuilder result = new StringBuilder(outputPattern.length() + 16);
+        for (Object part : outputParts)
         {
-            for (int group = inputMatcher.groupCount(); group > 0 ; group--)
+            if (part instanceof Integer)
+            {
+                // a group that didn't participate in the match contributes nothing
+                String group = inputMatcher.group((Integer)part);
+                if (group != null) result.append(group);
+            }
+            else
             {
-                final String pattern = java.util.regex.Matcher.quoteReplacement("$"+group);
-                String replacement = inputMatcher.group(group);
-                replacement = java.util.regex.Matcher.quoteReplacement(replacement);
-                result = result.replaceAll(pattern, replacement);
+                result.append((String)part);
             }
         }
-        return(result);
+        return(result.toString());
     }
     /**
      * PatternMapping#canHandle(String) has to be called before. Otherwise the
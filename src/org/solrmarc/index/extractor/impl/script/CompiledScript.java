@@ -0,0 +1,46 @@
+package org.solrmarc.index.extractor.impl.script;
+
+import java.util.Arrays;
+
+import org.solrmarc.index.SolrIndexer;
+
+/**
+ * The base class of the classes that ScriptTranslator generates from BeanShell index scripts.  The body of the
+ * script becomes the body of the generated class, so the variables and methods it declares become fields and
+ * methods of the class.
+ * <p>
+ * As the interpreter does for a script, the generated class sets the variable <code>indexer</code> to the
+ * SolrIndexer instance when it is created, whether the script declares that variable itself or only uses it.
+ * </p>
+ */
+public abstract class CompiledScript
+{
+    public SolrIndexer indexer;
+
+    /**
+     * Used by the translated form of a loop such as <code>for (String value : values)</code> over a collection
+     * that the script declared without an element type, which BeanShell allows, to give the loop the elements with
+     * the type of the loop variable.  As in the interpreter, an element of some other type is an error when it is
+     * reached.
+     *
+     * @param values  the values looped over
+     * @return the same values, with the type of the loop variable
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Iterable<T> each(final Iterable<?> values)
+    {
+        return((Iterable<T>) values);
+    }
+
+    /**
+     * As above, for a loop over an array.
+     *
+     * @param values  the values looped over
+     * @return the same values, with the type of the loop variable
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Iterable<T> each(final Object[] values)
+    {
+        return((Iterable<T>) Arrays.asList(values));
+    }
+}
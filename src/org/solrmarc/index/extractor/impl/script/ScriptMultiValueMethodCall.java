@@ -5,19 +5,25 @@ import bsh.Interpreter;
 
 import java.util.Collection;
 
+import org.marc4j.marc.Record;
 import org.solrmarc.index.extractor.methodcall.AbstractExtractorMethodCall;
 
 public class ScriptMultiValueMethodCall extends AbstractExtractorMethodCall<Collection<String>>
 {
-    private final Interpreter interpreter;
-    private final BshMethod method;
+    // the interpreter of the thread using this call, and the method as defined in it, found when first called
+    private Interpreter interpreter;
+    private BshMethod method;
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
 
     public ScriptMultiValueMethodCall(final Interpreter interpreter, final BshMethod method,
-            final String scriptFileName, int numParameters)
+            final String scriptFileName, int numParameters, final Class<?>[] parameterTypes)
     {
         super(scriptFileName, method.getName(), false, numParameters);
         this.interpreter = interpreter;
         this.method = method;
+        this.methodName = method.getName();
+        this.parameterTypes = parameterTypes;
 
         if (this.interpreter == null)
         {
@@ -32,20 +38,24 @@ public class ScriptMultiValueMethodCall extends AbstractExtractorMethodCall<Coll
  
     private ScriptMultiValueMethodCall(ScriptMultiValueMethodCall toClone)
     {
-        super(toClone.getObjectName(), toClone.method.getName(), false, toClone.getNumParameters());
-        this.interpreter = toClone.interpreter;
-        this.method = toClone.method;        
+        super(toClone.getObjectName(), toClone.methodName, false, toClone.getNumParameters());
+        this.interpreter = null;
+        this.method = null;
+        this.methodName = toClone.methodName;
+        this.parameterTypes = toClone.parameterTypes;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public Collection<String> invoke(final Object[] parameters) throws Exception
     {
-        Object result;
-        synchronized(interpreter)
+        if (interpreter == null)
         {
-            result = method.invoke(parameters, interpreter);
+            // a copy made for another thread sources the script into that thread's own interpreter
+            interpreter = ScriptValueExtractorFactory.getInterpreter(getObjectName());
+            method = ScriptValueExtractorFactory.getBeanShellMethod(interpreter, methodName, parameterTypes);
         }
+        Object result = method.invoke(parameters, interpreter);
         if (result instanceof Collection)  
             return((Collection<String>)result);
         else 
@@ -59,7 +69,7 @@ public class ScriptMultiValueMethodCall extends AbstractExtractorMethodCall<Coll
     }
 
     @Override
-    protected boolean perRecordInitCalled(Object[] record)
+    protected boolean perRecordInitCalled(Record record)
     {
         // TODO Implement perRecordInit support in scripts.
         return false;
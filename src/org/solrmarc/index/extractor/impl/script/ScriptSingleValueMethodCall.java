@@ -1,5 +1,6 @@
 package org.solrmarc.index.extractor.impl.script;
 
+import org.marc4j.marc.Record;
 import org.solrmarc.index.extractor.methodcall.AbstractExtractorMethodCall;
 
 import bsh.BshMethod;
@@ -7,14 +8,19 @@ import bsh.Interpreter;
 
 public class ScriptSingleValueMethodCall extends AbstractExtractorMethodCall<String>
 {
-    private final Interpreter interpreter;
-    private final BshMethod method;
+    // the interpreter of the thread using this call, and the method as defined in it, found when first called
+    private Interpreter interpreter;
+    private BshMethod method;
+    private final String methodName;
+    private final Class<?>[] parameterTypes;
 
-    public ScriptSingleValueMethodCall(final Interpreter interpreter, final BshMethod method, final String scriptFileName, int numParameters)
+    public ScriptSingleValueMethodCall(final Interpreter interpreter, final BshMethod method, final String scriptFileName, int numParameters, final Class<?>[] parameterTypes)
     {
         super(scriptFileName, method.getName(), false, numParameters);
         this.interpreter = interpreter;
         this.method = method;
+        this.methodName = method.getName();
+        this.parameterTypes = parameterTypes;
 
         if (this.interpreter == null)
         {
@@ -29,19 +35,23 @@ public class ScriptSingleValueMethodCall extends AbstractExtractorMethodCall<Str
 
     private ScriptSingleValueMethodCall(ScriptSingleValueMethodCall toClone)
     {
-        super(toClone.getObjectName(), toClone.method.getName(), false, toClone.getNumParameters());
-        this.interpreter = toClone.interpreter;
-        this.method = toClone.method;        
+        super(toClone.getObjectName(), toClone.methodName, false, toClone.getNumParameters());
+        this.interpreter = null;
+        this.method = null;
+        this.methodName = toClone.methodName;
+        this.parameterTypes = toClone.parameterTypes;
     }
 
     @Override
     public String invoke(final Object[] parameters) throws Exception
     {
-        Object result;
-        synchronized(interpreter)
+        if (interpreter == null)
         {
-            result = method.invoke(parameters, interpreter);
+            // a copy made for another thread sources the script into that thread's own interpreter
+            interpreter = ScriptValueExtractorFactory.getInterpreter(getObjectName());
+            method = ScriptValueExtractorFactory.getBeanShellMethod(interpreter, methodName, parameterTypes);
         }
+        Object result = method.invoke(parameters, interpreter);
         if (result instanceof String)  
             return((String)result);
         else 
@@ -55,7 +65,7 @@ public class ScriptSingleValueMethodCall extends AbstractExtractorMethodCall<Str
     }
 
     @Override
-    protected boolean perRecordInitCalled(Object[] record)
+    protected boolean perRecordInitCalled(Record record)
     {
         // TODO Implement perRecordInit support in scripts.
         return false;
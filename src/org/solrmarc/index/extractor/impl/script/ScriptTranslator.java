@@ -0,0 +1,569 @@
+package org.solrmarc.index.extractor.impl.script;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.io.FileOutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.apache.log4j.Logger;
+import org.solrmarc.index.extractor.impl.java.JavaValueExtractorUtils;
+import org.solrmarc.index.utils.ClasspathUtils;
+
+/**
+ * Translates a BeanShell index script into a java class, used in place of the interpreter when
+ * <code>solrmarc.indexer.compiled.scripts</code> is set to true.
+ * <p>
+ * The scripts are written in java, with the looser typing BeanShell allows, so the translation is mostly a matter of
+ * wrapping the script in a class extending CompiledScript, with its imports moved to the top along with the
+ * packages BeanShell imports by default.  Where the script relies on BeanShell's loose typing, the translation
+ * adapts it:  a loop over a collection declared without an element type is given the type of its loop variable,
+ * and where the compiler reports that a value is used as a narrower type than it was declared with, as when the
+ * value comes from such a collection, a cast to that type is inserted and the class is compiled again.  A script that still
+ * doesn't compile (such as one declaring a variable without any type at all) is left to the interpreter.
+ * </p>
+ * <p>
+ * The class is compiled with the same compiler support used for the sources in index_java, into a cache directory,
+ * which is <code>solrmarc.indexer.compiled.scripts.dir</code> if that is set and otherwise the directory
+ * <code>bin</code> beside the script.  The name of the class is derived from the text of the script and from a
+ * fingerprint of the classpath (the name, size and modification time of each entry) and the java version, so a class
+ * found there is used without translating the script again, until the script or the environment it was compiled
+ * against is changed.  A script that couldn't be compiled is noted in the cache under the same name, so it isn't
+ * attempted again until one of those changes either.
+ * </p>
+ * <p>
+ * Since the classes found in the cache are loaded as they are, a cache directory that other users can write to is
+ * not used.  When there isn't a suitable directory the scripts are compiled into a private temporary directory
+ * that is only used for the current run.
+ * </p>
+ */
+final class ScriptTranslator
+{
+    private final static Logger logger = Logger.getLogger(ScriptTranslator.class);
+    // part of the name of every class, so that changing how scripts are translated invalidates what is cached
+    private final static String TRANSLATOR_VERSION = "2";
+    private final static String PACKAGE = "org.solrmarc.index.extractor.impl.script.compiled";
+    private final static String COMPILED_SCRIPT = CompiledScript.class.getName();
+    private final static int MAX_PASSES = 20;
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+    private final static Pattern FOREACH_DECLARATION = Pattern.compile(
+            "\\s*((?:final\\s+)?)([A-Za-z_$][\\w$.]*\\s*(?:<.*>)?\\s*(?:\\[\\s*\\]\\s*)*)\\s+([A-Za-z_$][\\w$]*)\\s*", Pattern.DOTALL);
+    private final static Pattern PRIMITIVE = Pattern.compile("boolean|byte|char|short|int|long|float|double");
+    private final static Pattern CANT_CONVERT = Pattern.compile("incompatible types: (\\S+) cannot be converted to (.+)");
+    private final static Pattern REQUIRED_FOUND = Pattern.compile("required:\\s*(\\S+)\\s+found:\\s*(\\S+)");
+
+    private static String environmentFingerprint = null;
+    private static File privateDir = null;
+
+    private ScriptTranslator()
+    {
+    }
+
+    /**
+     * Returns the class translated from a script, from the cache if it is there, otherwise translating and
+     * compiling the script.
+     *
+     * @param scriptFileName  the name of the script
+     * @param script          the text of the script, and the file it was read from
+     * @param loader          the class loader the interpreter would use for the script
+     * @return the class, or null if the script couldn't be translated, in which case it is to be interpreted
+     */
+    static Class<?> getCompiledClass(final String scriptFileName, final String[] script, final ClassLoader loader)
+    {
+        final String className = classNameFor(scriptFileName, script[0]);
+        final File cacheDir = getCacheDir(script[1]);
+        if (cacheDir == null)
+        {
+            return(null);
+        }
+        final File classFile = new File(cacheDir, (PACKAGE + "." + className).replace('.', File.separatorChar) + ".class");
+        final File failedFile = new File(cacheDir, className + ".failed");
+        if (failedFile.exists())
+        {
+            logger.debug("BeanShell script " + scriptFileName + " couldn't be compiled before, it will be interpreted");
+            return(null);
+        }
+        if (!classFile.exists() && !compile(scriptFileName, script[0], className, cacheDir, failedFile, loader))
+        {
+            return(null);
+        }
+        try
+        {
+            URLClassLoader classLoader = new URLClassLoader(new URL[] { cacheDir.toURI().toURL() }, loader);
+            Class<?> clazz = classLoader.loadClass(PACKAGE + "." + className);
+            logger.info("Using the class " + className + " compiled from the BeanShell script " + scriptFileName);
+            return(clazz);
+        }
+        catch (MalformedURLException | ClassNotFoundException | LinkageError e)
+        {
+            logger.warn("Unable to load the class compiled from the BeanShell script " + scriptFileName + ", it will be interpreted", e);
+            return(null);
+        }
+    }
+
+    private static String classNameFor(final String scriptFileName, final String text)
+    {
+        String baseName = new File(scriptFileName).getName();
+        if (baseName.endsWith(".bsh"))
+        {
+            baseName = baseName.substring(0, baseName.length() - 4);
+        }
+        CRC32 crc = new CRC32();
+        crc.update((TRANSLATOR_VERSION + text).getBytes(UTF8));
+        return("Script_" + baseName.replaceAll("[^A-Za-z0-9_]", "_") + "_" + Long.toHexString(crc.getValue()) + "_" + getEnvironmentFingerprint());
+    }
+
+    /**
+     * @return a hash of the java version and of the name, size and modification time of every entry on the classpath
+     *         the scripts are compiled against, so that a class compiled against other versions of the jars isn't used
+     */
+    private static synchronized String getEnvironmentFingerprint()
+    {
+        if (environmentFingerprint == null)
+        {
+            CRC32 crc = new CRC32();
+            StringBuilder sb = new StringBuilder(System.getProperty("java.version", ""));
+            for (File entry : ClasspathUtils.instance().getClassPath())
+            {
+                sb.append(File.pathSeparatorChar).append(entry.getAbsolutePath()).append(':').append(entry.length()).append(':').append(entry.lastModified());
+            }
+            crc.update(sb.toString().getBytes(UTF8));
+            environmentFingerprint = Long.toHexString(crc.getValue());
+        }
+        return(environmentFingerprint);
+    }
+
+    private static File getCacheDir(final String scriptPath)
+    {
+        String dirName = System.getProperty("solrmarc.indexer.compiled.scripts.dir");
+        File cacheDir = null;
+        if (dirName != null)
+        {
+            cacheDir = new File(dirName);
+        }
+        else
+        {
+            File scriptDir = (scriptPath != null) ? new File(scriptPath).getParentFile() : null;
+            if (scriptDir != null && scriptDir.isDirectory() && scriptDir.canWrite())
+            {
+                cacheDir = new File(scriptDir, "bin");
+            }
+        }
+        if (cacheDir != null && isWritableByOthers(cacheDir))
+        {
+            logger.warn("Directory " + cacheDir.getAbsolutePath() + " can be written by other users, compiled scripts will not be cached there");
+            cacheDir = null;
+        }
+        return((cacheDir != null) ? cacheDir : getPrivateDir());
+    }
+
+    /**
+     * @return true if the directory, or the nearest existing directory above it, can be written by users other than
+     *         its owner, so that classes found in it can't be trusted
+     */
+    private static boolean isWritableByOthers(final File dir)
+    {
+        File existing = dir.getAbsoluteFile();
+        while (existing != null && !existing.exists())
+        {
+            existing = existing.getParentFile();
+        }
+        if (existing == null) return(false);
+        PosixFileAttributeView view = Files.getFileAttributeView(existing.toPath(), PosixFileAttributeView.class);
+        if (view == null) return(false);
+        try
+        {
+            Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+            return(permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE));
+        }
+        catch (IOException e)
+        {
+            return(true);
+        }
+    }
+
+    /**
+     * @return a directory only the current user can access, created for this run, so nothing compiled by an earlier run is
+     *         ever loaded from it
+     */
+    private static synchronized File getPrivateDir()
+    {
+        if (privateDir == null)
+        {
+            try
+            {
+                privateDir = Files.createTempDirectory("solrmarc_scripts").toFile();
+                final File dir = privateDir;
+                Runtime.getRuntime().addShutdownHook(new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        delete(dir);
+                    }
+                });
+            }
+            catch (IOException e)
+            {
+                logger.warn("Couldn't create a temporary directory for compiled scripts", e);
+                return(null);
+            }
+        }
+        return(privateDir);
+    }
+
+    private static void delete(final File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static boolean compile(final String scriptFileName, final String text, final String className, final File cacheDir,
+                                   final File failedFile, final ClassLoader loader)
+    {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+        {
+            logger.warn("Java environment at JAVA_HOME = " + System.getProperty("java.home") + " does not have a Java compiler.");
+            logger.warn("The BeanShell script " + scriptFileName + " will be interpreted.");
+            return(false);
+        }
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs())
+        {
+            logger.warn("Couldn't create directory " + cacheDir.getAbsolutePath() + ", the BeanShell script " + scriptFileName + " will be interpreted.");
+            return(false);
+        }
+        final List<File> classpath = new ArrayList<>(ClasspathUtils.instance().getClassPath());
+        final File sourceFile = new File(cacheDir, className + ".java");
+        String source = translate(scriptFileName, text, className, loader);
+        String errors = null;
+        try
+        {
+            for (int pass = 0; pass < MAX_PASSES; pass++)
+            {
+                write(sourceFile, source);
+                DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+                if (JavaValueExtractorUtils.compileFiles(compiler, Collections.singletonList(sourceFile), cacheDir, cacheDir, classpath, diagnostics))
+                {
+                    logger.info("Compiled the BeanShell script " + scriptFileName + " to the class " + className);
+                    return(true);
+                }
+                List<long[]> casts = new ArrayList<>();
+                List<String> castTypes = new ArrayList<>();
+                StringBuilder buffer = new StringBuilder();
+                boolean allFixable = true;
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+                {
+                    if (diagnostic.getKind() != Diagnostic.Kind.ERROR) continue;
+                    buffer.append(diagnostic.toString()).append('\n');
+                    String castType = castNeeded(diagnostic);
+                    if (castType == null || diagnostic.getStartPosition() < 0 || diagnostic.getEndPosition() <= diagnostic.getStartPosition()
+                            || source.startsWith("((" + castType + ") ", (int) diagnostic.getStartPosition()))
+                    {
+                        // an error that a cast can't fix, or where the cast inserted before didn't fix it
+                        allFixable = false;
+                        continue;
+                    }
+                    casts.add(new long[] { diagnostic.getStartPosition(), diagnostic.getEndPosition(), castTypes.size() });
+                    castTypes.add(castType);
+                }
+                errors = buffer.toString();
+                if (!allFixable || casts.isEmpty())
+                {
+                    break;
+                }
+                source = insertCasts(source, casts, castTypes);
+            }
+        }
+        catch (IOException e)
+        {
+            // not a problem with the script, so it will be attempted again the next time
+            logger.warn("Unable to compile the BeanShell script " + scriptFileName + ", it will be interpreted", e);
+            return(false);
+        }
+        logger.info("The BeanShell script " + scriptFileName + " can't be compiled, it will be interpreted");
+        logger.debug(errors);
+        try
+        {
+            write(failedFile, String.valueOf(errors));
+        }
+        catch (IOException e)
+        {
+            // it will just be attempted again the next time
+        }
+        return(false);
+    }
+
+    /**
+     * @return the type an expression must be cast to, for an error where a value of a reference type (such as an
+     *         element of a collection declared without an element type) is used as a narrower type, which BeanShell
+     *         allows, or null for any other error
+     */
+    private static String castNeeded(final Diagnostic<? extends JavaFileObject> diagnostic)
+    {
+        String message = diagnostic.getMessage(Locale.ROOT);
+        String found = null, required = null;
+        Matcher matcher = CANT_CONVERT.matcher(message);
+        if (matcher.find())
+        {
+            found = matcher.group(1);
+            required = matcher.group(2).trim();
+        }
+        else if ((matcher = REQUIRED_FOUND.matcher(message)).find())
+        {
+            required = matcher.group(1);
+            found = matcher.group(2);
+        }
+        if (found == null || PRIMITIVE.matcher(found).matches() || found.startsWith("<"))
+        {
+            return(null);
+        }
+        if (required.contains("capture#") || required.matches("[A-Z]"))
+        {
+            return(null);
+        }
+        if (PRIMITIVE.matcher(required).matches())
+        {
+            return(required.equals("int") ? "java.lang.Integer" : required.equals("char") ? "java.lang.Character"
+                    : "java.lang." + Character.toUpperCase(required.charAt(0)) + required.substring(1));
+        }
+        return(required);
+    }
+
+    private static String insertCasts(final String source, final List<long[]> casts, final List<String> castTypes)
+    {
+        // insert from the end, so the positions of the earlier ones aren't changed
+        Collections.sort(casts, new Comparator<long[]>()
+        {
+            @Override
+            public int compare(long[] a, long[] b)
+            {
+                return(Long.compare(b[0], a[0]));
+            }
+        });
+        StringBuilder result = new StringBuilder(source);
+        long lastStart = Long.MAX_VALUE;
+        for (long[] cast : casts)
+        {
+            if (cast[1] > lastStart) continue;
+            result.insert((int) cast[1], ")");
+            result.insert((int) cast[0], "((" + castTypes.get((int) cast[2]) + ") ");
+            lastStart = cast[0];
+        }
+        return(result.toString());
+    }
+
+    private static void write(final File file, final String text) throws IOException
+    {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8))
+        {
+            writer.write(text);
+        }
+    }
+
+    /**
+     * Translates the text of a script into the source of a class.
+     */
+    static String translate(final String scriptFileName, final String text, final String className, final ClassLoader loader)
+    {
+        final boolean code[] = codeMask(text);
+        final StringBuilder body = new StringBuilder(text);
+        final StringBuilder imports = new StringBuilder();
+        // move the imports to the top, dropping any of a class that doesn't exist, which BeanShell would ignore
+        // until the class was used
+        int depth = 0;
+        for (int i = 0; i < text.length(); i++)
+        {
+            if (!code[i]) continue;
+            char c = text.charAt(i);
+            if (c == '{') depth++;
+            else if (c == '}') depth--;
+            else if (depth == 0 && isWordAt(text, code, i, "import"))
+            {
+                int end = nextCode(text, code, i, ';');
+                if (end < 0) break;
+                String statement = text.substring(i, end + 1);
+                if (importResolves(statement, loader))
+                {
+                    imports.append(statement).append('\n');
+                }
+                for (int j = i; j <= end; j++)
+                {
+                    if (body.charAt(j) != '\n') body.setCharAt(j, ' ');
+                }
+                i = end;
+            }
+        }
+        rewriteLoops(text, code, body);
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE).append(";\n\n");
+        source.append("import java.util.*;\nimport java.io.*;\nimport java.net.*;\n");
+        source.append(imports);
+        source.append("import org.marc4j.marc.Record;\n\n");
+        source.append("// translated from the BeanShell script ").append(scriptFileName).append('\n');
+        source.append("public class ").append(className).append(" extends ").append(COMPILED_SCRIPT).append('\n');
+        source.append("{\n");
+        source.append("    public ").append(className).append("()\n");
+        source.append("    {\n");
+        source.append("        indexer = org.solrmarc.index.SolrIndexer.instance();\n");
+        source.append("    }\n\n");
+        source.append(body);
+        source.append("\n}\n");
+        return(source.toString());
+    }
+
+    /**
+     * Rewrites each loop <code>for (Type name : values)</code>, where Type isn't a primitive type, as
+     * <code>for (Type name : CompiledScript.&lt;Type&gt;each(values))</code>.  The text of the loops is found
+     * in the original text, and replaced in the body, which has the same length until the first replacement, so
+     * the replacements are made starting from the end.
+     */
+    private static void rewriteLoops(final String text, final boolean code[], final StringBuilder body)
+    {
+        List<int[]> loops = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++)
+        {
+            if (!isWordAt(text, code, i, "for")) continue;
+            int open = i + 3;
+            while (open < text.length() && Character.isWhitespace(text.charAt(open))) open++;
+            if (open >= text.length() || text.charAt(open) != '(') continue;
+            int close = -1, colon = -1, nesting = 0;
+            boolean classic = false;
+            for (int j = open + 1; j < text.length() && close < 0; j++)
+            {
+                if (!code[j]) continue;
+                char c = text.charAt(j);
+                if (c == '(' || c == '[' || c == '{') nesting++;
+                else if (c == ')' && nesting == 0) close = j;
+                else if (c == ')' || c == ']' || c == '}') nesting--;
+                else if (c == ';') classic = true;
+                else if (c == ':' && nesting == 0 && colon < 0) colon = j;
+            }
+            if (classic || close < 0 || colon < 0) continue;
+            Matcher declaration = FOREACH_DECLARATION.matcher(text.substring(open + 1, colon));
+            if (!declaration.matches()) continue;
+            String type = declaration.group(2).trim();
+            if (PRIMITIVE.matcher(type).matches()) continue;
+            loops.add(new int[] { colon + 1, close });
+            types.add(type);
+        }
+        for (int k = loops.size() - 1; k >= 0; k--)
+        {
+            int start = loops.get(k)[0], end = loops.get(k)[1];
+            String values = body.substring(start, end).trim();
+            body.replace(start, end, " " + COMPILED_SCRIPT + ".<" + types.get(k) + ">each(" + values + ")");
+        }
+    }
+
+    private static boolean importResolves(final String statement, final ClassLoader loader)
+    {
+        String name = statement.substring("import".length(), statement.length() - 1).trim();
+        if (name.startsWith("static ") || name.endsWith("*"))
+        {
+            return(true);
+        }
+        name = name.replaceAll("\\s", "");
+        // a nested class is named with a $ rather than a .
+        for (String className = name; className.indexOf('.') > 0; className = className.substring(0, className.lastIndexOf('.')) + '$' + className.substring(className.lastIndexOf('.') + 1))
+        {
+            try
+            {
+                Class.forName(className, false, loader);
+                return(true);
+            }
+            catch (ClassNotFoundException | LinkageError e)
+            {
+                // try it as a nested class
+            }
+        }
+        return(false);
+    }
+
+    private static boolean isWordAt(final String text, final boolean code[], final int i, final String word)
+    {
+        int end = i + word.length();
+        return(code[i] && text.startsWith(word, i)
+                && (i == 0 || !Character.isJavaIdentifierPart(text.charAt(i - 1)))
+                && (end == text.length() || !Character.isJavaIdentifierPart(text.charAt(end))));
+    }
+
+    private static int nextCode(final String text, final boolean code[], final int from, final char c)
+    {
+        for (int i = from; i < text.length(); i++)
+        {
+            if (code[i] && text.charAt(i) == c) return(i);
+        }
+        return(-1);
+    }
+
+    /**
+     * @return for each character of the text, whether it is part of the code rather than of a comment or of a
+     *         string or character literal
+     */
+    private static boolean[] codeMask(final String text)
+    {
+        final int length = text.length();
+        final boolean code[] = new boolean[length];
+        int i = 0;
+        while (i < length)
+        {
+            char c = text.charAt(i);
+            char next = (i + 1 < length) ? text.charAt(i + 1) : 0;
+            if (c == '/' && next == '/')
+            {
+                while (i < length && text.charAt(i) != '\n') i++;
+            }
+            else if (c == '/' && next == '*')
+            {
+                int end = text.indexOf("*/", i + 2);
+                i = (end < 0) ? length : end + 2;
+            }
+            else if (c == '"' || c == '\'')
+            {
+                int j = i + 1;
+                while (j < length && text.charAt(j) != c && text.charAt(j) != '\n')
+                {
+                    if (text.charAt(j) == '\\') j++;
+                    j++;
+                }
+                i = j + 1;
+            }
+            else
+            {
+                code[i++] = true;
+            }
+        }
+        return(code);
+    }
+}
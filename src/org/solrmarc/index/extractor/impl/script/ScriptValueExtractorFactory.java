@@ -8,9 +8,12 @@ import org.apache.log4j.Logger;
 import org.solrmarc.index.SolrIndexer;
 import org.solrmarc.index.extractor.AbstractValueExtractor;
 import org.solrmarc.index.extractor.AbstractValueExtractorFactory;
+import org.solrmarc.index.extractor.methodcall.AbstractMethodCallFactory;
 import org.solrmarc.index.extractor.methodcall.MethodCallContext;
 import org.solrmarc.index.extractor.methodcall.MethodCallMultiValueExtractor;
 import org.solrmarc.index.extractor.methodcall.MethodCallSingleValueExtractor;
+import org.solrmarc.index.extractor.methodcall.MultiValueExtractorMethodCall;
+import org.solrmarc.index.extractor.methodcall.SingleValueExtractorMethodCall;
 import org.solrmarc.index.indexer.ValueIndexerFactory;
 import org.solrmarc.tools.PropertyUtils;
 
@@ -18,6 +21,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -27,62 +33,101 @@ public class ScriptValueExtractorFactory extends AbstractValueExtractorFactory
 {
     // TODO: Use dynamic paths
     private final static Logger logger = Logger.getLogger(ScriptValueExtractorFactory.class);
+    // the text of each script, read once and then sourced into an interpreter for each thread that runs it
+    private final static Map<String, String[]> SCRIPTS = new HashMap<>();
+    // the class translated from each script, or null for a script that couldn't be translated
+    private final static Map<String, Class<?>> COMPILED_SCRIPTS = new HashMap<>();
     // TODO: Use SolrIndexer instead of Object.
-    private final static Map<String, Interpreter> INTERPRETERS = new HashMap<>();
-    private static Map<String, BshMethod> methods = new HashMap<>();
+    // BeanShell interpreters aren't thread safe, so each thread has its own interpreter for each script
+    private final static ThreadLocal<Map<String, Interpreter>> INTERPRETERS = new ThreadLocal<Map<String, Interpreter>>()
+        {
+            @Override
+            protected Map<String, Interpreter> initialValue()
+            {
+                return new HashMap<>();
+            }
+        };
 
-    private Interpreter getInterpreter(final String scriptFileName)
+    /**
+     * Returns the interpreter for a script for the current thread, sourcing the script into a new interpreter
+     * the first time the thread needs it.  All of the index specifications that call methods of the same script
+     * in a thread share one interpreter, just as they share one instance of a mixin.
+     *
+     * @param scriptFileName  the name of the script, in one of the index_scripts directories
+     * @return the interpreter
+     */
+    static Interpreter getInterpreter(final String scriptFileName)
     {
-        Interpreter bsh = INTERPRETERS.get(scriptFileName);
+        Map<String, Interpreter> interpreters = INTERPRETERS.get();
+        Interpreter bsh = interpreters.get(scriptFileName);
         if (bsh != null)
         {
             return bsh;
         }
-        logger.debug("Load bean shell script: " + scriptFileName);
+        final String[] script = getScript(scriptFileName);
+        logger.debug("Load bean shell script: " + scriptFileName + " for thread " + Thread.currentThread().getName());
         bsh = new Interpreter();
-        bsh.setClassLoader(this.getClass().getClassLoader());
-        String paths[] = new String[ValueIndexerFactory.instance().getHomeDirs().length];
-        for (int i = 0 ; i < paths.length; i++)
-        { 
-            paths[i] = (ValueIndexerFactory.instance().getHomeDirs())[i] + File.separator + "index_scripts";
-        }
-        String[] inputSource = new String[1];
-        InputStream script = PropertyUtils.getPropertyFileInputStream(paths, scriptFileName, false, inputSource);
+        bsh.setClassLoader(ScriptValueExtractorFactory.class.getClassLoader());
         try
         {
             bsh.setOut(System.out);
             bsh.setErr(System.err);
-            bsh.eval(new InputStreamReader(script), bsh.getNameSpace(), inputSource[0]);
+            bsh.eval(new StringReader(script[0]), bsh.getNameSpace(), script[1]);
             bsh.set("indexer", SolrIndexer.instance());
         }
         catch (EvalError e)
         {
             throw new IllegalArgumentException("Unable to evaluate script: " + scriptFileName, e);
         }
-        try
-        {
-            script.close();
-        }
-        catch (IOException e)
-        {
-        }
-        INTERPRETERS.put(scriptFileName, bsh);
+        interpreters.put(scriptFileName, bsh);
         return bsh;
     }
 
-    private BshMethod getBeanShellMethod(final Interpreter interpreter, final String methodName,
-            final Class<?>[] parameterTypes)
+    /**
+     * @return the text of the script and the name of the file it was read from
+     */
+    private static String[] getScript(final String scriptFileName)
     {
-        BshMethod method = methods.get(methodName + Arrays.toString(parameterTypes));
-        if (method != null)
+        synchronized (SCRIPTS)
         {
-            return method;
+            String[] script = SCRIPTS.get(scriptFileName);
+            if (script != null)
+            {
+                return script;
+            }
+            String paths[] = new String[ValueIndexerFactory.instance().getHomeDirs().length];
+            for (int i = 0 ; i < paths.length; i++)
+            { 
+                paths[i] = (ValueIndexerFactory.instance().getHomeDirs())[i] + File.separator + "index_scripts";
+            }
+            String[] inputSource = new String[1];
+            InputStream input = PropertyUtils.getPropertyFileInputStream(paths, scriptFileName, false, inputSource);
+            StringBuilder text = new StringBuilder();
+            try (Reader reader = new InputStreamReader(input))
+            {
+                char buffer[] = new char[4096];
+                int len;
+                while ((len = reader.read(buffer)) != -1)
+                {
+                    text.append(buffer, 0, len);
+                }
+            }
+            catch (IOException e)
+            {
+                throw new IllegalArgumentException("Unable to read script: " + scriptFileName, e);
+            }
+            script = new String[] { text.toString(), inputSource[0] };
+            SCRIPTS.put(scriptFileName, script);
+            return script;
         }
+    }
+
+    static BshMethod getBeanShellMethod(final Interpreter interpreter, final String methodName,
+            final Class<?>[] parameterTypes)
+    {
         try
         {
-            method = interpreter.getNameSpace().getMethod(methodName, parameterTypes);
-            methods.put(methodName + Arrays.toString(parameterTypes), method);
-            return method;
+            return interpreter.getNameSpace().getMethod(methodName, parameterTypes);
         }
         catch (UtilEvalError e)
         {
@@ -96,9 +141,72 @@ public class ScriptValueExtractorFactory extends AbstractValueExtractorFactory
         return mappingConfiguration.trim().startsWith("script");
     }
 
+    /**
+     * Creates an extractor calling a method of the class translated from a script, rather than calling the method
+     * through the interpreter.
+     *
+     * @return the extractor, or null if the script couldn't be translated, or the translated method can't be
+     *         called the same way, in which case it is to be interpreted
+     */
+    private AbstractValueExtractor<?> createCompiledExtractor(final String scriptFileName, MethodCallContext context)
+    {
+        Class<?> compiled;
+        synchronized (COMPILED_SCRIPTS)
+        {
+            if (COMPILED_SCRIPTS.containsKey(scriptFileName))
+            {
+                compiled = COMPILED_SCRIPTS.get(scriptFileName);
+            }
+            else
+            {
+                compiled = ScriptTranslator.getCompiledClass(scriptFileName, getScript(scriptFileName), ScriptValueExtractorFactory.class.getClassLoader());
+                COMPILED_SCRIPTS.put(scriptFileName, compiled);
+            }
+        }
+        if (compiled == null)
+        {
+            return null;
+        }
+        final Method method;
+        try
+        {
+            method = compiled.getDeclaredMethod(context.getMethodName(), context.getParameterTypes());
+        }
+        catch (NoSuchMethodException e)
+        {
+            // such as a method whose parameters are loosely typed, which the interpreter can still find
+            return null;
+        }
+        method.setAccessible(true);
+        final Object instance = AbstractMethodCallFactory.createThreadLocalObjectForSpecifiedClass(compiled);
+        if (instance == null)
+        {
+            return null;
+        }
+        if (Collection.class.isAssignableFrom(method.getReturnType()))
+        {
+            return new MethodCallMultiValueExtractor(
+                    new MultiValueExtractorMethodCall(instance, method, null, context.getParameters().length), context.getParameters());
+        }
+        else if (String.class.equals(method.getReturnType()))
+        {
+            return new MethodCallSingleValueExtractor(
+                    new SingleValueExtractorMethodCall(instance, method, null, context.getParameters().length), context.getParameters());
+        }
+        return null;
+    }
+
     private AbstractValueExtractor<?> createExtractor(final String solrFieldName, MethodCallContext context)
     {
         final String scriptFileName = context.getObjectName();
+        if (Boolean.parseBoolean(System.getProperty("solrmarc.indexer.compiled.scripts", "false")))
+        {
+            AbstractValueExtractor<?> extractor = createCompiledExtractor(scriptFileName, context);
+            if (extractor != null)
+            {
+                return extractor;
+            }
+        }
 
         final Interpreter interpreter = getInterpreter(scriptFileName);
         final BshMethod method = getBeanShellMethod(interpreter, context.getMethodName(), context.getParameterTypes());
@@ -110,12 +218,12 @@ public class ScriptValueExtractorFactory extends AbstractValueExtractorFactory
         if (Collection.class.isAssignableFrom(method.getReturnType()))
         {
             return new MethodCallMultiValueExtractor(
-                    new ScriptMultiValueMethodCall(interpreter, method, scriptFileName, context.getParameters().length), context.getParameters());
+                    new ScriptMultiValueMethodCall(interpreter, method, scriptFileName, context.getParameters().length, context.getParameterTypes()), context.getParameters());
         }
         else
         {
             return new MethodCallSingleValueExtractor(
-                    new ScriptSingleValueMethodCall(interpreter, method, scriptFileName, context.getParameters().length), context.getParameters());
+                    new ScriptSingleValueMethodCall(interpreter, method, scriptFileName, context.getParameters().length, context.getParameterTypes()), context.getParameters());
         }
     }
 
@@ -1,5 +1,8 @@
 package org.solrmarc.index.extractor.methodcall;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+
 import org.marc4j.marc.Record;
 import org.solrmarc.index.extractor.ExternalMethod;
 
@@ -32,14 +35,63 @@ public abstract class AbstractExtractorMethodCall<T> implements ExternalMethod
     public T invoke(final Record record, final Object[] parameters) throws Exception
     {
         parameters[0] = record;
-        if (hasPerRecordInit && !perRecordInitCalled(new Object[]{record}))
+        checkPerRecordInit(record);
+        return invoke(parameters);
+    }
+
+    /**
+     * Calls the method through a handle returned by bindParameters.  As with Method.invoke, anything thrown by the
+     * method is wrapped in an InvocationTargetException.
+     *
+     * @param record
+     *            current record
+     * @param boundCall
+     *            the handle for the call site, with its parameters bound in
+     * @return the return value of this call.
+     * @throws Exception
+     *            in case of error
+     */
+    @SuppressWarnings("unchecked")
+    public T invoke(final Record record, final MethodHandle boundCall) throws Exception
+    {
+        checkPerRecordInit(record);
+        Object result;
+        try
         {
-            invokePerRecordInit(new Object[]{record});
+            result = boundCall.invokeExact(record);
+        }
+        catch (Throwable t)
+        {
+            throw new InvocationTargetException(t);
+        }
+        return (T) result;
+    }
+
+    /**
+     * Returns a handle for calling the method at one call site, taking just the record, with the constant
+     * parameters given in the index specification bound into it, so that no argument array is needed per call.
+     *
+     * @param parameters
+     *            the parameters of the call site, parameters[0] being the place holder for the record
+     * @return the handle, or null if the method can only be called through invoke(Object[])
+     */
+    public MethodHandle bindParameters(final Object[] parameters)
+    {
+        return null;
+    }
+
+    private void checkPerRecordInit(final Record record) throws Exception
+    {
+        if (hasPerRecordInit)
+        {
+            if (!perRecordInitCalled(record))
+            {
+                invokePerRecordInit(new Object[]{record});
+            }
         }
-        return invoke(parameters);
     }
 
-    protected abstract boolean perRecordInitCalled(Object[] record);
+    protected abstract boolean perRecordInitCalled(Record record);
 
     protected abstract void invokePerRecordInit(Object[] record) throws Exception;
 
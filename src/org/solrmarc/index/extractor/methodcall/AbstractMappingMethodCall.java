@@ -1,5 +1,8 @@
 package org.solrmarc.index.extractor.methodcall;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+
 public abstract class AbstractMappingMethodCall<T>
 {
     private final String objectName;
@@ -28,6 +31,46 @@ public abstract class AbstractMappingMethodCall<T>
         return invoke(parameters);
     }
 
+    /**
+     * Calls the method through a handle returned by bindParameters.  As with Method.invoke, anything thrown by the
+     * method is wrapped in an InvocationTargetException.
+     *
+     * @param incoming
+     *            the value being mapped
+     * @param boundCall
+     *            the handle for the call site, with its parameters bound in
+     * @return the return value of this call.
+     * @throws Exception
+     *            in case of error
+     */
+    @SuppressWarnings("unchecked")
+    public T invoke(final T incoming, final MethodHandle boundCall) throws Exception
+    {
+        Object result;
+        try
+        {
+            result = boundCall.invokeExact(incoming);
+        }
+        catch (Throwable t)
+        {
+            throw new InvocationTargetException(t);
+        }
+        return (T) result;
+    }
+
+    /**
+     * Returns a handle for calling the method at one call site, taking just the value being mapped, with the
+     * constant parameters given in the index specification bound into it.
+     *
+     * @param parameters
+     *            the parameters of the call site, parameters[0] being the place holder for the value
+     * @return the handle, or null if the method can only be called through invoke(Object[])
+     */
+    public MethodHandle bindParameters(final Object[] parameters)
+    {
+        return null;
+    }
+
     /**
      *
      * @param parameters  the parameters of this call
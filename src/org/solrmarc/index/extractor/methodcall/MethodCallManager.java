@@ -2,17 +2,18 @@ package org.solrmarc.index.extractor.methodcall;
 
 import org.marc4j.marc.Record;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class MethodCallManager
 {
     /* a static singleton manager */
     private static MethodCallManager theManager = new MethodCallManager();
 
-    private final Map<Object, String> perRecordInitMap = new ConcurrentHashMap<>();
     private final Map<String, AbstractExtractorMethodCall<?>> extractorMethodCalls = new HashMap<>();
     private final Map<String, AbstractMappingMethodCall<?>> mappingMethodCalls = new HashMap<>();
 
@@ -30,16 +31,7 @@ public class MethodCallManager
 
     public void doneWithRecord(Record record)
     {
-        String recId = record.getControlNumber();
-        synchronized (perRecordInitMap)
-        {
-             Iterator<String> deleteIterator = perRecordInitMap.values().iterator();
-             while (deleteIterator.hasNext())
-             {
-                 String value = deleteIterator.next();
-                 if (value.equals(recId)) deleteIterator.remove();
-             }
-        }
+        RecordContext.done(record);
     }
     
     private boolean isPerRecordInitMethod(Method method)
@@ -117,10 +109,6 @@ public class MethodCallManager
             if (isPerRecordInitMethod(method))
             {
                 hasPerRecordInit = method;
-                if (!perRecordInitMap.containsKey(method))
-                {
-                    perRecordInitMap.put(method, "");
-                }
             }          
         }
         for (final Method method : clazz.getDeclaredMethods())
@@ -193,6 +181,62 @@ public class MethodCallManager
         return new MultiValueExtractorMethodCall(object, method, perRecordInit, numParameters);
     }
 
+    /**
+     * Binds a mixin method to the object it is to be called on, so that it can be called directly through a
+     * MethodHandle rather than through Method.invoke.
+     *
+     * @param mixin    the object the method is called on
+     * @param method   the mixin method
+     * @param argType  the type of the value (the record, or the value being mapped) passed as the first parameter
+     * @return the bound handle, or null if the method can't be called that way, and so must be called through Method.invoke
+     */
+    static MethodHandle bindToMixin(Object mixin, Method method, Class<?> argType)
+    {
+        if (!method.getParameterTypes()[0].isAssignableFrom(argType))
+        {
+            return(null);
+        }
+        try
+        {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+            if (!Modifier.isStatic(method.getModifiers()))
+            {
+                handle = handle.bindTo(mixin);
+            }
+            return(handle);
+        }
+        catch (IllegalAccessException e)
+        {
+            return(null);
+        }
+    }
+
+    /**
+     * Binds the constant parameters given in an index specification into the handle of a mixin method, giving a
+     * handle for that one call site which takes just the record (or the value being mapped).
+     *
+     * @param handle      the handle returned by bindToMixin, or null
+     * @param parameters  the parameters of the call site, parameters[0] being the place holder for the record
+     * @param argType     the type of the value passed as the first parameter
+     * @return a handle of type (argType)Object, or null if the call must be made through Method.invoke
+     */
+    static MethodHandle bindParameters(MethodHandle handle, Object[] parameters, Class<?> argType)
+    {
+        if (handle == null || handle.type().parameterCount() != parameters.length)
+        {
+            return(null);
+        }
+        try
+        {
+            handle = MethodHandles.insertArguments(handle, 1, Arrays.copyOfRange(parameters, 1, parameters.length));
+            return(handle.asType(MethodType.methodType(Object.class, argType)));
+        }
+        catch (ClassCastException | IllegalArgumentException e)
+        {
+            return(null);
+        }
+    }
+
     /**
      * Given a mixin, this method finds a parent class of the mixin which was
      * added before.
@@ -341,37 +385,4 @@ public class MethodCallManager
         }
         return buffer.toString().trim();
     }
-
-//    public final String getRecordLastCalledFor(Method perRecordInit)
-//    {
-//        final String result = perRecordInitMap.get(perRecordInit);
-//        return(result);
-//    }
-    
-    public final boolean alreadyCalledFor(Object objectWithPerRecordInit, Object record)
-    {
-        String recId = "";
-        if (record instanceof Record)
-        {
-            Record rec = (Record)record;
-            recId = rec.getControlNumber();
-        }
-        boolean returnValue = true;
-        synchronized (perRecordInitMap)
-        {
-            final String result = perRecordInitMap.get(objectWithPerRecordInit);
-            if (result == null || !result.equals(recId))
-            {
-                perRecordInitMap.put(objectWithPerRecordInit, recId);
-                returnValue = false;
-            }
-        }
-        return(returnValue);
-    }
-
-    
-//    public final void setRecordLastCalledFor(Method perRecordInit, String recordID)
-//    {
-//        perRecordInitMap.put(perRecordInit, recordID);
-//    }
 }
@@ -4,12 +4,15 @@ import org.marc4j.marc.Record;
 import org.solrmarc.index.extractor.AbstractMultiValueExtractor;
 import org.solrmarc.index.extractor.ExternalMethod;
 
+import java.lang.invoke.MethodHandle;
 import java.util.Collection;
 
 public class MethodCallMultiValueExtractor extends AbstractMultiValueExtractor implements ExternalMethod
 {
     private final AbstractExtractorMethodCall<Collection<String>> methodCall;
     private final Object[] parameters;
+    // the call with the parameters above bound into it, or null if it has to be made with the parameters array
+    private final MethodHandle boundCall;
 
     public MethodCallMultiValueExtractor(final AbstractExtractorMethodCall<Collection<String>> methodCall,
             final Object[] staticParameters)
@@ -26,6 +29,7 @@ public class MethodCallMultiValueExtractor extends AbstractMultiValueExtractor i
         this.methodCall = methodCall;
         this.parameters = new Object[staticParameters.length + 1];
         System.arraycopy(staticParameters, 0, this.parameters, 1, staticParameters.length);
+        this.boundCall = this.methodCall.bindParameters(this.parameters);
     }
 
     @SuppressWarnings("unchecked")
@@ -34,11 +38,14 @@ public class MethodCallMultiValueExtractor extends AbstractMultiValueExtractor i
         this.methodCall = (AbstractExtractorMethodCall<Collection<String>>) toClone.methodCall.makeThreadSafeCopy();
         this.parameters = new Object[toClone.parameters.length];
         System.arraycopy(toClone.parameters, 0, this.parameters, 0, toClone.parameters.length);
+        this.boundCall = this.methodCall.bindParameters(this.parameters);
     }
 
     @Override
     public Collection<String> extract(final Record record) throws Exception
     {
+        if (boundCall != null)
+            return methodCall.invoke(record, boundCall);
         return methodCall.invoke(record, parameters);
     }
 
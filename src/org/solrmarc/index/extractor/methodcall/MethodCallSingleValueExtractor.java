@@ -1,5 +1,6 @@
 package org.solrmarc.index.extractor.methodcall;
 
+import java.lang.invoke.MethodHandle;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -11,6 +12,8 @@ public class MethodCallSingleValueExtractor extends AbstractMultiValueExtractor
 {
     private final AbstractExtractorMethodCall<String> methodCall;
     private final Object[] parameters;
+    // the call with the parameters above bound into it, or null if it has to be made with the parameters array
+    private final MethodHandle boundCall;
 
     public MethodCallSingleValueExtractor(final AbstractExtractorMethodCall<String> methodCall,
             final Object[] parameters)
@@ -27,6 +30,7 @@ public class MethodCallSingleValueExtractor extends AbstractMultiValueExtractor
         this.methodCall = methodCall;
         this.parameters = new Object[parameters.length + 1];
         System.arraycopy(parameters, 0, this.parameters, 1, parameters.length);
+        this.boundCall = this.methodCall.bindParameters(this.parameters);
     }
     
     @SuppressWarnings("unchecked")
@@ -35,13 +39,14 @@ public class MethodCallSingleValueExtractor extends AbstractMultiValueExtractor
         this.methodCall = (AbstractExtractorMethodCall<String>) toClone.methodCall.makeThreadSafeCopy();
         this.parameters = new Object[toClone.parameters.length];
         System.arraycopy(toClone.parameters, 0, this.parameters, 0, toClone.parameters.length);
+        this.boundCall = this.methodCall.bindParameters(this.parameters);
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public Collection<String> extract(final Record record) throws Exception
     {
-        Object result = methodCall.invoke(record, parameters);
+        Object result = (boundCall != null) ? methodCall.invoke(record, boundCall) : methodCall.invoke(record, parameters);
         if (result == null)
             return(Collections.EMPTY_LIST);
         else
@@ -1,13 +1,17 @@
 package org.solrmarc.index.extractor.methodcall;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collection;
 
+import org.marc4j.marc.Record;
+
 public class MultiValueExtractorMethodCall extends AbstractExtractorMethodCall<Collection<String>>
 {
     private final Object mixin;
     private final Method method;
+    private final MethodHandle handle;
     private final Method perRecordInit;
     //private final Method isThreadSafe;
 
@@ -16,6 +20,7 @@ public class MultiValueExtractorMethodCall extends AbstractExtractorMethodCall<C
         super(mixin.getClass().getName(), method.getName(), perRecordInit != null, numParameters);
         this.mixin = mixin;
         this.method = method;
+        this.handle = MethodCallManager.bindToMixin(mixin, method, Record.class);
         this.perRecordInit = perRecordInit;
 
         if (!Collection.class.isAssignableFrom(this.method.getReturnType()))
@@ -31,13 +36,14 @@ public class MultiValueExtractorMethodCall extends AbstractExtractorMethodCall<C
         super(toClone.mixin.getClass().getName(), toClone.method.getName(), toClone.perRecordInit != null, toClone.getNumParameters());
         this.mixin = AbstractMethodCallFactory.createThreadLocalObjectForSpecifiedClass(toClone.mixin.getClass());
         this.method = toClone.method;
+        this.handle = MethodCallManager.bindToMixin(this.mixin, this.method, Record.class);
         this.perRecordInit = toClone.perRecordInit;
     }
 
     @Override 
-    protected boolean perRecordInitCalled(Object[] record)
+    protected boolean perRecordInitCalled(Record record)
     {
-        return (MethodCallManager.instance().alreadyCalledFor(this.mixin, record[0]));
+        return (RecordContext.current().alreadyInitialized(this.mixin, record));
     }
 
     @Override
@@ -46,6 +52,12 @@ public class MultiValueExtractorMethodCall extends AbstractExtractorMethodCall<C
         perRecordInit.invoke(mixin, record);
     }
 
+    @Override
+    public MethodHandle bindParameters(final Object[] parameters)
+    {
+        return(MethodCallManager.bindParameters(handle, parameters, Record.class));
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Collection<String> invoke(final Object[] parameters) throws Exception
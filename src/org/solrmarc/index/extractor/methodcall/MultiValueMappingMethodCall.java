@@ -1,5 +1,6 @@
 package org.solrmarc.index.extractor.methodcall;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.util.Collection;
 
@@ -9,12 +10,14 @@ public class MultiValueMappingMethodCall extends AbstractMappingMethodCall<Colle
 {
     private final Object mixin;
     private final Method method;
+    private final MethodHandle handle;
 
     public MultiValueMappingMethodCall(final Object mixin, final Method method)
     {
         super(mixin.getClass().getSimpleName(), method.getName());
         this.mixin = mixin;
         this.method = method;
+        this.handle = MethodCallManager.bindToMixin(mixin, method, Collection.class);
 
         if (!Collection.class.isAssignableFrom(this.method.getReturnType()))
         {
@@ -28,7 +31,14 @@ public class MultiValueMappingMethodCall extends AbstractMappingMethodCall<Colle
     {
         super(toClone.getObjectName(), toClone.getMethodName());
         this.mixin = AbstractMethodCallFactory.createThreadLocalObjectForSpecifiedClass(toClone.mixin.getClass());
-        this.method = toClone.method;        
+        this.method = toClone.method;
+        this.handle = MethodCallManager.bindToMixin(this.mixin, this.method, Collection.class);
+    }
+
+    @Override
+    public MethodHandle bindParameters(final Object[] parameters)
+    {
+        return(MethodCallManager.bindParameters(handle, parameters, Object.class));
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,110 @@
+package org.solrmarc.index.extractor.methodcall;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.marc4j.marc.Record;
+
+/**
+ * The state of the record currently being indexed by a thread, which records which mixins have had their
+ * <code>perRecordInit</code> method called for that record.
+ * <p>
+ * The Indexer calls <code>RecordContext.start(record)</code> before applying the index specifications to each record,
+ * and the method calls of a mixin ask the context of their thread whether they still need to initialize it for
+ * the record.  Since a mixin that has a perRecordInit method isn't thread safe, each indexing thread has its own
+ * instance of it, so the context is only ever used by one thread and needs no locking.  If a method is called for
+ * a different record than the one the context was started for (as happens when index specifications are applied
+ * to records other than by the Indexer) the context starts over for that record.
+ * </p>
+ */
+public final class RecordContext
+{
+    private final static ThreadLocal<RecordContext> current = new ThreadLocal<RecordContext>()
+    {
+        @Override
+        protected RecordContext initialValue()
+        {
+            return new RecordContext();
+        }
+    };
+
+    private Record record = null;
+    // the mixins initialized for the record, compared by identity, and only ever a handful
+    private final List<Object> initialized = new ArrayList<Object>();
+
+    private RecordContext()
+    {
+    }
+
+    /**
+     * Starts the context of the current thread for a record, forgetting which mixins were initialized before.
+     *
+     * @param record  the record about to be indexed
+     * @return the context of the current thread
+     */
+    public static RecordContext start(final Record record)
+    {
+        RecordContext context = current.get();
+        context.reset(record);
+        return(context);
+    }
+
+    /**
+     * @return the context of the current thread
+     */
+    public static RecordContext current()
+    {
+        return(current.get());
+    }
+
+    /**
+     * Ends the context of the current thread for a record, so that processing the same record again will
+     * initialize its mixins again.
+     *
+     * @param record  the record that has been indexed
+     */
+    public static void done(final Record record)
+    {
+        RecordContext context = current.get();
+        if (context.record == record)
+        {
+            context.reset(null);
+        }
+    }
+
+    /**
+     * Notes that a mixin is being called for a record, and returns whether its perRecordInit method has
+     * already been called for that record.
+     *
+     * @param mixin   the mixin object
+     * @param record  the record it is being called for
+     * @return true if the mixin was already initialized for the record, false if it must be initialized now
+     */
+    public boolean alreadyInitialized(final Object mixin, final Record record)
+    {
+        if (record != this.record)
+        {
+            reset(record);
+        }
+        for (int i = 0; i < initialized.size(); i++)
+        {
+            if (initialized.get(i) == mixin) return(true);
+        }
+        initialized.add(mixin);
+        return(false);
+    }
+
+    /**
+     * @return the record the context was started for, or null
+     */
+    public Record getRecord()
+    {
+        return(record);
+    }
+
+    private void reset(final Record record)
+    {
+        this.record = record;
+        initialized.clear();
+    }
+}
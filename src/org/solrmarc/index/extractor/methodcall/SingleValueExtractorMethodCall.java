@@ -1,12 +1,16 @@
 package org.solrmarc.index.extractor.methodcall;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
+import org.marc4j.marc.Record;
+
 public class SingleValueExtractorMethodCall extends AbstractExtractorMethodCall<String>
 {
     private final Object mixin;
     private final Method method;
+    private final MethodHandle handle;
     private final Method perRecordInit;
 
     public SingleValueExtractorMethodCall(final Object mixin, final Method method, final Method perRecordInit, int numParameters)
@@ -14,6 +18,7 @@ public class SingleValueExtractorMethodCall extends AbstractExtractorMethodCall<
         super(mixin.getClass().getName(), method.getName(), perRecordInit != null, numParameters);
         this.mixin = mixin;
         this.method = method;
+        this.handle = MethodCallManager.bindToMixin(mixin, method, Record.class);
         this.perRecordInit = perRecordInit;
 
         if (!String.class.isAssignableFrom(this.method.getReturnType()))
@@ -29,13 +34,14 @@ public class SingleValueExtractorMethodCall extends AbstractExtractorMethodCall<
         super(toClone.mixin.getClass().getName(), toClone.method.getName(), toClone.perRecordInit != null, toClone.getNumParameters());
         this.mixin = AbstractMethodCallFactory.createThreadLocalObjectForSpecifiedClass(toClone.mixin.getClass());
         this.method = toClone.method;
+        this.handle = MethodCallManager.bindToMixin(this.mixin, this.method, Record.class);
         this.perRecordInit = toClone.perRecordInit;
     }
 
     @Override 
-    protected boolean perRecordInitCalled(Object[] record)
+    protected boolean perRecordInitCalled(Record record)
     {
-        return (MethodCallManager.instance().alreadyCalledFor(this.mixin, record[0]));
+        return (RecordContext.current().alreadyInitialized(this.mixin, record));
     }
 
     @Override
@@ -44,6 +50,12 @@ public class SingleValueExtractorMethodCall extends AbstractExtractorMethodCall<
         perRecordInit.invoke(mixin, record);
     }
 
+    @Override
+    public MethodHandle bindParameters(final Object[] parameters)
+    {
+        return(MethodCallManager.bindParameters(handle, parameters, Record.class));
+    }
+
     @Override
     public String invoke(final Object[] parameters) throws Exception
     {
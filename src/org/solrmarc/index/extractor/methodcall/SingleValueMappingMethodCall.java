@@ -1,5 +1,6 @@
 package org.solrmarc.index.extractor.methodcall;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 
 import org.solrmarc.index.extractor.ExternalMethod;
@@ -8,12 +9,14 @@ public class SingleValueMappingMethodCall extends AbstractMappingMethodCall<Stri
 {
     private final Object mixin;
     private final Method method;
+    private final MethodHandle handle;
 
     public SingleValueMappingMethodCall(final Object mixin, final Method method)
     {
         super(mixin.getClass().getSimpleName(), method.getName());
         this.mixin = mixin;
         this.method = method;
+        this.handle = MethodCallManager.bindToMixin(mixin, method, String.class);
 
         if (!this.method.getReturnType().equals(String.class))
         {
@@ -28,6 +31,13 @@ public class SingleValueMappingMethodCall extends AbstractMappingMethodCall<Stri
         super(toClone.getObjectName(), toClone.getMethodName());
         this.mixin = AbstractMethodCallFactory.createThreadLocalObjectForSpecifiedClass(toClone.mixin.getClass());
         this.method = toClone.method;
+        this.handle = MethodCallManager.bindToMixin(this.mixin, this.method, String.class);
+    }
+
+    @Override
+    public MethodHandle bindParameters(final Object[] parameters)
+    {
+        return(MethodCallManager.bindParameters(handle, parameters, Object.class));
     }
 
     @Override
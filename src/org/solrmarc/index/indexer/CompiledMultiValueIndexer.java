@@ -0,0 +1,45 @@
+package org.solrmarc.index.indexer;
+
+import java.util.Collection;
+
+import org.marc4j.marc.Record;
+import org.solrmarc.index.extractor.AbstractMultiValueExtractor;
+
+/**
+ * The base class of the indexers generated by SpecCompiler when <code>solrmarc.indexer.compiled.specs</code> is
+ * set to true.  Each generated subclass performs the work of one MultiValueIndexer, with the extraction, the
+ * formatting and cleaning options and the chain of mappings written out as straight line code for that one index
+ * specification, and produces exactly the same values.
+ * <p>
+ * The interpreted indexer it was generated from is kept, so that a copy for another indexing thread can be made
+ * from a thread safe copy of it.
+ * </p>
+ */
+public abstract class CompiledMultiValueIndexer extends MultiValueIndexer
+{
+    private final MultiValueIndexer interpreted;
+    // the source generated for the indexer, which a copy for another thread must also produce to use the same class
+    String javaSource;
+
+    protected CompiledMultiValueIndexer(MultiValueIndexer interpreted)
+    {
+        super(interpreted.getSolrFieldNamesStr(), (AbstractMultiValueExtractor) interpreted.extractor,
+                interpreted.mappings, interpreted.collector);
+        this.interpreted = interpreted;
+        this.totalElapsedTime = interpreted.totalElapsedTime;
+        this.setSpecLabel(interpreted.getSpecLabel());
+        if (interpreted.getOnlyIfEmpty())  setIfEmpty();
+        if (interpreted.getOnlyIfUnique())  setIfUnique();
+    }
+
+    /**
+     * @return  the interpreted indexer this one was generated from
+     */
+    public MultiValueIndexer getInterpreted()
+    {
+        return interpreted;
+    }
+
+    @Override
+    public abstract Collection<String> getFieldData(Record record) throws Exception;
+}
@@ -0,0 +1,683 @@
+package org.solrmarc.index.indexer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.apache.log4j.Logger;
+import org.solrmarc.index.collector.MultiValueCollector;
+import org.solrmarc.index.extractor.AbstractMultiValueExtractor;
+import org.solrmarc.index.extractor.AbstractValueExtractor;
+import org.solrmarc.index.extractor.formatter.FieldCleaner;
+import org.solrmarc.index.extractor.formatter.FieldFormatter.eCleanVal;
+import org.solrmarc.index.extractor.formatter.FieldFormatter.eJoinVal;
+import org.solrmarc.index.extractor.formatter.FieldFormatterBase;
+import org.solrmarc.index.extractor.impl.direct.DirectMultiValueExtractor;
+import org.solrmarc.index.mapping.AbstractMultiValueMapping;
+import org.solrmarc.index.mapping.AbstractValueMapping;
+import org.solrmarc.index.specification.CompositeSpecification;
+import org.solrmarc.index.specification.SingleControlFieldSpecification;
+import org.solrmarc.index.specification.SingleDataFieldSpecification;
+import org.solrmarc.index.specification.SingleSpecification;
+import org.solrmarc.index.specification.Specification;
+import org.solrmarc.index.specification.SubfieldCodeSet;
+import org.solrmarc.index.specification.conditional.Condition;
+
+/**
+ * Compiles index specifications into Java classes, when <code>solrmarc.indexer.compiled.specs</code> is set to true.
+ * <p>
+ * Interpreting a specification goes through the extractor, the Specification, its FieldFormatter, each of the
+ * mappings and the collector, and checks the formatting and cleaning options of the specification for every value,
+ * and since every specification goes through the same code none of those calls can be inlined by the JIT.  Instead
+ * a class is generated for each MultiValueIndexer, in which the options are already decided and the mappings and
+ * collector are called through fields of their actual types.  For an extraction of fields and subfields that only
+ * uses the cleaning and join options (which covers most specifications) the loop over the fields of the record,
+ * the conditions and the subfield selection are written out in full, and each value is cleaned by a FieldCleaner
+ * made once for the cleaning options of the specification; any other extraction is called as it is.
+ * </p>
+ * <p>
+ * The written out extraction selects the same fields and subfields, in the same order, as the Specification and
+ * FieldFormatterBase do.  Where the interpreter calls FieldFormatterBase.cleanData for each value, the generated
+ * code decides the indicator to strip from the tag and calls FieldCleaner.clean itself, which is what cleanData
+ * does, and the cleanEnd option is applied to each finished value with FieldCleaner.cleanData.  The mappings and
+ * the collector are the interpreter's own objects, called in the same order, so the values produced are the same.
+ * </p>
+ * <p>
+ * The classes are compiled in memory with the compiler of the running JVM, the way custom mixin classes in
+ * index_java are.  If there is no compiler, or the generated classes don't compile, the interpreted indexers are
+ * used.
+ * </p>
+ */
+final class SpecCompiler
+{
+    private final static Logger logger = Logger.getLogger(SpecCompiler.class);
+    private final static String PACKAGE_NAME = "org.solrmarc.index.indexer.compiled";
+    // the tags for which STRIP_INDICATOR uses the first or the second indicator, the same as FieldFormatterBase
+    private final static String IND1_FIELDS = "130:630:730:740";
+    private final static String IND2_FIELDS = "222:240:242:243:245:440:830";
+    private final static AtomicInteger nextClassNum = new AtomicInteger(0);
+
+    private SpecCompiler()
+    {
+    }
+
+    /**
+     * @param indexers  the indexers created from the index specifications
+     * @return          the same indexers in the same order, with each MultiValueIndexer replaced by a compiled one
+     */
+    static List<AbstractValueIndexer<?>> compile(List<AbstractValueIndexer<?>> indexers)
+    {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+        {
+            logger.warn("Java environment at JAVA_HOME = " + System.getProperty("java.home") + " does not have a Java compiler.");
+            logger.warn("The index specifications will be interpreted rather than compiled.");
+            return(indexers);
+        }
+        Map<Integer, Generator> generators = new LinkedHashMap<>();
+        for (int i = 0; i < indexers.size(); i++)
+        {
+            if (indexers.get(i).getClass() != MultiValueIndexer.class) continue;
+            Generator generator = new Generator("CompiledSpec" + nextClassNum.getAndIncrement());
+            generator.generate((MultiValueIndexer) indexers.get(i));
+            generators.put(i, generator);
+        }
+        if (generators.isEmpty()) return(indexers);
+
+        ClassLoader loader;
+        try
+        {
+            loader = new GeneratedClassLoader(SpecCompiler.class.getClassLoader(), compileClasses(compiler, generators.values()));
+        }
+        catch (RuntimeException | IOException e)
+        {
+            logger.warn("Unable to compile the index specifications, they will be interpreted instead");
+            logger.warn(e.getMessage());
+            return(indexers);
+        }
+        List<AbstractValueIndexer<?>> result = new ArrayList<>(indexers);
+        int compiled = 0;
+        int inlined = 0;
+        for (Map.Entry<Integer, Generator> entry : generators.entrySet())
+        {
+            MultiValueIndexer indexer = (MultiValueIndexer) indexers.get(entry.getKey());
+            Generator generator = entry.getValue();
+            try
+            {
+                Class<?> clazz = loader.loadClass(PACKAGE_NAME + "." + generator.className);
+                result.set(entry.getKey(), instantiate(clazz, indexer, generator));
+                compiled++;
+                if (generator.inlined) inlined++;
+            }
+            catch (ReflectiveOperationException | LinkageError e)
+            {
+                logger.warn("Unable to load compiled index specification " + indexer.getSpecLabel() + ", it will be interpreted instead", e);
+            }
+        }
+        logger.info("Compiled " + compiled + " of " + indexers.size() + " index specifications, with the extraction written out in full for " + inlined + " of them");
+        return(result);
+    }
+
+    /**
+     * Makes a copy of a compiled indexer for another indexing thread, using the same generated class for a thread
+     * safe copy of the interpreted indexer.  If that copy doesn't have the same structure as the original, the
+     * copy is used as it is.
+     */
+    static AbstractValueIndexer<?> makeThreadSafeCopy(CompiledMultiValueIndexer toClone)
+    {
+        MultiValueIndexer copy = (MultiValueIndexer) ValueIndexerFactory.makeThreadSafeCopy(toClone.getInterpreted());
+        Generator generator = new Generator(toClone.getClass().getSimpleName());
+        generator.generate(copy);
+        if (!generator.source.equals(toClone.javaSource))
+        {
+            logger.debug("Copy of index specification " + toClone.getSpecLabel() + " differs from the original, it will be interpreted");
+            return(copy);
+        }
+        try
+        {
+            return(instantiate(toClone.getClass(), copy, generator));
+        }
+        catch (ReflectiveOperationException e)
+        {
+            logger.warn("Unable to copy compiled index specification " + toClone.getSpecLabel() + ", it will be interpreted instead", e);
+            return(copy);
+        }
+    }
+
+    private static CompiledMultiValueIndexer instantiate(Class<?> clazz, MultiValueIndexer indexer, Generator generator) throws ReflectiveOperationException
+    {
+        Constructor<?> constructor = clazz.getConstructor(MultiValueIndexer.class, Object[].class);
+        CompiledMultiValueIndexer result = (CompiledMultiValueIndexer) constructor.newInstance(indexer, generator.parts.toArray());
+        result.javaSource = generator.source;
+        return(result);
+    }
+
+    private static Map<String, byte[]> compileClasses(JavaCompiler compiler, Collection<Generator> generators) throws IOException
+    {
+        List<JavaFileObject> units = new ArrayList<>(generators.size());
+        for (final Generator generator : generators)
+        {
+            String path = PACKAGE_NAME.replace('.', '/') + "/" + generator.className;
+            units.add(new SimpleJavaFileObject(URI.create("string:///" + path + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE)
+            {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors)
+                {
+                    return(generator.source);
+                }
+            });
+            logger.debug("Generated class for index specification " + generator.specLabel + ":\n" + generator.source);
+        }
+        final Map<String, ByteArrayOutputStream> output = new LinkedHashMap<>();
+        final StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, Charset.forName("UTF-8"));
+        standardFileManager.setLocation(StandardLocation.CLASS_PATH, getClassPath());
+        final JavaFileManager fileManager = new ForwardingJavaFileManager<StandardJavaFileManager>(standardFileManager)
+        {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling)
+            {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                output.put(className, bytes);
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind)
+                {
+                    @Override
+                    public OutputStream openOutputStream()
+                    {
+                        return(bytes);
+                    }
+                };
+            }
+        };
+        final DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnosticCollector, Arrays.asList("-nowarn"), null, units);
+        boolean success = task.call();
+        fileManager.close();
+        if (!success)
+        {
+            StringBuilder buffer = new StringBuilder();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnosticCollector.getDiagnostics())
+            {
+                buffer.append(diagnostic.toString()).append('\n');
+            }
+            throw new RuntimeException('\n' + buffer.toString() + "\nCompiling index specifications failed!");
+        }
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (Map.Entry<String, ByteArrayOutputStream> entry : output.entrySet())
+        {
+            classes.put(entry.getKey(), entry.getValue().toByteArray());
+        }
+        return(classes);
+    }
+
+    /**
+     * @return  the class path of the running JVM, along with whatever SolrMarc has added to its class loader
+     */
+    private static List<File> getClassPath()
+    {
+        Set<File> classpath = new LinkedHashSet<>();
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator))
+        {
+            if (entry.length() > 0) classpath.add(new File(entry));
+        }
+        for (ClassLoader loader = SpecCompiler.class.getClassLoader(); loader != null; loader = loader.getParent())
+        {
+            if (!(loader instanceof URLClassLoader)) continue;
+            for (URL url : ((URLClassLoader) loader).getURLs())
+            {
+                try
+                {
+                    classpath.add(new File(url.toURI()));
+                }
+                catch (URISyntaxException | IllegalArgumentException e)
+                {
+                    // not a file, so not something the compiler can use
+                }
+            }
+        }
+        return(new ArrayList<>(classpath));
+    }
+
+    private final static class GeneratedClassLoader extends ClassLoader
+    {
+        private final Map<String, byte[]> classes;
+
+        GeneratedClassLoader(ClassLoader parent, Map<String, byte[]> classes)
+        {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException
+        {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) throw new ClassNotFoundException(name);
+            return(defineClass(name, bytes, 0, bytes.length));
+        }
+    }
+
+    /**
+     * Writes the source of the class for one indexer.  Every object the generated code uses (the extractor or the
+     * parts of the specification, the mappings and the collector) is passed to the constructor of the class in
+     * <code>parts</code>, in the order the generator came to them.
+     */
+    private final static class Generator
+    {
+        final String className;
+        final List<Object> parts = new ArrayList<>();
+        String source = null;
+        String specLabel = null;
+        boolean inlined = false;
+        private int numPieces = 0;
+        private final StringBuilder fields = new StringBuilder();
+        private final StringBuilder assignments = new StringBuilder();
+        private final StringBuilder methods = new StringBuilder();
+
+        Generator(String className)
+        {
+            this.className = className;
+        }
+
+        void generate(MultiValueIndexer indexer)
+        {
+            specLabel = indexer.getSpecLabel();
+            String values;
+            List<SingleSpecification> pieces = inlinablePieces(indexer.extractor);
+            if (indexer.extractor == null)
+            {
+                values = "Collections.<String>emptyList()";
+            }
+            else if (pieces != null)
+            {
+                generateExtract(((DirectMultiValueExtractor) indexer.extractor).getFieldsAndSubfieldSpec(), pieces);
+                values = "extract(record)";
+                inlined = true;
+            }
+            else
+            {
+                values = addPart(indexer.extractor, AbstractMultiValueExtractor.class, "extractor") + ".extract(record)";
+            }
+            StringBuilder body = new StringBuilder();
+            body.append("    @Override\n");
+            body.append("    public Collection<String> getFieldData(Record record) throws Exception\n");
+            body.append("    {\n");
+            body.append("        long start = System.nanoTime();\n");
+            body.append("        Collection<String> values = ").append(values).append(";\n");
+            body.append("        if (values == null)\n");
+            body.append("        {\n");
+            body.append("            values = Collections.emptyList();\n");
+            body.append("        }\n");
+            for (AbstractValueMapping<Collection<String>> mapping : indexer.mappings)
+            {
+                if (mapping == null) continue;
+                body.append("        values = ").append(addPart(mapping, AbstractMultiValueMapping.class, "mapping")).append(".map(values);\n");
+            }
+            body.append("        Collection<String> result = ").append(addPart(indexer.collector, MultiValueCollector.class, "collector")).append(".collect(values);\n");
+            body.append("        long end = System.nanoTime();\n");
+            body.append("        totalElapsedTime.addAndGet(end - start);\n");
+            body.append("        return (result);\n");
+            body.append("    }\n");
+
+            StringBuilder src = new StringBuilder();
+            src.append("package ").append(PACKAGE_NAME).append(";\n\n");
+            for (String importName : new String[] { "java.util.ArrayList", "java.util.Collection", "java.util.Collections",
+                    "java.util.List", "org.marc4j.marc.ControlField", "org.marc4j.marc.DataField", "org.marc4j.marc.Record",
+                    "org.marc4j.marc.Subfield", "org.marc4j.marc.VariableField", "org.solrmarc.index.indexer.CompiledMultiValueIndexer",
+                    "org.solrmarc.index.indexer.MultiValueIndexer", "org.solrmarc.index.extractor.formatter.FieldCleaner",
+                    "org.solrmarc.marc.RecordFieldIndex" })
+            {
+                src.append("import ").append(importName).append(";\n");
+            }
+            src.append("\npublic final class ").append(className).append(" extends CompiledMultiValueIndexer\n{\n");
+            src.append(fields).append('\n');
+            src.append("    public ").append(className).append("(MultiValueIndexer interpreted, Object[] parts)\n");
+            src.append("    {\n");
+            src.append("        super(interpreted);\n");
+            src.append(assignments);
+            src.append("    }\n\n");
+            src.append(body);
+            src.append(methods);
+            src.append("}\n");
+            source = src.toString();
+        }
+
+        /**
+         * @return  the pieces of the specification of a DirectMultiValueExtractor, if they are all ones whose
+         *          extraction can be written out, otherwise null
+         */
+        private static List<SingleSpecification> inlinablePieces(AbstractValueExtractor<?> extractor)
+        {
+            if (extractor == null || extractor.getClass() != DirectMultiValueExtractor.class) return(null);
+            Specification spec = ((DirectMultiValueExtractor) extractor).getFieldsAndSubfieldSpec();
+            List<SingleSpecification> pieces;
+            if (spec.getClass() == CompositeSpecification.class)
+            {
+                pieces = ((CompositeSpecification) spec).getPieces();
+            }
+            else if (spec.getClass() == SingleDataFieldSpecification.class || spec.getClass() == SingleControlFieldSpecification.class)
+            {
+                pieces = Collections.singletonList((SingleSpecification) spec);
+            }
+            else
+            {
+                return(null);
+            }
+            if (pieces == null || pieces.isEmpty()) return(null);
+            for (SingleSpecification piece : pieces)
+            {
+                if (!isInlinable(piece)) return(null);
+            }
+            return(pieces);
+        }
+
+        /**
+         * A piece can be written out if it uses a plain formatter without any format patterns, so that only the
+         * cleaning, substring, join and formatter mapping options need to be handled.
+         */
+        private static boolean isInlinable(SingleSpecification piece)
+        {
+            if (piece.getClass() != SingleDataFieldSpecification.class && piece.getClass() != SingleControlFieldSpecification.class)
+            {
+                return(false);
+            }
+            if (piece.getFormatter() == null || piece.getFormatter().getClass() != FieldFormatterBase.class) return(false);
+            FieldFormatterBase fmt = (FieldFormatterBase) piece.getFormatter();
+            return(fmt.getFieldFormat() == null && isEmpty(fmt.getFieldTagFmt()) && isEmpty(fmt.getIndicatorFmt()) &&
+                   (fmt.getSfCodeMap() == null || fmt.getSfCodeMap().isEmpty()) && fmt.getCleanVal() != null);
+        }
+
+        private static boolean isEmpty(String str)
+        {
+            return(str == null || str.length() == 0);
+        }
+
+        /**
+         * Writes the equivalent of Specification.getFieldMatches followed by adding the values of each match.
+         */
+        private void generateExtract(Specification spec, List<SingleSpecification> pieces)
+        {
+            String tags = addPart(spec.getTags(), String[].class, "tags");
+            List<String> pieceMethods = new ArrayList<>(pieces.size());
+            List<String> conds = new ArrayList<>(pieces.size());
+            for (SingleSpecification piece : pieces)
+            {
+                conds.add(piece.getCondition() == null ? null : addPart(piece.getCondition(), Condition.class, "cond"));
+                pieceMethods.add(generatePiece(piece));
+            }
+            StringBuilder m = new StringBuilder();
+            m.append("\n    private Collection<String> extract(Record record) throws Exception\n");
+            m.append("    {\n");
+            m.append("        Collection<String> result = new ArrayList<String>();\n");
+            m.append("        List<VariableField> fields = RecordFieldIndex.getVariableFields(record, ").append(tags).append(");\n");
+            if (spec.hasDuplicateTags())
+            {
+                // each piece in turn gets all of the fields it matches
+                for (int i = 0; i < pieces.size(); i++)
+                {
+                    m.append("        for (VariableField vf : fields)\n");
+                    m.append("        {\n");
+                    m.append("            if (vf.getTag().equals(").append(literal(pieces.get(i).getTag())).append(")");
+                    if (conds.get(i) != null) m.append(" && ").append(conds.get(i)).append(".matches(record, vf)");
+                    m.append(")\n");
+                    m.append("            {\n");
+                    m.append("                ").append(pieceMethods.get(i)).append("(result, vf);\n");
+                    m.append("            }\n");
+                    m.append("        }\n");
+                }
+            }
+            else
+            {
+                // each field is handled by the first piece for its tag, in the order of the fields
+                m.append("        for (VariableField vf : fields)\n");
+                m.append("        {\n");
+                m.append("            switch (vf.getTag())\n");
+                m.append("            {\n");
+                Set<String> tagsSeen = new LinkedHashSet<>();
+                for (int i = 0; i < pieces.size(); i++)
+                {
+                    if (!tagsSeen.add(pieces.get(i).getTag())) continue;
+                    m.append("                case ").append(literal(pieces.get(i).getTag())).append(":\n");
+                    String indent = "                    ";
+                    if (conds.get(i) != null)
+                    {
+                        m.append(indent).append("if (").append(conds.get(i)).append(".matches(record, vf))\n");
+                        indent = indent + "    ";
+                    }
+                    m.append(indent).append(pieceMethods.get(i)).append("(result, vf);\n");
+                    m.append("                    break;\n");
+                }
+                m.append("            }\n");
+                m.append("        }\n");
+            }
+            m.append("        return (result);\n");
+            m.append("    }\n");
+            methods.append(m);
+        }
+
+        /**
+         * Writes the equivalent of addDataFieldValues or addControlFieldValues for one piece of the specification.
+         *
+         * @return  the name of the method
+         */
+        private String generatePiece(SingleSpecification piece)
+        {
+            FieldFormatterBase fmt = (FieldFormatterBase) piece.getFormatter();
+            int num = numPieces++;
+            String method = "piece" + num;
+            List<String> maps = new ArrayList<>();
+            if (fmt.getMaps() != null)
+            {
+                for (AbstractMultiValueMapping map : fmt.getMaps())
+                {
+                    maps.add(addPart(map, AbstractMultiValueMapping.class, "map"));
+                }
+            }
+            EnumSet<eCleanVal> cleanVal = fmt.getCleanVal();
+            boolean join = fmt.getJoinVal() == eJoinVal.JOIN;
+            boolean separate = fmt.getJoinVal() == eJoinVal.SEPARATE;
+            boolean cleanEnd = cleanVal.contains(eCleanVal.CLEAN_END);
+            String clean = "clean" + num;
+            String indicator = indicatorToStrip(piece.getTag(), cleanVal);
+
+            StringBuilder m = new StringBuilder();
+            m.append("\n    private void ").append(method).append("(Collection<String> result, VariableField vf) throws Exception\n");
+            m.append("    {\n");
+            m.append("        StringBuilder sb = new StringBuilder();\n");
+            if (piece instanceof SingleControlFieldSpecification)
+            {
+                m.append("        String val = ").append(clean).append("(((ControlField) vf).getData()").append(indicator != null ? ", (char) 0" : "").append(");\n");
+                addValue(m, "        ", maps, separate, cleanEnd);
+            }
+            else
+            {
+                SubfieldCodeSet subfieldCodes = ((SingleDataFieldSpecification) piece).getSubfieldCodes();
+                String codes = (subfieldCodes == SubfieldCodeSet.ALL) ? null : addPart(subfieldCodes, SubfieldCodeSet.class, "codes");
+                boolean separator = join && fmt.getSeparator() != null;
+                m.append("        DataField df = (DataField) vf;\n");
+                if (separator) m.append("        int cnt = 0;\n");
+                m.append("        for (Subfield subfield : df.getSubfields())\n");
+                m.append("        {\n");
+                m.append("            final char code = subfield.getCode();\n");
+                String indent = "            ";
+                if (codes != null)
+                {
+                    m.append(indent).append("if (").append(codes).append(".matches(code))\n");
+                    m.append(indent).append("{\n");
+                    indent = indent + "    ";
+                }
+                if (separator)
+                {
+                    m.append(indent).append("if (cnt != 0) sb.append(").append(literal(fmt.getSeparator())).append(");\n");
+                }
+                m.append(indent).append("String val = ").append(clean).append("(subfield.getData()");
+                if (indicator != null) m.append(", (code == 'a') ? df.getIndicator").append(indicator).append("() : (char) 0");
+                m.append(");\n");
+                addValue(m, indent, maps, separate, cleanEnd);
+                if (separator) m.append(indent).append("cnt++;\n");
+                if (codes != null) m.append("            }\n");
+                m.append("        }\n");
+            }
+            if (join)
+            {
+                addCompletedValue(m, "        ", cleanEnd);
+            }
+            m.append("    }\n");
+            generateClean(m, clean, indicator != null, fmt, cleanVal);
+            methods.append(m);
+            return(method);
+        }
+
+        /**
+         * Writes the equivalent of prepData, handleSubFieldFormat, addVal and addAfterSubfield for a cleaned value.
+         */
+        private void addValue(StringBuilder m, String indent, List<String> maps, boolean separate, boolean cleanEnd)
+        {
+            if (maps.isEmpty())
+            {
+                m.append(indent).append("if (val != null && val.length() != 0)\n");
+                m.append(indent).append("{\n");
+                m.append(indent).append("    sb.append(val);\n");
+                if (separate) addCompletedValue(m, indent + "    ", cleanEnd);
+                m.append(indent).append("}\n");
+                return;
+            }
+            m.append(indent).append("Collection<String> prepped = (val == null || val.length() == 0) ? Collections.<String>emptyList() : Collections.singletonList(val);\n");
+            for (String map : maps)
+            {
+                m.append(indent).append("prepped = ").append(map).append(".map(prepped);\n");
+            }
+            m.append(indent).append("for (String mapped : prepped)\n");
+            m.append(indent).append("{\n");
+            m.append(indent).append("    sb.append(mapped);\n");
+            if (separate) addCompletedValue(m, indent + "    ", cleanEnd);
+            m.append(indent).append("}\n");
+        }
+
+        /**
+         * Writes the equivalent of addAfterSubfield for SEPARATE or addAfterField for JOIN.
+         */
+        private void addCompletedValue(StringBuilder m, String indent, boolean cleanEnd)
+        {
+            m.append(indent).append("if (sb.length() != 0)\n");
+            m.append(indent).append("{\n");
+            m.append(indent).append("    final String field = ").append(cleanEnd ? "FieldCleaner.cleanData(sb.toString())" : "sb.toString()").append(";\n");
+            m.append(indent).append("    if (field.length() > 0) result.add(field);\n");
+            m.append(indent).append("    sb.setLength(0);\n");
+            m.append(indent).append("}\n");
+        }
+
+        /**
+         * Writes the equivalent of FieldFormatterBase.cleanData, with the indicator to strip already decided, calling
+         * a FieldCleaner made for the cleaning options.
+         */
+        private void generateClean(StringBuilder m, String clean, boolean stripIndicator, FieldFormatterBase fmt, EnumSet<eCleanVal> cleanVal)
+        {
+            String cleaner = addPart(new FieldCleaner(cleanVal), FieldCleaner.class, "cleaner");
+            m.append("\n    private String ").append(clean).append("(String data").append(stripIndicator ? ", char indVal" : "").append(")\n");
+            m.append("    {\n");
+            m.append("        int numToDel = ").append(stripIndicator ? "(indVal >= '0' && indVal <= '9') ? indVal - '0' : 0" : "0").append(";\n");
+            m.append("        return (").append(cleaner).append(".clean(data, numToDel, ").append(fmt.getSubstringStart()).append(", ")
+             .append(fmt.getSubstringEnd()).append("));\n");
+            m.append("    }\n");
+        }
+
+        /**
+         * @return  "1" or "2" for the indicator giving the number of characters to strip from subfield a of the
+         *          fields with the tag, or null if nothing is stripped
+         */
+        private static String indicatorToStrip(String tag, EnumSet<eCleanVal> cleanVal)
+        {
+            boolean ind1 = cleanVal.contains(eCleanVal.STRIP_INDICATOR_1);
+            boolean ind2 = cleanVal.contains(eCleanVal.STRIP_INDICATOR_2);
+            if (cleanVal.contains(eCleanVal.STRIP_INDICATOR) || (ind1 && ind2))
+            {
+                if (IND1_FIELDS.contains(tag)) return("1");
+                if (IND2_FIELDS.contains(tag)) return("2");
+                return(null);
+            }
+            if (ind1) return("1");
+            if (ind2) return("2");
+            return(null);
+        }
+
+        /**
+         * Adds an object for the generated code to use, as a final field of its own type if the generated class can
+         * refer to that type, otherwise of the given base type.
+         *
+         * @return  the name of the field
+         */
+        private String addPart(Object part, Class<?> baseType, String role)
+        {
+            String name = role + parts.size();
+            String type = isAccessible(part.getClass()) ? part.getClass().getCanonicalName() : baseType.getCanonicalName();
+            parts.add(part);
+            fields.append("    private final ").append(type).append(' ').append(name).append(";\n");
+            assignments.append("        ").append(name).append(" = (").append(type).append(") parts[").append(parts.size() - 1).append("];\n");
+            return(name);
+        }
+
+        private static boolean isAccessible(Class<?> clazz)
+        {
+            if (clazz.isArray()) return(isAccessible(clazz.getComponentType()));
+            if (clazz.isPrimitive()) return(true);
+            if (clazz.getCanonicalName() == null) return(false);
+            for (Class<?> c = clazz; c != null; c = c.getEnclosingClass())
+            {
+                if (!Modifier.isPublic(c.getModifiers())) return(false);
+            }
+            try
+            {
+                return(Class.forName(clazz.getName(), false, SpecCompiler.class.getClassLoader()) == clazz);
+            }
+            catch (ClassNotFoundException | LinkageError e)
+            {
+                return(false);
+            }
+        }
+
+        private static String literal(String str)
+        {
+            StringBuilder sb = new StringBuilder("\"");
+            for (int i = 0; i < str.length(); i++)
+            {
+                char c = str.charAt(i);
+                if (c == '"' || c == '\\') sb.append('\\').append(c);
+                else if (c < 0x20) sb.append(String.format("\\%03o", (int) c));
+                else if (c > 0x7e) sb.append(String.format("\\u%04x", (int) c));
+                else sb.append(c);
+            }
+            return(sb.append('"').toString());
+        }
+    }
+}
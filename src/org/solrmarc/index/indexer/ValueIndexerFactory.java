@@ -2,20 +2,29 @@ package org.solrmarc.index.indexer;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -28,13 +37,16 @@ import org.solrmarc.index.extractor.AbstractSingleValueExtractor;
 import org.solrmarc.index.extractor.AbstractValueExtractor;
 import org.solrmarc.index.extractor.AbstractValueExtractorFactory;
 import org.solrmarc.index.extractor.ExternalMethod;
+import org.solrmarc.index.extractor.SharedMultiValueExtractor;
 import org.solrmarc.index.extractor.formatter.FieldFormatter.eCleanVal;
 import org.solrmarc.index.extractor.formatter.FieldFormatter.eJoinVal;
+import org.solrmarc.index.extractor.impl.constant.ConstantMultiValueExtractor;
 import org.solrmarc.index.extractor.impl.direct.ModifyableMultiValueExtractor;
 import org.solrmarc.index.extractor.impl.java.JavaValueExtractorUtils;
 import org.solrmarc.index.extractor.methodcall.MethodCallManager;
 import org.solrmarc.index.mapping.AbstractMultiValueMapping;
 import org.solrmarc.index.mapping.AbstractValueMappingFactory;
+import org.solrmarc.index.mapping.impl.TranslationMappingFactory;
 import org.solrmarc.index.utils.ClasspathUtils;
 import org.solrmarc.tools.DataUtil;
 import org.solrmarc.tools.SolrMarcIndexerException;
@@ -52,6 +64,10 @@ public class ValueIndexerFactory
     private Properties localMappingProperties = null;
     private JavaValueExtractorUtils compileTool = null;
     private String[] homeDirStrs = null;
+    // while a set of indexers is being created, the text of the extraction performed by each of them, used to
+    // plan which extractions can be shared
+    private Map<AbstractValueIndexer<?>, String> extractionKeys = null;
+    private int sharedExtractionCount = 0;
     private final Pattern specPattern = Pattern.compile("([-A-Za-z_0-9, \\t]*)([:=]|([+?|]=))(.*)");
     boolean debug_parse = true;
     private boolean defaultUniqueVal = true;
@@ -223,14 +239,16 @@ public class ValueIndexerFactory
     public List<AbstractValueIndexer<?>> createValueIndexers(File[] indexSpecFiles) throws IllegalAccessException, InstantiationException, IOException
     {
         localMappingProperties = new Properties();
+        extractionKeys = new IdentityHashMap<>();
 
         Map<String, List<AbstractValueIndexer<?>>> valueIndexerMap = new LinkedHashMap<>();
         Map<String, List<IndexerSpecException>>    valueIndexerExceptions = new LinkedHashMap<>();
 
         createValueIndexers(indexSpecFiles, valueIndexerMap, valueIndexerExceptions);
 
-        List<AbstractValueIndexer<?>> valueIndexers = collapseMapToList(valueIndexerMap);
+        List<AbstractValueIndexer<?>> valueIndexers = compileIfRequested(planSharedExtractions(collapseMapToList(valueIndexerMap)));
         validationExceptions = collapseExceptionsMaptoList(valueIndexerExceptions);
+        TranslationMappingFactory.logTranslationMapMemoryUsage();
         return valueIndexers;
     }
 
@@ -251,18 +269,425 @@ public class ValueIndexerFactory
     public List<AbstractValueIndexer<?>> createValueIndexers(String[] configSpecs) throws IllegalAccessException, InstantiationException
     {
         localMappingProperties = new Properties();
+        extractionKeys = new IdentityHashMap<>();
 
         Map<String, List<AbstractValueIndexer<?>>> valueIndexerMap = new LinkedHashMap<>();
         Map<String, List<IndexerSpecException>>    valueIndexerExceptions = new LinkedHashMap<>();
 
         createValueIndexers(configSpecs, valueIndexerMap, valueIndexerExceptions);
 
-        List<AbstractValueIndexer<?>> valueIndexers = collapseMapToList(valueIndexerMap);
+        List<AbstractValueIndexer<?>> valueIndexers = compileIfRequested(planSharedExtractions(collapseMapToList(valueIndexerMap)));
         validationExceptions = collapseExceptionsMaptoList(valueIndexerExceptions);
 
         return valueIndexers;
     }
 
+    /**
+     * Computes a fingerprint of the index specifications for each Solr field (or set of fields) that they produce,
+     * so that a later run can tell which of them have changed.  The fingerprint of a specification also covers the
+     * contents of the things it refers to: the maps defined in the index specification file itself, the translation
+     * map files and BeanShell scripts it names, and the class files of the mixins it calls, so that editing any of
+     * these is seen as a change to the fields that use them.
+     *
+     * @param valueIndexers  the indexers created from the index specifications
+     * @return               a map from the solr field names of each indexer to the hex digest of its specifications
+     */
+    public Map<String, String> fingerprintValueIndexers(List<AbstractValueIndexer<?>> valueIndexers)
+    {
+        Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        Map<String, byte[]> resourceDigests = new LinkedHashMap<>();
+        for (AbstractValueIndexer<?> indexer : valueIndexers)
+        {
+            MessageDigest digest = digests.get(indexer.getSolrFieldNamesStr());
+            if (digest == null)
+            {
+                try
+                {
+                    digest = MessageDigest.getInstance("SHA-1");
+                }
+                catch (NoSuchAlgorithmException e)
+                {
+                    throw new IllegalStateException("SHA-1 is required to be supported by every JVM", e);
+                }
+                digests.put(indexer.getSolrFieldNamesStr(), digest);
+            }
+            String specLabel = indexer.getSpecLabel() != null ? indexer.getSpecLabel() : "";
+            digest.update(specLabel.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte)0);
+            if (specLabel.contains("(this)") && localMappingProperties != null)
+            {
+                for (String key : new TreeSet<String>(localMappingProperties.stringPropertyNames()))
+                {
+                    digest.update((key + "=" + localMappingProperties.getProperty(key)).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte)0);
+                }
+            }
+            digestReferencedResources(specLabel, digest, resourceDigests);
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        for (Map.Entry<String, MessageDigest> entry : digests.entrySet())
+        {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : entry.getValue().digest())
+            {
+                hex.append(String.format("%02x", b));
+            }
+            result.put(entry.getKey(), hex.toString());
+        }
+        return(result);
+    }
+
+    private final static Pattern mapFileReference = Pattern.compile("[A-Za-z0-9_.-]+\\.(properties|xml)");
+    private final static Pattern scriptReference = Pattern.compile("script\\(([^)]+)\\)");
+    private final static Pattern mixinReference = Pattern.compile("^\\s*(custom|java)\\s*(\\(([^)]+)\\))?");
+
+    /**
+     * Adds the contents of the map files, script and mixin classes that an index specification refers to to its
+     * fingerprint.  Each of these is read and digested once, however many specifications refer to it.
+     */
+    private void digestReferencedResources(String specLabel, MessageDigest digest, Map<String, byte[]> resourceDigests)
+    {
+        Matcher scripts = scriptReference.matcher(specLabel);
+        while (scripts.find())
+        {
+            digestResource("script:" + scripts.group(1).trim(), digest, resourceDigests);
+        }
+        Matcher maps = mapFileReference.matcher(specLabel.replaceAll("script\\([^)]*\\)", ""));
+        while (maps.find())
+        {
+            digestResource("map:" + maps.group(), digest, resourceDigests);
+        }
+        Matcher mixin = mixinReference.matcher(specLabel);
+        if (mixin.find())
+        {
+            if (mixin.group(3) != null)
+            {
+                digestResource("class:" + mixin.group(3).trim(), digest, resourceDigests);
+            }
+            else if (mixin.group(1).equals("custom"))
+            {
+                // the method may be in any of the mixins that are always loaded
+                for (Class<?> clazz : ClasspathUtils.instance().getMixinClasses())
+                {
+                    digestResource("class:" + clazz.getName(), digest, resourceDigests);
+                }
+            }
+        }
+    }
+
+    private void digestResource(String resource, MessageDigest digest, Map<String, byte[]> resourceDigests)
+    {
+        byte[] resourceDigest = resourceDigests.get(resource);
+        if (resourceDigest == null)
+        {
+            resourceDigest = digestResourceContents(resource);
+            resourceDigests.put(resource, resourceDigest);
+        }
+        digest.update(resource.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+        digest.update(resourceDigest);
+    }
+
+    /**
+     * Returns the digest of the contents of a referenced resource, or an empty array if it can't be found, in which
+     * case the fingerprint will change once it appears.
+     */
+    private byte[] digestResourceContents(String resource)
+    {
+        String name = resource.substring(resource.indexOf(':') + 1);
+        InputStream in = null;
+        try
+        {
+            if (resource.startsWith("class:"))
+            {
+                Class<?> clazz = Boot.classForName(name);
+                ClassLoader loader = clazz.getClassLoader() != null ? clazz.getClassLoader() : ClassLoader.getSystemClassLoader();
+                in = loader.getResourceAsStream(name.replace('.', '/') + ".class");
+            }
+            else
+            {
+                String dirName = resource.startsWith("script:") ? "index_scripts" : "translation_maps";
+                for (String homeDir : homeDirStrs)
+                {
+                    File file = new File(homeDir + File.separator + dirName, name);
+                    if (file.isFile())
+                    {
+                        in = new FileInputStream(file);
+                        break;
+                    }
+                }
+            }
+            if (in == null) return(new byte[0]);
+            MessageDigest contents = MessageDigest.getInstance("SHA-1");
+            byte buffer[] = new byte[8192];
+            int len;
+            while ((len = in.read(buffer)) != -1)
+            {
+                contents.update(buffer, 0, len);
+            }
+            return(contents.digest());
+        }
+        catch (ClassNotFoundException | IOException e)
+        {
+            logger.debug("Unable to read " + name + " for the index specification fingerprint: " + e.getMessage());
+            return(new byte[0]);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-1 is required to be supported by every JVM", e);
+        }
+        finally
+        {
+            if (in != null)
+            {
+                try
+                {
+                    in.close();
+                }
+                catch (IOException e)
+                {
+                    // nothing more to read
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the index specifications with the fingerprints stored by a previous run, and selects the indexers
+     * needed to bring the fields affected by the differences up to date.  These are the indexers for each field
+     * whose specification was added or changed, together with every other indexer that contributes to those
+     * fields, and the indexers for the unique key field of the documents.
+     *
+     * @param valueIndexers    the indexers created from the index specifications
+     * @param fingerprintFile  the file written by saveFingerprints at the end of the previous run
+     * @param idFieldName      the name of the Solr unique key field
+     * @param changedFields    returns the names of the fields to be updated, including any fields that are no
+     *                         longer produced by any specification and so should be removed
+     * @return                 the selected indexers, in their original order, or null if there are no stored
+     *                         fingerprints, in which case every indexer must be run
+     * @throws IOException     if the fingerprint file exists but can't be read
+     */
+    public List<AbstractValueIndexer<?>> getChangedValueIndexers(List<AbstractValueIndexer<?>> valueIndexers, File fingerprintFile,
+                                                                 String idFieldName, Set<String> changedFields) throws IOException
+    {
+        if (!fingerprintFile.exists())
+        {
+            logger.info("No stored index specification fingerprints in " + fingerprintFile.getPath() + ", all fields will be indexed");
+            return(null);
+        }
+        Properties stored = new Properties();
+        try (InputStream in = new FileInputStream(fingerprintFile))
+        {
+            stored.load(in);
+        }
+        Map<String, String> current = fingerprintValueIndexers(valueIndexers);
+        for (Map.Entry<String, String> entry : current.entrySet())
+        {
+            if (!entry.getValue().equals(stored.getProperty(entry.getKey())))
+            {
+                logger.info("Index specification changed for field(s): " + entry.getKey());
+                changedFields.addAll(AbstractValueIndexer.splitFieldNameStr(entry.getKey()));
+            }
+        }
+        for (String key : stored.stringPropertyNames())
+        {
+            if (!current.containsKey(key))
+            {
+                logger.info("Index specification removed for field(s): " + key);
+                changedFields.addAll(AbstractValueIndexer.splitFieldNameStr(key));
+            }
+        }
+        // an indexer that shares a field with a changed one must also be run, since the whole field is replaced
+        Set<AbstractValueIndexer<?>> selected = new LinkedHashSet<>();
+        boolean added = true;
+        while (added)
+        {
+            added = false;
+            for (AbstractValueIndexer<?> indexer : valueIndexers)
+            {
+                if (selected.contains(indexer) || Collections.disjoint(indexer.getSolrFieldNames(), changedFields)) continue;
+                selected.add(indexer);
+                added |= changedFields.addAll(indexer.getSolrFieldNames());
+            }
+        }
+        changedFields.remove(idFieldName);
+        List<AbstractValueIndexer<?>> result = new ArrayList<>();
+        for (AbstractValueIndexer<?> indexer : valueIndexers)
+        {
+            if (selected.contains(indexer) || indexer.getSolrFieldNames().contains(idFieldName))
+            {
+                result.add(indexer);
+            }
+        }
+        return(result);
+    }
+
+    /**
+     * Stores the fingerprints of the index specifications, for getChangedValueIndexers to compare against.
+     *
+     * @param valueIndexers    all of the indexers created from the index specifications
+     * @param fingerprintFile  the file to write them to
+     * @throws IOException     if the file can't be written
+     */
+    public void saveFingerprints(List<AbstractValueIndexer<?>> valueIndexers, File fingerprintFile) throws IOException
+    {
+        Properties fingerprints = new Properties();
+        fingerprints.putAll(fingerprintValueIndexers(valueIndexers));
+        try (OutputStream out = new FileOutputStream(fingerprintFile))
+        {
+            fingerprints.store(out, "SolrMarc index specification fingerprints");
+        }
+    }
+
+    /**
+     * Builds the evaluation plan for a set of indexers: indexers whose specifications start with the same
+     * extraction (the same fields and subfields, or the same custom method, with the same formatting applied)
+     * are given a SharedMultiValueExtractor, so that the extraction is performed once per record, and each of
+     * them applies its own mappings and collector to the result.  Sharing is off unless
+     * <code>solrmarc.indexer.share.extractions</code> is set to true.
+     *
+     * @param valueIndexers  the indexers created from the index specifications
+     * @return               the same indexers in the same order, with those that share an extraction replaced
+     */
+    private List<AbstractValueIndexer<?>> planSharedExtractions(List<AbstractValueIndexer<?>> valueIndexers)
+    {
+        sharedExtractionCount = 0;
+        Map<AbstractValueIndexer<?>, String> extractionKeys = this.extractionKeys;
+        this.extractionKeys = null;
+        if (extractionKeys == null || !Boolean.parseBoolean(System.getProperty("solrmarc.indexer.share.extractions", "false")))
+        {
+            return(valueIndexers);
+        }
+        Map<String, List<Integer>> byExtraction = new LinkedHashMap<>();
+        for (int i = 0; i < valueIndexers.size(); i++)
+        {
+            String key = extractionKeys.get(valueIndexers.get(i));
+            if (key == null) continue;
+            List<Integer> positions = byExtraction.get(key);
+            if (positions == null)
+            {
+                positions = new ArrayList<>(2);
+                byExtraction.put(key, positions);
+            }
+            positions.add(i);
+        }
+        List<AbstractValueIndexer<?>> result = new ArrayList<>(valueIndexers);
+        int sharedExtractions = 0;
+        for (Map.Entry<String, List<Integer>> entry : byExtraction.entrySet())
+        {
+            List<Integer> positions = entry.getValue();
+            if (positions.size() < 2) continue;
+            MultiValueIndexer first = (MultiValueIndexer) valueIndexers.get(positions.get(0));
+            SharedMultiValueExtractor shared = new SharedMultiValueExtractor((AbstractMultiValueExtractor) first.extractor, entry.getKey(), positions.size());
+            for (int position : positions)
+            {
+                MultiValueIndexer indexer = (MultiValueIndexer) valueIndexers.get(position);
+                MultiValueIndexer sharing = new MultiValueIndexer(indexer.getSolrFieldNamesStr(), shared,
+                        (AbstractMultiValueMapping[]) indexer.mappings, indexer.collector, indexer.getSpecLabel(), indexer.totalElapsedTime);
+                if (indexer.getOnlyIfEmpty())  sharing.setIfEmpty();
+                if (indexer.getOnlyIfUnique())  sharing.setIfUnique();
+                result.set(position, sharing);
+            }
+            logger.debug("Extraction \"" + entry.getKey() + "\" shared by " + positions.size() + " index specifications");
+            sharedExtractions++;
+            sharedExtractionCount += positions.size() - 1;
+        }
+        if (sharedExtractionCount > 0)
+        {
+            logger.info("Evaluation plan: " + sharedExtractions + " extractions shared by several index specifications, " +
+                        sharedExtractionCount + " of " + valueIndexers.size() + " extractions per record removed");
+        }
+        return(result);
+    }
+
+    /**
+     * Replaces the indexers with compiled ones (see SpecCompiler), if <code>solrmarc.indexer.compiled.specs</code>
+     * is set to true.
+     */
+    private List<AbstractValueIndexer<?>> compileIfRequested(List<AbstractValueIndexer<?>> valueIndexers)
+    {
+        if (!Boolean.parseBoolean(System.getProperty("solrmarc.indexer.compiled.specs", "false")))
+        {
+            return(valueIndexers);
+        }
+        return(SpecCompiler.compile(valueIndexers));
+    }
+
+    /**
+     * @return  the number of extractions per record that the evaluation plan built for the most recently created
+     *          indexers removed by sharing them between index specifications
+     */
+    public int getSharedExtractionCount()
+    {
+        return(sharedExtractionCount);
+    }
+
+    /**
+     * Determines the text of the extraction an index specification performs: the extractor, along with any of the
+     * formatting options and mappings that are applied as part of it, but not the mappings applied to its result
+     * or the collector.  Specifications with the same extraction text produce the same values for every record.
+     *
+     * @return  the extraction text, or null if the extraction shouldn't be shared
+     */
+    private String makeExtractionKey(String origSpec, AbstractValueExtractor<?> extractor, List<List<String>> mapSpecs, int indexOfJoin)
+    {
+        if (origSpec == null || extractor instanceof ConstantMultiValueExtractor) return(null);
+        List<String> specParts = splitTopLevel(origSpec);
+        int extractorParts = specParts.size() - mapSpecs.size();
+        if (extractorParts < 1) return(null);
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < extractorParts; i++)
+        {
+            if (i > 0) key.append(", ");
+            key.append(specParts.get(i));
+        }
+        if (extractor instanceof ModifyableMultiValueExtractor)
+        {
+            // formatting and mappings before a join are applied by the extractor itself
+            for (int i = 0; i < mapSpecs.size() && (indexOfJoin == -1 || i <= indexOfJoin); i++)
+            {
+                if (mapSpecs.get(i).isEmpty() || isACollectorConfiguration(mapSpecs.get(i).get(0))) continue;
+                key.append(", ").append(specParts.get(extractorParts + i));
+            }
+        }
+        else if (defaultCustomClassname != null)
+        {
+            // the class used by a custom method without a class name depends on where the spec appears
+            key.append(" [").append(defaultCustomClassname).append("]");
+        }
+        return(key.toString());
+    }
+
+    /**
+     * Splits an index specification at the commas that aren't inside parentheses or a quoted string.
+     */
+    private static List<String> splitTopLevel(String spec)
+    {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < spec.length(); i++)
+        {
+            char c = spec.charAt(i);
+            if (quoted)
+            {
+                if (c == '\\') i++;
+                else if (c == '"') quoted = false;
+            }
+            else if (c == '"') quoted = true;
+            else if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == ',' && depth == 0)
+            {
+                parts.add(spec.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(spec.substring(start).trim());
+        return(parts);
+    }
+
     private List<AbstractValueIndexer<?>> collapseMapToList(Map<String, List<AbstractValueIndexer<?>>> valueIndexerMap)
     {
         List<AbstractValueIndexer<?>> valueIndexers = new ArrayList<AbstractValueIndexer<?>>();
@@ -491,6 +916,10 @@ public class ValueIndexerFactory
 
     public static AbstractValueIndexer<?> makeThreadSafeCopy(AbstractValueIndexer<?> toClone)
     {
+        if (toClone instanceof CompiledMultiValueIndexer)
+        {
+            return SpecCompiler.makeThreadSafeCopy((CompiledMultiValueIndexer) toClone);
+        }
         String solrFieldNamesStr = toClone.getSolrFieldNamesStr();
         String specLabel = toClone.getSpecLabel();
         AbstractMultiValueExtractor extractor;
@@ -597,21 +1026,24 @@ public class ValueIndexerFactory
             }
             final MultiValueCollector collector = createMultiValueCollector(mapSpecs, true);
 
-            return new MultiValueIndexer(fieldnames, (AbstractMultiValueExtractor)extractor, mappings, collector);
+            return keyExtraction(new MultiValueIndexer(fieldnames, (AbstractMultiValueExtractor)extractor, mappings, collector),
+                                 makeExtractionKey(origSpec, extractor, mapSpecs, indexOfJoin));
         }
         else if (extractor instanceof AbstractMultiValueExtractor)
         {
             final AbstractMultiValueExtractor multiValueExtractor = (AbstractMultiValueExtractor) extractor;
             final List<AbstractMultiValueMapping> mappings = createMultiValueMappings(origSpec, mapSpecs, currentExceptions);
             final MultiValueCollector collector = createMultiValueCollector(mapSpecs);
-            return new MultiValueIndexer(fieldnames, multiValueExtractor, mappings, collector);
+            return keyExtraction(new MultiValueIndexer(fieldnames, multiValueExtractor, mappings, collector),
+                                 makeExtractionKey(origSpec, extractor, mapSpecs, -1));
         }
         else if (extractor instanceof AbstractSingleValueExtractor)
         {
             final AbstractSingleValueExtractor singleValueExtractor = (AbstractSingleValueExtractor) extractor;
             final List<AbstractMultiValueMapping> mappings = createMultiValueMappings(origSpec, mapSpecs, currentExceptions);
             final MultiValueCollector collector = createMultiValueCollector(mapSpecs);
-            return new MultiValueIndexer(fieldnames, singleValueExtractor, mappings, collector);
+            return keyExtraction(new MultiValueIndexer(fieldnames, singleValueExtractor, mappings, collector),
+                                 makeExtractionKey(origSpec, extractor, mapSpecs, -1));
         }
         else if (extractor == null)
         {
@@ -620,6 +1052,12 @@ public class ValueIndexerFactory
         throw new IllegalArgumentException("Only subclasses of AbstractMultiValueExtractor or AbstractSingleValueExtractor are allowed, but not " + extractor.getClass().getName());
     }
 
+    private MultiValueIndexer keyExtraction(MultiValueIndexer valueIndexer, String extractionKey)
+    {
+        if (extractionKeys != null && extractionKey != null) extractionKeys.put(valueIndexer, extractionKey);
+        return(valueIndexer);
+    }
+
     boolean isADecoratorConfiguration(String str)
     {
         if (str.equals("join") || str.equals("separate") || str.equals("format") || str.equals("substring") ||
@@ -961,5 +1399,6 @@ public class ValueIndexerFactory
     public void doneWithRecord(Record record)
     {
         MethodCallManager.instance().doneWithRecord(record);
+        SharedMultiValueExtractor.clear();
     }
 }
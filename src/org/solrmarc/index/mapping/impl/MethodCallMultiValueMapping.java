@@ -1,5 +1,6 @@
 package org.solrmarc.index.mapping.impl;
 
+import java.lang.invoke.MethodHandle;
 import java.util.Collection;
 
 import org.solrmarc.index.extractor.ExternalMethod;
@@ -10,6 +11,8 @@ public class MethodCallMultiValueMapping extends AbstractMultiValueMapping imple
 {
 
     private final Object[] parameters;
+    // the call with the parameters above bound into it, or null if it has to be made with the parameters array
+    private final MethodHandle boundCall;
     private final MultiValueMappingMethodCall methodCall;
 
     public MethodCallMultiValueMapping(MultiValueMappingMethodCall methodCall, String[] parameters)
@@ -17,6 +20,7 @@ public class MethodCallMultiValueMapping extends AbstractMultiValueMapping imple
         this.methodCall = methodCall;
         this.parameters = new Object[parameters.length + 1];
         System.arraycopy(parameters, 0, this.parameters, 1, parameters.length);
+        this.boundCall = this.methodCall.bindParameters(this.parameters);
     }
     
     private MethodCallMultiValueMapping(MethodCallMultiValueMapping toClone)
@@ -24,11 +28,14 @@ public class MethodCallMultiValueMapping extends AbstractMultiValueMapping imple
         this.methodCall = (MultiValueMappingMethodCall) toClone.methodCall.makeThreadSafeCopy();
         this.parameters = new Object[toClone.parameters.length];
         System.arraycopy(toClone.parameters, 0, this.parameters, 0, toClone.parameters.length);
+        this.boundCall = this.methodCall.bindParameters(this.parameters);
     }
 
     @Override
     public Collection<String> map(Collection<String> value) throws Exception
     {
+        if (boundCall != null)
+            return methodCall.invoke(value, boundCall);
         return (Collection<String>) (methodCall.invoke(value, parameters));
     }
 
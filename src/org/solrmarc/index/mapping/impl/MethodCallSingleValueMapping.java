@@ -1,5 +1,6 @@
 package org.solrmarc.index.mapping.impl;
 
+import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -12,6 +13,8 @@ public class MethodCallSingleValueMapping extends AbstractMultiValueMapping impl
 {
 
     private final Object[] parameters;
+    // the call with the parameters above bound into it, or null if it has to be made with the parameters array
+    private final MethodHandle boundCall;
     private final SingleValueMappingMethodCall methodCall;
 
     public MethodCallSingleValueMapping(SingleValueMappingMethodCall methodCall, String[] parameters)
@@ -19,6 +22,7 @@ public class MethodCallSingleValueMapping extends AbstractMultiValueMapping impl
         this.methodCall = methodCall;
         this.parameters = new Object[parameters.length + 1];
         System.arraycopy(parameters, 0, this.parameters, 1, parameters.length);
+        this.boundCall = this.methodCall.bindParameters(this.parameters);
     }
 
     private MethodCallSingleValueMapping(MethodCallSingleValueMapping toClone)
@@ -26,6 +30,7 @@ public class MethodCallSingleValueMapping extends AbstractMultiValueMapping impl
         this.methodCall = (SingleValueMappingMethodCall) toClone.methodCall.makeThreadSafeCopy();
         this.parameters = new Object[toClone.parameters.length];
         System.arraycopy(toClone.parameters, 0, this.parameters, 0, toClone.parameters.length);
+        this.boundCall = this.methodCall.bindParameters(this.parameters);
     }
 
     @Override
@@ -34,7 +39,7 @@ public class MethodCallSingleValueMapping extends AbstractMultiValueMapping impl
         Collection<String> result = new ArrayList<String>(values.size());
         for (String value : values)
         {
-            String oneResult = (String) (methodCall.invoke(value, parameters));
+            String oneResult = (boundCall != null) ? methodCall.invoke(value, boundCall) : (String) (methodCall.invoke(value, parameters));
 
             if (oneResult != null) result.add(oneResult);
         }
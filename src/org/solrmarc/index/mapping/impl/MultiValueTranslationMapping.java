@@ -2,7 +2,6 @@ package org.solrmarc.index.mapping.impl;
 
 
 import java.util.*;
-import java.util.regex.Pattern;
 
 import org.solrmarc.index.indexer.IndexerSpecException;
 import org.solrmarc.index.indexer.ValueIndexerFactory;
@@ -11,34 +10,44 @@ import org.solrmarc.index.mapping.AbstractMultiValueMapping;
 
 public class MultiValueTranslationMapping extends AbstractMultiValueMapping
 {
-    private final static Pattern SEPARATOR_PATTERN = Pattern.compile("[|]");
+    private enum eMissing { DROP, DISPLAY_RAW, WARN };
+
     private final String mapName;
-    private final Properties translationMapping;
-    private final String defaultValue;
-    private boolean displayRaw = false;
-    private boolean exceptionIfMissing = false;
+    private final TranslationTable translationMapping;
+    private final String[] defaultValue;
+    private final eMissing ifMissing;
 
     public MultiValueTranslationMapping(String mapName, Properties translationMapping)
+    {
+        this(mapName, TranslationTable.compile(translationMapping));
+    }
+
+    public MultiValueTranslationMapping(String mapName, TranslationTable translationMapping)
     {
         this.mapName = mapName;
         this.translationMapping = translationMapping;
 
-        String property = null;
+        String[] property = null;
         for (final String defaultKey : DEFAULT_KEYS)
         {
-            property = translationMapping.getProperty(defaultKey);
+            property = translationMapping.get(defaultKey);
             if (property != null)
             {
                 break;
             }
         }
-        String dRaw = translationMapping.getProperty(displayRawIfMissing);
-        if (dRaw!= null && dRaw.equals("true")) 
-            displayRaw = true;
-        String exception = translationMapping.getProperty(throwExceptionIfMissing);
-        if (exception!= null && exception.equals("true")) 
-            exceptionIfMissing = true;
         this.defaultValue = property;
+        if (isTrue(translationMapping.get(displayRawIfMissing)))
+            ifMissing = eMissing.DISPLAY_RAW;
+        else if (isTrue(translationMapping.get(throwExceptionIfMissing)))
+            ifMissing = eMissing.WARN;
+        else 
+            ifMissing = eMissing.DROP;
+    }
+
+    private static boolean isTrue(String[] setting)
+    {
+        return(setting != null && setting.length == 1 && setting[0].equals("true"));
     }
 
     @Override
@@ -47,25 +56,20 @@ public class MultiValueTranslationMapping extends AbstractMultiValueMapping
         List<String> mappedValues = new ArrayList<>(values.size());
         for (String value : values)
         {
-            final String translation = (value == null) ? defaultValue : translationMapping.getProperty(value, defaultValue);
-            if (translation != null && !translation.equals("null"))
+            String[] translation = (value == null) ? null : translationMapping.get(value);
+            if (translation == null) translation = defaultValue;
+            if (translation != null && translation != TranslationTable.UNMAPPED)
             {
-                if (translation.contains("|"))
-                {
-                    // TODO: This splitting should be done in the factory somehow.
-                    String[] translationParts = SEPARATOR_PATTERN.split(translation);
-                    Collections.addAll(mappedValues, translationParts);
-                }
+                if (translation.length == 1)
+                    mappedValues.add(translation[0]);
                 else
-                {
-                    mappedValues.add(translation);
-                }
+                    Collections.addAll(mappedValues, translation);
             }
-            else if (displayRaw)
+            else if (ifMissing == eMissing.DISPLAY_RAW)
             {
                 mappedValues.add(value);
             }
-            else if (exceptionIfMissing)
+            else if (ifMissing == eMissing.WARN)
             {
                 ValueIndexerFactory.instance().addPerRecordError(new IndexerSpecException(eErrorSeverity.WARN, "Undefined value '"+value+"' for translation map: " + mapName));
             }
@@ -7,14 +7,21 @@ import org.solrmarc.index.mapping.AbstractValueMappingFactory;
 import org.solrmarc.tools.PropertyUtils;
 
 import java.io.File;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class TranslationMappingFactory extends AbstractValueMappingFactory
 {
     private final static Logger logger = Logger.getLogger(TranslationMappingFactory.class);
-    private final static Map<String, Properties> translationMappingFiles = new HashMap<>();
+    private final static ConcurrentMap<String, LoadedTranslationMap> translationMaps = new ConcurrentHashMap<>();
 
     @Override
     public boolean canHandle(String mappingConfiguration)
@@ -24,38 +31,103 @@ public class TranslationMappingFactory extends AbstractValueMappingFactory
                 || (mappingConfiguration.endsWith(".xml") || mappingConfiguration.endsWith(".XML")));
     }
 
-    private Properties loadTranslationMappingFile(String translationMappingFileName, String subMappingName)
+    /**
+     * A translation map file as loaded: its compiled table, and, only if the file defines any pattern maps,
+     * the Properties they are built from.
+     */
+    private final static class LoadedTranslationMap
     {
-        if (translationMappingFileName.equals("(this).properties"))
+        final TranslationTable table;
+        final Properties patternProperties;
+
+        LoadedTranslationMap(TranslationTable table, Properties patternProperties)
         {
-            Properties props = (ValueIndexerFactory.instance().getLocalMappingProperties());
-            props = getSubTranslationMapping(props, subMappingName);
-            return props;
+            this.table = table;
+            this.patternProperties = patternProperties;
         }
-        Properties properties = translationMappingFiles.get(translationMappingFileName + "(" + subMappingName + ")");
-        if (properties != null)
+    }
+
+    private LoadedTranslationMap loadTranslationMappingFile(String translationMappingFileName)
+    {
+        LoadedTranslationMap loaded = translationMaps.get(translationMappingFileName);
+        if (loaded != null)
         {
-            return properties;
+            return loaded;
         }
-        properties = translationMappingFiles.get(translationMappingFileName + "(null)");
-        if (properties != null)
+        String[] filenameOpened = new String[]{null};
+        Properties properties = PropertyUtils.loadProperties(ValueIndexerFactory.instance().getHomeDirs(), "translation_maps" + File.separator + translationMappingFileName, filenameOpened);
+        TranslationTable table = TranslationTable.compile(properties);
+        loaded = new LoadedTranslationMap(table, hasPatternMaps(properties) ? properties : null);
+        LoadedTranslationMap previous = translationMaps.putIfAbsent(translationMappingFileName, loaded);
+        if (previous != null)
         {
-            properties = getSubTranslationMapping(properties, subMappingName);
-            translationMappingFiles.put(translationMappingFileName + "(" + subMappingName + ")", properties);
-            return properties;
+            return previous;
         }
-        String[] filenameOpened = new String[]{null};
-        properties = PropertyUtils.loadProperties(ValueIndexerFactory.instance().getHomeDirs(), "translation_maps" + File.separator + translationMappingFileName, filenameOpened);
-        logger.debug("Load translation map: "+ translationMappingFileName+ " from file : " +filenameOpened[0]);
-        translationMappingFiles.put(translationMappingFileName + "(null)", properties);
-        if (subMappingName != null)
+        logger.debug("Load translation map: "+ translationMappingFileName+ " from file : " +filenameOpened[0]+ 
+                     " (" + table.size() + " entries, about " + (table.estimatedBytes() / 1024) + " KB)");
+        return loaded;
+    }
+
+    private static boolean hasPatternMaps(Properties properties)
+    {
+        for (String key : properties.stringPropertyNames())
         {
-            properties = getSubTranslationMapping(properties, subMappingName);
-            translationMappingFiles.put(translationMappingFileName + "(" + subMappingName + ")", properties);
+            if (key.equals("pattern_0") || key.endsWith(".pattern_0")) return true;
         }
-        return properties;
+        return false;
     }
-    
+
+    /**
+     * Reports the approximate memory used by each of the translation map files that have been loaded, 
+     * largest first, so that it is possible to tell which of them dominate the heap.
+     * 
+     * @return  a map from the name of each translation map file to an estimate of the bytes it uses
+     */
+    public static Map<String, Long> getTranslationMapMemoryUsage()
+    {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        for (Map.Entry<String, LoadedTranslationMap> entry : translationMaps.entrySet())
+        {
+            entries.add(new AbstractMap.SimpleEntry<String, Long>(entry.getKey(), entry.getValue().table.estimatedBytes()));
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>()
+        {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2)
+            {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries)
+        {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Logs the number of translation map files loaded and the approximate memory they use, naming the largest
+     * of them, at the end of loading the index specifications.
+     */
+    public static void logTranslationMapMemoryUsage()
+    {
+        Map<String, Long> usage = getTranslationMapMemoryUsage();
+        if (usage.isEmpty()) return;
+        long total = 0;
+        StringBuilder largest = new StringBuilder();
+        int listed = 0;
+        for (Map.Entry<String, Long> entry : usage.entrySet())
+        {
+            total += entry.getValue();
+            if (listed++ < 3)
+            {
+                largest.append(listed > 1 ? ", " : "").append(entry.getKey()).append(" (").append(entry.getValue() / 1024).append(" KB)");
+            }
+        }
+        logger.info("Loaded " + usage.size() + " translation map(s) using about " + (total / 1024) + " KB, largest: " + largest);
+    }
+
     private Properties getSubTranslationMapping(Properties translationMapping, String mappingPrefix)
     {
         Properties mappings = new Properties();
@@ -133,15 +205,7 @@ public class TranslationMappingFactory extends AbstractValueMappingFactory
     {
         String translationMappingFileName = getTranslationMappingFileName(mappingConfiguration);
         final String subMappingName = getSubMappingName(mappingConfiguration);
-        Properties translationMapping = loadTranslationMappingFile(translationMappingFileName, subMappingName);
-        if (translationMapping.containsKey("pattern_0"))
-        {
-            return PatternMappingFactory.patternMappingsFromPatternProperties(mappingConfiguration, translationMapping);
-        }
-        else
-        {
-            return new MultiValueTranslationMapping(mappingConfiguration, translationMapping);
-        }
+        return createMultiValueMapping(mappingConfiguration, translationMappingFileName, subMappingName);
     }
 
     @Override
@@ -149,15 +213,32 @@ public class TranslationMappingFactory extends AbstractValueMappingFactory
     {
         String translationMappingFileName = getTranslationMappingFileName(mapParts[0]);
         final String subMappingName = mapParts.length > 1 ? mapParts[1] : null;
-        Properties translationMapping = loadTranslationMappingFile(translationMappingFileName, subMappingName);
         String mappingConfiguration = getMappingConfigurationName(mapParts);
-        if (translationMapping.containsKey("pattern_0"))
+        return createMultiValueMapping(mappingConfiguration, translationMappingFileName, subMappingName);
+    }
+
+    private AbstractMultiValueMapping createMultiValueMapping(String mappingConfiguration, String translationMappingFileName, String subMappingName)
+    {
+        if (translationMappingFileName.equals("(this).properties"))
         {
-            return PatternMappingFactory.patternMappingsFromPatternProperties(mappingConfiguration, translationMapping);
+            Properties translationMapping = getSubTranslationMapping(ValueIndexerFactory.instance().getLocalMappingProperties(), subMappingName);
+            if (translationMapping.containsKey("pattern_0"))
+            {
+                return PatternMappingFactory.patternMappingsFromPatternProperties(mappingConfiguration, translationMapping);
+            }
+            return new MultiValueTranslationMapping(mappingConfiguration, TranslationTable.compile(translationMapping));
         }
-        else
+        LoadedTranslationMap loaded = loadTranslationMappingFile(translationMappingFileName);
+        TranslationTable table = (subMappingName == null) ? loaded.table : loaded.table.subTable(subMappingName);
+        if (table.containsKey("pattern_0"))
         {
-            return new MultiValueTranslationMapping(mappingConfiguration, translationMapping);
+            Properties translationMapping = loaded.patternProperties;
+            if (subMappingName != null)
+            {
+                translationMapping = getSubTranslationMapping(translationMapping, subMappingName);
+            }
+            return PatternMappingFactory.patternMappingsFromPatternProperties(mappingConfiguration, translationMapping);
         }
+        return new MultiValueTranslationMapping(mappingConfiguration, table);
     }
 }
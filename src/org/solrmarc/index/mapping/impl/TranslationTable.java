@@ -0,0 +1,221 @@
+package org.solrmarc.index.mapping.impl;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, compiled form of a translation map, built once from the map's Properties.
+ * <p>
+ * Lookups are made by every indexing thread for every value that is translated, so rather than going through
+ * the synchronized Hashtable underlying Properties, the entries are copied into an open addressing hash table
+ * that is never modified after it is built, and can be read by any number of threads without locking.
+ * Values that list several translations separated by <code>|</code> are split when the table is built, and
+ * the value <code>null</code> (meaning the key is deliberately left untranslated) is recorded as such, so
+ * that nothing needs to be parsed when a value is looked up.
+ * </p>
+ * <p>
+ * The keys and the parts of the values are interned, and entries with identical translations share a single
+ * array, since the large maps (languages, locations) map many keys to the same few values.  A sub-map, such as
+ * <code>location_map.properties(hathi)</code>, is a view of the whole map's table through the prefix
+ * <code>hathi.</code>, so it doesn't copy any of the entries.
+ * </p>
+ */
+public final class TranslationTable
+{
+    private final static Pattern SEPARATOR_PATTERN = Pattern.compile("[|]");
+    // rough sizes of objects on a 64 bit JVM with compressed references, used for the memory estimate
+    private final static int OBJECT_HEADER = 16;
+    private final static int STRING_OVERHEAD = 24;
+
+    /** Returned by get for a key whose translation is the value <code>null</code> */
+    public final static String[] UNMAPPED = new String[0];
+
+    private final String keys[];
+    private final String values[][];
+    private final int hashes[];
+    private final int mask;
+    private final int size;
+    // for a sub-map view, the prefix (ending in a period) shared by all of its keys in the underlying table
+    private final String prefix;
+    private final int prefixHash;
+
+    private TranslationTable(Properties properties)
+    {
+        // the names include any defaults of the properties, which size() doesn't count
+        Set<String> names = properties.stringPropertyNames();
+        int capacity = 16;
+        int num = names.size();
+        while (capacity < num * 2)
+        {
+            capacity <<= 1;
+        }
+        keys = new String[capacity];
+        values = new String[capacity][];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        prefix = null;
+        prefixHash = 0;
+        Map<String, String[]> distinctValues = new HashMap<String, String[]>();
+        int cnt = 0;
+        for (String key : names)
+        {
+            int hash = key.hashCode();
+            int slot = mix(hash) & mask;
+            while (keys[slot] != null)
+            {
+                slot = (slot + 1) & mask;
+            }
+            String translation = properties.getProperty(key);
+            String[] parts = distinctValues.get(translation);
+            if (parts == null)
+            {
+                parts = split(translation);
+                for (int i = 0; i < parts.length; i++)
+                {
+                    parts[i] = parts[i].intern();
+                }
+                distinctValues.put(translation, parts);
+            }
+            keys[slot] = key.intern();
+            hashes[slot] = hash;
+            values[slot] = parts;
+            cnt++;
+        }
+        size = cnt;
+    }
+
+    private TranslationTable(TranslationTable table, String prefix)
+    {
+        keys = table.keys;
+        values = table.values;
+        hashes = table.hashes;
+        mask = table.mask;
+        this.prefix = prefix;
+        this.prefixHash = prefix.hashCode();
+        int cnt = 0;
+        for (String key : keys)
+        {
+            if (key != null && key.startsWith(prefix)) cnt++;
+        }
+        size = cnt;
+    }
+
+    /**
+     * @param properties  the translation map as loaded from its properties file
+     * @return            the compiled table, which is unaffected by later changes to the properties
+     */
+    public static TranslationTable compile(Properties properties)
+    {
+        return new TranslationTable(properties);
+    }
+
+    /**
+     * @param subMappingName  the name of a sub-map, which is the prefix of its keys in the whole map
+     * @return                a view of the entries of the sub-map, with the prefix and period removed from their keys
+     */
+    public TranslationTable subTable(String subMappingName)
+    {
+        return new TranslationTable(this, (prefix == null ? "" : prefix) + subMappingName + ".");
+    }
+
+    /**
+     * Splits a translation into its parts, exactly as the translation used to be split each time it was used.
+     */
+    static String[] split(String translation)
+    {
+        if (translation == null || translation.equals("null")) return(UNMAPPED);
+        if (translation.contains("|")) return(SEPARATOR_PATTERN.split(translation));
+        return(new String[] { translation });
+    }
+
+    private static int mix(int h)
+    {
+        return(h ^ (h >>> 16));
+    }
+
+    /**
+     * @param key  the value to translate
+     * @return     the parts of its translation, UNMAPPED if it is mapped to <code>null</code>, or null if the
+     *             key isn't in the table
+     */
+    public String[] get(String key)
+    {
+        if (prefix == null)
+        {
+            int hash = key.hashCode();
+            for (int slot = mix(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask)
+            {
+                if (hashes[slot] == hash && keys[slot].equals(key)) return(values[slot]);
+            }
+            return(null);
+        }
+        // the hash of prefix + key, computed without building the combined string
+        int hash = prefixHash;
+        for (int i = 0; i < key.length(); i++)
+        {
+            hash = 31 * hash + key.charAt(i);
+        }
+        int plen = prefix.length();
+        for (int slot = mix(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask)
+        {
+            String stored = keys[slot];
+            if (hashes[slot] == hash && stored.length() == plen + key.length() && stored.startsWith(prefix)
+                    && stored.regionMatches(plen, key, 0, key.length()))
+            {
+                return(values[slot]);
+            }
+        }
+        return(null);
+    }
+
+    /**
+     * @param key  a key which may be in the table
+     * @return     true if the key is in the table
+     */
+    public boolean containsKey(String key)
+    {
+        return(get(key) != null);
+    }
+
+    /**
+     * @return  the number of entries in the table
+     */
+    public int size()
+    {
+        return(size);
+    }
+
+    /**
+     * Estimates the memory used by the table, counting each of its keys and translations once, even though the
+     * interned strings may also be used by other maps.  A sub-map view uses next to nothing of its own, so for a
+     * view this is the memory used by the whole map.
+     *
+     * @return  the approximate number of bytes used
+     */
+    public long estimatedBytes()
+    {
+        long bytes = 3L * OBJECT_HEADER + 8L * keys.length + 4L * hashes.length;
+        Map<Object, Boolean> counted = new IdentityHashMap<Object, Boolean>();
+        for (int slot = 0; slot < keys.length; slot++)
+        {
+            if (keys[slot] == null) continue;
+            bytes += stringBytes(keys[slot]);
+            if (counted.put(values[slot], Boolean.TRUE) != null) continue;
+            bytes += OBJECT_HEADER + 4L * values[slot].length;
+            for (String part : values[slot])
+            {
+                if (counted.put(part, Boolean.TRUE) == null) bytes += stringBytes(part);
+            }
+        }
+        return(bytes);
+    }
+
+    private static long stringBytes(String str)
+    {
+        return(STRING_OVERHEAD + OBJECT_HEADER + 2L * str.length());
+    }
+}
@@ -13,6 +13,7 @@ import org.solrmarc.index.extractor.formatter.FieldFormatter.eJoinVal;
 import org.solrmarc.index.extractor.impl.direct.FieldMatch;
 import org.solrmarc.index.mapping.AbstractMultiValueMapping;
 import org.solrmarc.index.specification.conditional.Condition;
+import org.solrmarc.marc.RecordFieldIndex;
 
 public class CompositeSpecification extends Specification
 {
@@ -104,7 +105,7 @@ public class CompositeSpecification extends Specification
         else
         {
             result = new ArrayList<FieldMatch>();
-            List<VariableField> fields = record.getVariableFields(getTags());
+            List<VariableField> fields = RecordFieldIndex.getVariableFields(record, getTags());
             for (SingleSpecification spec : pieces)
             {
                 for (VariableField vf : fields)
@@ -119,6 +120,11 @@ public class CompositeSpecification extends Specification
         }
     }
 
+    public List<SingleSpecification> getPieces()
+    {
+        return pieces;
+    }
+
     public String[] getTags()
     {
         if (tags == null) tags = tagsUsed.toArray(new String[tagsUsed.size()]);
@@ -94,7 +94,7 @@ public class RegexSpecification extends Specification
         }
         else 
         {
-            SingleDataFieldSpecification.addDataFieldValues(result, vf, fmt, dotPattern);
+            SingleDataFieldSpecification.addDataFieldValues(result, vf, fmt, SubfieldCodeSet.ALL);
         }
     }
 
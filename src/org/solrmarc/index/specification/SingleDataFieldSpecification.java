@@ -14,13 +14,13 @@ import org.solrmarc.index.specification.conditional.Condition;
 public class SingleDataFieldSpecification extends SingleSpecification
 {
     String subfields;
-    Pattern subfieldPattern;
+    SubfieldCodeSet subfieldCodes;
     
     public SingleDataFieldSpecification(String tag, String subfields, Condition cond, FieldFormatter fmt)
     {
         super(tag, cond);
         this.subfields = subfields;
-        subfieldPattern = makePattern(subfields);
+        subfieldCodes = SubfieldCodeSet.forSubfields(subfields);
         this.fmt = fmt;
     }
 
@@ -28,7 +28,7 @@ public class SingleDataFieldSpecification extends SingleSpecification
     {
         super(tag, cond);
         this.subfields = subfields;
-        subfieldPattern = makePattern(subfields);
+        subfieldCodes = SubfieldCodeSet.forSubfields(subfields);
         if (subfields != null && subfields.length() == 1) 
             fmt = new FieldFormatterBase(false).setJoinVal(eJoinVal.SEPARATE);
         else 
@@ -44,20 +44,18 @@ public class SingleDataFieldSpecification extends SingleSpecification
     {
         super(toClone.tag, toClone.cond);
         this.subfields = toClone.subfields;
-        this.subfieldPattern = toClone.subfieldPattern;
+        this.subfieldCodes = toClone.subfieldCodes;
         this.fmt = (FieldFormatter) (toClone.fmt.isThreadSafe() ? toClone.fmt : toClone.fmt.makeThreadSafeCopy());
     }
 
-    private final static Pattern makePattern(String subfields)
+    public void setFormatter(FieldFormatter fmt)
     {
-        if (subfields == null || subfields.length() == 0) return (dotPattern);
-        else if (subfields.startsWith("[") && subfields.endsWith("]")) return (Pattern.compile(subfields));
-        else return (Pattern.compile("[" + subfields + "]"));
+        this.fmt = fmt;
     }
 
-    public void setFormatter(FieldFormatter fmt)
+    public SubfieldCodeSet getSubfieldCodes()
     {
-        this.fmt = fmt;
+        return subfieldCodes;
     }
 
     // public String getSubfields()
@@ -68,10 +66,15 @@ public class SingleDataFieldSpecification extends SingleSpecification
     @Override
     public void addFieldValues(Collection<String> result, VariableField vf) throws Exception
     {
-        addDataFieldValues(result, vf, fmt, subfieldPattern);
+        addDataFieldValues(result, vf, fmt, subfieldCodes);
     }
     
     public static void addDataFieldValues(Collection<String> result, VariableField vf, FieldFormatter fmt, Pattern subfieldPattern) throws Exception
+    {
+        addDataFieldValues(result, vf, fmt, SubfieldCodeSet.forPattern(subfieldPattern));
+    }
+
+    public static void addDataFieldValues(Collection<String> result, VariableField vf, FieldFormatter fmt, SubfieldCodeSet subfieldCodes) throws Exception
     {
         DataField df = (DataField) vf;
         StringBuilder sb = fmt.start();
@@ -84,12 +87,13 @@ public class SingleDataFieldSpecification extends SingleSpecification
         int cnt = 0;
         for (Subfield subfield : df.getSubfields())
         {
-            final String codeStr = "" + subfield.getCode();
-            if (subfieldPattern.equals(dotPattern) || subfieldPattern.matcher(codeStr).matches())
+            final char code = subfield.getCode();
+            if (subfieldCodes.matches(code))
             {
+                final String codeStr = SubfieldCodeSet.codeString(code);
                 fmt.addSeparator(sb,cnt);
                 //fmt.addCode(sb,codeStr);
-                Collection<String> prepped = fmt.prepData(vf, (subfield.getCode() == 'a'), subfield.getData());
+                Collection<String> prepped = fmt.prepData(vf, (code == 'a'), subfield.getData());
                 for (String val : prepped)
                 {
                     val = fmt.handleSubFieldFormat(codeStr, vf, val);
@@ -60,6 +60,16 @@ public abstract class SingleSpecification extends Specification
         return tag;
     }
 
+    public Condition getCondition()
+    {
+        return cond;
+    }
+
+    public FieldFormatter getFormatter()
+    {
+        return fmt;
+    }
+
     @Override
     public String[] getTags()
     {
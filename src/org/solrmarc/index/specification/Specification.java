@@ -14,6 +14,7 @@ import org.solrmarc.index.extractor.formatter.FieldFormatter.eCleanVal;
 import org.solrmarc.index.extractor.formatter.FieldFormatter.eJoinVal;
 import org.solrmarc.index.extractor.impl.direct.FieldMatch;
 import org.solrmarc.index.mapping.AbstractMultiValueMapping;
+import org.solrmarc.marc.RecordFieldIndex;
 import org.solrmarc.index.specification.conditional.Condition;
 
 
@@ -30,7 +31,7 @@ public abstract class Specification implements ExternalMethod
     public List<FieldMatch> getFieldMatches(Record record)
     {
         final String tags[] = getTags();
-        List<VariableField> fields = record.getVariableFields(tags);
+        List<VariableField> fields = RecordFieldIndex.getVariableFields(record, tags);
         List<FieldMatch> result = new ArrayList<FieldMatch>(fields.size());
         for (VariableField vf : fields)
         {
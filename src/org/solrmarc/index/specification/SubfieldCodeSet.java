@@ -0,0 +1,163 @@
+package org.solrmarc.index.specification;
+
+import java.util.regex.Pattern;
+
+/**
+ * The set of subfield codes selected by a specification such as <code>245abc</code> or <code>600[a-z]</code>,
+ * compiled once when the specification is parsed.
+ * <p>
+ * Subfield codes are almost always ASCII letters and digits, so a selector that is a simple list of characters
+ * or a character class made up of single characters and ranges is stored as a 128 bit set, and testing a
+ * subfield code is a shift and a mask rather than building a one character String and running a regex over it.
+ * Any selector that can't be represented that way (negated classes, escapes, nested classes, non-ASCII codes)
+ * falls back to matching with the equivalent regular expression, exactly as before.
+ * </p>
+ */
+public final class SubfieldCodeSet
+{
+    /** Selects every subfield, used when no subfields are specified */
+    public final static SubfieldCodeSet ALL = new SubfieldCodeSet(-1L, -1L, null, true);
+
+    private final static String[] codeStrings = new String[128];
+    static
+    {
+        for (char c = 0; c < 128; c++)
+        {
+            codeStrings[c] = String.valueOf(c).intern();
+        }
+    }
+
+    private final long low;
+    private final long high;
+    private final Pattern pattern;
+    private final boolean all;
+
+    private SubfieldCodeSet(long low, long high, Pattern pattern, boolean all)
+    {
+        this.low = low;
+        this.high = high;
+        this.pattern = pattern;
+        this.all = all;
+    }
+
+    /**
+     * Compiles the subfields given in a specification: an empty string selects all subfields, a string in
+     * square brackets is a regex character class, anything else is a list of subfield codes.
+     *
+     * @param subfields  the subfields portion of a specification, may be null
+     * @return           the set of codes selected
+     */
+    public static SubfieldCodeSet forSubfields(String subfields)
+    {
+        if (subfields == null || subfields.length() == 0) return(ALL);
+        if (subfields.startsWith("[") && subfields.endsWith("]")) return(forRegex(subfields));
+        return(forRegex("[" + subfields + "]"));
+    }
+
+    /**
+     * Compiles a regular expression that is to be matched against each single character subfield code.
+     *
+     * @param regex  the regular expression
+     * @return       the set of codes matched by the expression
+     */
+    public static SubfieldCodeSet forRegex(String regex)
+    {
+        if (regex.equals(".")) return(ALL);
+        long bits[] = new long[2];
+        if (regex.length() == 1 && addLiteral(bits, regex.charAt(0)))
+        {
+            return new SubfieldCodeSet(bits[0], bits[1], null, false);
+        }
+        if (regex.length() > 2 && regex.startsWith("[") && regex.endsWith("]") && parseClass(bits, regex.substring(1, regex.length() - 1)))
+        {
+            return new SubfieldCodeSet(bits[0], bits[1], null, false);
+        }
+        return new SubfieldCodeSet(0L, 0L, Pattern.compile(regex), false);
+    }
+
+    /**
+     * Wraps an already compiled pattern, recognizing Specification.dotPattern as selecting every subfield.  The
+     * pattern itself is used to match the codes, rather than being parsed or compiled again, since this is called
+     * for each field by callers that only have the pattern.
+     *
+     * @param pattern  the pattern to match against each subfield code
+     * @return         the set of codes matched by the pattern
+     */
+    public static SubfieldCodeSet forPattern(Pattern pattern)
+    {
+        if (pattern == Specification.dotPattern) return(ALL);
+        return new SubfieldCodeSet(0L, 0L, pattern, false);
+    }
+
+    /**
+     * Parses the body of a character class made up only of single characters and ranges into the bit set.
+     *
+     * @return  false if the class uses anything else, and so must be handled as a regex
+     */
+    private static boolean parseClass(long bits[], String body)
+    {
+        if (body.startsWith("^")) return(false);
+        for (int i = 0; i < body.length(); i++)
+        {
+            char c = body.charAt(i);
+            if (c == '[' || c == ']' || c == '\\' || c == '&' || c >= 128) return(false);
+            if (i + 2 < body.length() && body.charAt(i + 1) == '-')
+            {
+                char end = body.charAt(i + 2);
+                if (end == '[' || end == ']' || end == '\\' || end == '&' || end >= 128 || end < c) return(false);
+                for (char r = c; r <= end; r++)
+                {
+                    set(bits, r);
+                }
+                i += 2;
+            }
+            else
+            {
+                set(bits, c);
+            }
+        }
+        return(true);
+    }
+
+    private static boolean addLiteral(long bits[], char c)
+    {
+        if (c >= 128 || "\\^$.|?*+()[]{}".indexOf(c) >= 0) return(false);
+        set(bits, c);
+        return(true);
+    }
+
+    private static void set(long bits[], char c)
+    {
+        bits[c >> 6] |= 1L << (c & 63);
+    }
+
+    /**
+     * @param code  a subfield code
+     * @return      true if the subfield is selected
+     */
+    public boolean matches(char code)
+    {
+        if (all) return(true);
+        if (pattern != null) return(pattern.matcher(codeString(code)).matches());
+        if (code < 64) return((low & (1L << code)) != 0);
+        if (code < 128) return((high & (1L << (code - 64))) != 0);
+        return(false);
+    }
+
+    /**
+     * @return  true if every subfield is selected
+     */
+    public boolean matchesAll()
+    {
+        return(all);
+    }
+
+    /**
+     * @param code  a subfield code
+     * @return      the code as a String, without allocating a new String for ASCII codes
+     */
+    public static String codeString(char code)
+    {
+        return (code < 128) ? codeStrings[code] : String.valueOf(code);
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.marc4j.marc.Record;
 import org.marc4j.marc.VariableField;
+import org.solrmarc.marc.RecordFieldIndex;
 
 public abstract class Condition
 {
@@ -23,7 +24,7 @@ public abstract class Condition
     {
         if (fieldTag != null)
         {
-            List<VariableField> vfs = r.getVariableFields(fieldTag);
+            List<VariableField> vfs = RecordFieldIndex.getVariableFields(r, fieldTag);
             boolean result = false;
             for (VariableField vf : vfs)
             {
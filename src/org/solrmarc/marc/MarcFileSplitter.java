@@ -0,0 +1,279 @@
+package org.solrmarc.marc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Splits a single binary (ISO 2709) MARC file into a number of byte ranges, each of which begins
+ * at the start of a record and ends just after a record terminator, so that the ranges can be parsed
+ * independently (and concurrently) by separate MarcReaders.
+ * <p>
+ * A candidate split point is found by scanning forward from the nominal offset to the next record
+ * terminator (0x1D).  Since a stray 0x1D can appear in a damaged record, the candidate is only accepted
+ * if the five bytes that follow it are digits forming a plausible record length, and the record that
+ * length describes itself ends with a record terminator.  Otherwise scanning continues.
+ * </p>
+ * <p>
+ * Each range is memory-mapped only when it is opened, so files larger than 2GB can be handled as long
+ * as the individual ranges are smaller than that.
+ * </p>
+ */
+public class MarcFileSplitter
+{
+    private final static Logger logger = Logger.getLogger(MarcFileSplitter.class);
+    private final static byte RECORD_TERMINATOR = 0x1D;
+    private final static int LEADER_LENGTH = 24;
+    private final static int SCAN_BUFFER_SIZE = 0x10000;
+
+    private final File file;
+
+    public MarcFileSplitter(File file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * Determines whether the file appears to contain binary MARC records, ie. whether it starts with a
+     * five digit record length.
+     *
+     * @param file  the file to check
+     * @return      true if the file starts with what looks like the leader of a binary MARC record
+     */
+    public static boolean isBinaryMarc(File file)
+    {
+        if (!file.isFile() || file.length() < LEADER_LENGTH) return(false);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+        {
+            byte[] start = new byte[5];
+            raf.readFully(start);
+            return(parseRecordLength(start, 0) > LEADER_LENGTH);
+        }
+        catch (IOException e)
+        {
+            return(false);
+        }
+    }
+
+    /**
+     * Splits the file into ranges of approximately targetSegmentSize bytes, each aligned on record boundaries.
+     *
+     * @param targetSegmentSize  the approximate size of each range in bytes, must be less than 2GB
+     * @return                   the ranges, in file order
+     * @throws IOException       if the file cannot be read
+     */
+    public List<Segment> split(long targetSegmentSize) throws IOException
+    {
+        if (targetSegmentSize <= 0 || targetSegmentSize >= Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Segment size must be between 1 byte and 2GB: " + targetSegmentSize);
+        }
+        List<Segment> segments = new ArrayList<Segment>();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+        {
+            FileChannel channel = raf.getChannel();
+            long fileLength = channel.size();
+            long start = 0;
+            while (start < fileLength)
+            {
+                long end = (fileLength - start <= targetSegmentSize) ? fileLength : findRecordStart(channel, start + targetSegmentSize, fileLength);
+                if (end - start >= Integer.MAX_VALUE)
+                {
+                    throw new IOException("Unable to find a record boundary within 2GB of offset " + start + " in file " + file.getName());
+                }
+                segments.add(new Segment(file, segments.size(), start, end - start));
+                start = end;
+            }
+        }
+        logger.debug("Split " + file.getName() + " into " + segments.size() + " segments");
+        return(segments);
+    }
+
+    /**
+     * Scans forward from offset to find the first position that immediately follows a record terminator
+     * and which looks like the start of a valid record.
+     *
+     * @return  the offset of the start of the next record, or fileLength if there isn't one
+     */
+    private static long findRecordStart(FileChannel channel, long offset, long fileLength) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = offset;
+        while (position < fileLength)
+        {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++)
+            {
+                if (buffer.get(i) == RECORD_TERMINATOR)
+                {
+                    long candidate = position + i + 1;
+                    if (candidate >= fileLength || isRecordStart(channel, candidate, fileLength))
+                    {
+                        return(candidate);
+                    }
+                }
+            }
+            position += read;
+        }
+        return(fileLength);
+    }
+
+    private static boolean isRecordStart(FileChannel channel, long offset, long fileLength) throws IOException
+    {
+        if (offset + LEADER_LENGTH > fileLength) return(false);
+        ByteBuffer leader = ByteBuffer.allocate(5);
+        channel.read(leader, offset);
+        int length = parseRecordLength(leader.array(), 0);
+        if (length <= LEADER_LENGTH) return(false);
+        if (offset + length > fileLength) return(false);
+        ByteBuffer terminator = ByteBuffer.allocate(1);
+        channel.read(terminator, offset + length - 1);
+        return(terminator.get(0) == RECORD_TERMINATOR);
+    }
+
+    private static int parseRecordLength(byte[] bytes, int offset)
+    {
+        int length = 0;
+        for (int i = offset; i < offset + 5; i++)
+        {
+            if (bytes[i] < '0' || bytes[i] > '9') return(-1);
+            length = length * 10 + (bytes[i] - '0');
+        }
+        return(length);
+    }
+
+    /**
+     * A range of bytes within a MARC file that begins at the start of a record and ends after a record terminator.
+     */
+    public static class Segment
+    {
+        private final File file;
+        private final int index;
+        private final long start;
+        private final long length;
+
+        Segment(File file, int index, long start, long length)
+        {
+            this.file = file;
+            this.index = index;
+            this.start = start;
+            this.length = length;
+        }
+
+        public int getIndex()
+        {
+            return index;
+        }
+
+        public long getStart()
+        {
+            return start;
+        }
+
+        public long getLength()
+        {
+            return length;
+        }
+
+        /**
+         * Memory-maps this range of the file.
+         *
+         * @return  a read-only buffer containing the bytes of this range
+         * @throws IOException  if the file cannot be mapped
+         */
+        public MappedByteBuffer map() throws IOException
+        {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r"))
+            {
+                return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        }
+
+        /**
+         * @return  an InputStream that reads the bytes of this range from a memory-mapped buffer
+         * @throws IOException  if the file cannot be mapped
+         */
+        public InputStream openStream() throws IOException
+        {
+            return new ByteBufferInputStream(map());
+        }
+
+        @Override
+        public String toString()
+        {
+            return file.getName() + " [bytes " + start + "-" + (start + length) + "]";
+        }
+    }
+
+    /**
+     * An InputStream that reads from a ByteBuffer, supporting mark and reset so that it can be handed
+     * directly to the MarcReaderFactory which peeks at the start of the stream to determine its type.
+     */
+    static class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len)
+        {
+            if (len == 0) return(0);
+            if (!buffer.hasRemaining()) return(-1);
+            int toRead = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, toRead);
+            return(toRead);
+        }
+
+        @Override
+        public long skip(long n)
+        {
+            int toSkip = (int)Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + toSkip);
+            return(toSkip);
+        }
+
+        @Override
+        public int available()
+        {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return(true);
+        }
+
+        @Override
+        public synchronized void mark(int readlimit)
+        {
+            buffer.mark();
+        }
+
+        @Override
+        public synchronized void reset()
+        {
+            buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package org.solrmarc.marc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.marc4j.MarcException;
+import org.marc4j.MarcPermissiveStreamReader;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
+import org.marc4j.marc.impl.ControlFieldImpl;
+import org.marc4j.marc.impl.DataFieldImpl;
+import org.marc4j.marc.impl.LeaderImpl;
+import org.marc4j.marc.impl.RecordImpl;
+import org.marc4j.marc.impl.SubfieldImpl;
+
+/**
+ * A MarcReader for binary MARC files that reads the records directly from a memory-mapped buffer, and
+ * which only decodes as much of each record as is actually needed.
+ * <p>
+ * For each record the leader, the directory and the control fields are decoded when the record is read, but
+ * the data fields merely record where their bytes are located in the buffer.  The subfields of a data field
+ * are only decoded the first time they are accessed, so an index specification that only looks at a handful
+ * of fields doesn't pay for the decoding (and the allocation) of all of the others.
+ * </p>
+ * <p>
+ * Only well-formed records that are already encoded in UTF-8 (leader position 9 = 'a'), and whose data
+ * really is valid UTF-8, are decoded lazily.  Any other record is handed, as a whole, to a
+ * MarcPermissiveStreamReader so that character set translation and error correction (and the reporting
+ * of those errors) behave exactly the same as they do for the normal stream reader.
+ * </p>
+ */
+public class MarcMappedLazyReader implements MarcReader
+{
+    private final static Logger logger = Logger.getLogger(MarcMappedLazyReader.class);
+    private final static byte FIELD_TERMINATOR = 0x1E;
+    private final static byte RECORD_TERMINATOR = 0x1D;
+    private final static int LEADER_LENGTH = 24;
+    private final static int DIRECTORY_ENTRY_LENGTH = 12;
+    private final static long MAX_SEGMENT_SIZE = 1024L * 1024L * 1024L;
+
+    private final Iterator<MarcFileSplitter.Segment> segments;
+    private final boolean permissive;
+    private final boolean toUtf8;
+    private final String defaultEncoding;
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a reader that maps the given file, a portion at a time.
+     *
+     * @param file             the binary MARC file to read
+     * @param permissive       passed to the MarcPermissiveStreamReader used for records that aren't decoded lazily
+     * @param toUtf8           passed to the MarcPermissiveStreamReader used for records that aren't decoded lazily
+     * @param defaultEncoding  passed to the MarcPermissiveStreamReader used for records that aren't decoded lazily
+     * @throws IOException     if the file cannot be read
+     */
+    public MarcMappedLazyReader(File file, boolean permissive, boolean toUtf8, String defaultEncoding) throws IOException
+    {
+        this(new MarcFileSplitter(file).split(MAX_SEGMENT_SIZE).iterator(), null, permissive, toUtf8, defaultEncoding);
+    }
+
+    /**
+     * Creates a reader over a buffer that contains a sequence of complete binary MARC records, such as
+     * a memory-mapped MarcFileSplitter.Segment.
+     *
+     * @param buffer           the buffer containing the records
+     * @param permissive       passed to the MarcPermissiveStreamReader used for records that aren't decoded lazily
+     * @param toUtf8           passed to the MarcPermissiveStreamReader used for records that aren't decoded lazily
+     * @param defaultEncoding  passed to the MarcPermissiveStreamReader used for records that aren't decoded lazily
+     */
+    public MarcMappedLazyReader(ByteBuffer buffer, boolean permissive, boolean toUtf8, String defaultEncoding)
+    {
+        this(Collections.<MarcFileSplitter.Segment>emptyIterator(), buffer, permissive, toUtf8, defaultEncoding);
+    }
+
+    private MarcMappedLazyReader(Iterator<MarcFileSplitter.Segment> segments, ByteBuffer buffer, boolean permissive,
+                                 boolean toUtf8, String defaultEncoding)
+    {
+        this.segments = segments;
+        this.buffer = buffer;
+        this.permissive = permissive;
+        this.toUtf8 = toUtf8;
+        this.defaultEncoding = (defaultEncoding != null) ? defaultEncoding : "BESTGUESS";
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while (buffer == null || !buffer.hasRemaining())
+        {
+            if (!segments.hasNext()) return(false);
+            try
+            {
+                buffer = segments.next().map();
+            }
+            catch (IOException e)
+            {
+                logger.error("Error mapping MARC file", e);
+                throw new MarcException("Error mapping MARC file", e);
+            }
+        }
+        return(true);
+    }
+
+    @Override
+    public Record next()
+    {
+        if (!hasNext())
+        {
+            throw new MarcException("No more records to read");
+        }
+        final int start = buffer.position();
+        int length = recordLength(buffer, start);
+        if (length < LEADER_LENGTH || start + length > buffer.limit() || buffer.get(start + length - 1) != RECORD_TERMINATOR)
+        {
+            // the record length in the leader is wrong, take everything up to the next record terminator
+            length = scanToRecordTerminator(buffer, start) - start;
+        }
+        ByteBuffer recordBytes = buffer.duplicate();
+        recordBytes.position(start);
+        recordBytes.limit(start + length);
+        buffer.position(start + length);
+
+        Record record = decodeLazily(recordBytes.slice());
+        if (record == null)
+        {
+            record = decodeFully(recordBytes.slice());
+        }
+        return(record);
+    }
+
+    private static int recordLength(ByteBuffer buf, int start)
+    {
+        if (buf.limit() - start < 5) return(-1);
+        int length = 0;
+        for (int i = start; i < start + 5; i++)
+        {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') return(-1);
+            length = length * 10 + (b - '0');
+        }
+        return(length);
+    }
+
+    private static int scanToRecordTerminator(ByteBuffer buf, int start)
+    {
+        for (int i = start; i < buf.limit(); i++)
+        {
+            if (buf.get(i) == RECORD_TERMINATOR) return(i + 1);
+        }
+        return(buf.limit());
+    }
+
+    private Record decodeFully(ByteBuffer recordBytes)
+    {
+        MarcReader reader = new MarcPermissiveStreamReader(new MarcFileSplitter.ByteBufferInputStream(recordBytes), permissive, toUtf8, defaultEncoding);
+        if (!reader.hasNext())
+        {
+            throw new MarcException("Unable to read record");
+        }
+        return(reader.next());
+    }
+
+    /**
+     * Builds a record containing the leader, the control fields, and lazily decoded data fields.
+     *
+     * @param rec  buffer containing exactly one record
+     * @return     the record, or null if the record is not UTF-8 or is not well-formed
+     */
+    private Record decodeLazily(ByteBuffer rec)
+    {
+        int length = rec.limit();
+        if (length < LEADER_LENGTH + 1 || rec.get(length - 1) != RECORD_TERMINATOR) return(null);
+        String leaderStr = decode(rec, 0, LEADER_LENGTH);
+        if (leaderStr.charAt(9) != 'a') return(null);
+        int baseAddress = parseNumber(rec, 12, 5);
+        if (baseAddress <= LEADER_LENGTH || baseAddress > length || rec.get(baseAddress - 1) != FIELD_TERMINATOR) return(null);
+        if ((baseAddress - 1 - LEADER_LENGTH) % DIRECTORY_ENTRY_LENGTH != 0) return(null);
+        // the stream reader reports bytes that aren't valid UTF-8, rather than silently replacing them
+        if (!isValidUtf8(rec, baseAddress, length - 1)) return(null);
+
+        RecordImpl record = new RecordImpl();
+        LeaderImpl leader = new LeaderImpl();
+        try
+        {
+            leader.unmarshal(leaderStr);
+        }
+        catch (RuntimeException e)
+        {
+            return(null);
+        }
+        record.setLeader(leader);
+        for (int entry = LEADER_LENGTH; entry < baseAddress - 1; entry += DIRECTORY_ENTRY_LENGTH)
+        {
+            String tag = decode(rec, entry, 3);
+            int fieldLength = parseNumber(rec, entry + 3, 4);
+            int fieldStart = parseNumber(rec, entry + 7, 5);
+            if (fieldLength < 1 || fieldStart < 0 || baseAddress + fieldStart + fieldLength > length - 1) return(null);
+            int dataStart = baseAddress + fieldStart;
+            // the field length includes the field terminator
+            int dataLength = (rec.get(dataStart + fieldLength - 1) == FIELD_TERMINATOR) ? fieldLength - 1 : fieldLength;
+            if (isControlTag(tag))
+            {
+                record.addVariableField(new ControlFieldImpl(tag, decode(rec, dataStart, dataLength)));
+            }
+            else
+            {
+                if (dataLength < 2) return(null);
+                char ind1 = (char)(rec.get(dataStart) & 0xFF);
+                char ind2 = (char)(rec.get(dataStart + 1) & 0xFF);
+                record.addVariableField(new LazyDataField(tag, ind1, ind2, rec, dataStart + 2, dataLength - 2));
+            }
+        }
+        return(record);
+    }
+
+    private static boolean isControlTag(String tag)
+    {
+        return(tag.length() == 3 && tag.charAt(0) == '0' && tag.charAt(1) == '0' && Character.isDigit(tag.charAt(2)));
+    }
+
+    private static int parseNumber(ByteBuffer rec, int offset, int len)
+    {
+        int value = 0;
+        for (int i = offset; i < offset + len; i++)
+        {
+            byte b = rec.get(i);
+            if (b < '0' || b > '9') return(-1);
+            value = value * 10 + (b - '0');
+        }
+        return(value);
+    }
+
+    /**
+     * Checks that the bytes from offset up to end are well-formed UTF-8, as decoding them would otherwise
+     * replace the malformed sequences with U+FFFD.
+     */
+    private static boolean isValidUtf8(ByteBuffer rec, int offset, int end)
+    {
+        int i = offset;
+        while (i < end)
+        {
+            int b = rec.get(i++) & 0xFF;
+            if (b < 0x80) continue;
+            int following;
+            int min = 0x80, max = 0xBF;
+            if (b >= 0xC2 && b <= 0xDF)       following = 1;
+            else if (b >= 0xE0 && b <= 0xEF)
+            {
+                following = 2;
+                if (b == 0xE0) min = 0xA0;
+                else if (b == 0xED) max = 0x9F;
+            }
+            else if (b >= 0xF0 && b <= 0xF4)
+            {
+                following = 3;
+                if (b == 0xF0) min = 0x90;
+                else if (b == 0xF4) max = 0x8F;
+            }
+            else return(false);
+            if (i + following > end) return(false);
+            for (int j = 0; j < following; j++)
+            {
+                int c = rec.get(i++) & 0xFF;
+                if (c < min || c > max) return(false);
+                min = 0x80;
+                max = 0xBF;
+            }
+        }
+        return(true);
+    }
+
+    private static String decode(ByteBuffer rec, int offset, int len)
+    {
+        byte[] bytes = new byte[len];
+        ByteBuffer dup = rec.duplicate();
+        dup.position(offset);
+        dup.get(bytes);
+        return(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A DataField whose subfields remain as undecoded bytes in the mapped buffer until the first time
+     * any method that needs them is called.  The subfields are decoded while holding the field's lock, so if the
+     * field is read by several threads it is decoded once, and each of them sees all of its subfields.  As with
+     * DataFieldImpl, changing the field while other threads read it isn't safe.
+     */
+    static class LazyDataField extends DataFieldImpl
+    {
+        private static final long serialVersionUID = 6135482637615478320L;
+        private transient ByteBuffer rec;
+        private final int offset;
+        private final int length;
+
+        LazyDataField(String tag, char ind1, char ind2, ByteBuffer rec, int offset, int length)
+        {
+            super(tag, ind1, ind2);
+            this.rec = rec;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        private synchronized void decodeSubfields()
+        {
+            if (rec == null) return;
+            String content = decode(rec, offset, length);
+            rec = null;
+            int sfStart = content.indexOf('\u001F');
+            while (sfStart >= 0 && sfStart < content.length() - 1)
+            {
+                int sfEnd = content.indexOf('\u001F', sfStart + 1);
+                if (sfEnd < 0) sfEnd = content.length();
+                if (sfEnd > sfStart + 1)
+                {
+                    super.addSubfield(new SubfieldImpl(content.charAt(sfStart + 1), content.substring(sfStart + 2, sfEnd)));
+                }
+                sfStart = sfEnd;
+            }
+        }
+
+        /**
+         * @return true once the subfields have been decoded
+         */
+        synchronized boolean isDecoded()
+        {
+            return(rec == null);
+        }
+
+        @Override
+        public void addSubfield(Subfield subfield)
+        {
+            decodeSubfields();
+            super.addSubfield(subfield);
+        }
+
+        @Override
+        public void addSubfield(int index, Subfield subfield)
+        {
+            decodeSubfields();
+            super.addSubfield(index, subfield);
+        }
+
+        @Override
+        public void removeSubfield(Subfield subfield)
+        {
+            decodeSubfields();
+            super.removeSubfield(subfield);
+        }
+
+        @Override
+        public List<Subfield> getSubfields()
+        {
+            decodeSubfields();
+            return super.getSubfields();
+        }
+
+        @Override
+        public List<Subfield> getSubfields(char code)
+        {
+            decodeSubfields();
+            return super.getSubfields(code);
+        }
+
+        @Override
+        public List<Subfield> getSubfields(String codes)
+        {
+            decodeSubfields();
+            return super.getSubfields(codes);
+        }
+
+        @Override
+        public String getSubfieldsAsString(String codes)
+        {
+            decodeSubfields();
+            return super.getSubfieldsAsString(codes);
+        }
+
+        @Override
+        public Subfield getSubfield(char code)
+        {
+            decodeSubfields();
+            return super.getSubfield(code);
+        }
+
+        @Override
+        public boolean find(String pattern)
+        {
+            decodeSubfields();
+            return super.find(pattern);
+        }
+
+        @Override
+        public String toString()
+        {
+            decodeSubfields();
+            return super.toString();
+        }
+    }
+}
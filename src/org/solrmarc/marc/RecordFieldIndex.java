@@ -0,0 +1,246 @@
+package org.solrmarc.marc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.marc4j.marc.ControlField;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Leader;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
+import org.marc4j.marc.VariableField;
+import org.marc4j.marc.impl.ControlFieldImpl;
+
+/**
+ * An index of the fields of a single record by tag, so that the many index specifications applied to a record
+ * can each find the fields they need without scanning the record's entire list of fields.
+ * <p>
+ * The Indexer calls <code>RecordFieldIndex.index(record)</code> once before applying the index specifications to the
+ * record, which builds the index for the current thread.  The static getVariableFields methods then return exactly
+ * what Record.getVariableFields would (including the pseudo-field "000" for the leader, and LNK tags matching linked
+ * 880 fields), in the same order, using the index if it was built for that record and directly from the record if
+ * it wasn't.  If fields are added to or removed from the record after it is indexed, the index is rebuilt.
+ * </p>
+ * <p>
+ * Numeric tags are indexed through a 1000 slot array of chains of field positions, which is kept and reused
+ * for every record processed by the thread, so building the index allocates almost nothing.
+ * </p>
+ */
+public class RecordFieldIndex
+{
+    private final static int NUM_SLOTS = 1000;
+    private final static ThreadLocal<RecordFieldIndex> current = new ThreadLocal<RecordFieldIndex>()
+    {
+        @Override
+        protected RecordFieldIndex initialValue()
+        {
+            return new RecordFieldIndex();
+        }
+    };
+
+    private Record record = null;
+    private int numControlFields;
+    private int numDataFields;
+    private final List<VariableField> fields = new ArrayList<VariableField>();
+    // position of the first and last field with each numeric tag, or -1
+    private final int[] first = new int[NUM_SLOTS];
+    private final int[] last = new int[NUM_SLOTS];
+    // position of the next field with the same tag as the field at each position, or -1
+    private int[] next = new int[256];
+    private final Map<String, List<Integer>> otherTags = new HashMap<String, List<Integer>>();
+
+    private RecordFieldIndex()
+    {
+        Arrays.fill(first, -1);
+        Arrays.fill(last, -1);
+    }
+
+    /**
+     * Builds the index of the record's fields for the current thread, replacing the index of whatever record
+     * the thread processed previously.
+     *
+     * @param record  the record about to be indexed
+     */
+    public static void index(Record record)
+    {
+        current.get().build(record);
+    }
+
+    /**
+     * Discards the current thread's index, so that it doesn't hold on to the last record processed.
+     */
+    public static void clear()
+    {
+        current.get().reset();
+    }
+
+    /**
+     * @return  the same fields, in the same order, as record.getVariableFields(tag)
+     */
+    public static List<VariableField> getVariableFields(Record record, String tag)
+    {
+        RecordFieldIndex index = current.get();
+        if (!index.isIndexFor(record)) return(record.getVariableFields(tag));
+        return index.lookup(new String[] { tag });
+    }
+
+    /**
+     * @return  the same fields, in the same order, as record.getVariableFields(tags)
+     */
+    public static List<VariableField> getVariableFields(Record record, String[] tags)
+    {
+        RecordFieldIndex index = current.get();
+        if (!index.isIndexFor(record)) return(record.getVariableFields(tags));
+        return index.lookup(tags);
+    }
+
+    private boolean isIndexFor(Record rec)
+    {
+        if (rec != record || rec == null) return(false);
+        if (rec.getControlFields().size() != numControlFields || rec.getDataFields().size() != numDataFields)
+        {
+            build(rec);
+        }
+        return(true);
+    }
+
+    private void reset()
+    {
+        for (int i = 0; i < fields.size(); i++)
+        {
+            int slot = slotFor(fields.get(i).getTag());
+            if (slot >= 0)
+            {
+                first[slot] = -1;
+                last[slot] = -1;
+            }
+        }
+        fields.clear();
+        otherTags.clear();
+        record = null;
+    }
+
+    private void build(Record rec)
+    {
+        reset();
+        record = rec;
+        List<ControlField> controlFields = rec.getControlFields();
+        List<DataField> dataFields = rec.getDataFields();
+        numControlFields = controlFields.size();
+        numDataFields = dataFields.size();
+        Leader leader = rec.getLeader();
+        if (leader != null)
+        {
+            fields.add(new ControlFieldImpl("000", leader.toString()));
+        }
+        fields.addAll(controlFields);
+        fields.addAll(dataFields);
+        if (next.length < fields.size())
+        {
+            next = new int[Math.max(fields.size(), next.length * 2)];
+        }
+        for (int pos = 0; pos < fields.size(); pos++)
+        {
+            next[pos] = -1;
+            String tag = fields.get(pos).getTag();
+            int slot = slotFor(tag);
+            if (slot >= 0)
+            {
+                if (first[slot] < 0) first[slot] = pos;
+                else next[last[slot]] = pos;
+                last[slot] = pos;
+            }
+            else
+            {
+                List<Integer> positions = otherTags.get(tag);
+                if (positions == null)
+                {
+                    positions = new ArrayList<Integer>(2);
+                    otherTags.put(tag, positions);
+                }
+                positions.add(pos);
+            }
+        }
+    }
+
+    private static int slotFor(String tag)
+    {
+        if (tag == null || tag.length() != 3) return(-1);
+        int slot = 0;
+        for (int i = 0; i < 3; i++)
+        {
+            char c = tag.charAt(i);
+            if (c < '0' || c > '9') return(-1);
+            slot = slot * 10 + (c - '0');
+        }
+        return(slot);
+    }
+
+    private List<VariableField> lookup(String[] tags)
+    {
+        if (tags.length == 1 && slotFor(tags[0]) >= 0)
+        {
+            // the common case, the fields in the chain are already in record order
+            List<VariableField> result = new ArrayList<VariableField>();
+            for (int pos = first[slotFor(tags[0])]; pos >= 0; pos = next[pos])
+            {
+                result.add(fields.get(pos));
+            }
+            return(result);
+        }
+        int[] positions = new int[8];
+        int num = 0;
+        for (String tag : tags)
+        {
+            int slot = slotFor(tag);
+            if (slot >= 0)
+            {
+                for (int pos = first[slot]; pos >= 0; pos = next[pos])
+                {
+                    if (num == positions.length) positions = Arrays.copyOf(positions, num * 2);
+                    positions[num++] = pos;
+                }
+            }
+            else
+            {
+                for (int pos : positionsForOtherTag(tag))
+                {
+                    if (num == positions.length) positions = Arrays.copyOf(positions, num * 2);
+                    positions[num++] = pos;
+                }
+            }
+        }
+        // a field matching more than one of the tags is only returned once, in record order
+        Arrays.sort(positions, 0, num);
+        List<VariableField> result = new ArrayList<VariableField>(num);
+        for (int i = 0; i < num; i++)
+        {
+            if (i > 0 && positions[i] == positions[i - 1]) continue;
+            result.add(fields.get(positions[i]));
+        }
+        return(result);
+    }
+
+    private List<Integer> positionsForOtherTag(String tag)
+    {
+        List<Integer> result = new ArrayList<Integer>();
+        List<Integer> exact = otherTags.get(tag);
+        if (exact != null) result.addAll(exact);
+        if (tag != null && tag.startsWith("LNK"))
+        {
+            // matches 880 fields linked to the given tag, the same way RecordImpl does
+            String linkTag = tag.substring(3);
+            for (int pos = first[880]; pos >= 0; pos = next[pos])
+            {
+                VariableField vf = fields.get(pos);
+                if (!(vf instanceof DataField)) continue;
+                Subfield link = ((DataField)vf).getSubfield('6');
+                if (link != null && link.getData().equals(linkTag)) result.add(pos);
+            }
+        }
+        return(result);
+    }
+}
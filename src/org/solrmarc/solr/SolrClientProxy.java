@@ -1,40 +1,61 @@
 package org.solrmarc.solr;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.UpdateResponse;
-import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.util.NamedList;
 
+/**
+ *  A SolrProxy for a SolrJ client object whose class is only known at runtime, which allows one binary to
+ *  support several SolrJ versions.  The client methods are looked up reflectively once, and are converted
+ *  into MethodHandles bound to the client object, so that each call costs no more than a direct call rather
+ *  than going through Method.invoke.  Any exception thrown by the client is wrapped in an InvocationTargetException,
+ *  exactly as it was when the methods were invoked reflectively, so that callers can unwrap it the same way.
+ *  Errors, such as running out of memory, are rethrown unchanged rather than being reported as a failed request.
+ */
 public class SolrClientProxy extends SolrProxy
 {
     Object solrclient;
-    Method addDoc;
-    Method addDocs;
-    Method commit;
-    Method optimize;
-    Method delete;
-    Method query;
+    MethodHandle addDoc;
+    MethodHandle addDocs;
+    MethodHandle commit;
+    MethodHandle optimize;
+    MethodHandle delete;
+    MethodHandle deleteBatch = null;
+    MethodHandle query;
 
     public SolrClientProxy(Object httpsolrclient)
     {
         this.solrclient = httpsolrclient;
         try
         {
-            this.addDoc = getMethod(solrclient, "add", org.apache.solr.common.SolrInputDocument.class);
-            this.addDocs = getMethod(solrclient, "add", Collection.class );
-            this.commit = getMethod(solrclient, "commit");
-            this.optimize = getMethod(solrclient, "optimize");
-            this.delete = getMethod(solrclient, "deleteById", String.class);
-            this.query = getMethod(solrclient, "query", SolrParams.class);
+            this.addDoc = getMethodHandle(solrclient, "add", org.apache.solr.common.SolrInputDocument.class);
+            this.addDocs = getMethodHandle(solrclient, "add", Collection.class );
+            this.commit = getMethodHandle(solrclient, "commit");
+            this.optimize = getMethodHandle(solrclient, "optimize");
+            this.delete = getMethodHandle(solrclient, "deleteById", String.class);
+            this.query = getMethodHandle(solrclient, "query", SolrParams.class);
+            try
+            {
+                this.deleteBatch = getMethodHandle(solrclient, "deleteById", List.class);
+            }
+            catch (NoSuchMethodException e)
+            {
+                // fall back to deleting one id at a time
+            }
         }
-        catch (NoSuchMethodException | SecurityException e)
+        catch (NoSuchMethodException | SecurityException | IllegalAccessException e)
         {
             throw(new SolrRuntimeException("SolrserverException", e));
             //throw new IndexerSpecException(e, eErrorSeverity.FATAL, "Unable to find needed methods in solrj jars.")
@@ -61,31 +82,35 @@ public class SolrClientProxy extends SolrProxy
         return result;
     }
 
+    /**
+     * Finds the named method of the client, and returns a MethodHandle for it that is bound to the client object,
+     * and whose return type is Object, so that it can always be called via invokeExact.
+     */
+    private static MethodHandle getMethodHandle(Object solrclient, String methodName, Class<?> ... parmClasses)
+            throws NoSuchMethodException, SecurityException, IllegalAccessException
+    {
+        Method method = getMethod(solrclient, methodName, parmClasses);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method).bindTo(solrclient);
+        return handle.asType(MethodType.methodType(Object.class, parmClasses));
+    }
+
     public int addDoc(SolrInputDocument inputDoc)
     {
         int num = 0;
         try
         {
-            UpdateResponse resp = (UpdateResponse) addDoc.invoke(solrclient, inputDoc);
+            UpdateResponse resp = (UpdateResponse) (Object) addDoc.invokeExact(inputDoc);
             @SuppressWarnings("unused")
             int status = resp.getStatus();
             return(++num);
         }
-        catch (SolrException e)
-        {
-            throw(new SolrRuntimeException("SolrserverException", e));
-        }
-        catch (IllegalAccessException e)
-        {
-            throw(new SolrRuntimeException("SolrserverException", e));
-        }
-        catch (IllegalArgumentException e)
+        catch (Error e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(e);
         }
-        catch (InvocationTargetException e)
+        catch (Throwable e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(new SolrRuntimeException("SolrserverException", new InvocationTargetException(e)));
         }
     }
 
@@ -95,28 +120,20 @@ public class SolrClientProxy extends SolrProxy
         int num = 0;
         try
         {
-            UpdateResponse resp = (UpdateResponse) addDocs.invoke(solrclient, docQ);
+            UpdateResponse resp = (UpdateResponse) (Object) addDocs.invokeExact((Collection<?>)docQ);
             NamedList<Object> respresp = resp.getResponse();
             @SuppressWarnings("unused")
             int size = respresp.size();
             num += docQ.size();
             return(num);
         }
-        catch (SolrException e)
+        catch (Error e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(e);
         }
-        catch (IllegalAccessException e)
+        catch (Throwable e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
-        }
-        catch (IllegalArgumentException e)
-        {
-            throw(new SolrRuntimeException("SolrserverException", e));
-        }
-        catch (InvocationTargetException e)
-        {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(new SolrRuntimeException("SolrserverException", new InvocationTargetException(e)));
         }
     }
 
@@ -126,21 +143,23 @@ public class SolrClientProxy extends SolrProxy
         try
         {
             if (doOptimize)
-                optimize.invoke(solrclient);
+            {
+                @SuppressWarnings("unused")
+                Object unused = (Object) optimize.invokeExact();
+            }
             else
-                commit.invoke(solrclient);
-        }
-        catch (IllegalAccessException e)
-        {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            {
+                @SuppressWarnings("unused")
+                Object unused = (Object) commit.invokeExact();
+            }
         }
-        catch (IllegalArgumentException e)
+        catch (Error e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(e);
         }
-        catch (InvocationTargetException e)
+        catch (Throwable e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(new SolrRuntimeException("SolrserverException", new InvocationTargetException(e)));
         }
     }
 
@@ -149,19 +168,39 @@ public class SolrClientProxy extends SolrProxy
     {
         try
         {
-            delete.invoke(solrclient, id);
+            @SuppressWarnings("unused")
+            Object unused = (Object) delete.invokeExact(id);
         }
-        catch (IllegalAccessException e)
+        catch (Error e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(e);
         }
-        catch (IllegalArgumentException e)
+        catch (Throwable e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(new SolrRuntimeException("SolrserverException", new InvocationTargetException(e)));
+        }
+    }
+
+    @Override
+    public int deleteBatch(Collection<String> ids)
+    {
+        if (deleteBatch == null)
+        {
+            return super.deleteBatch(ids);
         }
-        catch (InvocationTargetException e)
+        try
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            @SuppressWarnings("unused")
+            Object unused = (Object) deleteBatch.invokeExact((List<?>)new ArrayList<String>(ids));
+            return(ids.size());
+        }
+        catch (Error e)
+        {
+            throw(e);
+        }
+        catch (Throwable e)
+        {
+            throw(new SolrRuntimeException("SolrserverException", new InvocationTargetException(e)));
         }
     }
 
@@ -171,11 +210,15 @@ public class SolrClientProxy extends SolrProxy
         QueryResponse result = null;
         try
         {
-            result = (QueryResponse)query.invoke(solrclient, params);
+            result = (QueryResponse) (Object) query.invokeExact((SolrParams)params);
         }
-        catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e)
+        catch (Error e)
         {
-            throw(new SolrRuntimeException("SolrserverException", e));
+            throw(e);
+        }
+        catch (Throwable e)
+        {
+            throw(new SolrRuntimeException("SolrserverException", new InvocationTargetException(e)));
         }
         return result;
     }
@@ -1,10 +1,12 @@
 package org.solrmarc.solr;
 
+import java.io.IOException;
 import java.util.Collection;
 
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 
 public abstract class SolrProxy
@@ -22,6 +24,32 @@ public abstract class SolrProxy
         return false;
     }
 
+    /**
+     * return true if the exception (or one of its causes) indicates that Solr was temporarily unable
+     * to handle the request, such as a timeout, a connection failure or an HTTP 503 response, as opposed
+     * to an error caused by the content of the request.
+     *
+     * @param e  exception to check
+     * @return   true if retrying the same request later might succeed
+     */
+    public static boolean isTransientError(Throwable e)
+    {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof SolrException)
+            {
+                int code = ((SolrException)cause).code();
+                if (code == 408 || code == 429 || code == 502 || code == 503 || code == 504) return(true);
+            }
+            else if (cause instanceof IOException)
+            {
+                return(true);
+            }
+            if (cause.getCause() == cause) break;
+        }
+        return(false);
+    }
+
     /**
      * given a SolrInputDocument add it to the index
      * 
@@ -41,6 +69,24 @@ public abstract class SolrProxy
      */
     public abstract void delete(String id);
 
+    /**
+     * delete a batch of docs from the index.  By default each id is deleted individually, proxies that
+     * can send all of the ids in a single request should override this.
+     *
+     * @param ids  the unique identifiers of the documents to be deleted
+     * @return     the number of ids sent to be deleted
+     */
+    public int deleteBatch(Collection<String> ids)
+    {
+        int num = 0;
+        for (String id : ids)
+        {
+            delete(id);
+            num++;
+        }
+        return(num);
+    }
+
     /**
      * commit changes to the index
      *
@@ -1,6 +1,7 @@
 package org.solrmarc.solr;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 
 import org.apache.solr.client.solrj.SolrQuery;
@@ -120,6 +121,28 @@ public class SolrServerProxy extends SolrProxy
         }
     }
 
+    @Override
+    public int deleteBatch(Collection<String> ids)
+    {
+        try
+        {
+            solrserver.deleteById(new ArrayList<String>(ids));
+            return(ids.size());
+        }
+        catch (SolrException e)
+        {
+            throw(new SolrRuntimeException("SolrException", e));
+        }
+        catch (SolrServerException e)
+        {
+            throw(new SolrRuntimeException("SolrserverException", e));
+        }
+        catch (IOException e)
+        {
+            throw(new SolrRuntimeException("IOException", e));
+        }
+    }
+
     @Override
     public QueryResponse query(SolrQuery params)
     {
@@ -20,6 +20,7 @@ import org.marc4j.marc.DataField;
 import org.marc4j.marc.Record;
 import org.marc4j.marc.Subfield;
 import org.marc4j.marc.VariableField;
+import org.solrmarc.marc.RecordFieldIndex;
 
 import java.text.DecimalFormat;
 import java.util.*;
@@ -469,7 +470,7 @@ public final class Utils
     {
         Set<String> result = new LinkedHashSet<>();
 
-        List<VariableField> varFlds = record.getVariableFields(tags);
+        List<VariableField> varFlds = RecordFieldIndex.getVariableFields(record, tags);
         for (VariableField vf : varFlds)
         {
 
@@ -0,0 +1,161 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AdaptiveChunkControllerTests
+{
+    private final static long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private final static long SLOW = TimeUnit.MILLISECONDS.toNanos(5000);
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty("solrmarc.solrj.adaptive");
+        System.clearProperty("solrmarc.indexer.chunksize.max");
+    }
+
+    private static ThreadPoolExecutor executor(int threads)
+    {
+        return new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    }
+
+    /**
+     * chunk size 100 in [10..200], growing by 5, with 2 chunks in flight in [1..4], and a target latency of one second
+     */
+    private static AdaptiveChunkController controller()
+    {
+        return new AdaptiveChunkController(100, 10, 200, 2, 1, 4, 1000, executor(2));
+    }
+
+    @Test
+    public void testAdditiveIncrease()
+    {
+        AdaptiveChunkController controller = controller();
+        controller.chunkSucceeded(100, FAST);
+        assertEquals(105, controller.getChunkSize());
+        assertEquals(2, controller.getInFlight());
+        // one more chunk in flight after as many successes as there are chunks in flight
+        controller.chunkSucceeded(105, FAST);
+        assertEquals(110, controller.getChunkSize());
+        assertEquals(3, controller.getInFlight());
+
+        // a chunk that wasn't filled says nothing about whether bigger chunks would be accepted
+        controller.chunkSucceeded(50, FAST);
+        assertEquals(110, controller.getChunkSize());
+    }
+
+    @Test
+    public void testIncreaseStopsAtCeilings()
+    {
+        AdaptiveChunkController controller = controller();
+        for (int i = 0; i < 100; i++)
+        {
+            controller.chunkSucceeded(controller.getChunkSize(), FAST);
+        }
+        assertEquals(200, controller.getChunkSize());
+        assertEquals(4, controller.getInFlight());
+    }
+
+    @Test
+    public void testMultiplicativeDecrease()
+    {
+        AdaptiveChunkController controller = new AdaptiveChunkController(160, 10, 200, 4, 1, 4, 1000, executor(4));
+        controller.chunkSucceeded(160, SLOW);
+        assertEquals(80, controller.getChunkSize());
+        assertEquals(2, controller.getInFlight());
+
+        // the other chunks that were in flight when Solr slowed down don't decrease it again within the target latency
+        controller.chunkSucceeded(80, SLOW);
+        controller.chunkFailed(80);
+        assertEquals(80, controller.getChunkSize());
+        assertEquals(2, controller.getInFlight());
+    }
+
+    @Test
+    public void testDecreaseStopsAtFloors() throws Exception
+    {
+        AdaptiveChunkController controller = new AdaptiveChunkController(160, 10, 200, 4, 1, 4, 1, executor(4));
+        for (int i = 0; i < 10; i++)
+        {
+            // alternate slow chunks and transient failures, each after the hold off period has passed
+            Thread.sleep(3);
+            if (i % 2 == 0) controller.chunkSucceeded(controller.getChunkSize(), SLOW);
+            else            controller.chunkFailed(controller.getChunkSize());
+        }
+        assertEquals(10, controller.getChunkSize());
+        assertEquals(1, controller.getInFlight());
+    }
+
+    @Test
+    public void testInitialValuesAreClamped()
+    {
+        AdaptiveChunkController controller = new AdaptiveChunkController(1000, 10, 200, 0, 1, 4, 1000, executor(1));
+        assertEquals(200, controller.getChunkSize());
+        assertEquals(1, controller.getInFlight());
+    }
+
+    @Test
+    public void testExecutorCanRunMaximumInFlight()
+    {
+        ThreadPoolExecutor executor = executor(2);
+        new AdaptiveChunkController(100, 10, 200, 2, 1, 6, 1000, executor);
+        assertEquals(6, executor.getCorePoolSize());
+        assertEquals(6, executor.getMaximumPoolSize());
+    }
+
+    @Test
+    public void testSlotsLimitChunksInFlight() throws Exception
+    {
+        final AdaptiveChunkController controller = controller();
+        controller.acquireSlot();
+        controller.acquireSlot();
+        final CountDownLatch acquired = new CountDownLatch(1);
+        Thread third = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    controller.acquireSlot();
+                    acquired.countDown();
+                }
+                catch (InterruptedException e)
+                {
+                }
+            }
+        };
+        third.start();
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        controller.releaseSlot();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        third.join();
+    }
+
+    @Test
+    public void testFromProperties()
+    {
+        assertNull(AdaptiveChunkController.fromProperties(100, 2, 1000, executor(2)));
+        System.setProperty("solrmarc.solrj.adaptive", "true");
+        System.setProperty("solrmarc.indexer.chunksize.max", "not a number");
+        AdaptiveChunkController controller = AdaptiveChunkController.fromProperties(100, 2, 300, executor(2));
+        // the default maximum, four times the chunk size, is limited by the document queue
+        for (int i = 0; i < 200; i++)
+        {
+            controller.chunkSucceeded(controller.getChunkSize(), FAST);
+        }
+        assertEquals(300, controller.getChunkSize());
+        assertEquals(6, controller.getInFlight());
+    }
+}
@@ -0,0 +1,74 @@
+package org.solrmarc.driver;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.marc4j.MarcPermissiveStreamReader;
+import org.marc4j.MarcReader;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.ValueIndexerFactory;
+import org.solrmarc.solr.DevNullProxy;
+
+/**
+ * Simple micro-benchmark for the ThreadedIndexer chunk assembly stage.  It runs the full multi-threaded
+ * pipeline over a file of test records, sending the results to a DevNullProxy, and reports the average
+ * time between a record being read and the chunk containing it being handed to a ChunkIndexerWorker.
+ *
+ * Usage:  ChunkDispatchBenchmark [marc_file] [chunk_size] [linger_millis ...]
+ */
+public class ChunkDispatchBenchmark
+{
+    private final static String[] configSpecs = {
+            "id = 001, first",
+            "title_display = 245abnp, first, cleanEnd",
+            "author_facet = 100abcd:110abcd:111abc, clean",
+            "subject_topic_facet = 650a:690a, cleanEnd, unique",
+            "published_display = 260a, trimPunct",
+    };
+
+    public static void main(String[] args) throws Exception
+    {
+        String dataDir = System.getProperty("test.data.dir", "test/data");
+        String marcFile = (args.length > 0) ? args[0] : dataDir + "/records/uva_001_2000.mrc";
+        int chunkSize = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+        String[] lingers = (args.length > 2) ? Arrays.copyOfRange(args, 2, args.length) : new String[] { "10", "100", "1000" };
+
+        ValueIndexerFactory factory = ValueIndexerFactory.initialize(new String[] { dataDir });
+        for (String linger : lingers)
+        {
+            System.setProperty("solrmarc.indexer.chunk.linger", linger);
+            // run once to warm up, then once to measure
+            runOnce(factory, marcFile, chunkSize);
+            long start = System.nanoTime();
+            ThreadedIndexer indexer = runOnce(factory, marcFile, chunkSize);
+            long elapsed = System.nanoTime() - start;
+            System.out.println(String.format("linger=%5s ms  records=%6d  elapsed=%6d ms  avg read->dispatch latency=%8d us",
+                    linger, indexer.getCounts()[2], TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    TimeUnit.NANOSECONDS.toMicros(indexer.getAverageDispatchLatency())));
+        }
+        System.exit(0);
+    }
+
+    private static ThreadedIndexer runOnce(ValueIndexerFactory factory, String marcFile, int chunkSize)
+            throws IllegalAccessException, InstantiationException, IOException
+    {
+        List<AbstractValueIndexer<?>> indexers = factory.createValueIndexers(configSpecs);
+        ThreadedIndexer indexer = new ThreadedIndexer(indexers, new DevNullProxy(), 640, chunkSize);
+        InputStream input = new BufferedInputStream(new FileInputStream(marcFile));
+        try
+        {
+            MarcReader reader = new MarcPermissiveStreamReader(input, true, true);
+            indexer.indexToSolr(reader);
+        }
+        finally
+        {
+            input.close();
+        }
+        return indexer;
+    }
+}
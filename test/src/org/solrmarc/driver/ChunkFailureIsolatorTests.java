@@ -0,0 +1,250 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.solr.SolrProxy;
+import org.solrmarc.solr.SolrRuntimeException;
+
+public class ChunkFailureIsolatorTests
+{
+    /**
+     * Rejects any request containing a document whose title is "bad", the way Solr rejects a whole request
+     * because of one document it can't accept, and otherwise notes the ids of the documents added.
+     */
+    private static class RejectingSolrProxy extends SolrProxy
+    {
+        final Set<String> added = Collections.synchronizedSet(new HashSet<String>());
+        int requests = 0;
+        int transientFailures = 0;
+
+        @Override
+        public synchronized int addDocs(Collection<SolrInputDocument> docQ)
+        {
+            requests++;
+            if (transientFailures > 0)
+            {
+                transientFailures--;
+                throw new SolrRuntimeException("Solr is unavailable", new IOException("Connection refused"));
+            }
+            for (SolrInputDocument doc : docQ)
+            {
+                if ("bad".equals(doc.getFieldValue("title")))
+                {
+                    throw new SolrRuntimeException("Document " + doc.getFieldValue("id") + " was rejected");
+                }
+            }
+            for (SolrInputDocument doc : docQ)
+            {
+                added.add(doc.getFieldValue("id").toString());
+            }
+            return(docQ.size());
+        }
+
+        @Override
+        public int addDoc(SolrInputDocument document)
+        {
+            return(addDocs(Collections.singletonList(document)));
+        }
+
+        @Override
+        public void delete(String id)
+        {
+        }
+
+        @Override
+        public void commit(boolean optimize)
+        {
+        }
+
+        @Override
+        public QueryResponse query(SolrQuery params)
+        {
+            return(null);
+        }
+    }
+
+    private RejectingSolrProxy solrProxy;
+    private Indexer indexer;
+    private BlockingQueue<RecordAndDoc> errQ;
+
+    @Before
+    public void setUp()
+    {
+        System.setProperty("solrmarc.solrj.retry.backoff", "1");
+        solrProxy = new RejectingSolrProxy();
+        indexer = new Indexer(new ArrayList<AbstractValueIndexer<?>>(), solrProxy);
+        errQ = new LinkedBlockingQueue<RecordAndDoc>();
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty("solrmarc.solrj.retry.backoff");
+    }
+
+    private static RecordAndDoc recordAndDoc(String id, String title)
+    {
+        MarcFactory factory = MarcFactory.newInstance();
+        Record record = factory.newRecord();
+        record.addVariableField(factory.newControlField("001", id));
+        RecordAndDoc recDoc = new RecordAndDoc(record);
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField("id", id);
+        doc.addField("title", title);
+        recDoc.setDoc(doc);
+        return(recDoc);
+    }
+
+    /**
+     * @return a chunk of documents, of which those with the given indexes are bad
+     */
+    private static List<RecordAndDoc> chunk(String prefix, int size, int... badIndexes)
+    {
+        List<RecordAndDoc> chunk = new ArrayList<RecordAndDoc>();
+        for (int i = 0; i < size; i++)
+        {
+            chunk.add(recordAndDoc(prefix + i, "good"));
+        }
+        for (int bad : badIndexes)
+        {
+            chunk.set(bad, recordAndDoc(prefix + bad, "bad"));
+        }
+        return(chunk);
+    }
+
+    private Exception send(List<RecordAndDoc> chunk)
+    {
+        List<SolrInputDocument> docs = new ArrayList<SolrInputDocument>();
+        for (RecordAndDoc recDoc : chunk)
+        {
+            docs.add(recDoc.getDoc());
+        }
+        try
+        {
+            solrProxy.addDocs(docs);
+            return(null);
+        }
+        catch (Exception e)
+        {
+            return(e);
+        }
+    }
+
+    private void checkBisection(ChunkFailureIsolator isolator)
+    {
+        List<RecordAndDoc> chunk = chunk("u", 37, 0, 5, 6, 36);
+        isolator.isolate(chunk, send(chunk), errQ);
+        assertEquals(33, solrProxy.added.size());
+        assertEquals(4, errQ.size());
+        for (RecordAndDoc recDoc : errQ)
+        {
+            assertEquals("bad", recDoc.getDoc().getFieldValue("title"));
+            assertTrue(recDoc.errLocs.contains(RecordAndDoc.eErrorLocationVal.SOLR_ERROR));
+        }
+        assertEquals(4, isolator.getKnownBadCount());
+        assertEquals(33, indexer.getCounts()[2]);
+    }
+
+    @Test
+    public void testBisectionOnCallingThread()
+    {
+        checkBisection(new ChunkFailureIsolator(indexer, null));
+    }
+
+    @Test
+    public void testBisectionOnExecutor()
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            checkBisection(new ChunkFailureIsolator(indexer, executor));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testKnownBadDocumentsAreSkipped()
+    {
+        ChunkFailureIsolator isolator = indexer.getFailureIsolator();
+        List<RecordAndDoc> chunk = chunk("u", 16, 3);
+        isolator.isolate(chunk, send(chunk), errQ);
+        errQ.clear();
+
+        // the same bad document in another chunk is removed, and the rest is resent without bisecting
+        List<RecordAndDoc> again = chunk("v", 16);
+        again.set(9, chunk.get(3));
+        Exception e = send(again);
+        int requests = solrProxy.requests;
+        isolator.isolate(again, e, errQ);
+        assertEquals(requests + 1, solrProxy.requests);
+        assertEquals(15 + 15, solrProxy.added.size());
+        assertEquals(1, errQ.size());
+    }
+
+    @Test
+    public void testCorrectedDocumentIsSent()
+    {
+        ChunkFailureIsolator isolator = indexer.getFailureIsolator();
+        List<RecordAndDoc> chunk = chunk("u", 8, 2);
+        isolator.isolate(chunk, send(chunk), errQ);
+        assertTrue(!solrProxy.added.contains("u2"));
+
+        // a corrected version of the record has the same id, but it isn't the document that was rejected
+        List<RecordAndDoc> corrected = chunk("v", 8, 5);
+        corrected.set(0, recordAndDoc("u2", "corrected"));
+        isolator.isolate(corrected, send(corrected), errQ);
+        assertTrue(solrProxy.added.contains("u2"));
+        assertEquals(7 + 7, solrProxy.added.size());
+    }
+
+    @Test
+    public void testTransientFailureIsRetried()
+    {
+        ChunkFailureIsolator isolator = indexer.getFailureIsolator();
+        List<RecordAndDoc> chunk = chunk("u", 10);
+        solrProxy.transientFailures = 2;
+        isolator.isolate(chunk, send(chunk), errQ);
+        assertEquals(10, solrProxy.added.size());
+        assertEquals(0, errQ.size());
+        assertEquals(0, isolator.getKnownBadCount());
+    }
+
+    @Test
+    public void testOneIsolatorPerIndexer()
+    {
+        ChunkIndexerWorker first = new ChunkIndexerWorker("first", chunk("u", 4, 1), errQ, indexer);
+        ChunkIndexerWorker second = new ChunkIndexerWorker("second", chunk("v", 4), errQ, indexer);
+        assertSame(first.failureIsolator, second.failureIsolator);
+        assertSame(indexer.getFailureIsolator(), first.failureIsolator);
+        first.run();
+        second.run();
+        assertEquals(1, indexer.getFailureIsolator().getKnownBadCount());
+        assertEquals(7, solrProxy.added.size());
+    }
+}
@@ -0,0 +1,163 @@
+package org.solrmarc.driver;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.ValueIndexerFactory;
+
+/**
+ * Simple micro-benchmark for assembling the SolrInputDocument for a record.  It applies a set of index
+ * specifications to a synthetic serial record with 800 holdings, then repeatedly assembles the document from the
+ * values they produce, first the way Indexer.indexToSolrDoc used to (three documents, and a scan of the field's
+ * values for each value added to a field that must be unique) then with a DocumentBuilder, and reports the time
+ * and the bytes allocated per document for each.
+ *
+ * Usage:  DocumentBuildBenchmark [iterations] [holdings]
+ */
+public class DocumentBuildBenchmark
+{
+    private final static String[] specs = {
+            "id = 001, first",
+            "title_display = 245a, clean",
+            "holdings_summary_display = 866a",
+            "callnum_text = 999a",
+            "barcode_facet = 999i",
+            "library_facet = 999m, unique",
+            "location_facet = 999l, unique",
+            "location_facet |= 999k",
+            "callnum_facet = 999a, unique",
+            "callnum_facet |= 050ab:999a",
+            "item_text = 999ailmk, join(\" \")"
+    };
+
+    public static void main(String[] args) throws Exception
+    {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        int holdings = (args.length > 1) ? Integer.parseInt(args[1]) : 800;
+        String dataDir = System.getProperty("test.data.dir", "test/data");
+        ValueIndexerFactory factory = ValueIndexerFactory.initialize(new String[] { dataDir });
+        List<AbstractValueIndexer<?>> indexers = factory.createValueIndexers(specs);
+        Record record = makeSerial(holdings);
+        List<Collection<String>> data = new ArrayList<Collection<String>>();
+        long numValues = 0;
+        for (AbstractValueIndexer<?> indexer : indexers)
+        {
+            Collection<String> values = indexer.getFieldData(record);
+            data.add(values);
+            numValues += values.size() * indexer.getSolrFieldNames().size();
+        }
+        System.out.println(String.format("%d index specifications, %,d values per document", indexers.size(), numValues));
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        DocumentBuilder builder = new DocumentBuilder();
+        for (int round = 0; round < 3; round++)
+        {
+            long bytes0 = bean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long oldValues = 0;
+            for (int i = 0; i < iterations; i++)
+            {
+                oldValues += countValues(buildOld(indexers, data));
+            }
+            long oldTime = System.nanoTime() - start;
+            long bytes1 = bean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            long newValues = 0;
+            for (int i = 0; i < iterations; i++)
+            {
+                newValues += countValues(buildNew(builder, indexers, data));
+            }
+            long newTime = System.nanoTime() - start;
+            long bytes2 = bean.getThreadAllocatedBytes(threadId);
+            if (oldValues != newValues) System.out.println("mismatch: " + oldValues + " != " + newValues);
+            System.out.println(String.format("round %d:  previous %8.1f us %,10.0f bytes/doc,  builder %8.1f us %,10.0f bytes/doc",
+                    round, oldTime / 1000.0 / iterations, (bytes1 - bytes0) * 1.0 / iterations,
+                    newTime / 1000.0 / iterations, (bytes2 - bytes1) * 1.0 / iterations));
+        }
+    }
+
+    private static SolrInputDocument buildOld(List<AbstractValueIndexer<?>> indexers, List<Collection<String>> data)
+    {
+        Map<String, SolrInputField> emptyMap = new LinkedHashMap<String, SolrInputField>();
+        SolrInputDocument[] inputDocs = new SolrInputDocument[] { new SolrInputDocument(emptyMap), new SolrInputDocument(emptyMap), new SolrInputDocument(emptyMap) };
+        for (int i = 0; i < indexers.size(); i++)
+        {
+            AbstractValueIndexer<?> indexer = indexers.get(i);
+            for (String fieldName : indexer.getSolrFieldNames())
+            {
+                if (data.get(i).size() == 0) continue;
+                if (indexer.getOnlyIfEmpty() && inputDocs[0].containsKey(fieldName)) continue;
+                for (String dataVal : data.get(i))
+                {
+                    if (indexer.getOnlyIfUnique())
+                    {
+                        Collection<Object> values = inputDocs[0].getFieldValues(fieldName);
+                        if (values != null && values.contains(dataVal)) continue;
+                    }
+                    inputDocs[0].addField(fieldName, dataVal);
+                }
+            }
+        }
+        return(inputDocs[0]);
+    }
+
+    private static SolrInputDocument buildNew(DocumentBuilder builder, List<AbstractValueIndexer<?>> indexers, List<Collection<String>> data)
+    {
+        builder.start();
+        for (int i = 0; i < indexers.size(); i++)
+        {
+            builder.addFieldData(indexers.get(i), data.get(i));
+        }
+        return(builder.finish());
+    }
+
+    private static long countValues(SolrInputDocument doc)
+    {
+        long cnt = 0;
+        for (SolrInputField field : doc)
+        {
+            cnt += field.getValueCount();
+        }
+        return(cnt);
+    }
+
+    private static Record makeSerial(int holdings)
+    {
+        MarcFactory factory = MarcFactory.newInstance();
+        Record record = factory.newRecord("00000cas a2200000 a 4500");
+        record.addVariableField(factory.newControlField("001", "u987654"));
+        record.addVariableField(factory.newControlField("008", "750101c19759999vauqr p       0   a0eng d"));
+        DataField title = factory.newDataField("245", '0', '0');
+        title.addSubfield(factory.newSubfield('a', "Journal of synthetic benchmarks."));
+        record.addVariableField(title);
+        DataField callnum = factory.newDataField("050", '0', '0');
+        callnum.addSubfield(factory.newSubfield('a', "QA76.9"));
+        callnum.addSubfield(factory.newSubfield('b', ".B4"));
+        record.addVariableField(callnum);
+        DataField summary = factory.newDataField("866", ' ', '0');
+        summary.addSubfield(factory.newSubfield('a', "v.1 (1975)-"));
+        record.addVariableField(summary);
+        for (int i = 0; i < holdings; i++)
+        {
+            DataField item = factory.newDataField("999", ' ', ' ');
+            item.addSubfield(factory.newSubfield('a', "QA76.9 .B4 v." + (i + 1)));
+            item.addSubfield(factory.newSubfield('i', "X" + (1000000 + i)));
+            item.addSubfield(factory.newSubfield('m', (i % 3 == 0) ? "SCIENCE" : "ALDERMAN"));
+            item.addSubfield(factory.newSubfield('l', "STACKS-" + (i % 7)));
+            item.addSubfield(factory.newSubfield('k', (i % 50 == 0) ? "CHECKEDOUT" : "STACKS-" + (i % 5)));
+            record.addVariableField(item);
+        }
+        return(record);
+    }
+}
@@ -0,0 +1,251 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.marc4j.MarcError;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+import org.solrmarc.index.collector.MultiValueCollector;
+import org.solrmarc.index.extractor.AbstractMultiValueExtractor;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.MultiValueIndexer;
+import org.solrmarc.index.mapping.AbstractMultiValueMapping;
+
+public class DocumentBuilderTests
+{
+    private final static MarcFactory factory = MarcFactory.newInstance();
+    private final static String[] SPECS = {
+        "id = 001, first",
+        "title_display = 245a, clean",
+        "title_display ?= 245b, clean",
+        "author_display ?= 100a, clean",
+        "author_display ?= 110a, clean",
+        "marc_error |= 500a",
+        "author_display, author_dates ?= 100d",
+        "subject_facet = 650a, cleanEnd",
+        "subject_facet |= 600a:610a:650a, cleanEnd",
+        "topic_facet |= 650x:600x:610x, cleanEnd",
+        "topic_facet |= 650z, cleanEnd",
+        "marc_error |= 590a" };
+
+    private static List<AbstractValueIndexer<?>> indexers;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        indexers = IndexingFixture.factory().createValueIndexers(SPECS);
+        // a specification that fails for records without a 260, placed between two that add to marc_error
+        indexers.add(6, new MultiValueIndexer("publisher_display", new AbstractMultiValueExtractor()
+        {
+            @Override
+            protected void extract(Collection<String> result, Record record) throws Exception
+            {
+                if (record.getVariableField("260") == null)
+                {
+                    throw new IllegalStateException(" no publisher in " + record.getControlNumber());
+                }
+                result.add("Pub");
+            }
+        }, new AbstractMultiValueMapping[0], new MultiValueCollector()));
+        assertEquals(SPECS.length + 1, indexers.size());
+    }
+
+    private static DataField field(String tag, char ind1, char ind2, String... codesAndData)
+    {
+        DataField field = factory.newDataField(tag, ind1, ind2);
+        for (int i = 0; i < codesAndData.length; i += 2)
+        {
+            field.addSubfield(factory.newSubfield(codesAndData[i].charAt(0), codesAndData[i + 1]));
+        }
+        return(field);
+    }
+
+    /**
+     * @return a record with none of the sample record's title, author or topic fields, which repeats one of its
+     *         subjects
+     */
+    private static Record otherRecord()
+    {
+        Record record = factory.newRecord("00000nam a2200000 a 4500");
+        record.addVariableField(factory.newControlField("001", "rec002"));
+        record.addVariableField(field("110", '2', ' ', "a", "Acme Corp."));
+        record.addVariableField(field("245", '0', '0', "b", "only a subtitle."));
+        record.addVariableField(field("600", '1', '0', "a", "Doe, Jane"));
+        record.addVariableField(field("610", '2', '0', "a", "Doe, Jane."));
+        return(record);
+    }
+
+    /**
+     * @return a record with more distinct subjects than fit the builder's sets before they grow, each repeated
+     */
+    private static Record manySubjects(int count)
+    {
+        Record record = factory.newRecord("00000nam a2200000 a 4500");
+        record.addVariableField(factory.newControlField("001", "rec003"));
+        record.addVariableField(field("260", ' ', ' ', "b", "Pub,"));
+        for (int i = 0; i < count; i++)
+        {
+            record.addVariableField(field("650", ' ', '0', "a", "Subject " + i, "x", "Topic " + (i % 10)));
+            record.addVariableField(field("600", '1', '0', "a", "Subject " + (count - i - 1), "x", "Topic " + i));
+        }
+        return(record);
+    }
+
+    /**
+     * Builds the document for a record the way the Indexer did before it had a DocumentBuilder: each value is
+     * added with SolrInputDocument.addField, a value of a field that must be unique is only added if a scan of
+     * the field's values doesn't find it, and errors are added to the same document.
+     */
+    private static SolrInputDocument previousDocument(Record record)
+    {
+        Map<String, SolrInputField> emptyMap = new LinkedHashMap<String, SolrInputField>();
+        SolrInputDocument[] inputDocs = new SolrInputDocument[] { new SolrInputDocument(emptyMap), new SolrInputDocument(emptyMap), new SolrInputDocument(emptyMap) };
+        for (AbstractValueIndexer<?> indexer : indexers)
+        {
+            try
+            {
+                if (indexer.getOnlyIfEmpty())
+                {
+                    String fieldname = indexer.getSolrFieldNames().iterator().next();
+                    if (indexer.getSolrFieldNames().size() == 1 && inputDocs[0].containsKey(fieldname))
+                        continue;
+                }
+                Collection<String> data = indexer.getFieldData(record);
+                for (String fieldName : indexer.getSolrFieldNames())
+                {
+                    if (data.size() == 0) continue;
+                    if (indexer.getOnlyIfEmpty() && inputDocs[0].containsKey(fieldName)) continue;
+                    for (String dataVal : data)
+                    {
+                        if (indexer.getOnlyIfUnique())
+                        {
+                            Collection<Object> values = inputDocs[0].getFieldValues(fieldName);
+                            if (values != null && values.contains(dataVal)) continue;
+                        }
+                        inputDocs[0].addField(fieldName, dataVal);
+                    }
+                }
+            }
+            catch (Exception e)
+            {
+                inputDocs[2].addField("marc_error", indexer.getSolrFieldNames().toString() + e.getMessage());
+            }
+        }
+        if (record.hasErrors())
+        {
+            for (MarcError err : record.getErrors())
+            {
+                inputDocs[2].addField("marc_error", err.toString());
+            }
+        }
+        return(inputDocs[0]);
+    }
+
+    private static void checkSameDocument(SolrInputDocument expected, SolrInputDocument actual)
+    {
+        assertEquals(new ArrayList<String>(expected.getFieldNames()), new ArrayList<String>(actual.getFieldNames()));
+        for (String fieldName : expected.getFieldNames())
+        {
+            assertEquals(fieldName, new ArrayList<Object>(expected.getFieldValues(fieldName)), new ArrayList<Object>(actual.getFieldValues(fieldName)));
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    private static SolrInputDocument index(Indexer indexer, Record record)
+    {
+        SolrInputDocument expected = previousDocument(record);
+        SolrInputDocument actual = indexer.indexToSolrDoc(record).getDoc();
+        checkSameDocument(expected, actual);
+        return(actual);
+    }
+
+    @Test
+    public void testOnlyIfUnique()
+    {
+        SolrInputDocument doc = index(new Indexer(indexers, null), IndexingFixture.sampleRecord());
+        // the subjects already added from the 650s aren't added again, the names are
+        assertEquals(Arrays.<Object>asList("Birds", "Apples", "Art", "Doe, Jane", "Acme Corp"), new ArrayList<Object>(doc.getFieldValues("subject_facet")));
+        assertEquals(Arrays.<Object>asList("Criticism", "History", "Behavior", "Europe"), new ArrayList<Object>(doc.getFieldValues("topic_facet")));
+    }
+
+    @Test
+    public void testOnlyIfEmpty()
+    {
+        Indexer indexer = new Indexer(indexers, null);
+        SolrInputDocument doc = index(indexer, IndexingFixture.sampleRecord());
+        assertEquals(Arrays.<Object>asList("The great title"), new ArrayList<Object>(doc.getFieldValues("title_display")));
+        assertEquals(Arrays.<Object>asList("Smith, John"), new ArrayList<Object>(doc.getFieldValues("author_display")));
+        // a specification for several fields only adds to the ones that are still empty
+        assertEquals(Arrays.<Object>asList("1950-"), new ArrayList<Object>(doc.getFieldValues("author_dates")));
+
+        doc = index(indexer, otherRecord());
+        assertEquals(Arrays.<Object>asList("only a subtitle"), new ArrayList<Object>(doc.getFieldValues("title_display")));
+        assertEquals(Arrays.<Object>asList("Acme Corp"), new ArrayList<Object>(doc.getFieldValues("author_display")));
+    }
+
+    @Test
+    public void testMarcErrors()
+    {
+        Indexer indexer = new Indexer(indexers, null);
+        Record record = IndexingFixture.sampleRecord();
+        record.addError("245", "a", MarcError.MINOR_ERROR, "Subfield a has a trailing slash");
+        record.addError("650", "z", MarcError.ERROR_TYPO, "Subfield z has a trailing period");
+        SolrInputDocument doc = index(indexer, record);
+        assertEquals(2, doc.getFieldValues("marc_error").size());
+
+        // the failing specification's error comes before the record's own errors
+        record = otherRecord();
+        record.addError("245", "b", MarcError.MINOR_ERROR, "Subfield b has no subfield a");
+        doc = index(indexer, record);
+        List<Object> errors = new ArrayList<Object>(doc.getFieldValues("marc_error"));
+        assertEquals(2, errors.size());
+        assertEquals("[publisher_display] no publisher in rec002", errors.get(0));
+        assertTrue(errors.get(1).toString().contains("Subfield b has no subfield a"));
+
+        // specifications that add unique values to marc_error see the errors added before them
+        record = otherRecord();
+        record.addVariableField(field("500", ' ', ' ', "a", "Local note"));
+        record.addVariableField(field("590", ' ', ' ', "a", "Local note", "a", "[publisher_display] no publisher in rec002", "a", "Other note"));
+        doc = index(indexer, record);
+        assertEquals(Arrays.<Object>asList("Local note", "[publisher_display] no publisher in rec002", "Other note"), new ArrayList<Object>(doc.getFieldValues("marc_error")));
+    }
+
+    @Test
+    public void testReuseForAnotherRecord()
+    {
+        Indexer indexer = new Indexer(indexers, null);
+        SolrInputDocument first = index(indexer, IndexingFixture.sampleRecord());
+        assertEquals("Pub", first.getFieldValue("publisher_display"));
+
+        // nothing of the first record's document, nor of the values seen for its unique fields, is left over
+        SolrInputDocument second = index(indexer, otherRecord());
+        assertFalse(second.containsKey("topic_facet"));
+        assertFalse(second.containsKey("publisher_display"));
+        assertEquals(Arrays.<Object>asList("Doe, Jane"), new ArrayList<Object>(second.getFieldValues("subject_facet")));
+        assertFalse(first.containsKey("marc_error"));
+        assertEquals(1, second.getFieldValues("marc_error").size());
+
+        // sets grown for a large record, and the record after it
+        SolrInputDocument large = index(indexer, manySubjects(5000));
+        assertEquals(5000, large.getFieldValues("subject_facet").size());
+        assertEquals(5000, large.getFieldValues("topic_facet").size());
+        index(indexer, manySubjects(20));
+        SolrInputDocument again = index(indexer, IndexingFixture.sampleRecord());
+        checkSameDocument(first, again);
+    }
+}
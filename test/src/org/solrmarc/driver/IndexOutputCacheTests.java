@@ -0,0 +1,219 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.ValueIndexerFactory;
+import org.solrmarc.solr.SolrProxy;
+
+public class IndexOutputCacheTests
+{
+    private final static String[] specs = {
+            "id = 001, first",
+            "title_display = 245a, clean"
+    };
+    private static ValueIndexerFactory factory = IndexingFixture.factory();
+    private File cacheDir;
+    private File cacheFile;
+
+    /**
+     * Notes the ids of the documents added and deleted, rather than sending them anywhere.
+     */
+    private static class RecordingSolrProxy extends SolrProxy
+    {
+        final List<String> added = new ArrayList<String>();
+        final List<String> deleted = new ArrayList<String>();
+
+        @Override
+        public int addDoc(SolrInputDocument document)
+        {
+            added.add(document.getFieldValue("id").toString());
+            return(1);
+        }
+
+        @Override
+        public int addDocs(Collection<SolrInputDocument> docQ)
+        {
+            for (SolrInputDocument document : docQ)
+            {
+                addDoc(document);
+            }
+            return(docQ.size());
+        }
+
+        @Override
+        public void delete(String id)
+        {
+            deleted.add(id);
+        }
+
+        @Override
+        public void commit(boolean optimize)
+        {
+        }
+
+        @Override
+        public QueryResponse query(SolrQuery params)
+        {
+            return(null);
+        }
+    }
+
+    private static MarcReader readerFor(List<Record> records)
+    {
+        final Iterator<Record> iter = records.iterator();
+        return new MarcReader()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return(iter.hasNext());
+            }
+
+            @Override
+            public Record next()
+            {
+                return(iter.next());
+            }
+        };
+    }
+
+    @Before
+    public void setUp() throws Exception
+    {
+        cacheDir = Files.createTempDirectory("solrmarc_output_cache").toFile();
+        cacheFile = new File(cacheDir, "output.cache");
+        System.setProperty("solrmarc.output.cache", cacheFile.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty("solrmarc.output.cache");
+        for (File file : cacheDir.listFiles())
+        {
+            file.delete();
+        }
+        cacheDir.delete();
+    }
+
+    /**
+     * Indexes the records as a run of the indexer would, first queueing the given ids for deletion.
+     *
+     * @return the ids of the documents sent to Solr
+     */
+    private static RecordingSolrProxy index(List<Record> records, List<String> delQ, File deleteIdsFile) throws Exception
+    {
+        List<AbstractValueIndexer<?>> indexers = factory.createValueIndexers(specs);
+        RecordingSolrProxy solrProxy = new RecordingSolrProxy();
+        Indexer indexer = new Indexer(indexers, solrProxy);
+        indexer.delQ.addAll(delQ);
+        if (deleteIdsFile != null) indexer.setDeleteIdsFile(deleteIdsFile);
+        indexer.indexToSolr(readerFor(records));
+        indexer.endProcessing();
+        return(solrProxy);
+    }
+
+    private static List<Record> records() throws Exception
+    {
+        return(IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS));
+    }
+
+    private static List<String> noIds()
+    {
+        return(new ArrayList<String>());
+    }
+
+    /**
+     * Records the permissive reader had to correct are only indexed when marc.include_errors is set, so
+     * the records used for a test are chosen from those that were sent by the first run.
+     */
+    private static Record sentRecord(List<Record> records, List<String> sent, int which)
+    {
+        for (Record record : records)
+        {
+            if (sent.contains(record.getControlNumber()) && which-- == 0) return(record);
+        }
+        throw new IllegalStateException("not enough test records were sent");
+    }
+
+    @Test
+    public void testUnchangedRecordsAreSkipped() throws Exception
+    {
+        assertTrue(index(records(), noIds(), null).added.size() > 0);
+        assertTrue(cacheFile.exists());
+
+        // a new run reads the saved cache, and has nothing to send
+        assertEquals(0, index(records(), noIds(), null).added.size());
+    }
+
+    @Test
+    public void testChangedRecordsAreResent() throws Exception
+    {
+        List<String> sent = index(records(), noIds(), null).added;
+
+        // a change to an indexed field produces a different document, which is sent
+        List<Record> records = records();
+        Record changed = sentRecord(records, sent, 0);
+        ((DataField) changed.getVariableField("245")).getSubfield('a').setData("A different title");
+        List<String> added = index(records, noIds(), null).added;
+        assertEquals(1, added.size());
+        assertEquals(changed.getControlNumber(), added.get(0));
+
+        // a change to a field that isn't indexed produces the same document, which isn't sent again
+        records = records();
+        changed = sentRecord(records, sent, 0);
+        ((DataField) changed.getVariableField("245")).getSubfield('a').setData("A different title");
+        MarcFactory marcFactory = MarcFactory.newInstance();
+        DataField note = marcFactory.newDataField("500", ' ', ' ');
+        note.addSubfield(marcFactory.newSubfield('a', "A note that isn't indexed"));
+        changed.addVariableField(note);
+        assertEquals(0, index(records, noIds(), null).added.size());
+    }
+
+    @Test
+    public void testDeletedRecordsAreResent() throws Exception
+    {
+        List<Record> records = records();
+        List<String> sent = index(records, noIds(), null).added;
+        String queuedId = sentRecord(records, sent, 0).getControlNumber();
+        String listedId = sentRecord(records, sent, 1).getControlNumber();
+
+        // one record is deleted from the delQ, as a record that is marked as deleted would be, the other from a file of ids
+        File deleteIdsFile = new File(cacheDir, "delete.ids");
+        Writer writer = new FileWriter(deleteIdsFile);
+        writer.write(listedId + "\n");
+        writer.close();
+        List<String> delQ = noIds();
+        delQ.add(queuedId);
+        RecordingSolrProxy solrProxy = index(new ArrayList<Record>(), delQ, deleteIdsFile);
+        assertEquals(2, solrProxy.deleted.size());
+
+        // when the deleted records come back unchanged they must be sent again
+        List<String> added = index(records(), noIds(), null).added;
+        assertEquals(2, added.size());
+        assertTrue(added.contains(queuedId));
+        assertTrue(added.contains(listedId));
+    }
+}
@@ -0,0 +1,327 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.ValueIndexerFactory;
+import org.solrmarc.solr.SolrProxy;
+import org.solrmarc.solr.SolrRuntimeException;
+
+public class PartialReindexTests
+{
+    private final static String TEST_DATA = System.getProperty("test.data.dir", "test/data");
+    private final static String[] specs = {
+            "id = 001, first",
+            "title_display = 245a, clean",
+            "language_facet = 008[35-37], fp_language_map.properties",
+            "first_date_text = script(fp_getdate.bsh) getFirstDate",
+            "format_facet = custom(org.solrmarc.mixin.GetFormatMixin), getContentTypesAndMediaTypes, getformat_mixin_map.properties",
+            "subject_facet = 650a, clean",
+            "topic_facet = 650a, clean"
+    };
+    private File homeDir;
+    private File mapFile;
+    private File scriptFile;
+    private File fingerprintFile;
+    private ValueIndexerFactory factory;
+    private List<AbstractValueIndexer<?>> indexers;
+
+    /**
+     * Keeps the documents sent to it, and fails to add those with the given ids.
+     */
+    private static class FailingSolrProxy extends SolrProxy
+    {
+        final List<SolrInputDocument> added = new ArrayList<SolrInputDocument>();
+        final Set<String> failIds;
+
+        FailingSolrProxy(String... failIds)
+        {
+            this.failIds = new LinkedHashSet<String>(Arrays.asList(failIds));
+        }
+
+        @Override
+        public int addDoc(SolrInputDocument document)
+        {
+            if (failIds.contains(document.getFieldValue("id").toString()))
+            {
+                throw new SolrRuntimeException("document " + document.getFieldValue("id") + " doesn't exist");
+            }
+            added.add(document);
+            return(1);
+        }
+
+        @Override
+        public int addDocs(Collection<SolrInputDocument> docQ)
+        {
+            for (SolrInputDocument document : docQ)
+            {
+                addDoc(document);
+            }
+            return(docQ.size());
+        }
+
+        @Override
+        public void delete(String id)
+        {
+        }
+
+        @Override
+        public void commit(boolean optimize)
+        {
+        }
+
+        @Override
+        public QueryResponse query(SolrQuery params)
+        {
+            return(null);
+        }
+    }
+
+    private static MarcReader readerFor(List<Record> records)
+    {
+        final Iterator<Record> iter = records.iterator();
+        return new MarcReader()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return(iter.hasNext());
+            }
+
+            @Override
+            public Record next()
+            {
+                return(iter.next());
+            }
+        };
+    }
+
+    @Before
+    public void setUp() throws Exception
+    {
+        homeDir = Files.createTempDirectory("solrmarc_fingerprints").toFile();
+        new File(homeDir, "translation_maps").mkdir();
+        new File(homeDir, "index_scripts").mkdir();
+        mapFile = new File(homeDir, "translation_maps/fp_language_map.properties");
+        scriptFile = new File(homeDir, "index_scripts/fp_getdate.bsh");
+        Files.copy(new File(TEST_DATA, "translation_maps/language_map.properties").toPath(), mapFile.toPath());
+        Files.copy(new File(TEST_DATA, "index_scripts/getdate.bsh").toPath(), scriptFile.toPath());
+        fingerprintFile = new File(homeDir, "fingerprints.properties");
+        factory = ValueIndexerFactory.initialize(new String[] { homeDir.getAbsolutePath(), TEST_DATA });
+        indexers = factory.createValueIndexers(specs);
+    }
+
+    @After
+    public void tearDown()
+    {
+        for (File dir : homeDir.listFiles())
+        {
+            if (dir.isDirectory())
+            {
+                for (File file : dir.listFiles())
+                {
+                    file.delete();
+                }
+            }
+            dir.delete();
+        }
+        homeDir.delete();
+        // leave the shared factory set up for the test data directory alone
+        IndexingFixture.factory();
+    }
+
+    private static void append(File file, String text) throws Exception
+    {
+        Writer writer = new FileWriter(file, true);
+        writer.write(text);
+        writer.close();
+    }
+
+    private Set<String> changedFields() throws Exception
+    {
+        Set<String> changedFields = new TreeSet<String>();
+        List<AbstractValueIndexer<?>> changed = factory.getChangedValueIndexers(indexers, fingerprintFile, "id", changedFields);
+        if (changed != null)
+        {
+            // the id indexer is always run, along with the indexers for the changed fields
+            assertTrue(changed.contains(indexers.get(0)));
+            for (AbstractValueIndexer<?> indexer : indexers)
+            {
+                assertEquals(indexer.getSpecLabel(), indexer == indexers.get(0) || !Collections.disjoint(indexer.getSolrFieldNames(), changedFields),
+                             changed.contains(indexer));
+            }
+        }
+        return(changedFields);
+    }
+
+    @Test
+    public void testUnchangedSpecifications() throws Exception
+    {
+        assertNull(factory.getChangedValueIndexers(indexers, fingerprintFile, "id", new TreeSet<String>()));
+        factory.saveFingerprints(indexers, fingerprintFile);
+        assertTrue(fingerprintFile.exists());
+        assertEquals(Collections.emptySet(), changedFields());
+        assertEquals(factory.fingerprintValueIndexers(indexers), factory.fingerprintValueIndexers(factory.createValueIndexers(specs)));
+        assertEquals(specs.length, factory.fingerprintValueIndexers(indexers).size());
+    }
+
+    @Test
+    public void testChangedReferencedFiles() throws Exception
+    {
+        factory.saveFingerprints(indexers, fingerprintFile);
+        Map<String, String> before = factory.fingerprintValueIndexers(indexers);
+
+        append(mapFile, "\nzzz = Invented language\n");
+        assertEquals(new TreeSet<String>(Arrays.asList("language_facet")), changedFields());
+        Map<String, String> afterMap = factory.fingerprintValueIndexers(indexers);
+        assertNotEquals(before.get("language_facet"), afterMap.get("language_facet"));
+        assertEquals(before.get("first_date_text"), afterMap.get("first_date_text"));
+
+        append(scriptFile, "\n// a comment is still a change to the script\n");
+        assertEquals(new TreeSet<String>(Arrays.asList("first_date_text", "language_facet")), changedFields());
+
+        factory.saveFingerprints(indexers, fingerprintFile);
+        assertEquals(Collections.emptySet(), changedFields());
+    }
+
+    @Test
+    public void testChangedAndSharedFields() throws Exception
+    {
+        factory.saveFingerprints(indexers, fingerprintFile);
+        String[] changedSpecs = specs.clone();
+        changedSpecs[5] = "subject_facet = 650ax, clean";
+        indexers = factory.createValueIndexers(changedSpecs);
+        assertEquals(new TreeSet<String>(Arrays.asList("subject_facet")), changedFields());
+
+        // a field that no specification produces any more is changed too, so that it is removed
+        indexers = factory.createValueIndexers(Arrays.copyOf(specs, 5));
+        assertEquals(new TreeSet<String>(Arrays.asList("subject_facet", "topic_facet")), changedFields());
+    }
+
+    @Test
+    public void testMapInEarlierHomeDirectory() throws Exception
+    {
+        factory.saveFingerprints(indexers, fingerprintFile);
+        // a copy of the map in the first home directory is the one used, so its contents are the ones fingerprinted
+        File formatMap = new File(homeDir, "translation_maps/getformat_mixin_map.properties");
+        Files.copy(new File(TEST_DATA, "translation_maps/getformat_mixin_map.properties").toPath(), formatMap.toPath());
+        assertEquals(Collections.emptySet(), changedFields());
+        append(formatMap, "\nzzz = Invented format\n");
+        assertEquals(new TreeSet<String>(Arrays.asList("format_facet")), changedFields());
+    }
+
+    @Test
+    public void testAtomicUpdateDocument() throws Exception
+    {
+        Indexer indexer = new Indexer(indexers, new FailingSolrProxy());
+        indexer.setAtomicUpdate("id", new LinkedHashSet<String>(Arrays.asList("title_display", "subject_facet")));
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField("id", "u1");
+        doc.addField("title_display", "A title");
+        doc.addField("topic_facet", "First topic");
+        doc.addField("topic_facet", "Second topic");
+
+        SolrInputDocument update = indexer.makeAtomicUpdate(doc);
+        assertEquals(Arrays.asList("id", "_version_", "title_display", "subject_facet", "topic_facet"), new ArrayList<String>(update.getFieldNames()));
+        assertEquals("u1", update.getFieldValue("id"));
+        // a positive version makes the update fail for a document that isn't in the index, rather than create it
+        assertEquals(Long.valueOf(1L), update.getFieldValue("_version_"));
+        assertEquals(Collections.singletonMap("set", Arrays.asList("A title")), update.getFieldValue("title_display"));
+        // a field with no values is removed from the document
+        Map<?, ?> subjects = (Map<?, ?>)update.getFieldValue("subject_facet");
+        assertEquals(Collections.singleton("set"), subjects.keySet());
+        assertNull(subjects.get("set"));
+        assertEquals(Collections.singletonMap("set", Arrays.asList("First topic", "Second topic")), update.getFieldValue("topic_facet"));
+    }
+
+    private IndexDriver driverFor(Indexer indexer)
+    {
+        IndexDriver driver = new IndexDriver(new String[0]);
+        driver.indexerFactory = factory;
+        driver.indexers = indexers;
+        driver.fingerprintFile = fingerprintFile;
+        driver.indexer = indexer;
+        return(driver);
+    }
+
+    @Test
+    public void testFingerprintsNotSavedAfterFailedUpdate() throws Exception
+    {
+        List<Record> records = IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS);
+        FailingSolrProxy solrProxy = new FailingSolrProxy();
+        new Indexer(indexers, solrProxy).indexToSolr(readerFor(records));
+        String firstSentId = solrProxy.added.get(0).getFieldValue("id").toString();
+
+        solrProxy = new FailingSolrProxy(firstSentId);
+        Indexer indexer = new Indexer(indexers, solrProxy);
+        indexer.setAtomicUpdate("id", new LinkedHashSet<String>(Arrays.asList("title_display")));
+        int[] cnts = indexer.indexToSolr(readerFor(records));
+        assertEquals(cnts[2], solrProxy.added.size());
+        assertEquals(1, indexer.getSendFailedCount());
+        // the copies made for other threads count their failures in the same place
+        indexer.makeThreadSafeCopy().sendFailedCnt.incrementAndGet();
+        assertEquals(2, indexer.getSendFailedCount());
+
+        driverFor(indexer).saveFingerprints();
+        assertFalse(fingerprintFile.exists());
+    }
+
+    @Test
+    public void testFingerprintsSaved() throws Exception
+    {
+        // records returned as errors, though their documents were sent, don't stop the fingerprints being saved
+        List<Record> records = IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS);
+        FailingSolrProxy solrProxy = new FailingSolrProxy();
+        Indexer indexer = new Indexer(indexers, solrProxy);
+        indexer.setErr(Indexer.eErrorHandleVal.RETURN_ERROR_RECORDS);
+        indexer.setErr(Indexer.eErrorHandleVal.INDEX_ERROR_RECORDS);
+        indexer.setAtomicUpdate("id", new LinkedHashSet<String>(Arrays.asList("title_display")));
+        int[] cnts = indexer.indexToSolr(readerFor(records));
+        assertEquals(records.size(), cnts[2]);
+        assertEquals(records.size(), solrProxy.added.size());
+        assertFalse(indexer.errQ.isEmpty());
+        assertEquals(0, indexer.getSendFailedCount());
+
+        driverFor(indexer).saveFingerprints();
+        assertTrue(fingerprintFile.exists());
+        assertEquals(Collections.emptySet(), changedFields());
+
+        // a failure in a full rather than a partial run doesn't stop them being saved either
+        assertTrue(fingerprintFile.delete());
+        String firstSentId = solrProxy.added.get(0).getFieldValue("id").toString();
+        indexer = new Indexer(indexers, new FailingSolrProxy(firstSentId));
+        indexer.setErr(Indexer.eErrorHandleVal.INDEX_ERROR_RECORDS);
+        indexer.indexToSolr(readerFor(records));
+        assertEquals(1, indexer.getSendFailedCount());
+        driverFor(indexer).saveFingerprints();
+        assertTrue(fingerprintFile.exists());
+    }
+}
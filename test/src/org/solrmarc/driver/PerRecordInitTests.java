@@ -0,0 +1,91 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.ValueIndexerFactory;
+
+public class PerRecordInitTests
+{
+    private final static String[] specs = {
+            "init_id = custom, getPerRecordInitId",
+            "init_count = custom, getPerRecordInitCount",
+            "title_display = 245a, clean",
+            "init_count_again = custom, getPerRecordInitCount"
+    };
+    private final static int NUM_THREADS = 8;
+    private final static int NUM_PASSES = 10;
+    private static ValueIndexerFactory factory = IndexingFixture.factory();
+
+    /**
+     * Indexes each record twice in a row, checking that the mixin was initialized exactly once for each time the
+     * record was indexed, however many of its methods are called, and that it was initialized for that record.
+     *
+     * @return the number of times the record was indexed
+     */
+    private static int indexAndCheck(Indexer indexer, List<Record> records, int passes) throws Exception
+    {
+        int indexed = 0;
+        for (int pass = 0; pass < passes; pass++)
+        {
+            for (Record record : records)
+            {
+                for (int i = 0; i < 2; i++)
+                {
+                    SolrInputDocument doc = indexer.indexToSolrDoc(record).getDoc();
+                    indexed++;
+                    String expectedCount = String.valueOf(indexed);
+                    assertEquals(String.valueOf(record.getControlNumber()), doc.getFieldValue("init_id"));
+                    assertEquals(expectedCount, doc.getFieldValue("init_count"));
+                    assertEquals(expectedCount, doc.getFieldValue("init_count_again"));
+                }
+            }
+        }
+        return(indexed);
+    }
+
+    @Test
+    public void testPerRecordInitConcurrent() throws Exception
+    {
+        List<AbstractValueIndexer<?>> indexers = factory.createValueIndexers(specs);
+        final List<Record> records = IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS);
+        final Indexer mainIndexer = new Indexer(indexers, null);
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try
+        {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < NUM_THREADS; t++)
+            {
+                results.add(executor.submit(new Callable<Integer>()
+                {
+                    @Override
+                    public Integer call() throws Exception
+                    {
+                        // as in IndexerWorker, each thread makes its own copy, with its own instance of the mixin
+                        Indexer indexer = mainIndexer.makeThreadSafeCopy();
+                        return(indexAndCheck(indexer, records, NUM_PASSES));
+                    }
+                }));
+            }
+            for (Future<Integer> result : results)
+            {
+                assertEquals(Integer.valueOf(records.size() * 2 * NUM_PASSES), result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
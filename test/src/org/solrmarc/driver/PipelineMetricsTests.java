@@ -0,0 +1,220 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PipelineMetricsTests
+{
+    /**
+     * Keeps the messages logged to it.
+     */
+    private static class RecordingAppender extends AppenderSkeleton
+    {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        protected void append(LoggingEvent event)
+        {
+            messages.add(event.getRenderedMessage());
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public boolean requiresLayout()
+        {
+            return false;
+        }
+    }
+
+    private AtomicInteger cnts[];
+    private ArrayBlockingQueue<Object> readQ;
+    private ArrayBlockingQueue<Object> docQ;
+    private ThreadPoolExecutor solrExecutor;
+    private PipelineMetrics metrics;
+
+    @Before
+    public void setUp()
+    {
+        cnts = new AtomicInteger[]{ new AtomicInteger(0), new AtomicInteger(0), new AtomicInteger(0)};
+        readQ = new ArrayBlockingQueue<Object>(10);
+        docQ = new ArrayBlockingQueue<Object>(10);
+        solrExecutor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        metrics = new PipelineMetrics(cnts, readQ, docQ, solrExecutor);
+    }
+
+    @After
+    public void tearDown()
+    {
+        metrics.stop();
+        solrExecutor.shutdownNow();
+        System.clearProperty("solrmarc.metrics.interval");
+    }
+
+    private void recordLatencies(int count, long millis)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            metrics.recordChunkLatency(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    /**
+     * The latencies are counted in buckets a quarter of a power of two wide, and a percentile is reported as the
+     * upper bound of the bucket it falls in, so it may be up to a quarter more than the latency recorded.
+     */
+    private static void assertLatency(long expectedMillis, long actualMillis)
+    {
+        assertTrue("expected about " + expectedMillis + " ms, got " + actualMillis,
+                   actualMillis >= expectedMillis && actualMillis <= expectedMillis * 5 / 4);
+    }
+
+    @Test
+    public void testLatencyPercentiles()
+    {
+        assertEquals(0L, metrics.getChunkLatencyP50Millis());
+        assertEquals(0L, metrics.getChunkLatencyP99Millis());
+        recordLatencies(90, 10);
+        recordLatencies(5, 100);
+        recordLatencies(4, 1000);
+        recordLatencies(1, 30000);
+        assertEquals(100, metrics.getChunksSent());
+        assertLatency(10, metrics.getChunkLatencyP50Millis());
+        assertLatency(100, metrics.getChunkLatencyP95Millis());
+        assertLatency(1000, metrics.getChunkLatencyP99Millis());
+
+        // once half of the chunks are slow, so is the median
+        recordLatencies(100, 30000);
+        assertEquals(200, metrics.getChunksSent());
+        assertLatency(30000, metrics.getChunkLatencyP50Millis());
+        assertLatency(30000, metrics.getChunkLatencyP95Millis());
+    }
+
+    @Test
+    public void testSubMillisecondLatencies()
+    {
+        metrics.recordChunkLatency(500L);
+        metrics.recordChunkLatency(TimeUnit.MICROSECONDS.toNanos(3));
+        metrics.recordChunkLatency(TimeUnit.MICROSECONDS.toNanos(900));
+        assertEquals(3, metrics.getChunksSent());
+        assertEquals(0L, metrics.getChunkLatencyP50Millis());
+        // 900 microseconds falls in the bucket that ends at 1023
+        assertEquals(1L, metrics.getChunkLatencyP99Millis());
+    }
+
+    @Test
+    public void testCountersAndQueues() throws Exception
+    {
+        metrics.start();
+        cnts[0].set(30);
+        cnts[1].set(20);
+        cnts[2].set(10);
+        readQ.add("r1");
+        readQ.add("r2");
+        docQ.add("d1");
+        metrics.recordDocQueueBlocked(TimeUnit.MILLISECONDS.toNanos(250));
+        metrics.recordDocQueueBlocked(TimeUnit.MILLISECONDS.toNanos(500));
+        Thread.sleep(50);
+
+        assertEquals(30, metrics.getRecordsRead());
+        assertEquals(20, metrics.getRecordsIndexed());
+        assertEquals(10, metrics.getRecordsSent());
+        assertTrue(metrics.getReadRate() > metrics.getIndexRate());
+        assertTrue(metrics.getIndexRate() > metrics.getSendRate());
+        assertTrue(metrics.getSendRate() > 0.0);
+        // at least 50 ms have passed, so no more than 10 records in 50 ms
+        assertTrue(metrics.getSendRate() <= 200.0);
+        assertEquals(2, metrics.getReadQueueDepth());
+        assertEquals(1, metrics.getDocQueueDepth());
+        assertEquals(0, metrics.getSolrQueueDepth());
+        assertEquals(750L, metrics.getDocQueueBlockedMillis());
+    }
+
+    @Test
+    public void testJmxRegistration() throws Exception
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.solrmarc:type=PipelineMetrics");
+        assertFalse(server.isRegistered(name));
+        metrics.start();
+        assertTrue(server.isRegistered(name));
+        cnts[2].set(42);
+        recordLatencies(3, 10);
+        assertEquals(42, server.getAttribute(name, "RecordsSent"));
+        assertEquals(3L, server.getAttribute(name, "ChunksSent"));
+
+        // a second run while the first is registered doesn't replace it, or unregister it when stopped
+        PipelineMetrics second = new PipelineMetrics(cnts, readQ, docQ, solrExecutor);
+        second.start();
+        second.stop();
+        assertTrue(server.isRegistered(name));
+        assertEquals(3L, server.getAttribute(name, "ChunksSent"));
+
+        metrics.stop();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testPeriodicLogging() throws Exception
+    {
+        Logger logger = Logger.getLogger(PipelineMetrics.class);
+        Level level = logger.getLevel();
+        RecordingAppender appender = new RecordingAppender();
+        logger.addAppender(appender);
+        logger.setLevel(Level.INFO);
+        try
+        {
+            System.setProperty("solrmarc.metrics.interval", "1");
+            metrics = new PipelineMetrics(cnts, readQ, docQ, solrExecutor);
+            metrics.start();
+            cnts[0].set(5);
+            docQ.add("d1");
+            recordLatencies(1, 10);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (appender.messages.isEmpty() && System.nanoTime() < deadline)
+            {
+                Thread.sleep(50);
+            }
+            assertEquals(1, appender.messages.size());
+            String line = appender.messages.get(0);
+            assertTrue(line, line.startsWith("Pipeline: read "));
+            assertTrue(line, line.contains("| readQ 0, docQ 1, solrQ 0 |"));
+            assertTrue(line, line.contains("chunk latency p50 10 ms, p95 10 ms, p99 10 ms"));
+
+            // stopping logs the metrics for the whole run
+            metrics.stop();
+            assertEquals(2, appender.messages.size());
+            assertTrue(appender.messages.get(1).startsWith("Pipeline: read "));
+        }
+        finally
+        {
+            logger.removeAppender(appender);
+            logger.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.Test;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.ValueIndexerFactory;
+
+public class ScriptThreadingTests
+{
+    private final static String[] specs = {
+            "id = 001, first",
+            "call_state = script(CallState.bsh), getCallState",
+            "owner = script(CallState.bsh), getInterpreterOwner",
+            "pub_date = script(getdate.bsh), getDate"
+    };
+    private final static int NUM_THREADS = 8;
+    private static ValueIndexerFactory factory = IndexingFixture.factory();
+
+    /**
+     * Indexes the records with an indexer whose interpreter hasn't been used before, checking that no other thread
+     * has used the interpreter, and that the state kept in it counts only this thread's calls.
+     *
+     * @return the documents produced for the records, as strings
+     */
+    private static List<String> index(Indexer indexer, List<Record> records) throws Exception
+    {
+        List<String> docs = new ArrayList<String>();
+        for (Record record : records)
+        {
+            SolrInputDocument doc = indexer.indexToSolrDoc(record).getDoc();
+            docs.add(doc.toString());
+            assertEquals("own", doc.getFieldValue("owner"));
+            assertEquals(docs.size() + " " + record.getControlNumber(), doc.getFieldValue("call_state"));
+        }
+        return(docs);
+    }
+
+    @Test
+    public void testEachThreadHasItsOwnInterpreter() throws Exception
+    {
+        System.clearProperty("solrmarc.indexer.compiled.scripts");
+        List<AbstractValueIndexer<?>> indexers = factory.createValueIndexers(specs);
+        final List<Record> records = IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS);
+        final Indexer mainIndexer = new Indexer(indexers, null);
+
+        // the interpreter of each new thread starts from the same state as this thread's, so gives the same results
+        List<String> expected = index(mainIndexer, records);
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try
+        {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+            for (int t = 0; t < NUM_THREADS; t++)
+            {
+                results.add(executor.submit(new Callable<List<String>>()
+                {
+                    @Override
+                    public List<String> call() throws Exception
+                    {
+                        // as in IndexerWorker, each thread makes its own copy, which finds its own interpreter
+                        Indexer indexer = mainIndexer.makeThreadSafeCopy();
+                        start.await();
+                        return(index(indexer, records));
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<List<String>> result : results)
+            {
+                assertEquals(expected, result.get());
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.solrmarc.driver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.solr.SolrProxy;
+import org.solrmarc.solr.SolrRuntimeException;
+
+public class ThreadedIndexerTests
+{
+    /**
+     * Holds every request until it is opened, then notes the ids of the documents added, rejecting any request
+     * containing a document whose title is "bad".
+     */
+    private static class GatedSolrProxy extends SolrProxy
+    {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final Set<String> added = Collections.synchronizedSet(new HashSet<String>());
+
+        @Override
+        public int addDocs(Collection<SolrInputDocument> docQ)
+        {
+            try
+            {
+                gate.await();
+            }
+            catch (InterruptedException e)
+            {
+                throw new SolrRuntimeException("Interrupted", e);
+            }
+            for (SolrInputDocument doc : docQ)
+            {
+                if ("bad".equals(doc.getFieldValue("title")))
+                {
+                    throw new SolrRuntimeException("Document " + doc.getFieldValue("id") + " was rejected");
+                }
+            }
+            for (SolrInputDocument doc : docQ)
+            {
+                added.add(doc.getFieldValue("id").toString());
+            }
+            return(docQ.size());
+        }
+
+        @Override
+        public int addDoc(SolrInputDocument document)
+        {
+            return(addDocs(Collections.singletonList(document)));
+        }
+
+        @Override
+        public void delete(String id)
+        {
+        }
+
+        @Override
+        public void commit(boolean optimize)
+        {
+        }
+
+        @Override
+        public QueryResponse query(SolrQuery params)
+        {
+            return(null);
+        }
+    }
+
+    private GatedSolrProxy solrProxy;
+    private ThreadedIndexer indexer;
+
+    @Before
+    public void setUp()
+    {
+        System.setProperty("solrmarc.solrj.threadcount", "1");
+        System.setProperty("solrmarc.solrj.inflight", "2");
+        solrProxy = new GatedSolrProxy();
+        indexer = new ThreadedIndexer(new ArrayList<AbstractValueIndexer<?>>(), solrProxy, 10, 10);
+    }
+
+    @After
+    public void tearDown()
+    {
+        solrProxy.gate.countDown();
+        indexer.solrExecutor.shutdown();
+        indexer.isolationExecutor.shutdown();
+        System.clearProperty("solrmarc.solrj.threadcount");
+        System.clearProperty("solrmarc.solrj.inflight");
+    }
+
+    private static List<RecordAndDoc> chunk(String prefix, int size, int... badIndexes)
+    {
+        MarcFactory factory = MarcFactory.newInstance();
+        List<RecordAndDoc> chunk = new ArrayList<RecordAndDoc>();
+        for (int i = 0; i < size; i++)
+        {
+            Record record = factory.newRecord();
+            record.addVariableField(factory.newControlField("001", prefix + i));
+            RecordAndDoc recDoc = new RecordAndDoc(record);
+            SolrInputDocument doc = new SolrInputDocument();
+            doc.addField("id", prefix + i);
+            doc.addField("title", "good");
+            recDoc.setDoc(doc);
+            chunk.add(recDoc);
+        }
+        for (int bad : badIndexes)
+        {
+            chunk.get(bad).getDoc().setField("title", "bad");
+        }
+        return(chunk);
+    }
+
+    @Test(timeout = 10000)
+    public void testChunksInFlightAreBounded() throws Exception
+    {
+        final List<Future<?>> futures = Collections.synchronizedList(new ArrayList<Future<?>>());
+        futures.add(indexer.submitChunk(chunk("u", 3)));
+        futures.add(indexer.submitChunk(chunk("v", 3)));
+        final CountDownLatch submitted = new CountDownLatch(1);
+        Thread third = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                futures.add(indexer.submitChunk(chunk("w", 3)));
+                submitted.countDown();
+            }
+        };
+        third.start();
+        // the third chunk has to wait for one of the first two to finish
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        assertFalse(futures.get(0).isDone());
+
+        solrProxy.gate.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        third.join();
+        for (Future<?> future : futures)
+        {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(9, solrProxy.added.size());
+        assertEquals(9, indexer.getCounts()[2]);
+    }
+
+    @Test(timeout = 10000)
+    public void testFailedChunkCompletes() throws Exception
+    {
+        solrProxy.gate.countDown();
+        Future<?> future = indexer.submitChunk(chunk("u", 4, 2));
+        future.get(5, TimeUnit.SECONDS);
+        assertEquals(3, solrProxy.added.size());
+        assertEquals(3, indexer.getCounts()[2]);
+        assertEquals(1, indexer.getFailureIsolator().getKnownBadCount());
+
+        // the failed chunk's slot was released along with the others
+        for (int i = 0; i < 4; i++)
+        {
+            indexer.submitChunk(chunk("v" + i + "-", 2)).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(11, indexer.getCounts()[2]);
+    }
+}
@@ -0,0 +1,100 @@
+package org.solrmarc.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.ValueIndexerFactory;
+import org.solrmarc.marc.RecordFieldIndex;
+
+/**
+ * Simple micro-benchmark for the per-record field index.  It applies 120 index specifications to a synthetic
+ * record of 150 fields, first looking up each specification's fields by scanning the record as before, then
+ * through a RecordFieldIndex built once per record, and reports the number of specifications applied per second.
+ *
+ * Usage:  FieldIndexBenchmark [iterations]
+ */
+public class FieldIndexBenchmark
+{
+    private final static String[] dataTags = {
+            "020", "035", "040", "050", "082", "100", "245", "246", "250", "260", "264", "300", "336", "490",
+            "500", "504", "505", "520", "600", "610", "650", "651", "655", "700", "710", "830", "856", "880", "999"
+    };
+
+    public static void main(String[] args) throws Exception
+    {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+        String dataDir = System.getProperty("test.data.dir", "test/data");
+        ValueIndexerFactory factory = ValueIndexerFactory.initialize(new String[] { dataDir });
+        List<AbstractValueIndexer<?>> indexers = factory.createValueIndexers(makeSpecs(120));
+        Record record = makeRecord(150);
+
+        for (int round = 0; round < 3; round++)
+        {
+            long scanning = time(indexers, record, iterations, false);
+            long indexed = time(indexers, record, iterations, true);
+            long specs = (long)iterations * indexers.size();
+            System.out.println(String.format("round %d:  scanning %,10.0f specs/sec,  indexed %,10.0f specs/sec",
+                    round, specs * 1.0e9 / scanning, specs * 1.0e9 / indexed));
+        }
+    }
+
+    private static long time(List<AbstractValueIndexer<?>> indexers, Record record, int iterations, boolean useIndex) throws Exception
+    {
+        long values = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+        {
+            if (useIndex) RecordFieldIndex.index(record);
+            for (AbstractValueIndexer<?> indexer : indexers)
+            {
+                values += indexer.getFieldData(record).size();
+            }
+            if (useIndex) RecordFieldIndex.clear();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (values == 0) System.out.println("no values");
+        return(elapsed);
+    }
+
+    private static String[] makeSpecs(int num)
+    {
+        String[] specs = new String[num];
+        specs[0] = "id = 001, first";
+        for (int i = 1; i < num; i++)
+        {
+            String tag1 = dataTags[i % dataTags.length];
+            String tag2 = dataTags[(i * 7) % dataTags.length];
+            switch (i % 4)
+            {
+                case 0:  specs[i] = "field" + i + " = " + tag1 + "a";  break;
+                case 1:  specs[i] = "field" + i + " = " + tag1 + "abc:" + tag2 + "a, clean";  break;
+                case 2:  specs[i] = "field" + i + " = " + tag1 + "a ? (ind1 = 1)";  break;
+                default: specs[i] = "field" + i + " = 008[7-10]:" + tag1 + "ab, unique";  break;
+            }
+        }
+        return(specs);
+    }
+
+    private static Record makeRecord(int numFields)
+    {
+        MarcFactory factory = MarcFactory.newInstance();
+        Record record = factory.newRecord("00000cam a2200000 a 4500");
+        record.addVariableField(factory.newControlField("001", "u123456"));
+        record.addVariableField(factory.newControlField("005", "20160101000000.0"));
+        record.addVariableField(factory.newControlField("008", "160101s2016    vau           000 0 eng d"));
+        for (int i = 3; i < numFields; i++)
+        {
+            String tag = dataTags[(i * 11) % dataTags.length];
+            DataField df = factory.newDataField(tag, (i % 2 == 0) ? '1' : ' ', '0');
+            df.addSubfield(factory.newSubfield('a', "Value " + i + " for field " + tag));
+            df.addSubfield(factory.newSubfield('b', "Second value " + i));
+            df.addSubfield(factory.newSubfield('c', "Third value " + i + "."));
+            record.addVariableField(df);
+        }
+        return(record);
+    }
+}
@@ -0,0 +1,106 @@
+package org.solrmarc.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.marc4j.MarcPermissiveStreamReader;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.indexer.AbstractValueIndexer;
+import org.solrmarc.index.indexer.ValueIndexerFactory;
+
+/**
+ * The setup shared by the tests that build indexers from specifications and apply them to the test records.
+ */
+public final class IndexingFixture
+{
+    public final static String SPEC_TEST_RECORDS = "./test/data/records/specTestRecs.mrc";
+
+    private IndexingFixture()
+    {
+    }
+
+    /**
+     * @return the ValueIndexerFactory, initialized with the test data directory
+     */
+    public static ValueIndexerFactory factory()
+    {
+        return(ValueIndexerFactory.initialize(new String[]{System.getProperty("test.data.dir", "test/data")}));
+    }
+
+    private static DataField field(MarcFactory factory, String tag, char ind1, char ind2, String... codesAndData)
+    {
+        DataField field = factory.newDataField(tag, ind1, ind2);
+        for (int i = 0; i < codesAndData.length; i += 2)
+        {
+            field.addSubfield(factory.newSubfield(codesAndData[i].charAt(0), codesAndData[i + 1]));
+        }
+        return(field);
+    }
+
+    /**
+     * @return a small record whose contents are known, so that a test can state the exact values an index
+     *         specification produces for it
+     */
+    public static Record sampleRecord()
+    {
+        MarcFactory factory = MarcFactory.newInstance();
+        Record record = factory.newRecord("00000nam a2200000 a 4500");
+        record.addVariableField(factory.newControlField("001", "rec001"));
+        record.addVariableField(factory.newControlField("008", "850101m19851990nyu           000 0 eng d"));
+        record.addVariableField(field(factory, "100", '1', ' ', "a", "Smith, John,", "d", "1950-"));
+        record.addVariableField(field(factory, "245", '1', '4', "a", "The great title /", "b", "a subtitle.", "c", "by J. Smith."));
+        record.addVariableField(field(factory, "260", ' ', ' ', "a", "New York :", "b", "Pub,", "c", "c1985."));
+        record.addVariableField(field(factory, "600", '1', '0', "a", "Doe, Jane", "x", "Criticism."));
+        record.addVariableField(field(factory, "610", '2', '0', "a", "Acme Corp.", "x", "History."));
+        record.addVariableField(field(factory, "650", ' ', '0', "a", "Birds", "x", "Behavior."));
+        record.addVariableField(field(factory, "650", ' ', '7', "a", "Apples", "z", "Europe."));
+        record.addVariableField(field(factory, "650", ' ', '0', "a", "Art."));
+        return(record);
+    }
+
+    public static List<Record> readRecords(String filename) throws Exception
+    {
+        List<Record> records = new ArrayList<Record>();
+        InputStream input = new BufferedInputStream(new FileInputStream(filename));
+        MarcReader reader = new MarcPermissiveStreamReader(input, true, true);
+        while (reader.hasNext())
+        {
+            records.add(reader.next());
+        }
+        input.close();
+        return(records);
+    }
+
+    /**
+     * Checks that each of the lists of indexers produces the same values as the expected indexers, which were
+     * created from the same specifications, for every record.
+     */
+    @SafeVarargs
+    public static void assertSameFieldData(List<AbstractValueIndexer<?>> expected, List<Record> records, List<AbstractValueIndexer<?>>... actual) throws Exception
+    {
+        for (List<AbstractValueIndexer<?>> indexers : actual)
+        {
+            assertEquals(expected.size(), indexers.size());
+        }
+        for (Record record : records)
+        {
+            for (int i = 0; i < expected.size(); i++)
+            {
+                String expectedData = expected.get(i).getFieldData(record).toString();
+                for (List<AbstractValueIndexer<?>> indexers : actual)
+                {
+                    assertEquals(expected.get(i).getSpecLabel(), expectedData, indexers.get(i).getFieldData(record).toString());
+                }
+            }
+            ValueIndexerFactory.instance().doneWithRecord(record);
+        }
+    }
+}
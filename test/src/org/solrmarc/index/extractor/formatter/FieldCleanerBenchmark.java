@@ -0,0 +1,88 @@
+package org.solrmarc.index.extractor.formatter;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.marc4j.MarcPermissiveStreamReader;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
+import org.solrmarc.index.extractor.formatter.FieldFormatter.eCleanVal;
+import org.solrmarc.tools.DataUtil;
+
+/**
+ * Simple micro-benchmark for the cleaning options.  For each of the common combinations of options it cleans
+ * every subfield of the records in a file, first with DataUtil.cleanByVal as FieldFormatterBase did before, then
+ * with a FieldCleaner compiled for the options, and reports the number of values cleaned per second.
+ *
+ * Usage:  FieldCleanerBenchmark [iterations] [marc file]
+ */
+public class FieldCleanerBenchmark
+{
+    private final static String[] optionNames = { "clean", "stripAccent", "toLower", "stripPunct", "titleSortLower" };
+
+    public static void main(String[] args) throws Exception
+    {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 200;
+        String filename = (args.length > 1) ? args[1] : System.getProperty("test.data.dir", "test/data") + "/records/specTestRecs.mrc";
+        List<String> values = readValues(filename);
+        System.out.println(values.size() + " values from " + filename);
+
+        for (int round = 0; round < 3; round++)
+        {
+            System.out.println("round " + round + ":");
+            for (String optionName : optionNames)
+            {
+                EnumSet<eCleanVal> cleanVal = DataUtil.getCleanValForParam(optionName);
+                FieldCleaner cleaner = new FieldCleaner(cleanVal);
+                long byVal = time(values, iterations, cleanVal, null);
+                long fused = time(values, iterations, cleanVal, cleaner);
+                long cleaned = (long)iterations * values.size();
+                System.out.println(String.format("    %-15s cleanByVal %,12.0f values/sec,  single pass %,12.0f values/sec",
+                        optionName, cleaned * 1.0e9 / byVal, cleaned * 1.0e9 / fused));
+            }
+        }
+    }
+
+    private static long time(List<String> values, int iterations, EnumSet<eCleanVal> cleanVal, FieldCleaner cleaner)
+    {
+        long length = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+        {
+            for (String value : values)
+            {
+                String trimmed = value.trim();
+                length += (cleaner != null) ? cleaner.clean(trimmed).length() : DataUtil.cleanByVal(trimmed, cleanVal).length();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (length == 0) System.out.println("no values");
+        return(elapsed);
+    }
+
+    private static List<String> readValues(String filename) throws Exception
+    {
+        List<String> values = new ArrayList<String>();
+        InputStream input = new BufferedInputStream(new FileInputStream(filename));
+        MarcReader reader = new MarcPermissiveStreamReader(input, true, true);
+        while (reader.hasNext())
+        {
+            Record record = reader.next();
+            for (DataField df : record.getDataFields())
+            {
+                for (Subfield sf : df.getSubfields())
+                {
+                    values.add(sf.getData());
+                }
+            }
+        }
+        input.close();
+        return(values);
+    }
+}
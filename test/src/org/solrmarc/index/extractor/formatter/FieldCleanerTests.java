@@ -0,0 +1,150 @@
+package org.solrmarc.index.extractor.formatter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.marc4j.MarcPermissiveStreamReader;
+import org.marc4j.MarcReader;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
+import org.marc4j.marc.VariableField;
+import org.solrmarc.index.extractor.formatter.FieldFormatter.eCleanVal;
+import org.solrmarc.tools.DataUtil;
+
+public class FieldCleanerTests
+{
+    private final static String[] values = {
+            "", " ", ".", "[", "]", "[]", "[ ]", " [a] ", "[a", "a]", "[a]b]", "[[a]", "a [b] c",
+            "Smith, John, Jr.", "Smith, John, Sr.", "Jr.", "r.", "ab.", "a.", "éé.", "ñ.", "ab.;", "a , ; : /",
+            "Title /", "Title :", "Title ;  ,", "Title...", "Title?.", "éé.", "aé.", "áb.",
+            "  The Title of the Book : a subtitle / by Someone.  ", "[Die] Geschichte.", "Über die Ästhetik",
+            "Ça ira!", "Œuvres complètes", "Đorđe Ølsen", "Æsop's fables -- \"quoted\" -- ¿qué?", "en–dash — em‐dash",
+            "«guillemets» „quotes“", "İstanbul", "ǅungla", "ﬁnance", "straße", "ΑΣ ΣΑΣ", "a\tb\u000Bc",
+            "line\nbreak.", "carriage\rreturn:", "next\u0085line", "sep line", "U+1D11E 𝄞.",
+            "lone \uD834 surrogate.", "$5.00 + 10% = <more> | ~tilde~ ^caret^ `tick`", "___under_score__.",
+            "1234.", "12.", "(1990)", "p. 23-45.", "v. 1 ;", " nbsp ", "   ..,,;;::   "
+    };
+    private final static String alphabet = " .,;:/[]-JSra1_éǘ̧̀ÆøĐ–¿«\t$~'\"";
+
+    private static List<EnumSet<eCleanVal>> allOptions()
+    {
+        eCleanVal[] cases = { null, eCleanVal.TO_LOWER, eCleanVal.TO_UPPER, eCleanVal.TO_TITLECASE };
+        List<EnumSet<eCleanVal>> options = new ArrayList<EnumSet<eCleanVal>>();
+        for (int bits = 0; bits < 32; bits++)
+        {
+            for (eCleanVal caseVal : cases)
+            {
+                EnumSet<eCleanVal> cleanVal = EnumSet.noneOf(eCleanVal.class);
+                if ((bits & 1) != 0) cleanVal.add(eCleanVal.CLEAN_EACH);
+                if ((bits & 2) != 0) cleanVal.add(eCleanVal.STRIP_ACCCENTS);
+                if ((bits & 4) != 0) cleanVal.add(eCleanVal.STRIP_ALL_PUNCT);
+                if ((bits & 8) != 0) cleanVal.add(eCleanVal.UNTRIMMED);
+                if ((bits & 16) != 0) cleanVal.add(eCleanVal.STRIP_INDICATOR);
+                if (caseVal != null) cleanVal.add(caseVal);
+                options.add(cleanVal);
+            }
+        }
+        return(options);
+    }
+
+    private static List<String> testValues() throws Exception
+    {
+        List<String> result = new ArrayList<String>();
+        for (String value : values)
+        {
+            result.add(value);
+        }
+        Random random = new Random(20161018L);
+        for (int i = 0; i < 2000; i++)
+        {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++)
+            {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            result.add(sb.toString());
+        }
+        for (String filename : new String[] { "specTestRecs.mrc", "greek_non-filing_tests.mrc", "u4.mrc" })
+        {
+            InputStream input = new BufferedInputStream(new FileInputStream(new File("./test/data/records", filename)));
+            MarcReader reader = new MarcPermissiveStreamReader(input, true, true, "BESTGUESS");
+            while (reader.hasNext())
+            {
+                Record record = reader.next();
+                for (VariableField vf : record.getDataFields())
+                {
+                    for (Subfield sf : ((DataField) vf).getSubfields())
+                    {
+                        result.add(sf.getData());
+                    }
+                }
+            }
+            input.close();
+        }
+        return(result);
+    }
+
+    @Test
+    public void testCleanMatchesCleanByVal() throws Exception
+    {
+        List<String> testValues = testValues();
+        for (EnumSet<eCleanVal> cleanVal : allOptions())
+        {
+            FieldCleaner cleaner = new FieldCleaner(cleanVal);
+            for (String value : testValues)
+            {
+                assertEquals(cleanVal + " \"" + value + "\"", DataUtil.cleanByVal(value, cleanVal), cleaner.clean(value));
+            }
+        }
+        for (String value : testValues)
+        {
+            assertEquals("\"" + value + "\"", DataUtil.cleanData(value), FieldCleaner.cleanData(value));
+        }
+    }
+
+    @Test
+    public void testCleanWithSubstring() throws Exception
+    {
+        int[][] substrings = { { -1, -1 }, { 0, -1 }, { 2, -1 }, { 0, 4 }, { 1, 3 }, { 3, 3 }, { 5, 40 }, { 30, -1 } };
+        for (EnumSet<eCleanVal> cleanVal : allOptions())
+        {
+            FieldCleaner cleaner = new FieldCleaner(cleanVal);
+            for (String value : values)
+            {
+                for (int numToDel = 0; numToDel <= Math.min(value.length(), 4); numToDel++)
+                {
+                    for (int[] substring : substrings)
+                    {
+                        String expected = value.substring(numToDel);
+                        try
+                        {
+                            if (substring[0] != -1)
+                            {
+                                expected = (substring[1] != -1) ? expected.substring(substring[0], substring[1]) : expected.substring(substring[0]);
+                            }
+                        }
+                        catch (IndexOutOfBoundsException ioobe)
+                        {
+                            expected = "";
+                        }
+                        if (!cleanVal.contains(eCleanVal.UNTRIMMED)) expected = expected.trim();
+                        expected = DataUtil.cleanByVal(expected, cleanVal);
+                        assertEquals(cleanVal + " \"" + value + "\" " + numToDel + " " + substring[0] + "-" + substring[1],
+                                expected, cleaner.clean(value, numToDel, substring[0], substring[1]));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.solrmarc.index.extractor.impl.custom.mixin;
+
+
+import org.marc4j.marc.Record;
+import org.solrmarc.index.extractor.impl.custom.Mixin;
+
+
+public class PerRecordInitMixin implements Mixin
+{
+    private Record initRecord = null;
+    private int initCount = 0;
+
+    public void perRecordInit(final Record record)
+    {
+        initRecord = record;
+        initCount++;
+    }
+
+    public String getPerRecordInitId(final Record record)
+    {
+        return (initRecord == record) ? String.valueOf(record.getControlNumber()) : "<stale>";
+    }
+
+    public String getPerRecordInitCount(final Record record)
+    {
+        return String.valueOf(initCount);
+    }
+}
@@ -0,0 +1,69 @@
+package org.solrmarc.index.extractor.impl.patternMapping;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class PatternMappingTests
+{
+    private static String mapSingle(String pattern, String output, String value)
+    {
+        return(PatternMapping.mapSingleValue(Collections.singletonList(new PatternMapping(pattern, output, 0)), value));
+    }
+
+    @Test
+    public void testRequiredLiteral()
+    {
+        assertEquals("recording", PatternMapping.findRequiredLiteral("[Ss]ound[ ]+recording"));
+        assertEquals("(OCoLC)", PatternMapping.findRequiredLiteral(".*\\(OCoLC\\)(.*)"));
+        assertEquals("ab", PatternMapping.findRequiredLiteral("xy?z*ab"));
+        assertEquals("", PatternMapping.findRequiredLiteral("abc|def"));
+        assertEquals("", PatternMapping.findRequiredLiteral("(?i)abc"));
+        assertEquals("", PatternMapping.findRequiredLiteral("\\Qabc\\E"));
+    }
+
+    @Test
+    public void testRequiredLiteralAfterEscapes()
+    {
+        // the digits of an escape are never literal text
+        assertEquals("bc", PatternMapping.findRequiredLiteral("\\x41(bc)bc"));
+        assertEquals("", PatternMapping.findRequiredLiteral("\\x41(bc)"));
+        assertEquals("", PatternMapping.findRequiredLiteral("\\x{41}(bc)"));
+        assertEquals("", PatternMapping.findRequiredLiteral("\\u0041(bc)"));
+        assertEquals("", PatternMapping.findRequiredLiteral("\\0101(bc)"));
+        assertEquals("bc", PatternMapping.findRequiredLiteral("\\p{Lu}bc"));
+        assertEquals("x", PatternMapping.findRequiredLiteral("(a)(b)(c)(d)(e)(f)(g)(h)(i)(j)\\10x"));
+
+        assertEquals("Xbc", mapSingle("\\x41(bc)", "X$1", "Abc"));
+        assertEquals("Xbc", mapSingle("\\u0041(bc)", "X$1", "Abc"));
+        assertEquals("Xbc", mapSingle("\\0101(bc)", "X$1", "Abc"));
+        assertEquals("Xbc", mapSingle("\\x{41}(bc)", "X$1", "Abc"));
+    }
+
+    @Test
+    public void testCompileOutputPattern()
+    {
+        assertArrayEquals(new Object[] { "Book" }, PatternMapping.compileOutputPattern("Book", 0));
+        assertArrayEquals(new Object[] { Integer.valueOf(2), " / ", Integer.valueOf(1) }, PatternMapping.compileOutputPattern("$2 / $1", 2));
+        // the longest run of digits naming a group is taken, the rest is literal
+        assertArrayEquals(new Object[] { Integer.valueOf(1), "0" }, PatternMapping.compileOutputPattern("$10", 2));
+        assertArrayEquals(new Object[] { Integer.valueOf(10) }, PatternMapping.compileOutputPattern("$10", 10));
+        assertArrayEquals(new Object[] { "cost $0" }, PatternMapping.compileOutputPattern("cost $0", 1));
+    }
+
+    @Test
+    public void testGroupTextIsNotSubstitutedAgain()
+    {
+        assertEquals("$10.00 / price", mapSingle("^(\\S+) (\\S+)$", "$2 / $1", "price $10.00"));
+    }
+
+    @Test
+    public void testUnmatchedGroupContributesNothing()
+    {
+        assertEquals("b", mapSingle("^(a)?(b)$", "$1$2", "b"));
+        assertEquals("ab", mapSingle("^(a)?(b)$", "$1$2", "ab"));
+    }
+}
@@ -0,0 +1,64 @@
+package org.solrmarc.index.extractor.impl.script;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class ScriptTranslatorTests
+{
+    private final static File SCRIPT = new File(System.getProperty("test.data.dir", "test/data"), "index_scripts/getdate.bsh");
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty("solrmarc.indexer.compiled.scripts.dir");
+    }
+
+    private static String[] script() throws Exception
+    {
+        return(new String[] { new String(Files.readAllBytes(SCRIPT.toPath()), "UTF-8"), SCRIPT.getPath() });
+    }
+
+    private static File classDir(File cacheDir)
+    {
+        return(new File(cacheDir, "org/solrmarc/index/extractor/impl/script/compiled"));
+    }
+
+    @Test
+    public void testClassIsCachedUnderScriptAndEnvironment() throws Exception
+    {
+        File cacheDir = Files.createTempDirectory("solrmarc_scripts").toFile();
+        System.setProperty("solrmarc.indexer.compiled.scripts.dir", cacheDir.getAbsolutePath());
+        Class<?> clazz = ScriptTranslator.getCompiledClass("getdate.bsh", script(), getClass().getClassLoader());
+        assertNotNull(clazz);
+        assertTrue(new File(classDir(cacheDir), clazz.getSimpleName() + ".class").isFile());
+        // Script_<name>_<hash of the script>_<fingerprint of the classpath>
+        assertEquals(4, clazz.getSimpleName().split("_").length);
+    }
+
+    @Test
+    public void testSharedDirectoryIsNotUsed() throws Exception
+    {
+        File cacheDir = Files.createTempDirectory("solrmarc_scripts").toFile();
+        PosixFileAttributeView view = Files.getFileAttributeView(cacheDir.toPath(), PosixFileAttributeView.class);
+        Assume.assumeNotNull(view);
+        view.setPermissions(PosixFilePermissions.fromString("rwxrwxrwx"));
+        System.setProperty("solrmarc.indexer.compiled.scripts.dir", cacheDir.getAbsolutePath());
+
+        // the script is still compiled, but somewhere only this user can get at, and nothing is left in the shared directory
+        Class<?> clazz = ScriptTranslator.getCompiledClass("getdate.bsh", script(), getClass().getClassLoader());
+        assertNotNull(clazz);
+        assertFalse(classDir(cacheDir).exists());
+        assertEquals(0, cacheDir.listFiles().length);
+    }
+}
@@ -0,0 +1,74 @@
+package org.solrmarc.index.extractor.methodcall;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+import org.solrmarc.index.extractor.impl.custom.Mixin;
+
+/**
+ * Simple micro-benchmark for calling a custom mixin method, comparing the call made through Method.invoke with
+ * a shared argument array against the call made through the handle with the call site's parameters bound into it.
+ * The mixin method does very little, so that the time measured is mostly the cost of the call itself.
+ *
+ * Usage:  MethodCallBenchmark [marc_file] [passes]
+ */
+public class MethodCallBenchmark
+{
+    public static class BenchmarkMixin implements Mixin
+    {
+        public String getIdWithSuffix(final Record record, final String suffix)
+        {
+            return(record.getControlNumber() + suffix);
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        String dataDir = System.getProperty("test.data.dir", "test/data");
+        String marcFile = (args.length > 0) ? args[0] : dataDir + "/records/uva_001_2000.mrc";
+        int passes = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+
+        List<Record> records = IndexingFixture.readRecords(marcFile);
+        Method method = BenchmarkMixin.class.getMethod("getIdWithSuffix", Record.class, String.class);
+        SingleValueExtractorMethodCall methodCall = new SingleValueExtractorMethodCall(new BenchmarkMixin(), method, null, 1);
+        Object[] parameters = new Object[] { null, "_x" };
+        MethodHandle boundCall = methodCall.bindParameters(parameters);
+
+        // run each once to warm up, then once to measure
+        for (int round = 0; round < 2; round++)
+        {
+            long reflective = 0;
+            long start = System.nanoTime();
+            for (int pass = 0; pass < passes; pass++)
+            {
+                for (Record record : records)
+                {
+                    reflective += methodCall.invoke(record, parameters).length();
+                }
+            }
+            long reflectiveElapsed = System.nanoTime() - start;
+
+            long bound = 0;
+            start = System.nanoTime();
+            for (int pass = 0; pass < passes; pass++)
+            {
+                for (Record record : records)
+                {
+                    bound += methodCall.invoke(record, boundCall).length();
+                }
+            }
+            long boundElapsed = System.nanoTime() - start;
+
+            if (reflective != bound) throw new IllegalStateException("the two calls returned different values");
+            long calls = (long) passes * records.size();
+            System.out.println(String.format("%s calls=%9d  Method.invoke=%6d ms (%4d ns/call)  bound handle=%6d ms (%4d ns/call)",
+                    (round == 0) ? "warm-up " : "measured", calls,
+                    TimeUnit.NANOSECONDS.toMillis(reflectiveElapsed), reflectiveElapsed / calls,
+                    TimeUnit.NANOSECONDS.toMillis(boundElapsed), boundElapsed / calls));
+        }
+    }
+}
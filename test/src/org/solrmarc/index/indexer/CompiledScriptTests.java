@@ -0,0 +1,139 @@
+package org.solrmarc.index.indexer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.marc4j.marc.ControlField;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+
+public class CompiledScriptTests
+{
+    private final static String[] specs = {
+            "pub_date = script(getdate.bsh), getDate",
+            "pub_date_first = script(getdate.bsh), getFirstDate",
+            "pub_dates = script(getdate.bsh), getDates",
+            "pub_date_groups = script(PubDateGroups.bsh), getPubDateGroups"
+    };
+    // the values for the dated record, in the order of the specifications
+    private final static String[] expected = {
+            "[1885]",
+            "[1883]",
+            "[1885, 1883]",
+            "[More than 50 years ago]"
+    };
+    private static ValueIndexerFactory factory = IndexingFixture.factory();
+    // the compiled scripts are kept for the whole run once loaded, so every test that compiles them uses one directory
+    private static File cacheDir;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        cacheDir = Files.createTempDirectory("solrmarc_scripts").toFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty("solrmarc.indexer.compiled.scripts");
+        System.clearProperty("solrmarc.indexer.compiled.scripts.dir");
+    }
+
+    private static boolean cached(File cacheDir, String prefix, String suffix)
+    {
+        File[] files = cacheDir.listFiles();
+        if (files == null) return(false);
+        for (File file : files)
+        {
+            if (file.getName().startsWith(prefix) && file.getName().endsWith(suffix)) return(true);
+        }
+        return(false);
+    }
+
+    /**
+     * @return the sample record, published in 1885 by its 008 and 260 and in 1883 by the first of its 264 fields
+     */
+    private static Record datedRecord()
+    {
+        MarcFactory marcFactory = MarcFactory.newInstance();
+        Record record = IndexingFixture.sampleRecord();
+        ((ControlField) record.getVariableField("008")).setData("850101s1885    nyu           000 0 eng d");
+        ((DataField) record.getVariableField("260")).getSubfield('c').setData("1885.");
+        DataField published = marcFactory.newDataField("264", ' ', '1');
+        published.addSubfield(marcFactory.newSubfield('c', "[1883]"));
+        record.addVariableField(published);
+        DataField copyright = marcFactory.newDataField("264", ' ', '4');
+        copyright.addSubfield(marcFactory.newSubfield('c', "c1880"));
+        record.addVariableField(copyright);
+        return(record);
+    }
+
+    private static void assertExpectedValues(List<AbstractValueIndexer<?>> indexers) throws Exception
+    {
+        Record record = datedRecord();
+        assertEquals(expected.length, indexers.size());
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(specs[i], expected[i], indexers.get(i).getFieldData(record).toString());
+        }
+        ValueIndexerFactory.instance().doneWithRecord(record);
+    }
+
+    @Test
+    public void testNotCompiledByDefault() throws Exception
+    {
+        File unusedDir = Files.createTempDirectory("solrmarc_scripts").toFile();
+        System.setProperty("solrmarc.indexer.compiled.scripts.dir", unusedDir.getAbsolutePath());
+        assertExpectedValues(factory.createValueIndexers(specs));
+        System.setProperty("solrmarc.indexer.compiled.scripts", "false");
+        assertExpectedValues(factory.createValueIndexers(specs));
+        assertEquals(0, unusedDir.list().length);
+        unusedDir.delete();
+    }
+
+    @Test
+    public void testCompiledValues() throws Exception
+    {
+        System.setProperty("solrmarc.indexer.compiled.scripts.dir", cacheDir.getAbsolutePath());
+        System.setProperty("solrmarc.indexer.compiled.scripts", "true");
+        List<AbstractValueIndexer<?>> compiled = factory.createValueIndexers(specs);
+        assertTrue("getdate.bsh wasn't compiled", cached(new File(cacheDir, "org/solrmarc/index/extractor/impl/script/compiled"), "Script_getdate_", ".class"));
+        // the script that can't be translated falls back to the interpreter, and still gives the same values
+        assertTrue("PubDateGroups.bsh wasn't noted as failed", cached(cacheDir, "Script_PubDateGroups_", ".failed"));
+        assertExpectedValues(compiled);
+
+        // indexers created again use the class already compiled, and the interpreter for the script that failed
+        assertExpectedValues(factory.createValueIndexers(specs));
+    }
+
+    @Test
+    public void testCompiledScriptsMatchInterpreter() throws Exception
+    {
+        System.setProperty("solrmarc.indexer.compiled.scripts.dir", cacheDir.getAbsolutePath());
+        System.setProperty("solrmarc.indexer.compiled.scripts", "false");
+        List<AbstractValueIndexer<?>> interpreted = factory.createValueIndexers(specs);
+        System.setProperty("solrmarc.indexer.compiled.scripts", "true");
+        List<AbstractValueIndexer<?>> compiled = factory.createValueIndexers(specs);
+        // getdate.bsh is translated, PubDateGroups.bsh calls a method SolrIndexer doesn't have, so it is left to the interpreter
+        File classDir = new File(cacheDir, "org/solrmarc/index/extractor/impl/script/compiled");
+        assertTrue("getdate.bsh wasn't compiled", cached(classDir, "Script_getdate_", ".class"));
+        assertTrue("PubDateGroups.bsh wasn't noted as failed", cached(cacheDir, "Script_PubDateGroups_", ".failed"));
+
+        List<AbstractValueIndexer<?>> copies = new ArrayList<AbstractValueIndexer<?>>();
+        for (AbstractValueIndexer<?> indexer : compiled)
+        {
+            copies.add(ValueIndexerFactory.makeThreadSafeCopy(indexer));
+        }
+        IndexingFixture.assertSameFieldData(interpreted, IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS), compiled, copies);
+    }
+}
@@ -0,0 +1,119 @@
+package org.solrmarc.index.indexer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+
+public class CompiledSpecTests
+{
+    private final static String[] specs = {
+            "id = 001, first",
+            "title_display = 245a, clean",
+            "title_sort = 245abc, titleSortLower",
+            "title_start = 245a, substring(0,5), stripInd2",
+            "subject_facet = 600[a-z]:610[a-z]:650[a-z], join(\" -- \"), cleanEnd, unique",
+            "subject_parts = 600a:650a:600x, clean",
+            "topic_facet = 650ax?(ind2 = 0), separate, cleanEnd",
+            "date_range = 008[7-10]:008[11-14], unique",
+            "letter_facet = 650a, map(\"A.*=>Letter A\", \"B.*=>Letter B\"), join(\" ; \")",
+            "title_formatted = 245, format(\"$a : $b\")",
+            "constant = \"First\"|\"second\"|\"third\", notfirst",
+            "author_full = custom, getAllSubfields(\"100ad\", \" \")",
+            "language_facet = 008[35-37], language_map.properties"
+    };
+    // the values for the sample record, in the order of the specifications
+    private final static String[] expected = {
+            "[rec001]",
+            "[The great title]",
+            "[great title a subtitle by j smith]",
+            "[great]",
+            "[Doe, Jane -- Criticism, Acme Corp. -- History, Birds -- Behavior, Apples -- Europe, Art]",
+            "[Doe, Jane, Birds, Apples, Art, Criticism]",
+            "[Birds, Behavior, Art]",
+            "[1985, 1990]",
+            "[Letter B, Letter A]",
+            "[The great title / : a subtitle.]",
+            "[second, third]",
+            "[Smith, John, 1950-]",
+            "[English]"
+    };
+    // the format pattern, the constant and the custom method aren't written out, their extractors are called instead
+    private final static boolean[] inlined = { true, true, true, true, true, true, true, true, true, false, false, false, true };
+    private static ValueIndexerFactory factory = IndexingFixture.factory();
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty("solrmarc.indexer.compiled.specs");
+    }
+
+    private static void assertExpectedValues(List<AbstractValueIndexer<?>> indexers) throws Exception
+    {
+        Record record = IndexingFixture.sampleRecord();
+        assertEquals(expected.length, indexers.size());
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(specs[i], expected[i], indexers.get(i).getFieldData(record).toString());
+        }
+        ValueIndexerFactory.instance().doneWithRecord(record);
+    }
+
+    @Test
+    public void testNotCompiledByDefault() throws Exception
+    {
+        List<AbstractValueIndexer<?>> indexers = factory.createValueIndexers(specs);
+        for (AbstractValueIndexer<?> indexer : indexers)
+        {
+            assertFalse(indexer.getSpecLabel(), indexer instanceof CompiledMultiValueIndexer);
+        }
+        assertExpectedValues(indexers);
+
+        System.setProperty("solrmarc.indexer.compiled.specs", "false");
+        indexers = factory.createValueIndexers(specs);
+        for (AbstractValueIndexer<?> indexer : indexers)
+        {
+            assertFalse(indexer.getSpecLabel(), indexer instanceof CompiledMultiValueIndexer);
+        }
+        assertExpectedValues(indexers);
+    }
+
+    @Test
+    public void testCompiledValues() throws Exception
+    {
+        System.setProperty("solrmarc.indexer.compiled.specs", "true");
+        List<AbstractValueIndexer<?>> compiled = factory.createValueIndexers(specs);
+        List<AbstractValueIndexer<?>> copies = new ArrayList<AbstractValueIndexer<?>>();
+        for (int i = 0; i < specs.length; i++)
+        {
+            CompiledMultiValueIndexer indexer = (CompiledMultiValueIndexer) compiled.get(i);
+            assertEquals(specs[i], inlined[i], indexer.javaSource.contains("private Collection<String> extract(Record record)"));
+            copies.add(ValueIndexerFactory.makeThreadSafeCopy(indexer));
+        }
+        assertExpectedValues(compiled);
+        assertExpectedValues(copies);
+    }
+
+    @Test
+    public void testCompiledSpecsMatchInterpreter() throws Exception
+    {
+        System.setProperty("solrmarc.indexer.compiled.specs", "false");
+        List<AbstractValueIndexer<?>> interpreted = factory.createValueIndexers(specs);
+        System.setProperty("solrmarc.indexer.compiled.specs", "true");
+        List<AbstractValueIndexer<?>> compiled = factory.createValueIndexers(specs);
+        List<AbstractValueIndexer<?>> copies = new ArrayList<AbstractValueIndexer<?>>();
+        for (AbstractValueIndexer<?> indexer : compiled)
+        {
+            assertTrue(indexer.getSpecLabel() + " wasn't compiled", indexer instanceof CompiledMultiValueIndexer);
+            copies.add(ValueIndexerFactory.makeThreadSafeCopy(indexer));
+        }
+        IndexingFixture.assertSameFieldData(interpreted, IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS), compiled, copies);
+    }
+}
@@ -0,0 +1,139 @@
+package org.solrmarc.index.indexer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Record;
+import org.solrmarc.index.IndexingFixture;
+import org.solrmarc.index.extractor.SharedMultiValueExtractor;
+
+public class SharedExtractionTests
+{
+    private final static String[] specs = {
+            "id = 001, first",
+            "title_display = 245ab, clean, first",
+            "title_full = 245ab, clean",
+            "title_lower = 245ab, clean, toLower, unique",
+            "title_sort = 245ab, clean, map(\"(?i)^the (.*)=>$1\"), first",
+            "subject_facet = 650a, cleanEnd, unique",
+            "subject_sorted = 650a, cleanEnd, sort(str, asc)",
+            "subject_count = 650a, cleanEnd, unique",
+            "author = 100a",
+            "author_full = custom, getAllSubfields(\"100ad\", \" \")",
+            "author_first = custom, getAllSubfields(\"100ad\", \" \"), first",
+            "format = \"Book\"",
+            "format_facet = \"Book\""
+    };
+    // the values for the sample record, in the order of the specifications
+    private final static String[] expected = {
+            "[rec001]",
+            "[The great title a subtitle]",
+            "[The great title a subtitle]",
+            "[the great title a subtitle]",
+            "[great title]",
+            "[Birds, Apples, Art]",
+            "[Apples, Art, Birds]",
+            "[Birds, Apples, Art]",
+            "[Smith, John,]",
+            "[Smith, John, 1950-]",
+            "[Smith, John, 1950-]",
+            "[Book]",
+            "[Book]"
+    };
+    private static ValueIndexerFactory factory = IndexingFixture.factory();
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty("solrmarc.indexer.share.extractions");
+    }
+
+    private static boolean isShared(AbstractValueIndexer<?> indexer)
+    {
+        return(((MultiValueIndexer) indexer).extractor instanceof SharedMultiValueExtractor);
+    }
+
+    private static void assertExpectedValues(List<AbstractValueIndexer<?>> indexers) throws Exception
+    {
+        Record record = IndexingFixture.sampleRecord();
+        assertEquals(expected.length, indexers.size());
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals(specs[i], expected[i], indexers.get(i).getFieldData(record).toString());
+        }
+        ValueIndexerFactory.instance().doneWithRecord(record);
+    }
+
+    @Test
+    public void testSharingIsOffByDefault() throws Exception
+    {
+        List<AbstractValueIndexer<?>> indexers = factory.createValueIndexers(specs);
+        assertEquals(0, factory.getSharedExtractionCount());
+        for (AbstractValueIndexer<?> indexer : indexers)
+        {
+            assertFalse(indexer.getSpecLabel(), isShared(indexer));
+        }
+        assertExpectedValues(indexers);
+
+        System.setProperty("solrmarc.indexer.share.extractions", "false");
+        assertExpectedValues(factory.createValueIndexers(specs));
+        assertEquals(0, factory.getSharedExtractionCount());
+    }
+
+    @Test
+    public void testSharedValues() throws Exception
+    {
+        System.setProperty("solrmarc.indexer.share.extractions", "true");
+        List<AbstractValueIndexer<?>> shared = factory.createValueIndexers(specs);
+        // 245ab cleaned is extracted once for two fields, 650a with cleanEnd once for three, and the custom method
+        // once for two; formatting and mappings applied before the join, such as the toLower of title_lower and
+        // the map of title_sort, are part of the extraction, so those fields have their own, and constants are left
+        // as they are, since there is nothing to extract
+        assertEquals(1 + 2 + 1, factory.getSharedExtractionCount());
+        boolean[] sharing = { false, true, true, false, false, true, true, true, false, true, true, false, false };
+        for (int i = 0; i < specs.length; i++)
+        {
+            assertEquals(specs[i], sharing[i], isShared(shared.get(i)));
+        }
+        assertExpectedValues(shared);
+    }
+
+    @Test
+    public void testSharedExtractionsMatchUnshared() throws Exception
+    {
+        System.setProperty("solrmarc.indexer.share.extractions", "false");
+        List<AbstractValueIndexer<?>> unshared = factory.createValueIndexers(specs);
+        System.setProperty("solrmarc.indexer.share.extractions", "true");
+        List<AbstractValueIndexer<?>> shared = factory.createValueIndexers(specs);
+        assertTrue(factory.getSharedExtractionCount() > 0);
+        List<AbstractValueIndexer<?>> copies = new ArrayList<AbstractValueIndexer<?>>();
+        for (AbstractValueIndexer<?> indexer : shared)
+        {
+            copies.add(ValueIndexerFactory.makeThreadSafeCopy(indexer));
+        }
+        IndexingFixture.assertSameFieldData(unshared, IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS), shared, copies);
+    }
+
+    @Test
+    public void testChangedRecordIsExtractedAgain() throws Exception
+    {
+        System.setProperty("solrmarc.indexer.share.extractions", "true");
+        List<AbstractValueIndexer<?>> shared = factory.createValueIndexers(specs);
+        Record record = IndexingFixture.readRecords(IndexingFixture.SPEC_TEST_RECORDS).get(0);
+        // title_full shares the extraction of title_display, but isn't applied to the record, so it is still kept
+        assertTrue(!shared.get(1).getFieldData(record).toString().contains("Another title"));
+        ValueIndexerFactory.instance().doneWithRecord(record);
+
+        // the same Record object indexed again after being changed must not get the values kept from before
+        ((DataField) record.getVariableField("245")).getSubfield('a').setData("Another title");
+        assertTrue(shared.get(1).getFieldData(record).toString().contains("Another title"));
+        assertTrue(shared.get(2).getFieldData(record).toString().contains("Another title"));
+    }
+}
@@ -0,0 +1,167 @@
+package org.solrmarc.index.mapping.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.solrmarc.index.IndexingFixture;
+import org.solrmarc.index.mapping.AbstractMultiValueMapping;
+
+public class TranslationMappingFactoryTests
+{
+    private final static String MAPS_DIR = System.getProperty("test.data.dir", "test/data") + "/translation_maps/";
+
+    @BeforeClass
+    public static void setUpClass()
+    {
+        IndexingFixture.factory();
+    }
+
+    private static Properties loadMap(String fileName) throws Exception
+    {
+        Properties properties = new Properties();
+        InputStream input = new FileInputStream(MAPS_DIR + fileName);
+        properties.load(input);
+        input.close();
+        return(properties);
+    }
+
+    private static TranslationTable table(String... keysAndValues)
+    {
+        Properties properties = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2)
+        {
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return(TranslationTable.compile(properties));
+    }
+
+    @Test
+    public void testSubTableIsAViewThroughThePrefix()
+    {
+        TranslationTable table = table("broad_format.a", "Book", "broad_format.t", "Book|Manuscript",
+                "broad_format_electronic.a", "eBook", "broad_format.", "Unknown", "a", "Top level");
+        TranslationTable sub = table.subTable("broad_format");
+        assertEquals(3, sub.size());
+        assertSame(table.get("broad_format.a"), sub.get("a"));
+        assertSame(table.get("broad_format.t"), sub.get("t"));
+        // the key that is just the prefix is the sub-map's empty key
+        assertArrayEquals(new String[] { "Unknown" }, sub.get(""));
+        // keys of the whole map, or of another sub-map whose name starts the same way, aren't in the view
+        assertNull(sub.get("broad_format.a"));
+        assertNull(sub.get("_electronic.a"));
+        assertNull(sub.get("m"));
+
+        TranslationTable electronic = table.subTable("broad_format_electronic");
+        assertEquals(1, electronic.size());
+        assertArrayEquals(new String[] { "eBook" }, electronic.get("a"));
+        assertEquals(0, table.subTable("missing").size());
+        assertNull(table.subTable("missing").get("a"));
+    }
+
+    @Test
+    public void testNestedSubTable()
+    {
+        TranslationTable table = table("music.format.cd", "Compact Disc", "music.format.lp", "Vinyl", "music.genre.cd", "Wrong");
+        TranslationTable nested = table.subTable("music").subTable("format");
+        assertEquals(2, nested.size());
+        assertArrayEquals(new String[] { "Compact Disc" }, nested.get("cd"));
+        assertSame(table.get("music.format.lp"), nested.get("lp"));
+        assertSame(table.subTable("music.format").get("cd"), nested.get("cd"));
+    }
+
+    @Test
+    public void testSubMapsMatchTheFile() throws Exception
+    {
+        Properties file = loadMap("format_maps.properties");
+        TranslationMappingFactory factory = new TranslationMappingFactory();
+        for (String subMap : new String[] { "broad_format", "broad_format_electronic", "format", "recording_format" })
+        {
+            AbstractMultiValueMapping mapping = factory.createMultiValueMapping("format_maps.properties(" + subMap + ")");
+            int keys = 0;
+            for (String key : file.stringPropertyNames())
+            {
+                if (!key.startsWith(subMap + ".")) continue;
+                keys++;
+                String code = key.substring(subMap.length() + 1);
+                List<String> expected = Arrays.asList(TranslationTable.split(file.getProperty(key)));
+                assertEquals(key, expected, new ArrayList<String>(mapping.map(Collections.singletonList(code))));
+            }
+            assertTrue(subMap, keys > 0);
+        }
+        AbstractMultiValueMapping broad = factory.createMultiValueMapping(new String[] { "format_maps.properties", "broad_format" });
+        assertEquals(Arrays.asList("Book", "Manuscript"), new ArrayList<String>(broad.map(Collections.singletonList("t"))));
+        assertEquals(Collections.emptyList(), new ArrayList<String>(broad.map(Collections.singletonList("zz"))));
+    }
+
+    @Test
+    public void testPatternSubMap() throws Exception
+    {
+        AbstractMultiValueMapping mapping = new TranslationMappingFactory().createMultiValueMapping("oclc_num_pattern_map.properties(oclc_num)");
+        assertEquals(Arrays.asList("12345"), new ArrayList<String>(mapping.map(Collections.singletonList("(OCoLC)00012345"))));
+    }
+
+    @Test
+    public void testRegistryLoadsEachFileOnce() throws Exception
+    {
+        final TranslationMappingFactory factory = new TranslationMappingFactory();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Collection<String>>> futures = new ArrayList<Future<Collection<String>>>();
+        for (int i = 0; i < 32; i++)
+        {
+            final String config = (i % 2 == 0) ? "language_map.properties" : "country_map.properties";
+            final String code = (i % 2 == 0) ? "eng" : "aa";
+            futures.add(executor.submit(new Callable<Collection<String>>()
+            {
+                @Override
+                public Collection<String> call() throws Exception
+                {
+                    return factory.createMultiValueMapping(config).map(Collections.singletonList(code));
+                }
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++)
+        {
+            assertEquals(Collections.singletonList((i % 2 == 0) ? "English" : "Albania"), new ArrayList<String>(futures.get(i).get()));
+        }
+        executor.shutdown();
+
+        Map<String, Long> usage = TranslationMappingFactory.getTranslationMapMemoryUsage();
+        assertTrue(usage.containsKey("language_map.properties"));
+        assertTrue(usage.containsKey("country_map.properties"));
+        long previous = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> entry : usage.entrySet())
+        {
+            assertTrue(entry.getKey(), entry.getValue() > 0 && entry.getValue() <= previous);
+            previous = entry.getValue();
+        }
+        // the file's sub-maps share the one table loaded for the file
+        assertFalse(usage.containsKey("music_maps.properties"));
+        factory.createMultiValueMapping("music_maps.properties(composition_era)");
+        long musicBytes = TranslationMappingFactory.getTranslationMapMemoryUsage().get("music_maps.properties");
+        factory.createMultiValueMapping("music_maps.properties(composition_type)");
+        factory.createMultiValueMapping("music_maps.properties");
+        Map<String, Long> after = TranslationMappingFactory.getTranslationMapMemoryUsage();
+        assertEquals(usage.size() + 1, after.size());
+        assertEquals(musicBytes, after.get("music_maps.properties").longValue());
+    }
+}
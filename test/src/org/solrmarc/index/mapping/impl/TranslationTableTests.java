@@ -0,0 +1,139 @@
+package org.solrmarc.index.mapping.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class TranslationTableTests
+{
+    private static Properties properties(String... keysAndValues)
+    {
+        Properties properties = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2)
+        {
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return(properties);
+    }
+
+    private static Collection<String> map(Properties properties, String... values)
+    {
+        return new MultiValueTranslationMapping("test.properties", properties).map(Arrays.asList(values));
+    }
+
+    @Test
+    public void testLookup()
+    {
+        TranslationTable table = TranslationTable.compile(properties("eng", "English", "fre", "French",
+                "ger", "German|Deutsch", "xxx", "null", "", "Empty key"));
+        assertEquals(5, table.size());
+        assertArrayEquals(new String[] { "English" }, table.get("eng"));
+        assertArrayEquals(new String[] { "German", "Deutsch" }, table.get("ger"));
+        assertSame(TranslationTable.UNMAPPED, table.get("xxx"));
+        assertArrayEquals(new String[] { "Empty key" }, table.get(""));
+        assertNull(table.get("spa"));
+        assertNull(table.get("English"));
+        assertTrue(table.containsKey("fre"));
+        assertTrue(table.containsKey("xxx"));
+        assertFalse(table.containsKey("spa"));
+    }
+
+    @Test
+    public void testTableIsACopy()
+    {
+        Properties properties = properties("eng", "English");
+        TranslationTable table = TranslationTable.compile(properties);
+        properties.setProperty("eng", "Anglais");
+        properties.setProperty("fre", "French");
+        assertArrayEquals(new String[] { "English" }, table.get("eng"));
+        assertNull(table.get("fre"));
+    }
+
+    @Test(timeout = 10000)
+    public void testDefaultsOfProperties()
+    {
+        // all of the entries are defaults, which Properties.size() doesn't count
+        Properties defaults = new Properties();
+        for (int i = 0; i < 100; i++)
+        {
+            defaults.setProperty("key" + i, "value" + i);
+        }
+        Properties properties = new Properties(defaults);
+        properties.setProperty("key0", "overridden");
+        TranslationTable table = TranslationTable.compile(properties);
+        assertEquals(100, table.size());
+        assertArrayEquals(new String[] { "overridden" }, table.get("key0"));
+        for (int i = 1; i < 100; i++)
+        {
+            assertArrayEquals(new String[] { "value" + i }, table.get("key" + i));
+        }
+        assertNull(table.get("key100"));
+    }
+
+    @Test
+    public void testLargeTable()
+    {
+        Properties properties = new Properties();
+        for (int i = 0; i < 5000; i++)
+        {
+            properties.setProperty("k" + i, "v" + (i % 7));
+        }
+        TranslationTable table = TranslationTable.compile(properties);
+        assertEquals(5000, table.size());
+        for (int i = 0; i < 5000; i++)
+        {
+            assertEquals("v" + (i % 7), table.get("k" + i)[0]);
+            assertNull(table.get("x" + i));
+        }
+    }
+
+    @Test
+    public void testValuesAreInternedAndShared()
+    {
+        TranslationTable table = TranslationTable.compile(properties("eng", "English", "enm", "English",
+                "ang", "English|Old English", "sco", "English|Old English"));
+        // keys with the same translation share its parts
+        assertSame(table.get("eng"), table.get("enm"));
+        assertSame(table.get("ang"), table.get("sco"));
+        assertSame("English", table.get("eng")[0]);
+        assertSame("English", table.get("ang")[0]);
+        assertSame("Old English", table.get("ang")[1]);
+        // a translation built at runtime is interned too
+        String built = new StringBuilder("Fr").append("ench").toString();
+        TranslationTable other = TranslationTable.compile(properties("fre", built));
+        assertSame("French", other.get("fre")[0]);
+        assertTrue(table.estimatedBytes() > 0);
+    }
+
+    @Test
+    public void testMissingKeyWithoutDefault()
+    {
+        Properties properties = properties("eng", "English", "xxx", "null");
+        assertEquals(Arrays.asList("English"), map(properties, "eng", "spa", "xxx"));
+        assertEquals(Collections.emptyList(), map(properties, (String)null));
+        properties.setProperty("displayRawIfMissing", "true");
+        assertEquals(Arrays.asList("English", "spa"), map(properties, "eng", "spa"));
+    }
+
+    @Test
+    public void testMissingKeyWithDefault()
+    {
+        Properties properties = properties("eng", "English", "ger", "German|Deutsch", "xxx", "null", "__DEFAULT", "Other");
+        assertEquals(Arrays.asList("English", "German", "Deutsch", "Other", "Other"), map(properties, "eng", "ger", "spa", "ita"));
+        // a key deliberately left untranslated isn't given the default
+        assertEquals(Collections.emptyList(), map(properties, "xxx"));
+
+        Properties emptyKeyDefault = properties("eng", "English", "", "Unknown");
+        assertEquals(Arrays.asList("English", "Unknown"), map(emptyKeyDefault, "eng", "spa"));
+    }
+}
@@ -0,0 +1,127 @@
+package org.solrmarc.index.specification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class SubfieldCodeSetTests
+{
+    // codes up to here cover both words of the bit set, and the first non-ASCII codes
+    private final static char LAST_CODE = '\u017f';
+
+    /**
+     * Checks that the set selects exactly the codes that the regular expression matches.
+     */
+    private static void checkSameAsRegex(SubfieldCodeSet codes, String regex)
+    {
+        Pattern pattern = Pattern.compile(regex);
+        for (char c = 0; c <= LAST_CODE; c++)
+        {
+            assertEquals(regex + " with code " + (int)c, pattern.matcher(String.valueOf(c)).matches(), codes.matches(c));
+        }
+        assertFalse(codes.matchesAll());
+    }
+
+    private static void checkSubfields(String subfields)
+    {
+        String regex = (subfields.startsWith("[") && subfields.endsWith("]")) ? subfields : "[" + subfields + "]";
+        checkSameAsRegex(SubfieldCodeSet.forSubfields(subfields), regex);
+    }
+
+    @Test
+    public void testListsOfCodes()
+    {
+        checkSubfields("a");
+        checkSubfields("abc");
+        checkSubfields("a9z0");
+        checkSubfields("?@_");
+        checkSubfields("~{|}");
+    }
+
+    @Test
+    public void testBracketRanges()
+    {
+        checkSubfields("[a-z]");
+        checkSubfields("[a-cx-z]");
+        checkSubfields("[0-9A-Z]");
+        checkSubfields("[a-z0-9]");
+        checkSubfields("[abk-n3]");
+        // a dash that isn't between two characters is itself a code
+        checkSubfields("[a-]");
+        checkSubfields("[-a]");
+        checkSubfields("[a-c-e]");
+    }
+
+    @Test
+    public void testCodesInSecondWord()
+    {
+        // 63 is the last code in the first word of the bit set, 64 the first code in the second
+        checkSubfields("[?]");
+        checkSubfields("[@]");
+        checkSubfields("[?-A]");
+        checkSubfields("[!-~]");
+        checkSubfields("[`-~]");
+        checkSubfields("[\u007f]");
+        checkSameAsRegex(SubfieldCodeSet.forRegex("~"), "~");
+        checkSameAsRegex(SubfieldCodeSet.forRegex("@"), "@");
+    }
+
+    @Test
+    public void testNonAsciiCodes()
+    {
+        checkSubfields("\u00e9");
+        checkSubfields("a\u00e9");
+        checkSubfields("[a-z\u00e0-\u00ff]");
+        checkSubfields("[\u00e0-\u00ff]");
+        checkSameAsRegex(SubfieldCodeSet.forRegex("\u00e9"), "\u00e9");
+        assertFalse(SubfieldCodeSet.forSubfields("abc").matches('\u0161'));
+        assertTrue(SubfieldCodeSet.forSubfields("[\u0160-\u0170]").matches('\u0161'));
+    }
+
+    @Test
+    public void testRegexFallback()
+    {
+        checkSubfields("[^a-c]");
+        checkSubfields("[^0-9]");
+        checkSubfields("[\\d]");
+        checkSubfields("[\\w&&[^a]]");
+        checkSubfields("[a-z&&[^e]]");
+        checkSubfields("[[a-c][x-z]]");
+        checkSameAsRegex(SubfieldCodeSet.forRegex("a|b"), "a|b");
+        checkSameAsRegex(SubfieldCodeSet.forRegex("[a-c]|9"), "[a-c]|9");
+        checkSameAsRegex(SubfieldCodeSet.forRegex("\\p{Alpha}"), "\\p{Alpha}");
+        checkSameAsRegex(SubfieldCodeSet.forRegex("$"), "$");
+        checkSameAsRegex(SubfieldCodeSet.forRegex("[ab]+"), "[ab]+");
+    }
+
+    @Test
+    public void testAllCodes()
+    {
+        assertSame(SubfieldCodeSet.ALL, SubfieldCodeSet.forSubfields(null));
+        assertSame(SubfieldCodeSet.ALL, SubfieldCodeSet.forSubfields(""));
+        assertSame(SubfieldCodeSet.ALL, SubfieldCodeSet.forRegex("."));
+        assertSame(SubfieldCodeSet.ALL, SubfieldCodeSet.forPattern(Specification.dotPattern));
+        assertTrue(SubfieldCodeSet.ALL.matchesAll());
+        assertTrue(SubfieldCodeSet.ALL.matches('a'));
+        assertTrue(SubfieldCodeSet.ALL.matches('\u00e9'));
+
+        // an equivalent pattern that isn't the shared one is matched like any other pattern
+        SubfieldCodeSet dot = SubfieldCodeSet.forPattern(Pattern.compile("."));
+        assertFalse(dot.matchesAll());
+        assertTrue(dot.matches('a'));
+        checkSameAsRegex(SubfieldCodeSet.forPattern(Pattern.compile("[a-c]")), "[a-c]");
+    }
+
+    @Test
+    public void testCodeString()
+    {
+        assertSame("a", SubfieldCodeSet.codeString('a'));
+        assertSame(SubfieldCodeSet.codeString('9'), SubfieldCodeSet.codeString('9'));
+        assertEquals("\u00e9", SubfieldCodeSet.codeString('\u00e9'));
+    }
+}
@@ -0,0 +1,143 @@
+package org.solrmarc.index.specification;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.marc4j.MarcPermissiveStreamReader;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.Subfield;
+
+/**
+ * Simple micro-benchmark for selecting subfields.  It tests every subfield of every data field in the MARC test
+ * records against a set of subfield selectors, first by building a one character String for each subfield code
+ * and matching it with the selector's regex as SingleDataFieldSpecification used to, then with the selector's
+ * SubfieldCodeSet, and reports the time and the bytes allocated per subfield tested for each.
+ *
+ * Usage:  SubfieldSelectBenchmark [iterations]
+ */
+public class SubfieldSelectBenchmark
+{
+    private final static String[] selectors = { "a", "abc", "abcdefghijklmnopqrstuvwxyz", "[a-z]", "[a-np-z0-9]", "" };
+
+    public static void main(String[] args) throws Exception
+    {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 50;
+        String dataDir = System.getProperty("test.data.dir", "test/data");
+        List<DataField> fields = readDataFields(new File(dataDir, "records"));
+        Pattern patterns[] = new Pattern[selectors.length];
+        SubfieldCodeSet codeSets[] = new SubfieldCodeSet[selectors.length];
+        for (int i = 0; i < selectors.length; i++)
+        {
+            String sel = selectors[i];
+            patterns[i] = sel.length() == 0 ? Specification.dotPattern : Pattern.compile(sel.startsWith("[") ? sel : "[" + sel + "]");
+            codeSets[i] = SubfieldCodeSet.forSubfields(sel);
+        }
+        long tested = 0;
+        for (DataField df : fields)
+        {
+            tested += df.getSubfields().size();
+        }
+        tested *= (long)iterations * selectors.length;
+        System.out.println(String.format("%,d data fields, %,d subfield tests per run", fields.size(), tested));
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int round = 0; round < 3; round++)
+        {
+            long bytes0 = bean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            int regexMatches = matchRegex(fields, patterns, iterations);
+            long regexTime = System.nanoTime() - start;
+            long bytes1 = bean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            int bitMatches = matchCodeSets(fields, codeSets, iterations);
+            long bitTime = System.nanoTime() - start;
+            long bytes2 = bean.getThreadAllocatedBytes(threadId);
+            if (regexMatches != bitMatches) System.out.println("mismatch: " + regexMatches + " != " + bitMatches);
+            System.out.println(String.format("round %d:  regex %6.1f ns %6.1f bytes/subfield,  bit set %6.1f ns %6.1f bytes/subfield",
+                    round, regexTime * 1.0 / tested, (bytes1 - bytes0) * 1.0 / tested,
+                    bitTime * 1.0 / tested, (bytes2 - bytes1) * 1.0 / tested));
+        }
+    }
+
+    private static int matchRegex(List<DataField> fields, Pattern patterns[], int iterations)
+    {
+        int matches = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            for (DataField df : fields)
+            {
+                for (Subfield subfield : df.getSubfields())
+                {
+                    for (Pattern subfieldPattern : patterns)
+                    {
+                        final String codeStr = "" + subfield.getCode();
+                        if (subfieldPattern.equals(Specification.dotPattern) || subfieldPattern.matcher(codeStr).matches())
+                        {
+                            matches++;
+                        }
+                    }
+                }
+            }
+        }
+        return(matches);
+    }
+
+    private static int matchCodeSets(List<DataField> fields, SubfieldCodeSet codeSets[], int iterations)
+    {
+        int matches = 0;
+        for (int i = 0; i < iterations; i++)
+        {
+            for (DataField df : fields)
+            {
+                for (Subfield subfield : df.getSubfields())
+                {
+                    for (SubfieldCodeSet subfieldCodes : codeSets)
+                    {
+                        if (subfieldCodes.matches(subfield.getCode()))
+                        {
+                            matches++;
+                        }
+                    }
+                }
+            }
+        }
+        return(matches);
+    }
+
+    private static List<DataField> readDataFields(File recordDir) throws Exception
+    {
+        List<DataField> fields = new ArrayList<DataField>();
+        File files[] = recordDir.listFiles();
+        if (files == null) return(fields);
+        for (File file : files)
+        {
+            if (!file.getName().endsWith(".mrc")) continue;
+            InputStream in = new FileInputStream(file);
+            try
+            {
+                MarcPermissiveStreamReader reader = new MarcPermissiveStreamReader(in, true, true);
+                while (reader.hasNext())
+                {
+                    Record record = reader.next();
+                    fields.addAll(record.getDataFields());
+                }
+            }
+            catch (Exception e)
+            {
+                // some of the test files are deliberately malformed, use whatever could be read
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        return(fields);
+    }
+}
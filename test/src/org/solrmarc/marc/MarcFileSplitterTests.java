@@ -0,0 +1,166 @@
+package org.solrmarc.marc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.marc4j.MarcPermissiveStreamReader;
+import org.marc4j.MarcReader;
+import org.marc4j.MarcStreamWriter;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+
+public class MarcFileSplitterTests
+{
+    private final static File RECORDS_DIR = new File(System.getProperty("test.data.dir", "test/data"), "records");
+    private File tempFile;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        tempFile = File.createTempFile("splitter", ".mrc");
+    }
+
+    @After
+    public void tearDown()
+    {
+        tempFile.delete();
+    }
+
+    private static byte[] readSegment(MarcFileSplitter.Segment segment) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputStream input = segment.openStream();
+        byte[] buffer = new byte[4096];
+        int len;
+        while ((len = input.read(buffer)) != -1)
+        {
+            bytes.write(buffer, 0, len);
+        }
+        return(bytes.toByteArray());
+    }
+
+    private static List<String> readRecords(InputStream input) throws Exception
+    {
+        List<String> records = new ArrayList<String>();
+        MarcReader reader = new MarcPermissiveStreamReader(input, true, true);
+        while (reader.hasNext())
+        {
+            records.add(reader.next().toString());
+        }
+        input.close();
+        return(records);
+    }
+
+    private static Record record(String id, String title)
+    {
+        MarcFactory factory = MarcFactory.newInstance();
+        Record record = factory.newRecord("00000nam a2200000 a 4500");
+        record.addVariableField(factory.newControlField("001", id));
+        DataField field = factory.newDataField("245", '1', '0');
+        field.addSubfield(factory.newSubfield('a', title));
+        record.addVariableField(field);
+        return(record);
+    }
+
+    /**
+     * Writes the records to the temporary file.
+     *
+     * @return the offset at which each record starts, followed by the length of the file
+     */
+    private Set<Long> writeRecords(List<Record> records) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Set<Long> starts = new HashSet<Long>();
+        for (Record record : records)
+        {
+            starts.add((long) bytes.size());
+            MarcStreamWriter writer = new MarcStreamWriter(bytes, "UTF-8");
+            writer.write(record);
+            writer.close();
+        }
+        starts.add((long) bytes.size());
+        Files.write(tempFile.toPath(), bytes.toByteArray());
+        return(starts);
+    }
+
+    /**
+     * Splits the file at every possible target size, checking that every segment starts at one of the given offsets.
+     */
+    private void checkSplitsOnlyAt(Set<Long> recordStarts) throws Exception
+    {
+        MarcFileSplitter splitter = new MarcFileSplitter(tempFile);
+        for (long size = 1; size < tempFile.length(); size++)
+        {
+            long expectedStart = 0;
+            for (MarcFileSplitter.Segment segment : splitter.split(size))
+            {
+                assertEquals(expectedStart, segment.getStart());
+                assertTrue("split at " + segment.getStart() + " with segment size " + size, recordStarts.contains(segment.getStart()));
+                expectedStart += segment.getLength();
+            }
+            assertEquals(tempFile.length(), expectedStart);
+        }
+    }
+
+    @Test
+    public void testSegmentsRejoinToTheFile() throws Exception
+    {
+        File file = new File(RECORDS_DIR, "uva_001_2000.mrc");
+        byte[] original = Files.readAllBytes(file.toPath());
+        List<MarcFileSplitter.Segment> segments = new MarcFileSplitter(file).split(100000);
+        assertTrue(segments.size() > 10);
+
+        ByteArrayOutputStream rejoined = new ByteArrayOutputStream();
+        List<String> records = new ArrayList<String>();
+        for (int i = 0; i < segments.size(); i++)
+        {
+            MarcFileSplitter.Segment segment = segments.get(i);
+            assertEquals(i, segment.getIndex());
+            byte[] bytes = readSegment(segment);
+            assertEquals(segment.getLength(), bytes.length);
+            assertEquals(0x1D, bytes[bytes.length - 1]);
+            rejoined.write(bytes);
+            records.addAll(readRecords(segment.openStream()));
+        }
+        assertArrayEquals(original, rejoined.toByteArray());
+        assertEquals(readRecords(Files.newInputStream(file.toPath())), records);
+    }
+
+    @Test
+    public void testStrayTerminatorInsideRecord() throws Exception
+    {
+        List<Record> records = new ArrayList<Record>();
+        records.add(record("u1", "First"));
+        // a terminator in the data, followed by something that isn't a record length
+        records.add(record("u2", "Damaged \u001D title"));
+        records.add(record("u3", "Third"));
+        checkSplitsOnlyAt(writeRecords(records));
+    }
+
+    @Test
+    public void testBadLengthAfterStrayTerminator() throws Exception
+    {
+        List<Record> records = new ArrayList<Record>();
+        records.add(record("u1", "First"));
+        // terminators followed by digits that look like record lengths: one runs past the end of the file, the
+        // others describe records that don't end with a terminator
+        records.add(record("u2", "Damaged \u001D00040 and \u001D00030 title"));
+        records.add(record("u3", "Also damaged \u001D99999"));
+        records.add(record("u4", "Fourth"));
+        checkSplitsOnlyAt(writeRecords(records));
+    }
+}
@@ -0,0 +1,214 @@
+package org.solrmarc.marc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.marc4j.MarcPermissiveStreamReader;
+import org.marc4j.MarcReader;
+import org.marc4j.MarcStreamWriter;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.VariableField;
+
+public class MarcMappedLazyReaderTests
+{
+    private final static File RECORDS_DIR = new File(System.getProperty("test.data.dir", "test/data"), "records");
+    private final static int NUM_THREADS = 8;
+
+    private static File[] marcFiles()
+    {
+        return RECORDS_DIR.listFiles(new FileFilter()
+        {
+            @Override
+            public boolean accept(File file)
+            {
+                return(file.getName().endsWith(".mrc"));
+            }
+        });
+    }
+
+    private static List<Record> readLazily(File file) throws Exception
+    {
+        List<Record> records = new ArrayList<Record>();
+        MarcReader reader = new MarcMappedLazyReader(file, true, true, "BESTGUESS");
+        while (reader.hasNext())
+        {
+            records.add(reader.next());
+        }
+        return(records);
+    }
+
+    private static List<Record> readWithStreamReader(File file) throws Exception
+    {
+        List<Record> records = new ArrayList<Record>();
+        InputStream input = new BufferedInputStream(new FileInputStream(file));
+        MarcReader reader = new MarcPermissiveStreamReader(input, true, true, "BESTGUESS");
+        while (reader.hasNext())
+        {
+            records.add(reader.next());
+        }
+        input.close();
+        return(records);
+    }
+
+    private static boolean isDecoded(DataField field)
+    {
+        // toString decodes the field, so look at whether it still holds on to its bytes
+        return(!(field instanceof MarcMappedLazyReader.LazyDataField) || ((MarcMappedLazyReader.LazyDataField) field).isDecoded());
+    }
+
+    @Test
+    public void testRecordsMatchStreamReader() throws Exception
+    {
+        int lazyRecords = 0;
+        for (File file : marcFiles())
+        {
+            List<Record> expected = readWithStreamReader(file);
+            List<Record> actual = readLazily(file);
+            assertEquals(file.getName(), expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++)
+            {
+                Record record = actual.get(i);
+                if (!record.getDataFields().isEmpty() && record.getDataFields().get(0) instanceof MarcMappedLazyReader.LazyDataField)
+                {
+                    lazyRecords++;
+                }
+                assertEquals(file.getName() + " record " + i, expected.get(i).toString(), record.toString());
+            }
+        }
+        assertTrue("no record was decoded lazily", lazyRecords > 0);
+    }
+
+    @Test
+    public void testFieldsAreDecodedWhenNeeded() throws Exception
+    {
+        Record record = readLazily(new File(RECORDS_DIR, "fields_700_4_samp.mrc")).get(0);
+        Record expected = readWithStreamReader(new File(RECORDS_DIR, "fields_700_4_samp.mrc")).get(0);
+        List<VariableField> fields = record.getVariableFields("245");
+        DataField title = (DataField) fields.get(0);
+        DataField other = (DataField) record.getVariableFields("700").get(0);
+        assertFalse(isDecoded(title));
+        assertEquals(((DataField) expected.getVariableField("245")).getSubfield('a').getData(), title.getSubfield('a').getData());
+        assertTrue(isDecoded(title));
+        assertFalse(isDecoded(other));
+    }
+
+    @Test
+    public void testConcurrentFirstAccess() throws Exception
+    {
+        final List<Record> expected = readWithStreamReader(new File(RECORDS_DIR, "fields_700_4_samp.mrc"));
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        try
+        {
+            for (int pass = 0; pass < 200; pass++)
+            {
+                final List<Record> records = readLazily(new File(RECORDS_DIR, "fields_700_4_samp.mrc"));
+                final CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+                for (int t = 0; t < NUM_THREADS; t++)
+                {
+                    results.add(executor.submit(new Callable<Boolean>()
+                    {
+                        @Override
+                        public Boolean call() throws Exception
+                        {
+                            // every thread reads every field as soon as the others do, so the first accesses overlap
+                            start.await();
+                            for (int i = 0; i < records.size(); i++)
+                            {
+                                List<DataField> fields = records.get(i).getDataFields();
+                                List<DataField> expectedFields = expected.get(i).getDataFields();
+                                for (int f = 0; f < fields.size(); f++)
+                                {
+                                    if (!expectedFields.get(f).toString().equals(fields.get(f).toString())) return(false);
+                                }
+                            }
+                            return(true);
+                        }
+                    }));
+                }
+                start.countDown();
+                for (Future<Boolean> result : results)
+                {
+                    assertTrue(result.get());
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return a UTF-8 record whose title is written with the given bytes in place of the placeholder "@@@@"
+     */
+    private static byte[] recordWithTitleBytes(byte[] replacement) throws Exception
+    {
+        MarcFactory factory = MarcFactory.newInstance();
+        Record record = factory.newRecord("00000nam a2200000 a 4500");
+        record.addVariableField(factory.newControlField("001", "u1"));
+        DataField field = factory.newDataField("245", '1', '0');
+        field.addSubfield(factory.newSubfield('a', "Title @@@@ caf\u00e9"));
+        record.addVariableField(field);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MarcStreamWriter writer = new MarcStreamWriter(out, "UTF-8");
+        writer.write(record);
+        writer.close();
+        byte[] bytes = out.toByteArray();
+        String text = new String(bytes, "ISO-8859-1");
+        System.arraycopy(replacement, 0, bytes, text.indexOf("@@@@"), 4);
+        return(bytes);
+    }
+
+    private static void checkSameAsStreamReader(byte[] bytes, boolean expectLazy) throws Exception
+    {
+        Record expected = new MarcPermissiveStreamReader(new ByteArrayInputStream(bytes), true, true, "BESTGUESS").next();
+        Record actual = new MarcMappedLazyReader(ByteBuffer.wrap(bytes), true, true, "BESTGUESS").next();
+        assertEquals(expectLazy, actual.getDataFields().get(0) instanceof MarcMappedLazyReader.LazyDataField);
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.hasErrors(), actual.hasErrors());
+    }
+
+    @Test
+    public void testInvalidUtf8IsLeftToStreamReader() throws Exception
+    {
+        // well-formed sequences of one to four bytes are decoded lazily
+        checkSameAsStreamReader(recordWithTitleBytes("\u00e9\u00e9".getBytes("UTF-8")), true);
+        checkSameAsStreamReader(recordWithTitleBytes("\u20ac!".getBytes("UTF-8")), true);
+        checkSameAsStreamReader(recordWithTitleBytes("\ud83d\ude00".getBytes("UTF-8")), true);
+
+        byte[][] malformed = {
+                { (byte) 0xFF, 'a', 'b', 'c' },                         // never valid
+                { (byte) 0xC3, 'a', 'b', 'c' },                         // missing continuation byte
+                { (byte) 0xC0, (byte) 0x80, 'a', 'b' },                 // overlong
+                { (byte) 0xE0, (byte) 0x80, (byte) 0x80, 'a' },         // overlong
+                { (byte) 0xED, (byte) 0xA0, (byte) 0x80, 'a' },         // surrogate
+                { (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80 }, // beyond U+10FFFF
+                { 'a', 'b', 'c', (byte) 0xE2 },                         // truncated by the next bytes
+        };
+        for (byte[] replacement : malformed)
+        {
+            checkSameAsStreamReader(recordWithTitleBytes(replacement), false);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.solrmarc.marc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.marc4j.marc.DataField;
+import org.marc4j.marc.MarcFactory;
+import org.marc4j.marc.Record;
+import org.marc4j.marc.VariableField;
+
+public class RecordFieldIndexTests
+{
+    private final static MarcFactory factory = MarcFactory.newInstance();
+    private final static String[][] TAG_SETS = {
+        { "000" }, { "001" }, { "008" }, { "100" }, { "245" }, { "650" }, { "600" }, { "880" }, { "999" }, { "ABC" },
+        { "LNK245" }, { "LNK245-02" }, { "LNK100-01" }, { "LNK650-03" },
+        { "600", "650" }, { "650", "600" }, { "650", "650" }, { "245", "LNK245-02" }, { "880", "LNK245-02" },
+        { "001", "ABC", "999", "650" }, { "000", "001", "100" } };
+
+    @After
+    public void tearDown()
+    {
+        RecordFieldIndex.clear();
+    }
+
+    private static DataField field(String tag, String... codesAndData)
+    {
+        DataField field = factory.newDataField(tag, ' ', ' ');
+        for (int i = 0; i < codesAndData.length; i += 2)
+        {
+            field.addSubfield(factory.newSubfield(codesAndData[i].charAt(0), codesAndData[i + 1]));
+        }
+        return(field);
+    }
+
+    private static Record record(String id)
+    {
+        Record record = factory.newRecord("00000nam a2200000 a 4500");
+        record.addVariableField(factory.newControlField("001", id));
+        record.addVariableField(factory.newControlField("008", "850101s1985    nyu           000 0 eng d"));
+        record.addVariableField(field("100", "a", "Author " + id, "6", "880-01"));
+        record.addVariableField(field("245", "a", "Title " + id, "6", "880-02"));
+        record.addVariableField(field("650", "a", "First subject"));
+        record.addVariableField(field("600", "a", "Person as subject"));
+        record.addVariableField(field("650", "a", "Second subject"));
+        record.addVariableField(field("880", "6", "100-01", "a", "Linked author"));
+        record.addVariableField(field("880", "6", "245-02", "a", "Linked title"));
+        record.addVariableField(field("650", "a", "Third subject"));
+        record.addVariableField(field("ABC", "a", "Local field"));
+        return(record);
+    }
+
+    /**
+     * Checks that the index returns the same fields, in the same order, as the record itself, for every set of tags.
+     */
+    private static void checkSameAsRecord(Record record)
+    {
+        for (String[] tags : TAG_SETS)
+        {
+            List<VariableField> expected = record.getVariableFields(tags);
+            List<VariableField> actual = RecordFieldIndex.getVariableFields(record, tags);
+            checkSameFields(expected, actual);
+            if (tags.length == 1)
+            {
+                checkSameFields(record.getVariableFields(tags[0]), RecordFieldIndex.getVariableFields(record, tags[0]));
+            }
+        }
+    }
+
+    private static void checkSameFields(List<VariableField> expected, List<VariableField> actual)
+    {
+        assertEquals(expected.toString(), actual.toString());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            // the leader is returned as a new pseudo-field, the other fields are the record's own
+            if (!expected.get(i).getTag().equals("000")) assertSame(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testRepeatedAndLinkedTags()
+    {
+        Record record = record("u1");
+        RecordFieldIndex.index(record);
+        checkSameAsRecord(record);
+
+        List<VariableField> subjects = RecordFieldIndex.getVariableFields(record, "650");
+        assertEquals(3, subjects.size());
+        assertTrue(subjects.get(2).toString().contains("Third subject"));
+        // as in Record, the linked 880 field's whole subfield 6 has to follow LNK
+        assertEquals(0, RecordFieldIndex.getVariableFields(record, "LNK245").size());
+        List<VariableField> linked = RecordFieldIndex.getVariableFields(record, "LNK245-02");
+        assertEquals(1, linked.size());
+        assertTrue(linked.get(0).toString().contains("Linked title"));
+        assertEquals(1, RecordFieldIndex.getVariableFields(record, "000").size());
+    }
+
+    @Test
+    public void testChangedFieldCountRebuildsIndex()
+    {
+        Record record = record("u1");
+        RecordFieldIndex.index(record);
+        checkSameAsRecord(record);
+
+        DataField added = field("650", "a", "Added subject");
+        record.addVariableField(added);
+        record.addVariableField(field("880", "6", "650-03", "a", "Linked subject"));
+        checkSameAsRecord(record);
+        List<VariableField> subjects = RecordFieldIndex.getVariableFields(record, "650");
+        assertEquals(4, subjects.size());
+        assertSame(added, subjects.get(3));
+        assertEquals(1, RecordFieldIndex.getVariableFields(record, "LNK650-03").size());
+
+        record.removeVariableField(record.getVariableField("600"));
+        record.removeVariableField(record.getVariableField("008"));
+        checkSameAsRecord(record);
+        assertEquals(0, RecordFieldIndex.getVariableFields(record, "600").size());
+    }
+
+    @Test
+    public void testReuseForAnotherRecord()
+    {
+        Record first = record("u1");
+        RecordFieldIndex.index(first);
+        checkSameAsRecord(first);
+
+        // the second record has none of the first record's subjects or linked fields
+        Record second = factory.newRecord("00000nam a2200000 a 4500");
+        second.addVariableField(factory.newControlField("001", "u2"));
+        second.addVariableField(field("245", "a", "Title u2"));
+        second.addVariableField(field("999", "a", "Holdings"));
+        RecordFieldIndex.index(second);
+        checkSameAsRecord(second);
+        assertEquals(0, RecordFieldIndex.getVariableFields(second, "650").size());
+        assertEquals(0, RecordFieldIndex.getVariableFields(second, new String[] { "ABC", "880" }).size());
+
+        // a record that isn't the one indexed is answered by the record itself
+        checkSameAsRecord(first);
+        assertEquals(3, RecordFieldIndex.getVariableFields(first, "650").size());
+
+        RecordFieldIndex.index(first);
+        checkSameAsRecord(first);
+        RecordFieldIndex.clear();
+        checkSameAsRecord(first);
+    }
+
+    @Test
+    public void testManyFields()
+    {
+        Record record = record("u1");
+        List<DataField> notes = new ArrayList<DataField>();
+        for (int i = 0; i < 600; i++)
+        {
+            DataField note = field((i % 2 == 0) ? "500" : "590", "a", "Note " + i);
+            notes.add(note);
+            record.addVariableField(note);
+        }
+        RecordFieldIndex.index(record);
+        checkSameAsRecord(record);
+        assertEquals(300, RecordFieldIndex.getVariableFields(record, "590").size());
+        List<VariableField> all = RecordFieldIndex.getVariableFields(record, new String[] { "590", "500" });
+        assertEquals(600, all.size());
+        for (int i = 0; i < 600; i++)
+        {
+            assertSame(notes.get(i), all.get(i));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.solrmarc.solr;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * Simple micro-benchmark comparing the per-call overhead of SolrClientProxy, which calls the client through
+ * bound MethodHandles, with calling the same client through Method.invoke as SolrClientProxy used to.
+ * The client does no work, so the times reported are purely the cost of the dispatch.
+ *
+ * Usage:  SolrClientProxyBenchmark [iterations]
+ */
+public class SolrClientProxyBenchmark
+{
+    private final static int DOCS_PER_ITERATION = 1000;
+
+    /**
+     * Stands in for a SolrJ client, with the methods that SolrClientProxy looks up.
+     */
+    public static class NullSolrClient
+    {
+        private final UpdateResponse response;
+
+        public NullSolrClient()
+        {
+            response = new UpdateResponse();
+            response.setResponse(new NamedList<Object>());
+        }
+
+        public UpdateResponse add(SolrInputDocument doc)
+        {
+            return response;
+        }
+
+        public UpdateResponse add(Collection<SolrInputDocument> docs)
+        {
+            return response;
+        }
+
+        public UpdateResponse commit()
+        {
+            return response;
+        }
+
+        public UpdateResponse optimize()
+        {
+            return response;
+        }
+
+        public UpdateResponse deleteById(String id)
+        {
+            return response;
+        }
+
+        public QueryResponse query(SolrParams params)
+        {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+        NullSolrClient client = new NullSolrClient();
+        SolrClientProxy proxy = new SolrClientProxy(client);
+        Method addDoc = NullSolrClient.class.getDeclaredMethod("add", SolrInputDocument.class);
+        List<SolrInputDocument> docs = new ArrayList<SolrInputDocument>(DOCS_PER_ITERATION);
+        for (int i = 0; i < DOCS_PER_ITERATION; i++)
+        {
+            SolrInputDocument doc = new SolrInputDocument();
+            doc.addField("id", "" + i);
+            docs.add(doc);
+        }
+        for (int round = 0; round < 3; round++)
+        {
+            long reflective = timeReflective(client, addDoc, docs, iterations);
+            long handles = timeProxy(proxy, docs, iterations);
+            System.out.println(String.format("round %d:  Method.invoke %8d ns per %d docs,  MethodHandle %8d ns per %d docs",
+                    round, reflective / iterations, DOCS_PER_ITERATION, handles / iterations, DOCS_PER_ITERATION));
+        }
+    }
+
+    private static long timeReflective(NullSolrClient client, Method addDoc, List<SolrInputDocument> docs, int iterations) throws Exception
+    {
+        int status = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+        {
+            for (SolrInputDocument doc : docs)
+            {
+                UpdateResponse resp = (UpdateResponse) addDoc.invoke(client, doc);
+                status += resp.getStatus();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (status != 0) System.out.println(status);
+        return(elapsed);
+    }
+
+    private static long timeProxy(SolrClientProxy proxy, List<SolrInputDocument> docs, int iterations)
+    {
+        int cnt = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+        {
+            for (SolrInputDocument doc : docs)
+            {
+                cnt += proxy.addDoc(doc);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (cnt != iterations * docs.size()) System.out.println(cnt);
+        return(elapsed);
+    }
+}
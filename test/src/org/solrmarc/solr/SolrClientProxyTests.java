@@ -0,0 +1,124 @@
+package org.solrmarc.solr;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.SolrParams;
+import org.junit.Test;
+
+public class SolrClientProxyTests
+{
+    /**
+     * Stands in for a SolrJ client, throwing whatever it is given from each of the methods that SolrClientProxy calls.
+     */
+    public static class ThrowingSolrClient
+    {
+        private final Throwable toThrow;
+
+        public ThrowingSolrClient(Throwable toThrow)
+        {
+            this.toThrow = toThrow;
+        }
+
+        private UpdateResponse throwIt() throws Throwable
+        {
+            throw toThrow;
+        }
+
+        public UpdateResponse add(SolrInputDocument doc) throws Throwable
+        {
+            return throwIt();
+        }
+
+        public UpdateResponse add(Collection<SolrInputDocument> docs) throws Throwable
+        {
+            return throwIt();
+        }
+
+        public UpdateResponse commit() throws Throwable
+        {
+            return throwIt();
+        }
+
+        public UpdateResponse optimize() throws Throwable
+        {
+            return throwIt();
+        }
+
+        public UpdateResponse deleteById(String id) throws Throwable
+        {
+            return throwIt();
+        }
+
+        public UpdateResponse deleteById(List<String> ids) throws Throwable
+        {
+            return throwIt();
+        }
+
+        public QueryResponse query(SolrParams params) throws Throwable
+        {
+            throwIt();
+            return null;
+        }
+    }
+
+    /**
+     * Calls each of the proxy's methods, checking that each throws what the client threw, or wraps it.
+     */
+    private static void checkEachMethod(Throwable thrown, boolean wrapped)
+    {
+        SolrProxy proxy = new SolrClientProxy(new ThrowingSolrClient(thrown));
+        for (int method = 0; method < 6; method++)
+        {
+            try
+            {
+                switch (method)
+                {
+                    case 0:  proxy.addDoc(new SolrInputDocument());  break;
+                    case 1:  proxy.addDocs(Collections.singletonList(new SolrInputDocument()));  break;
+                    case 2:  proxy.commit(false);  break;
+                    case 3:  proxy.delete("u1");  break;
+                    case 4:  proxy.deleteBatch(Collections.singletonList("u1"));  break;
+                    default: proxy.query(new SolrQuery("*:*"));  break;
+                }
+                fail("method " + method + " didn't throw");
+            }
+            catch (SolrRuntimeException e)
+            {
+                assertTrue("method " + method + " wrapped " + thrown, wrapped);
+                assertTrue(e.getCause() instanceof InvocationTargetException);
+                assertSame(thrown, e.getCause().getCause());
+            }
+            catch (Throwable e)
+            {
+                assertTrue("method " + method + " didn't wrap " + thrown, !wrapped);
+                assertSame(thrown, e);
+            }
+        }
+    }
+
+    @Test
+    public void testExceptionsAreWrapped()
+    {
+        checkEachMethod(new IOException("Connection refused"), true);
+        checkEachMethod(new IllegalStateException("Client is closed"), true);
+    }
+
+    @Test
+    public void testErrorsAreRethrown()
+    {
+        checkEachMethod(new OutOfMemoryError("Java heap space"), false);
+        checkEachMethod(new StackOverflowError(), false);
+    }
+}